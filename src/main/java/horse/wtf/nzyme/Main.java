@@ -18,6 +18,7 @@
 package horse.wtf.nzyme;
 
 import com.beust.jcommander.JCommander;
+import com.codahale.metrics.MetricRegistry;
 import com.typesafe.config.ConfigException;
 import horse.wtf.nzyme.configuration.CLIArguments;
 import horse.wtf.nzyme.configuration.IncompleteConfigurationException;
@@ -93,8 +94,10 @@ public class Main {
                 }
 
 
+                MetricRegistry metrics = new MetricRegistry();
+
                 // Database.
-                Database database = new Database(leaderConfiguration);
+                Database database = new Database(leaderConfiguration, metrics);
                 try {
                     database.initializeAndMigrate();
                 } catch (LiquibaseException e) {
@@ -102,7 +105,7 @@ public class Main {
                     System.exit(FAILURE);
                 }
 
-                NzymeLeader nzyme = new NzymeLeaderImpl(baseConfiguration, leaderConfiguration, database);
+                NzymeLeader nzyme = new NzymeLeaderImpl(baseConfiguration, leaderConfiguration, database, metrics);
 
                 try {
                     nzyme.initialize();
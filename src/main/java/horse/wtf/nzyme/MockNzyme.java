@@ -45,6 +45,7 @@ import horse.wtf.nzyme.notifications.Uplink;
 import horse.wtf.nzyme.ouis.OUIManager;
 import horse.wtf.nzyme.processing.FrameProcessor;
 import horse.wtf.nzyme.remote.forwarders.Forwarder;
+import horse.wtf.nzyme.rest.streaming.LiveUpdates;
 import horse.wtf.nzyme.scheduler.SchedulingService;
 import horse.wtf.nzyme.systemstatus.SystemStatus;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -61,6 +62,23 @@ import java.util.List;
 
 public  class MockNzyme implements NzymeLeader {
 
+    // All mock instances share one migrated database and connection pool.
+    private static Database sharedDatabase;
+
+    private static synchronized Database database(LeaderConfiguration configuration) {
+        if (sharedDatabase == null) {
+            Database database = new Database(configuration, new MetricRegistry());
+            try {
+                database.initializeAndMigrate();
+            } catch (LiquibaseException e) {
+                throw new RuntimeException(e);
+            }
+            sharedDatabase = database;
+        }
+
+        return sharedDatabase;
+    }
+
     private File loadFromResourceFile(String name) {
         URL resource = getClass().getClassLoader().getResource(name);
         if (resource == null) {
@@ -119,12 +137,7 @@ public  class MockNzyme implements NzymeLeader {
 
         this.frameProcessor = new FrameProcessor();
 
-        this.database = new Database(configuration);
-        try {
-            this.database.initializeAndMigrate();
-        } catch (LiquibaseException e) {
-            throw new RuntimeException(e);
-        }
+        this.database = database(configuration);
 
         this.database.useHandle(handle -> handle.execute("TRUNCATE sentry_ssids"));
 
@@ -259,6 +272,11 @@ public  class MockNzyme implements NzymeLeader {
         return null;
     }
 
+    @Override
+    public LiveUpdates getLiveUpdates() {
+        return null;
+    }
+
     @Override
     public GroundStation getGroundStation() {
         return null;
@@ -34,6 +34,7 @@ import horse.wtf.nzyme.events.EventService;
 import horse.wtf.nzyme.notifications.Uplink;
 import horse.wtf.nzyme.ouis.OUIManager;
 import horse.wtf.nzyme.processing.FrameProcessor;
+import horse.wtf.nzyme.rest.streaming.LiveUpdates;
 import horse.wtf.nzyme.scheduler.SchedulingService;
 import horse.wtf.nzyme.systemstatus.SystemStatus;
 
@@ -73,6 +74,8 @@ public interface NzymeLeader extends RemoteConnector {
     TrackerManager getTrackerManager();
     GroundStation getGroundStation();
 
+    LiveUpdates getLiveUpdates();
+
     SystemStatus getSystemStatus();
     EventService getEventService();
     SchedulingService getSchedulingService();
@@ -24,6 +24,7 @@ import com.codahale.metrics.jvm.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.typesafe.config.ConfigException;
@@ -73,6 +74,7 @@ import horse.wtf.nzyme.rest.resources.taps.StatusResource;
 import horse.wtf.nzyme.rest.resources.taps.TablesResource;
 import horse.wtf.nzyme.scheduler.SchedulingService;
 import horse.wtf.nzyme.rest.CORSFilter;
+import horse.wtf.nzyme.rest.EventStreamEncodingFilter;
 import horse.wtf.nzyme.rest.NzymeLeaderInjectionBinder;
 import horse.wtf.nzyme.rest.NzymeExceptionMapper;
 import horse.wtf.nzyme.rest.ObjectMapperProvider;
@@ -83,7 +85,12 @@ import horse.wtf.nzyme.rest.resources.authentication.AuthenticationResource;
 import horse.wtf.nzyme.rest.resources.system.AssetInventoryResource;
 import horse.wtf.nzyme.rest.resources.system.MetricsResource;
 import horse.wtf.nzyme.rest.resources.system.ProbesResource;
+import horse.wtf.nzyme.rest.resources.system.PrometheusMetricsResource;
 import horse.wtf.nzyme.rest.resources.system.SystemResource;
+import horse.wtf.nzyme.rest.streaming.AlertsUpdateSource;
+import horse.wtf.nzyme.rest.streaming.ContactsUpdateSource;
+import horse.wtf.nzyme.rest.streaming.LiveUpdates;
+import horse.wtf.nzyme.rest.streaming.NetworksUpdateSource;
 import horse.wtf.nzyme.rest.tls.SSLEngineConfiguratorBuilder;
 import horse.wtf.nzyme.systemstatus.SystemStatus;
 import horse.wtf.nzyme.util.MetricNames;
@@ -100,6 +107,7 @@ import org.glassfish.jersey.server.filter.EncodingFilter;
 import org.joda.time.DateTime;
 import org.quartz.SchedulerException;
 
+import java.io.File;
 import java.io.IOException;
 import java.security.Key;
 import java.util.List;
@@ -146,6 +154,7 @@ public class NzymeLeaderImpl implements NzymeLeader {
     private final AlertsService alerts;
     private final ContactManager contactManager;
     private final TrackerManager trackerManager;
+    private final LiveUpdates liveUpdates;
 
     private final Anonymizer anonymizer;
 
@@ -155,7 +164,7 @@ public class NzymeLeaderImpl implements NzymeLeader {
 
     private SchedulingService schedulingService;
 
-    public NzymeLeaderImpl(BaseConfiguration baseConfiguration, LeaderConfiguration configuration, Database database) {
+    public NzymeLeaderImpl(BaseConfiguration baseConfiguration, LeaderConfiguration configuration, Database database, MetricRegistry metrics) {
         this.version = new Version();
         this.nodeId = baseConfiguration.nodeId();
         this.signingKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
@@ -164,11 +173,11 @@ public class NzymeLeaderImpl implements NzymeLeader {
         this.uplinks = Lists.newArrayList();
         this.forwarders = Lists.newArrayList();
 
-        this.frameProcessor = new FrameProcessor();
+        this.frameProcessor = new FrameProcessor(configuration.frameProcessingShards());
 
         this.ignoredFingerprints = new AtomicReference<>(ImmutableList.<String>builder().build());
 
-        this.metrics = new MetricRegistry();
+        this.metrics = metrics;
         this.registry = new Registry();
         this.probes = Lists.newArrayList();
         this.systemStatus = new SystemStatus();
@@ -200,7 +209,7 @@ public class NzymeLeaderImpl implements NzymeLeader {
         this.systemStatus.setStatus(SystemStatus.TYPE.RUNNING);
         this.systemStatus.setStatus(SystemStatus.TYPE.TRAINING);
 
-        this.ouiManager = new OUIManager(this);
+        this.ouiManager = new OUIManager(this, new File(baseConfiguration.dataDirectory(), OUIManager.CACHE_FILE_NAME));
 
         this.alerts = new AlertsService(this);
         this.alerts.registerCallbacks(configuration.alertCallbacks());
@@ -208,6 +217,16 @@ public class NzymeLeaderImpl implements NzymeLeader {
 
         this.trackerManager = new TrackerManager();
 
+        this.liveUpdates = new LiveUpdates(
+                metrics,
+                ImmutableList.of(
+                        new NetworksUpdateSource(networks),
+                        new AlertsUpdateSource(alerts),
+                        new ContactsUpdateSource(contactManager)
+                ),
+                configuration.liveUpdatesIntervalSeconds()
+        );
+
         // Register event callbacks.
         this.eventService.subscribe(Event.TYPE.BROKEN_PROBE, event -> {
             BrokenProbeEvent bpe = (BrokenProbeEvent) event;
@@ -237,12 +256,8 @@ public class NzymeLeaderImpl implements NzymeLeader {
 
         LOG.info("Active alerts: {}", configuration.dot11Alerts());
 
-        // Initial OUI fetch. Not in periodical because this needs to be blocking.
-        try {
-            this.ouiManager.fetchAndUpdate();
-        } catch (IOException e) {
-            LOG.error("Could not initialize OUIs.", e);
-        }
+        // OUIs from local cache or bundled snapshot. The IEEE registry is fetched in the background by OUIUpdater.
+        this.ouiManager.initialize();
 
         // Metrics JMX reporter.
         final JmxReporter reporter = JmxReporter.forRegistry(metrics).build();
@@ -252,20 +267,22 @@ public class NzymeLeaderImpl implements NzymeLeader {
         metrics.register(MetricNames.DATABASE_SIZE, (Gauge<Long>) database::getTotalSize);
 
         // Register configured uplinks.
-        UplinkFactory uplinkFactory = new UplinkFactory(getNodeID());
+        UplinkFactory uplinkFactory = new UplinkFactory(getNodeID(), metrics);
         for (UplinkDefinition uplinkDefinition : configuration.uplinks()) {
             registerUplink(uplinkFactory.fromConfigurationDefinition(uplinkDefinition));
         }
 
         // Register configured forwarders.
-        ForwarderFactory forwarderFactory = new ForwarderFactory(getNodeID());
+        ForwarderFactory forwarderFactory = new ForwarderFactory(getNodeID(), getAnonymizer().isEnabled());
         for (ForwarderDefinition forwarderDefinition : configuration.forwarders()) {
             this.forwarders.add(forwarderFactory.fromConfigurationDefinition(forwarderDefinition));
         }
 
         // Start remote input if enabled.
         if (configuration.remoteInputAddress() != null) {
-            RemoteFrameInput input = new RemoteFrameInput(this, configuration.remoteInputAddress());
+            RemoteFrameInput input = new RemoteFrameInput(this, configuration.remoteInputAddress(),
+                    configuration.remoteInputReceiveBufferSize(), configuration.remoteInputWorkers(),
+                    ImmutableSet.copyOf(configuration.remoteInputTrustedSources()));
             Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
                     .setDaemon(true)
                     .setNameFormat("remote-input-%d")
@@ -282,7 +299,8 @@ public class NzymeLeaderImpl implements NzymeLeader {
 
         // Periodicals. (TODO: Replace with scheduler service)
         PeriodicalManager periodicalManager = new PeriodicalManager();
-        periodicalManager.scheduleAtFixedRate(new OUIUpdater(this), 12, 12, TimeUnit.HOURS);
+        periodicalManager.scheduleAtFixedRate(new OUIUpdater(this),
+                ouiManager.millisUntilRefresh(), TimeUnit.HOURS.toMillis(OUIManager.REFRESH_INTERVAL_HOURS), TimeUnit.MILLISECONDS);
         periodicalManager.scheduleAtFixedRate(new MeasurementsWriter(this), 1, 1, TimeUnit.MINUTES);
         periodicalManager.scheduleAtFixedRate(new MeasurementsCleaner(this), 0, 10, TimeUnit.MINUTES);
         periodicalManager.scheduleAtFixedRate(new BeaconRateWriter(this), 60, 60, TimeUnit.SECONDS);
@@ -304,11 +322,15 @@ public class NzymeLeaderImpl implements NzymeLeader {
             periodicalManager.scheduleAtFixedRate(new SignalTrackMonitor(this), 60, 60, TimeUnit.SECONDS);
         }
 
+        // Live updates for the web interface.
+        liveUpdates.start();
+
         // Spin up REST API and web interface.
         java.util.logging.Logger.getLogger("org.glassfish.grizzly").setLevel(Level.SEVERE);
         ResourceConfig resourceConfig = new ResourceConfig();
         resourceConfig.register(new AuthenticationFilter(this));
         resourceConfig.register(new CORSFilter());
+        resourceConfig.register(new EventStreamEncodingFilter());
         resourceConfig.register(new NzymeLeaderInjectionBinder(this));
         resourceConfig.register(new ObjectMapperProvider());
         resourceConfig.register(new JacksonJaxbJsonProvider());
@@ -329,6 +351,12 @@ public class NzymeLeaderImpl implements NzymeLeader {
         resourceConfig.register(ReportsResource.class);
         resourceConfig.register(StatusResource.class);
         resourceConfig.register(TablesResource.class);
+        resourceConfig.register(LiveUpdatesResource.class);
+
+        if (configuration.prometheusMetricsEnabled()) {
+            LOG.info("Exposing metrics for Prometheus at [/metrics].");
+            resourceConfig.register(PrometheusMetricsResource.class);
+        }
 
         // Enable GZIP.
         resourceConfig.registerClasses(EncodingFilter.class, GZipEncoder.class, DeflateEncoder.class);
@@ -418,6 +446,12 @@ public class NzymeLeaderImpl implements NzymeLeader {
             this.groundStation.stop();
         }
 
+        LOG.info("Stopping alert callbacks.");
+        this.alerts.shutdown();
+
+        LOG.info("Closing database connections.");
+        this.database.close();
+
         LOG.info("Shutdown complete.");
     }
 
@@ -434,6 +468,8 @@ public class NzymeLeaderImpl implements NzymeLeader {
                     m.channelHopCommand(),
                     m.skipEnableMonitor(),
                     m.maxIdleTimeSeconds(),
+                    m.adaptiveChannelHopping(),
+                    m.netlinkChannelSwitching(),
                     configuration.dot11Networks(),
                     configuration.dot11TrapDevices()
             ), frameProcessor, metrics, anonymizer, this,false);
@@ -536,6 +572,8 @@ public class NzymeLeaderImpl implements NzymeLeader {
                             td.channelHopCommand(),
                             td.skipEnableMonitor(),
                             60,
+                            false,
+                            true,
                             configuration.dot11Networks(),
                             configuration.dot11TrapDevices()
                     ), trap, metrics);
@@ -587,6 +625,11 @@ public class NzymeLeaderImpl implements NzymeLeader {
         return trackerManager;
     }
 
+    @Override
+    public LiveUpdates getLiveUpdates() {
+        return liveUpdates;
+    }
+
     @Override
     public GroundStation getGroundStation() {
         return groundStation;
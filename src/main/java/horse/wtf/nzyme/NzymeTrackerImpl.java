@@ -214,6 +214,8 @@ public class NzymeTrackerImpl implements NzymeTracker {
                     m.channelHopCommand(),
                     m.skipEnableMonitor(),
                     m.maxIdleTimeSeconds(),
+                    m.adaptiveChannelHopping(),
+                    m.netlinkChannelSwitching(),
                     null,
                     null
             ), frameProcessor, metrics, anonymizer, this,true);
@@ -17,13 +17,11 @@
 
 package horse.wtf.nzyme.alerts;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import horse.wtf.nzyme.Subsystem;
 import horse.wtf.nzyme.alerts.service.AlertDatabaseEntry;
 import horse.wtf.nzyme.alerts.service.AlertsService;
@@ -37,6 +35,7 @@ import org.joda.time.format.DateTimeFormatter;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
@@ -98,7 +97,6 @@ public abstract class Alert {
     private final AtomicReference<DateTime> lastSeen;
     private final AtomicLong frameCount;
     private final boolean useFrameCount;
-    private final ObjectMapper objectMapper;
 
     private final String description;
     private final String documentationLink;
@@ -128,8 +126,6 @@ public abstract class Alert {
         this.useFrameCount = useFrameCount;
 
         this.frameCount = new AtomicLong(frameCount);
-
-        this.objectMapper = new ObjectMapper();
     }
 
     public DateTime getFirstSeen() {
@@ -186,26 +182,37 @@ public abstract class Alert {
     }
 
     public String toJSONString() throws JsonProcessingException {
-        Map<String, Object> payload = Maps.newHashMap();
-
-        payload.put("first_seen", getFirstSeen().toString());
-        payload.put("last_seen", getLastSeen().toString());
-        payload.put("frame_count", getFrameCount());
-        payload.put("is_use_frame_count", isUseFrameCount());
-        payload.put("message", getMessage());
-        payload.put("type", getType());
-        payload.put("subsystem", getSubsystem());
-        payload.put("documentation_link", getDocumentationLink());
-        payload.put("description", getDescription());
-        payload.put("fields", getFields());
-        payload.put("false_positives", getFalsePositives());
-
-        return objectMapper.writeValueAsString(payload);
+        StringWriter out = new StringWriter(512);
+
+        try (JsonGenerator generator = AlertFields.MAPPER.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("first_seen", getFirstSeen().toString());
+            generator.writeStringField("last_seen", getLastSeen().toString());
+            generator.writeFieldName("frame_count");
+            AlertFields.writeValue(generator, getFrameCount());
+            generator.writeBooleanField("is_use_frame_count", isUseFrameCount());
+            generator.writeStringField("message", getMessage());
+            generator.writeStringField("type", getType().name());
+            generator.writeStringField("subsystem", getSubsystem().name());
+            generator.writeStringField("documentation_link", getDocumentationLink());
+            generator.writeStringField("description", getDescription());
+            generator.writeFieldName("fields");
+            AlertFields.write(generator, getFields());
+            generator.writeFieldName("false_positives");
+            AlertFields.writeValue(generator, getFalsePositives());
+            generator.writeEndObject();
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            // Cannot happen when writing to a String.
+            throw new RuntimeException("Could not serialize alert.", e);
+        }
+
+        return out.toString();
     }
 
     public static Alert serializeFromDatabase(AlertDatabaseEntry db) throws IOException {
-        ObjectMapper om = new ObjectMapper();
-        Map<String, Object> fields = om.readValue(db.fields(), new TypeReference<Map<String, Object>>(){});
+        Map<String, Object> fields = AlertFields.fromJSON(db.fields());
 
         Alert alert;
         switch (db.type()) {
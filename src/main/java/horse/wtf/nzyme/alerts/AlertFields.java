@@ -0,0 +1,130 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.alerts;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Maps;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Streaming (de)serialization of alert fields. Alert fields are flat maps of strings and numbers, so they are
+ * written and read token by token instead of going through the generic map (de)serializers. One shared, thread-safe
+ * mapper handles anything that is not a plain value.
+ */
+public final class AlertFields {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private AlertFields() {
+    }
+
+    public static String toJSON(Map<String, Object> fields) throws IOException {
+        StringWriter out = new StringWriter(64 + fields.size() * 32);
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            write(generator, fields);
+        }
+
+        return out.toString();
+    }
+
+    static void write(JsonGenerator generator, Map<String, Object> fields) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            generator.writeFieldName(field.getKey());
+            writeValue(generator, field.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Integer) {
+            generator.writeNumber((Integer) value);
+        } else if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if (value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else {
+            generator.writeObject(value);
+        }
+    }
+
+    /**
+     * Same types as reading into a Map<String, Object> with Jackson: Integer if the number fits, Long otherwise, Double
+     * for floating point numbers.
+     */
+    public static Map<String, Object> fromJSON(String json) throws IOException {
+        Map<String, Object> fields = Maps.newLinkedHashMapWithExpectedSize(8);
+
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Alert fields are not a JSON object.");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+
+                switch (token) {
+                    case VALUE_STRING:
+                        fields.put(name, parser.getText());
+                        break;
+                    case VALUE_NUMBER_INT:
+                        JsonParser.NumberType numberType = parser.getNumberType();
+                        if (numberType == JsonParser.NumberType.INT) {
+                            fields.put(name, parser.getIntValue());
+                        } else if (numberType == JsonParser.NumberType.LONG) {
+                            fields.put(name, parser.getLongValue());
+                        } else {
+                            fields.put(name, parser.getBigIntegerValue());
+                        }
+                        break;
+                    case VALUE_NUMBER_FLOAT:
+                        fields.put(name, parser.getDoubleValue());
+                        break;
+                    case VALUE_TRUE:
+                    case VALUE_FALSE:
+                        fields.put(name, parser.getBooleanValue());
+                        break;
+                    case VALUE_NULL:
+                        fields.put(name, null);
+                        break;
+                    default:
+                        // Nested objects or arrays.
+                        fields.put(name, MAPPER.readValue(parser, Object.class));
+                }
+            }
+        }
+
+        return fields;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.alerts.service;
+
+import com.google.auto.value.AutoValue;
+import horse.wtf.nzyme.alerts.Alert;
+
+import javax.annotation.Nullable;
+
+/**
+ * Identifies a stream of repeated alerts for rate limiting. Must be at least as specific as the
+ * {@link Alert#sameAs(Alert)} of the alert type so that collapsed frames are counted on the right alert.
+ */
+@AutoValue
+public abstract class AlertKey {
+
+    public abstract Alert.TYPE type();
+
+    @Nullable
+    public abstract String ssid();
+
+    @Nullable
+    public abstract String bssid();
+
+    /**
+     * Any additional field that {@link Alert#sameAs(Alert)} of the alert type compares. (security, fingerprint, ...)
+     */
+    @Nullable
+    public abstract Object discriminator();
+
+    public static AlertKey create(Alert.TYPE type, @Nullable String ssid, @Nullable String bssid) {
+        return create(type, ssid, bssid, null);
+    }
+
+    public static AlertKey create(Alert.TYPE type, @Nullable String ssid, @Nullable String bssid, @Nullable Object discriminator) {
+        return builder()
+                .type(type)
+                .ssid(ssid)
+                .bssid(bssid)
+                .discriminator(discriminator)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_AlertKey.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder type(Alert.TYPE type);
+
+        public abstract Builder ssid(String ssid);
+
+        public abstract Builder bssid(String bssid);
+
+        public abstract Builder discriminator(Object discriminator);
+
+        public abstract AlertKey build();
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.alerts.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import horse.wtf.nzyme.alerts.Alert;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per {@link AlertKey}. Frames that arrive while a bucket is empty do not create an alert. They are
+ * counted in the bucket and reported as the frame count of the next alert of that key, or by {@link #drain()}.
+ */
+public class AlertRateLimiter {
+
+    public static final double DEFAULT_ALERTS_PER_SECOND = 1.0;
+    public static final int DEFAULT_BURST = 2;
+
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(AlertsService.EXPIRY_MINUTES);
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final LongSupplier clock;
+
+    private final Map<AlertKey, Bucket> buckets;
+
+    public AlertRateLimiter() {
+        this(DEFAULT_ALERTS_PER_SECOND, DEFAULT_BURST, System::nanoTime);
+    }
+
+    /**
+     * @param clock Nanosecond clock. Only used to measure elapsed time.
+     */
+    public AlertRateLimiter(double alertsPerSecond, int burst, LongSupplier clock) {
+        this.tokensPerNano = alertsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.clock = clock;
+        this.buckets = Maps.newConcurrentMap();
+    }
+
+    /**
+     * @return The number of frames to report with a new alert, including all frames collapsed since the last alert of
+     *         this key. 0 if the bucket is empty and the frame was only counted.
+     */
+    public long acquire(AlertKey key, LongFunction<Alert> alert) {
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(burst, now));
+
+        synchronized (bucket) {
+            bucket.refill(now, tokensPerNano, burst);
+
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                long frames = bucket.suppressed + 1;
+                bucket.suppressed = 0;
+                bucket.pending = null;
+                return frames;
+            }
+
+            bucket.suppressed++;
+            bucket.pending = alert;
+            return 0;
+        }
+    }
+
+    /**
+     * Builds alerts for all frames that were counted but not reported yet and forgets buckets that have been idle for
+     * longer than alerts stay active.
+     */
+    public List<Alert> drain() {
+        long now = clock.getAsLong();
+        ImmutableList.Builder<Alert> alerts = new ImmutableList.Builder<>();
+
+        Iterator<Bucket> it = buckets.values().iterator();
+        while (it.hasNext()) {
+            Bucket bucket = it.next();
+            synchronized (bucket) {
+                if (bucket.suppressed > 0) {
+                    alerts.add(bucket.pending.apply(bucket.suppressed));
+                    bucket.suppressed = 0;
+                    bucket.pending = null;
+                } else if (now - bucket.lastSeen > IDLE_NANOS) {
+                    it.remove();
+                }
+            }
+        }
+
+        return alerts.build();
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long lastRefill;
+        private long lastSeen;
+
+        private long suppressed;
+        private LongFunction<Alert> pending;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+            this.lastSeen = now;
+        }
+
+        private void refill(long now, double tokensPerNano, double burst) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            lastSeen = now;
+        }
+
+    }
+
+}
@@ -17,65 +17,132 @@
 
 package horse.wtf.nzyme.alerts.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.codahale.metrics.Meter;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.alerts.AlertFields;
 import horse.wtf.nzyme.alerts.service.callbacks.AlertCallback;
+import horse.wtf.nzyme.util.MetricNames;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.Handle;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
 
 public class AlertsService {
 
     public static final int EXPIRY_MINUTES = 10;
 
+    // Alerts waiting for each callback type. Alerts are dropped (and counted) if a callback falls this far behind.
+    public static final int CALLBACK_QUEUE_SIZE = 1000;
+
     private static final Logger LOG = LogManager.getLogger(AlertsService.class);
 
     private static final String ALERTS_QUERY = "SELECT * FROM alerts ORDER BY last_seen DESC LIMIT :limit OFFSET :offset";
     private static final String ALERTS_24_HOURS_QUERY = "SELECT * FROM alerts WHERE last_seen >(current_timestamp at time zone 'UTC' - interval '24 hours') ORDER BY last_seen DESC LIMIT :limit";
     private static final String ACTIVE_ALERTS_QUERY = "SELECT * FROM alerts WHERE last_seen >(current_timestamp at time zone 'UTC' - interval '" + EXPIRY_MINUTES + " minutes') " +
             "ORDER BY last_seen DESC";
+    private static final String INSERT_ALERT_QUERY = "INSERT INTO alerts(alert_uuid, alert_type, subsystem, " +
+            "fields, first_seen, last_seen, frame_count, use_frame_count) " +
+            "VALUES(?, ?, ?, ?, (current_timestamp at time zone 'UTC'), (current_timestamp at time zone 'UTC'), ?, ?)";
+    private static final String UPDATE_ALERT_QUERY = "UPDATE alerts SET last_seen = (current_timestamp at time zone 'UTC'), " +
+            "frame_count = frame_count+? WHERE alert_uuid = ?";
 
     private final NzymeLeader nzyme;
 
     private final List<AlertCallback> callbacks;
 
+    // One single-threaded executor per callback type. A slow mail server or disk never blocks frame processing.
+    private final Map<Class<? extends AlertCallback>, ExecutorService> callbackExecutors;
+    private final Meter droppedCallbacks;
+
+    private final AlertRateLimiter rateLimiter;
+    private final Meter suppressedAlerts;
+    private volatile ScheduledExecutorService rateLimiterFlusher;
+
+    // Time of the last write to the alerts table. Used by REST resources to answer conditional requests.
+    private final AtomicLong lastModified;
+
     public AlertsService(NzymeLeader nzyme) {
         this.nzyme = nzyme;
-        this.callbacks = Lists.newArrayList();
+        this.callbacks = Lists.newCopyOnWriteArrayList();
+        this.callbackExecutors = Maps.newConcurrentMap();
+        this.droppedCallbacks = nzyme.getMetrics().meter(MetricNames.ALERT_CALLBACKS_DROPPED);
+        this.rateLimiter = new AlertRateLimiter();
+        this.suppressedAlerts = nzyme.getMetrics().meter(MetricNames.ALERTS_SUPPRESSED);
+        this.lastModified = new AtomicLong(System.currentTimeMillis());
     }
 
-    public void handle(Alert alert) {
-        // Check if this is already an active alert.
-        for (Map.Entry<UUID, Alert> entry : findActiveAlerts().entrySet()) {
-            Alert activeAlert = entry.getValue();
-            if(activeAlert.sameAs(alert)) {
-                // We've seen this alert before.
-                updateLastSeenAndFrameCount(activeAlert, 1);
-                return;
-            }
+    /**
+     * Rate limited alert for frame interceptors. The alert is only built and handled if the token bucket of the key is
+     * not empty. Otherwise, the frame is only counted and added to the frame count of the alert once the bucket allows
+     * it again, or after one second at the latest.
+     *
+     * @param alert Builds the alert with the given frame count.
+     */
+    public void handle(AlertKey key, LongFunction<Alert> alert) {
+        startRateLimiterFlusher();
+
+        long frames = rateLimiter.acquire(key, alert);
+        if (frames == 0) {
+            suppressedAlerts.mark();
+            return;
         }
 
-        // New alert.
-        UUID uuid = UUID.randomUUID();
-        alert.setUUID(uuid);
+        handle(alert.apply(frames));
+    }
+
+    // Synchronized because frames can be processed on several threads. (sharded frame processing)
+    public synchronized void handle(Alert alert) {
+        // Frames collapsed by the rate limiter are reported as the frame count.
+        int frames = alert.isUseFrameCount() ? Math.max(1, alert.getFrameCount().intValue()) : 1;
 
-        // Notify uplinks.
-        nzyme.notifyUplinksOfAlert(alert);
+        // Look up active alerts and write in one transaction.
+        boolean isNew = nzyme.getDatabase().inTransaction(handle -> {
+            // Check if this is already an active alert.
+            for (Alert activeAlert : buildAlertsMap(handle.createQuery(ACTIVE_ALERTS_QUERY)
+                    .mapTo(AlertDatabaseEntry.class)
+                    .list()).values()) {
+                if (activeAlert.sameAs(alert)) {
+                    // We've seen this alert before.
+                    updateLastSeenAndFrameCount(handle, activeAlert, frames);
+                    return false;
+                }
+            }
 
-        // Notify callbacks.
-        for (AlertCallback callback : callbacks) {
-            LOG.info("Triggering alert callback type [{}]", callback.getClass().getCanonicalName());
-            callback.call(alert);
-        }
+            // New alert.
+            alert.setUUID(UUID.randomUUID());
+            writeAlert(handle, alert, frames);
+            return true;
+        });
 
-        writeAlert(alert);
+        touch();
+
+        if (isNew) {
+            // Notify uplinks. (queued by the uplinks themselves)
+            nzyme.notifyUplinksOfAlert(alert);
+
+            // Notify callbacks.
+            for (AlertCallback callback : callbacks) {
+                dispatch(callback, alert);
+            }
+        }
     }
 
     public void registerCallbacks(List<AlertCallback> callbacks) {
@@ -90,6 +157,95 @@ public class AlertsService {
         this.callbacks.add(callback);
     }
 
+    /**
+     * Waits a few seconds for queued callbacks to complete and closes all callbacks.
+     */
+    public void shutdown() {
+        synchronized (rateLimiter) {
+            if (rateLimiterFlusher != null) {
+                rateLimiterFlusher.shutdown();
+            }
+        }
+        flushRateLimiter();
+
+        for (ExecutorService executor : callbackExecutors.values()) {
+            executor.shutdown();
+        }
+
+        for (ExecutorService executor : callbackExecutors.values()) {
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+            }
+        }
+
+        for (AlertCallback callback : callbacks) {
+            try {
+                callback.close();
+            } catch (Exception e) {
+                LOG.error("Could not close alert callback of type [{}].", callback.getClass().getCanonicalName(), e);
+            }
+        }
+    }
+
+    private void startRateLimiterFlusher() {
+        if (rateLimiterFlusher != null) {
+            return;
+        }
+
+        synchronized (rateLimiter) {
+            if (rateLimiterFlusher == null) {
+                ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("alert-rate-limiter-%d")
+                        .build());
+                flusher.scheduleWithFixedDelay(this::flushRateLimiter, 1, 1, TimeUnit.SECONDS);
+                rateLimiterFlusher = flusher;
+            }
+        }
+    }
+
+    // Reports the frames collapsed by the rate limiter so that frame counts of active alerts stay exact.
+    void flushRateLimiter() {
+        for (Alert alert : rateLimiter.drain()) {
+            try {
+                handle(alert);
+            } catch (Exception e) {
+                LOG.error("Could not handle rate limited alert.", e);
+            }
+        }
+    }
+
+    private void dispatch(AlertCallback callback, Alert alert) {
+        String type = callback.getClass().getSimpleName();
+        ExecutorService executor = callbackExecutors.computeIfAbsent(callback.getClass(), c ->
+                new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(CALLBACK_QUEUE_SIZE),
+                        new ThreadFactoryBuilder()
+                                .setDaemon(true)
+                                .setNameFormat("alert-callback-" + type + "-%d")
+                                .build())
+        );
+
+        try {
+            executor.execute(() -> {
+                LOG.info("Triggering alert callback type [{}]", type);
+                try {
+                    callback.call(alert);
+                } catch (Exception e) {
+                    LOG.error("Alert callback of type [{}] failed.", type, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Alert callback of type [{}] is too far behind. Dropping alert.", type);
+            droppedCallbacks.mark();
+        }
+    }
+
     public Alert findAlert(UUID id) throws IOException {
         return Alert.serializeFromDatabase(nzyme.getDatabase().withHandle(handle ->
                 handle.createQuery("SELECT * FROM alerts WHERE alert_uuid = :uuid")
@@ -126,6 +282,15 @@ public class AlertsService {
         ));
     }
 
+    public long getLastModified() {
+        return lastModified.get();
+    }
+
+    private void touch() {
+        // Strictly increasing, even for multiple writes within the same millisecond.
+        lastModified.accumulateAndGet(System.currentTimeMillis(), (previous, now) -> Math.max(previous + 1, now));
+    }
+
     public long countAllAlerts() {
         return nzyme.getDatabase().withHandle(handle ->
                 handle.createQuery("SELECT COUNT(*) FROM alerts;")
@@ -148,28 +313,26 @@ public class AlertsService {
         return alerts.build();
     }
 
-    private void writeAlert(Alert alert) {
+    private void writeAlert(Handle handle, Alert alert, int frameCount) {
         String fields;
         try {
-            fields = nzyme.getObjectMapper().writeValueAsString(alert.getFields());
-        } catch (JsonProcessingException e) {
+            fields = AlertFields.toJSON(alert.getFields());
+        } catch (IOException e) {
             throw new RuntimeException("Couldn't serialize alert fields.", e);
         }
 
-        nzyme.getDatabase().useHandle(handle -> handle.execute("INSERT INTO alerts(alert_uuid, alert_type, subsystem, " +
-                        "fields, first_seen, last_seen, frame_count, use_frame_count) " +
-                        "VALUES(?, ?, ?, ?, (current_timestamp at time zone 'UTC'), (current_timestamp at time zone 'UTC'), 1, ?)",
+        handle.execute(INSERT_ALERT_QUERY,
                 alert.getUUID(),
                 alert.getType(),
                 alert.getSubsystem(),
                 fields,
+                frameCount,
                 alert.isUseFrameCount()
-        ));
+        );
     }
 
-    private void updateLastSeenAndFrameCount(Alert alert, int frameIncrement) {
-        nzyme.getDatabase().useHandle(handle -> handle.execute("UPDATE alerts SET last_seen = (current_timestamp at time zone 'UTC'), frame_count = frame_count+? " +
-                "WHERE alert_uuid = ?", frameIncrement, alert.getUUID()));
+    private void updateLastSeenAndFrameCount(Handle handle, Alert alert, int frameIncrement) {
+        handle.execute(UPDATE_ALERT_QUERY, frameIncrement, alert.getUUID());
     }
 
 }
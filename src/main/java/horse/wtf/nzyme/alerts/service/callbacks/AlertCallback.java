@@ -23,4 +23,10 @@ public interface AlertCallback {
 
     void call(Alert alert);
 
+    /**
+     * Called once on shutdown, after the last alert has been handed to {@link #call(Alert)}.
+     */
+    default void close() {
+    }
+
 }
@@ -18,8 +18,10 @@
 package horse.wtf.nzyme.alerts.service.callbacks;
 
 import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.typesafe.config.Config;
 import freemarker.template.Template;
 import freemarker.template.TemplateExceptionHandler;
@@ -48,25 +50,66 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Sends alerts by email. Alerts are collected and sent as one digest email per time window so that a burst of alerts
+ * does not result in a burst of emails. A window with only one alert results in the regular, single alert email. A
+ * window of 0 seconds sends every alert immediately.
+ */
 public class EmailCallback implements AlertCallback {
 
     private static final Logger LOG = LogManager.getLogger(EmailCallback.class);
 
+    public static final int DEFAULT_DIGEST_WINDOW_SECONDS = 60;
+
     private final Configuration configuration;
-    private final Mailer mailer;
+    private final Consumer<Email> sender;
 
     private final freemarker.template.Configuration templateConfig;
 
+    private final Object mutex = new Object();
+    private List<Alert> pending;
+
+    @Nullable
+    private final ScheduledExecutorService digester;
+
     public EmailCallback(Configuration configuration) {
-        this.configuration = configuration;
-        this.mailer = MailerBuilder
+        this(configuration, MailerBuilder
                 .withSMTPServer(configuration.host(), configuration.port(), configuration.username(), configuration.password())
                 .withTransportStrategy(configuration.transportStrategy())
                 .clearEmailAddressCriteria()
-                .buildMailer();
+                .buildMailer());
+    }
+
+    private EmailCallback(Configuration configuration, Mailer mailer) {
+        this(configuration, mailer::sendMail);
+    }
+
+    EmailCallback(Configuration configuration, Consumer<Email> sender) {
+        this.configuration = configuration;
+        this.sender = sender;
+        this.pending = Lists.newArrayList();
+
+        if (configuration.digestWindowSeconds() > 0) {
+            this.digester = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("alert-email-digest-%d")
+                    .build());
+            this.digester.scheduleWithFixedDelay(
+                    this::sendDigest,
+                    configuration.digestWindowSeconds(),
+                    configuration.digestWindowSeconds(),
+                    TimeUnit.SECONDS
+            );
+        } else {
+            this.digester = null;
+        }
 
         // Set up template engine.
         this.templateConfig = new freemarker.template.Configuration(freemarker.template.Configuration.VERSION_2_3_30);
@@ -80,18 +123,62 @@ public class EmailCallback implements AlertCallback {
 
     @Override
     public void call(Alert alert) {
-        LOG.info("Sending alert email.");
+        if (digester == null) {
+            send(ImmutableList.of(alert));
+            return;
+        }
+
+        synchronized (mutex) {
+            pending.add(alert);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (digester != null) {
+            digester.shutdown();
+            sendDigest();
+        }
+    }
+
+    void sendDigest() {
+        List<Alert> alerts;
+        synchronized (mutex) {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            alerts = pending;
+            pending = Lists.newArrayList();
+        }
+
+        send(alerts);
+    }
+
+    private void send(List<Alert> alerts) {
+        LOG.info("Sending alert email for <{}> alert(s).", alerts.size());
         try {
-            Email email = EmailBuilder.startingBlank()
-                    .to(configuration.recipients())
-                    .from(configuration.from())
-                    .withSubject(configuration.subjectPrefix() + " " + buildSubject(alert))
-                    .withPlainText(buildPlainTextBody(alert))
-                    .withHTMLText(buildHTMLTextBody(alert))
-                    .withEmbeddedImage("nzyme_logo", loadLogoFile(), "image/png")
-                    .buildEmail();
-
-            mailer.sendMail(email);
+            Email email;
+            if (alerts.size() == 1) {
+                Alert alert = alerts.get(0);
+                email = EmailBuilder.startingBlank()
+                        .to(configuration.recipients())
+                        .from(configuration.from())
+                        .withSubject(configuration.subjectPrefix() + " " + buildSubject(alert))
+                        .withPlainText(buildPlainTextBody(alert))
+                        .withHTMLText(buildHTMLTextBody(alert))
+                        .withEmbeddedImage("nzyme_logo", loadLogoFile(), "image/png")
+                        .buildEmail();
+            } else {
+                email = EmailBuilder.startingBlank()
+                        .to(configuration.recipients())
+                        .from(configuration.from())
+                        .withSubject(configuration.subjectPrefix() + " " + buildDigestSubject(alerts))
+                        .withPlainText(buildDigestPlainTextBody(alerts))
+                        .buildEmail();
+            }
+
+            sender.accept(email);
         } catch(Exception e) {
             LOG.error("Could not send Email.", e);
         }
@@ -101,6 +188,23 @@ public class EmailCallback implements AlertCallback {
         return "Alert [" + alert.getSubsystem() + "/" + alert.getType().toString() + "]";
     }
 
+    private String buildDigestSubject(List<Alert> alerts) {
+        return alerts.size() + " Alerts";
+    }
+
+    private String buildDigestPlainTextBody(List<Alert> alerts) throws URISyntaxException {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(alerts.size()).append(" alerts were raised in the last ")
+                .append(configuration.digestWindowSeconds()).append(" seconds.");
+
+        for (Alert alert : alerts) {
+            sb.append("\n\n---\n\n").append(buildSubject(alert)).append("\n\n").append(buildPlainTextBody(alert));
+        }
+
+        return sb.toString();
+    }
+
     private String buildPlainTextBody(Alert alert) throws URISyntaxException {
         StringBuilder sb = new StringBuilder();
 
@@ -180,6 +284,16 @@ public class EmailCallback implements AlertCallback {
             recipients.add(Tools.parseEmailAddress(rec));
         }
 
+        int digestWindowSeconds = DEFAULT_DIGEST_WINDOW_SECONDS;
+        if (c.hasPath(ConfigurationKeys.DIGEST_WINDOW_SECONDS)) {
+            ConfigurationValidator.expect(c, ConfigurationKeys.DIGEST_WINDOW_SECONDS, WHERE, Integer.class);
+            digestWindowSeconds = c.getInt(ConfigurationKeys.DIGEST_WINDOW_SECONDS);
+
+            if (digestWindowSeconds < 0) {
+                throw new InvalidConfigurationException("Parameter [" + WHERE + "." + ConfigurationKeys.DIGEST_WINDOW_SECONDS + "] must not be negative.");
+            }
+        }
+
         return Configuration.create(
                 transportStrategy,
                 c.getString(ConfigurationKeys.HOST),
@@ -189,7 +303,8 @@ public class EmailCallback implements AlertCallback {
                 recipients,
                 Tools.parseEmailAddress(c.getString(ConfigurationKeys.FROM)), // recipient type is ignored
                 c.getString(ConfigurationKeys.SUBJECT_PREFIX),
-                httpExternalUri
+                httpExternalUri,
+                digestWindowSeconds
         );
     }
 
@@ -208,7 +323,9 @@ public class EmailCallback implements AlertCallback {
 
         public abstract String httpExternalURI();
 
-        public static Configuration create(TransportStrategy transportStrategy, String host, int port, String username, String password, List<Recipient> recipients, Recipient from, String subjectPrefix, String httpExternalURI) {
+        public abstract int digestWindowSeconds();
+
+        public static Configuration create(TransportStrategy transportStrategy, String host, int port, String username, String password, List<Recipient> recipients, Recipient from, String subjectPrefix, String httpExternalURI, int digestWindowSeconds) {
             return builder()
                     .transportStrategy(transportStrategy)
                     .host(host)
@@ -219,6 +336,7 @@ public class EmailCallback implements AlertCallback {
                     .from(from)
                     .subjectPrefix(subjectPrefix)
                     .httpExternalURI(httpExternalURI)
+                    .digestWindowSeconds(digestWindowSeconds)
                     .build();
         }
 
@@ -246,6 +364,8 @@ public class EmailCallback implements AlertCallback {
 
             public abstract Builder httpExternalURI(String httpExternalURI);
 
+            public abstract Builder digestWindowSeconds(int digestWindowSeconds);
+
             public abstract Configuration build();
         }
     }
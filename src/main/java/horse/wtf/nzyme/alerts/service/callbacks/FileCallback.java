@@ -19,26 +19,65 @@ package horse.wtf.nzyme.alerts.service.callbacks;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.auto.value.AutoValue;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.typesafe.config.Config;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.configuration.ConfigurationKeys;
 import horse.wtf.nzyme.configuration.ConfigurationValidator;
 import horse.wtf.nzyme.configuration.IncompleteConfigurationException;
 import horse.wtf.nzyme.configuration.InvalidConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends alerts as JSON lines to a file. The file is kept open and flushed once per second. It is rotated to
+ * <em>path.1</em> (and older files to <em>path.2</em> and so on) once it grows beyond the configured size.
+ */
 public class FileCallback implements AlertCallback {
 
+    private static final Logger LOG = LogManager.getLogger(FileCallback.class);
+
+    public static final int DEFAULT_MAX_SIZE_MB = 100;
+    public static final int ROTATED_FILES = 5;
+
+    private static final int FLUSH_INTERVAL_SECONDS = 1;
+
     private final Path path;
-    private Object mutex = new Object();
+    private final long maxSizeBytes;
+
+    private final Object mutex = new Object();
+    private final ScheduledExecutorService flusher;
+
+    private BufferedWriter writer;
+    private long size;
 
     public FileCallback(Configuration config) {
-        path = config.path();
+        this.path = config.path();
+        this.maxSizeBytes = config.maxSizeMb() * 1024L * 1024L;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("alert-file-flusher-%d")
+                .build());
+        this.flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                LOG.error("Could not flush alert callback file.", e);
+            }
+        }, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     @Override
@@ -51,26 +90,81 @@ public class FileCallback implements AlertCallback {
         }
 
         synchronized (mutex) {
-            if (!Files.exists(path)) {
+            try {
+                if (writer == null) {
+                    open();
+                }
+
+                writer.write(payload);
+                writer.write('\n');
+                size += payload.getBytes(StandardCharsets.UTF_8).length + 1;
+
+                if (size >= maxSizeBytes) {
+                    rotate();
+                }
+            } catch (IOException e) {
+                closeQuietly();
+                throw new RuntimeException("Could not write to alert callback file.", e);
+            }
+        }
+    }
+
+    public void flush() throws IOException {
+        synchronized (mutex) {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+
+        synchronized (mutex) {
+            if (writer != null) {
                 try {
-                    Files.createFile(path);
+                    writer.close();
                 } catch (IOException e) {
-                    throw new RuntimeException("Could not create alert callback file.", e);
+                    LOG.error("Could not close alert callback file.", e);
                 }
+                writer = null;
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        size = Files.size(path);
+    }
+
+    private void rotate() throws IOException {
+        writer.close();
+        writer = null;
+
+        for (int i = ROTATED_FILES - 1; i >= 1; i--) {
+            Path older = rotated(i);
+            if (Files.exists(older)) {
+                Files.move(older, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
             }
+        }
+        Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
 
-            FileOutputStream out = null;
+        open();
+    }
+
+    private Path rotated(int i) {
+        return path.resolveSibling(path.getFileName() + "." + i);
+    }
+
+    private void closeQuietly() {
+        if (writer != null) {
             try {
-                out = new FileOutputStream(path.toFile(), true);
-                out.write(payload.getBytes());
-                out.write("\n".getBytes());
-            }catch (Exception e) {
-                throw new RuntimeException("Could not write to alert callback file.", e);
-            } finally {
-                if (out != null) {
-                    try { out.close(); } catch (IOException e) { throw new RuntimeException(e); }
-                }
+                writer.close();
+            } catch (IOException ignored) {
             }
+            writer = null;
         }
     }
 
@@ -92,17 +186,29 @@ public class FileCallback implements AlertCallback {
             throw new InvalidConfigurationException("File [" + filePath + "] exists but is not writable.");
         }
 
-        return Configuration.create(filePath);
+        int maxSizeMb = DEFAULT_MAX_SIZE_MB;
+        if (c.hasPath(ConfigurationKeys.MAX_SIZE_MB)) {
+            ConfigurationValidator.expect(c, ConfigurationKeys.MAX_SIZE_MB, WHERE, Integer.class);
+            maxSizeMb = c.getInt(ConfigurationKeys.MAX_SIZE_MB);
+
+            if (maxSizeMb <= 0) {
+                throw new InvalidConfigurationException("Parameter [" + WHERE + "." + ConfigurationKeys.MAX_SIZE_MB + "] must be greater than 0.");
+            }
+        }
+
+        return Configuration.create(filePath, maxSizeMb);
     }
 
     @AutoValue
     public static abstract class Configuration {
 
         public abstract Path path();
+        public abstract int maxSizeMb();
 
-        public static Configuration create(Path path) {
+        public static Configuration create(Path path, int maxSizeMb) {
             return builder()
                     .path(path)
+                    .maxSizeMb(maxSizeMb)
                     .build();
         }
 
@@ -114,6 +220,8 @@ public class FileCallback implements AlertCallback {
         public abstract static class Builder {
             public abstract Builder path(Path path);
 
+            public abstract Builder maxSizeMb(int maxSizeMb);
+
             public abstract Configuration build();
         }
 
@@ -17,8 +17,13 @@
 
 package horse.wtf.nzyme.bandits.engine;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.Role;
 import horse.wtf.nzyme.alerts.Alert;
@@ -35,6 +40,7 @@ import org.joda.time.DateTime;
 
 import javax.validation.constraints.Null;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class ContactManager implements ContactIdentifierProcess {
@@ -43,7 +49,6 @@ public class ContactManager implements ContactIdentifierProcess {
 
     private final NzymeLeader nzyme;
 
-    private ImmutableMap<UUID, Contact> contacts;
     private ImmutableMap<UUID, Bandit> bandits;
 
     private final ContactIdentifierEngine identifierEngine;
@@ -51,6 +56,27 @@ public class ContactManager implements ContactIdentifierProcess {
 
     private static final int CONTACT_RECORDER_SYNC_FREQ = 60;
 
+    private static final String INSERT_IDENTIFIER_QUERY = "INSERT INTO bandit_identifiers(bandit_id, identifier_uuid, " +
+            "identifier_type, configuration, created_at, updated_at) VALUES(:bandit_id, :identifier_uuid, " +
+            ":identifier_type, :configuration, (current_timestamp at time zone 'UTC'), (current_timestamp at time zone 'UTC'))";
+    private static final String CONTACT_FRAME_QUERY = "UPDATE contacts SET frame_count = frame_count+1, " +
+            "last_seen = (current_timestamp at time zone 'UTC'), last_signal = :last_signal " +
+            "WHERE contact_uuid = (SELECT contact_uuid FROM contacts WHERE bandit_id = :bandit_id " +
+            "AND source_name = :source_name " +
+            "AND last_seen > (current_timestamp at time zone 'UTC' - interval '" + TrackTimeout.MINUTES + " minutes') LIMIT 1) " +
+            "RETURNING contact_uuid";
+    private static final String RECORDING_HISTOGRAM_QUERY = "SELECT frame_count, rssi_average AS signal_strength, created_at " +
+            "FROM contact_records WHERE contact_uuid = :contact_uuid AND record_type = :record_type AND record_value = :value " +
+            "ORDER BY created_at DESC LIMIT :limit";
+
+    public static final int DEFAULT_CONTACTS_LIMIT = 50;
+
+    // Incremented on every write to bandits or contacts. Used by REST resources to answer conditional requests.
+    private final AtomicLong generation = new AtomicLong(0);
+
+    // Frames of the same bandit can be identified on several threads. (sharded frame processing)
+    private final Object newContactMutex = new Object();
+
     public ContactManager(NzymeLeader nzyme) {
         this.nzyme = nzyme;
 
@@ -65,6 +91,10 @@ public class ContactManager implements ContactIdentifierProcess {
         return contactRecorder;
     }
 
+    public long getGeneration() {
+        return generation.get();
+    }
+
     public long registerBandit(Bandit bandit) {
         AtomicReference<Long> banditId = new AtomicReference<>();
         nzyme.getDatabase().useHandle(x -> x.inTransaction(handle -> {
@@ -88,8 +118,7 @@ public class ContactManager implements ContactIdentifierProcess {
                         throw new RuntimeException(e);
                     }
 
-                    handle.createUpdate("INSERT INTO bandit_identifiers(bandit_id, identifier_uuid, identifier_type, configuration, created_at, updated_at) " +
-                            "VALUES(:bandit_id, :identifier_uuid, :identifier_type, :configuration, (current_timestamp at time zone 'UTC'), (current_timestamp at time zone 'UTC'))")
+                    handle.createUpdate(INSERT_IDENTIFIER_QUERY)
                             .bind("bandit_id", banditId.get())
                             .bind("identifier_uuid", identifier.getUuid())
                             .bind("identifier_type", identifier.descriptor().type())
@@ -102,6 +131,8 @@ public class ContactManager implements ContactIdentifierProcess {
         }));
 
         this.bandits = null;
+        generation.incrementAndGet();
+
         return banditId.get();
     }
 
@@ -111,15 +142,17 @@ public class ContactManager implements ContactIdentifierProcess {
                 name, description, uuid
         ));
         this.bandits = null;
+        generation.incrementAndGet();
     }
 
     public void removeBandit(UUID uuid) {
         nzyme.getDatabase().useHandle(handle -> handle.execute("DELETE FROM bandits WHERE bandit_uuid = ?", uuid));
         this.bandits = null;
+        generation.incrementAndGet();
     }
 
     public void registerIdentifier(Bandit bandit, BanditIdentifier identifier) {
-        nzyme.getDatabase().useHandle(handle -> {
+        nzyme.getDatabase().useTransaction(handle -> {
             String configuration;
             try {
                 configuration = nzyme.getObjectMapper().writeValueAsString(identifier.configuration());
@@ -127,8 +160,7 @@ public class ContactManager implements ContactIdentifierProcess {
                 throw new RuntimeException(e);
             }
 
-            handle.createUpdate("INSERT INTO bandit_identifiers(bandit_id, identifier_uuid, identifier_type, configuration, created_at, updated_at) " +
-                    "VALUES(:bandit_id, :identifier_uuid, :identifier_type, :configuration, (current_timestamp at time zone 'UTC'), (current_timestamp at time zone 'UTC'))")
+            handle.createUpdate(INSERT_IDENTIFIER_QUERY)
                     .bind("bandit_id", bandit.databaseId())
                     .bind("identifier_uuid", UUID.randomUUID())
                     .bind("identifier_type", identifier.descriptor().type())
@@ -140,11 +172,13 @@ public class ContactManager implements ContactIdentifierProcess {
                     .execute();
         });
         this.bandits = null;
+        generation.incrementAndGet();
     }
 
     public void removeIdentifier(UUID uuid) {
         nzyme.getDatabase().useHandle(handle -> handle.execute("DELETE FROM bandit_identifiers WHERE identifier_uuid = ?", uuid));
         this.bandits = null;
+        generation.incrementAndGet();
 
     }
 
@@ -173,21 +207,26 @@ public class ContactManager implements ContactIdentifierProcess {
             return bandits;
         }
 
-        List<Bandit> bandits = nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT * FROM bandits ORDER BY updated_at DESC;")
-                        .mapTo(Bandit.class)
-                        .list()
-        );
+        // All bandits and all their identifiers in two queries, instead of one query per bandit.
+        List<Bandit> bandits = Lists.newArrayList();
+        ListMultimap<Long, BanditIdentifier> identifiersOfBandits = ArrayListMultimap.create();
+        nzyme.getDatabase().useTransaction(handle -> {
+            bandits.addAll(handle.createQuery("SELECT * FROM bandits ORDER BY updated_at DESC;")
+                    .mapTo(Bandit.class)
+                    .list());
+
+            handle.createQuery("SELECT * FROM bandit_identifiers ORDER BY id")
+                    .map((rs, ctx) -> Maps.immutableEntry(
+                            rs.getLong("bandit_id"),
+                            ctx.findRowMapperFor(BanditIdentifier.class).orElseThrow().map(rs, ctx)
+                    ))
+                    .forEach(e -> identifiersOfBandits.put(e.getKey(), e.getValue()));
+        });
 
         ImmutableMap.Builder<UUID, Bandit> result = new ImmutableMap.Builder<>();
 
         for (Bandit x : bandits) {
-            List<BanditIdentifier> identifiers = nzyme.getDatabase().withHandle(handle ->
-                    handle.createQuery("SELECT * FROM bandit_identifiers WHERE bandit_id = :bandit_id")
-                            .bind("bandit_id", x.databaseId())
-                            .mapTo(BanditIdentifier.class)
-                            .list()
-            );
+            List<BanditIdentifier> identifiers = identifiersOfBandits.get(x.databaseId());
 
             Bandit bandit = Bandit.create(
                     x.databaseId(),
@@ -247,7 +286,7 @@ public class ContactManager implements ContactIdentifierProcess {
                 .bind("source_name", contact.sourceName())
                 .execute()
         );
-        this.contacts = null;
+        generation.incrementAndGet();
     }
 
     public void registerTrackerContactStatus(TrackerMessage.ContactStatus status) {
@@ -290,29 +329,23 @@ public class ContactManager implements ContactIdentifierProcess {
     }
 
     public void registerContactFrame(Bandit bandit, String sourceName, int rssi, String bssid, Optional<String> ssid) {
-        UUID contactUUID = nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT contact_uuid FROM contacts WHERE bandit_id = :bandit_id AND source_name = :source_name AND last_seen > (current_timestamp at time zone 'UTC' - interval '" + TrackTimeout.MINUTES + " minutes')")
+        // Find and update the active contact in one statement.
+        Optional<UUID> updated = nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery(CONTACT_FRAME_QUERY)
                         .bind("source_name", sourceName)
                         .bind("last_signal", rssi)
                         .bind("bandit_id", bandit.databaseId())
                         .mapTo(UUID.class)
-                        .first()
+                        .findFirst()
         );
 
-        if (contactUUID != null) {
-            nzyme.getDatabase().useHandle(handle -> handle.createUpdate("UPDATE contacts SET frame_count = frame_count+1, " +
-                            "last_seen = (current_timestamp at time zone 'UTC'), last_signal = :last_signal " +
-                            "WHERE contact_uuid = :contact_uuid")
-                    .bind("last_signal", rssi)
-                    .bind("contact_uuid", contactUUID)
-                    .execute()
-            );
+        if (updated.isPresent()) {
+            UUID contactUUID = updated.get();
 
             // Register frame in contact recorder for tracking.
             this.contactRecorder.recordFrame(contactUUID, rssi, bssid, ssid);
 
-            // TODO: this will cause way too many queries. find a better way.
-            this.contacts = null;
+            generation.incrementAndGet();
         }
     }
 
@@ -334,6 +367,40 @@ public class ContactManager implements ContactIdentifierProcess {
         }
     }
 
+    /**
+     * Record values of many contacts with a single query, instead of one query per contact and record type.
+     */
+    public Table<UUID, ContactRecorder.RECORD_TYPE, List<ContactRecordAggregation>> findRecordValuesOfContacts(Collection<UUID> contactUUIDs) {
+        Table<UUID, ContactRecorder.RECORD_TYPE, List<ContactRecordAggregation>> result = HashBasedTable.create();
+        if (contactUUIDs.isEmpty()) {
+            return result;
+        }
+
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT contact_uuid, record_type, record_value, SUM(frame_count) AS frame_count " +
+                                "FROM contact_records WHERE contact_uuid IN (<contact_uuids>) " +
+                                "GROUP BY contact_uuid, record_type, record_value ORDER BY frame_count DESC")
+                        .bindList("contact_uuids", Lists.newArrayList(contactUUIDs))
+                        .reduceRows(result, (table, row) -> {
+                            UUID contactUUID = UUID.fromString(row.getColumn("contact_uuid", String.class));
+                            ContactRecorder.RECORD_TYPE type = ContactRecorder.RECORD_TYPE.valueOf(row.getColumn("record_type", String.class));
+
+                            List<ContactRecordAggregation> values = table.get(contactUUID, type);
+                            if (values == null) {
+                                values = Lists.newArrayList();
+                                table.put(contactUUID, type, values);
+                            }
+
+                            values.add(ContactRecordAggregation.create(
+                                    row.getColumn("frame_count", Long.class),
+                                    row.getColumn("record_value", String.class)
+                            ));
+
+                            return table;
+                        })
+        );
+    }
+
     public Optional<Map<String, List<ContactRecorderHistogramEntry>>> findRecordingHistogramsOfContact(UUID contactUUID, List<String> values, ContactRecorder.RECORD_TYPE type) {
         if (values.isEmpty()) {
             return Optional.empty();
@@ -341,21 +408,18 @@ public class ContactManager implements ContactIdentifierProcess {
 
         Map<String, List<ContactRecorderHistogramEntry>> result = Maps.newHashMap();
 
-        for (String value : values) {
-            List<ContactRecorderHistogramEntry> entries = nzyme.getDatabase().withHandle(handle ->
-                    handle.createQuery("SELECT frame_count, rssi_average AS signal_strength, created_at FROM contact_records " +
-                                    "WHERE contact_uuid = :contact_uuid AND record_type = :record_type AND record_value = :value " +
-                                    "ORDER BY created_at DESC LIMIT :limit")
-                            .bind("contact_uuid", contactUUID)
-                            .bind("record_type", type)
-                            .bind("value", value)
-                            .bind("limit", 86400/CONTACT_RECORDER_SYNC_FREQ) // max 1 day
-                            .mapTo(ContactRecorderHistogramEntry.class)
-                            .list()
-            );
-
-            result.put(value, entries);
-        }
+        // One handle and one shared statement for all values.
+        nzyme.getDatabase().useHandle(handle -> {
+            for (String value : values) {
+                result.put(value, handle.createQuery(RECORDING_HISTOGRAM_QUERY)
+                        .bind("contact_uuid", contactUUID)
+                        .bind("record_type", type)
+                        .bind("value", value)
+                        .bind("limit", 86400/CONTACT_RECORDER_SYNC_FREQ) // max 1 day
+                        .mapTo(ContactRecorderHistogramEntry.class)
+                        .list());
+            }
+        });
 
         return Optional.of(result);
     }
@@ -372,17 +436,29 @@ public class ContactManager implements ContactIdentifierProcess {
                 .execute()
         );
 
-        // TODO: this will cause way too many queries. find a better way.
-        this.contacts = null;
+        generation.incrementAndGet();
     }
 
-    public Map<UUID, Contact> findContacts() {
-        return findContacts(Integer.MAX_VALUE, 0);
+    public long countActiveContacts() {
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT COUNT(*) FROM contacts " +
+                                "WHERE last_seen > (current_timestamp at time zone 'UTC' - interval '" + TrackTimeout.MINUTES + " minutes')")
+                        .mapTo(Long.class)
+                        .first()
+        );
     }
 
     public Map<UUID, Contact> findContacts(int limit, int offset) {
+        return findContacts(0, limit, offset);
+    }
+
+    /**
+     * @param maxAgeMinutes Only contacts seen within this many minutes. 0 for no time bound.
+     */
+    public Map<UUID, Contact> findContacts(int maxAgeMinutes, int limit, int offset) {
         List<Contact> contacts = nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT * FROM contacts ORDER BY last_seen DESC LIMIT :limit OFFSET :offset")
+                handle.createQuery("SELECT * FROM contacts WHERE " + seenWithin(maxAgeMinutes) + " " +
+                                "ORDER BY last_seen DESC LIMIT :limit OFFSET :offset")
                         .bind("limit", limit)
                         .bind("offset", offset)
                         .mapTo(Contact.class)
@@ -404,19 +480,72 @@ public class ContactManager implements ContactIdentifierProcess {
             ));
         }
 
-        this.contacts = result.build();
-        return this.contacts;
+        return result.build();
+    }
+
+    public List<Contact> findContactsOfBandit(Bandit bandit, int limit, int offset) {
+        return findContactsOfBandit(bandit, 0, limit, offset);
     }
 
-    public List<Contact> findContactsOfBandit(Bandit bandit) {
+    /**
+     * @param maxAgeMinutes Only contacts seen within this many minutes. 0 for no time bound.
+     */
+    public List<Contact> findContactsOfBandit(Bandit bandit, int maxAgeMinutes, int limit, int offset) {
         return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT * FROM contacts WHERE bandit_id = :bandit_id ORDER BY last_seen DESC LIMIT 50")
+                handle.createQuery("SELECT * FROM contacts WHERE bandit_id = :bandit_id AND " + seenWithin(maxAgeMinutes) + " " +
+                                "ORDER BY last_seen DESC LIMIT :limit OFFSET :offset")
                         .bind("bandit_id", bandit.databaseId())
+                        .bind("limit", limit)
+                        .bind("offset", offset)
                         .mapTo(Contact.class)
                         .list()
         );
     }
 
+    /**
+     * The most recent contacts of many bandits with a single query, instead of one query per bandit.
+     *
+     * @return Contacts by database ID of their bandit, most recent first.
+     */
+    public Map<Long, List<Contact>> findContactsOfBandits(Collection<Bandit> bandits, int limitPerBandit) {
+        return findContactsOfBandits(bandits, 0, limitPerBandit);
+    }
+
+    /**
+     * @param maxAgeMinutes Only contacts seen within this many minutes. 0 for no time bound.
+     */
+    public Map<Long, List<Contact>> findContactsOfBandits(Collection<Bandit> bandits, int maxAgeMinutes, int limitPerBandit) {
+        Map<Long, List<Contact>> result = Maps.newHashMap();
+
+        List<Long> banditIds = Lists.newArrayList();
+        for (Bandit bandit : bandits) {
+            if (bandit.databaseId() != null) {
+                banditIds.add(bandit.databaseId());
+                result.put(bandit.databaseId(), Lists.newArrayList());
+            }
+        }
+
+        if (banditIds.isEmpty()) {
+            return result;
+        }
+
+        List<Contact> contacts = nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT * FROM (SELECT *, row_number() OVER (PARTITION BY bandit_id ORDER BY last_seen DESC) AS bandit_rank " +
+                                "FROM contacts WHERE bandit_id IN (<bandit_ids>) AND " + seenWithin(maxAgeMinutes) + ") AS ranked " +
+                                "WHERE bandit_rank <= :limit ORDER BY last_seen DESC")
+                        .bindList("bandit_ids", banditIds)
+                        .bind("limit", limitPerBandit)
+                        .mapTo(Contact.class)
+                        .list()
+        );
+
+        for (Contact contact : contacts) {
+            result.get(contact.banditId()).add(contact);
+        }
+
+        return result;
+    }
+
     public Optional<Contact> findContactOfBandit(Bandit bandit, UUID contactUUID) {
         Contact contact = nzyme.getDatabase().withHandle(handle ->
                 handle.createQuery("SELECT * FROM contacts WHERE bandit_id = :bandit_id AND contact_uuid = :contact_uuid")
@@ -442,6 +571,17 @@ public class ContactManager implements ContactIdentifierProcess {
         );
     }
     
+    /**
+     * Condition on last_seen for the time bounded contact queries. Uses the index on contacts.last_seen.
+     */
+    private static String seenWithin(int maxAgeMinutes) {
+        if (maxAgeMinutes <= 0) {
+            return "TRUE";
+        }
+
+        return "last_seen > (current_timestamp at time zone 'UTC' - interval '" + maxAgeMinutes + " minutes')";
+    }
+
     @Override
     public void identify(Dot11Frame frame) {
         for (Map.Entry<UUID, Bandit> x : getBandits().entrySet()) {
@@ -454,20 +594,22 @@ public class ContactManager implements ContactIdentifierProcess {
                 Optional<ContactIdentifierEngine.ContactIdentification> result = identifierEngine.identify(frame, bandit);
                 if (result.isPresent()) {
                     // Create new contact if this is the first frame.
-                    if (!banditHasActiveContactOnSource(bandit, nzyme.getNodeID())) {
-                        LOG.debug("New contact for bandit [{}].", bandit);
-                        DateTime now = DateTime.now();
-                        registerContact(Contact.create(
-                                UUID.randomUUID(),
-                                now,
-                                now,
-                                1L,
-                                Role.LEADER,
-                                nzyme.getNodeID(),
-                                frame.meta().getAntennaSignal(),
-                                null,
-                                bandit
-                        ));
+                    synchronized (newContactMutex) {
+                        if (!banditHasActiveContactOnSource(bandit, nzyme.getNodeID())) {
+                            LOG.debug("New contact for bandit [{}].", bandit);
+                            DateTime now = DateTime.now();
+                            registerContact(Contact.create(
+                                    UUID.randomUUID(),
+                                    now,
+                                    now,
+                                    1L,
+                                    Role.LEADER,
+                                    nzyme.getNodeID(),
+                                    frame.meta().getAntennaSignal(),
+                                    null,
+                                    bandit
+                            ));
+                        }
                     }
 
                     LOG.debug("Registering frame for existing bandit [{}]", bandit);
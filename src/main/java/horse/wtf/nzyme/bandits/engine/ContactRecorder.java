@@ -26,6 +26,7 @@ import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.util.Tools;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.statement.PreparedBatch;
 import org.joda.time.DateTime;
 
 import java.util.List;
@@ -39,6 +40,10 @@ public class ContactRecorder {
 
     private static final Logger LOG = LogManager.getLogger(ContactRecorder.class);
 
+    private static final String INSERT_RECORD_QUERY = "INSERT INTO contact_records(contact_uuid, record_type, " +
+            "record_value, frame_count, rssi_average, rssi_stddev, created_at) " +
+            "VALUES(:contact_uuid, :record_type, :record_value, :frame_count, :rssi_average, :rssi_stddev, :created_at)";
+
     public enum RECORD_TYPE {
         SSID, BSSID
     }
@@ -139,23 +144,32 @@ public class ContactRecorder {
     }
 
     private void writeToDatabase(Map<UUID, Map<String, ComputationResult>> records, RECORD_TYPE recordType) {
-        for (Map.Entry<UUID, Map<String, ComputationResult>> contact : records.entrySet()) {
-            for (Map.Entry<String, ComputationResult> record : contact.getValue().entrySet()) {
-                ComputationResult cr = record.getValue();
-                nzyme.getDatabase().useHandle(handle -> handle.createUpdate(
-                        "INSERT INTO contact_records(contact_uuid, record_type, record_value, frame_count, rssi_average, rssi_stddev, created_at) " +
-                                "VALUES(:contact_uuid, :record_type, :record_value, :frame_count, :rssi_average, :rssi_stddev, :created_at)")
-                        .bind("contact_uuid", contact.getKey())
-                        .bind("record_type", recordType)
-                        .bind("record_value", record.getKey())
-                        .bind("frame_count", cr.frameCount())
-                        .bind("rssi_average", cr.average())
-                        .bind("rssi_stddev", cr.stdDev())
-                        .bind("created_at", DateTime.now())
-                        .execute()
-                );
-            }
+        if (records.isEmpty()) {
+            return;
         }
+
+        // All records of this sync in one batch.
+        DateTime now = DateTime.now();
+        nzyme.getDatabase().useTransaction(handle -> {
+            PreparedBatch batch = handle.prepareBatch(INSERT_RECORD_QUERY);
+            for (Map.Entry<UUID, Map<String, ComputationResult>> contact : records.entrySet()) {
+                for (Map.Entry<String, ComputationResult> record : contact.getValue().entrySet()) {
+                    ComputationResult cr = record.getValue();
+                    batch.bind("contact_uuid", contact.getKey())
+                            .bind("record_type", recordType)
+                            .bind("record_value", record.getKey())
+                            .bind("frame_count", cr.frameCount())
+                            .bind("rssi_average", cr.average())
+                            .bind("rssi_stddev", cr.stdDev())
+                            .bind("created_at", now)
+                            .add();
+                }
+            }
+
+            if (batch.size() > 0) {
+                batch.execute();
+            }
+        });
     }
 
     public List<ContactRecord> findContactRecords(UUID contactUUID, RECORD_TYPE recordType) {
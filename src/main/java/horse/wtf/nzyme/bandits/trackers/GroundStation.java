@@ -21,6 +21,7 @@ import com.codahale.metrics.*;
 import com.codahale.metrics.Timer;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.typesafe.config.ConfigException;
 import horse.wtf.nzyme.Role;
 import horse.wtf.nzyme.bandits.Bandit;
@@ -46,9 +47,16 @@ public class GroundStation implements Runnable {
 
     private static final Logger LOG = LogManager.getLogger(GroundStation.class);
 
+    private static final int MAX_TRANSMIT_QUEUE_SIZE = 100;
+    private static final int DEFAULT_AIRTIME_BUDGET_PERCENT = 25;
+
+    // Fits a bundle into a single 240 byte LoRa packet, including encryption overhead, terminator and version byte.
+    private static final int MAX_BUNDLE_LENGTH = 196;
+
     private final TrackerDevice trackerDevice;
 
-    private final Deque<byte[]> transmitQueue;
+    private final TransmitScheduler<TrackerMessage.Wrapper> transmitScheduler;
+    private final TrackerWireFormat wireFormat;
 
     private PingMessageHandler pingHandler;
     private StartTrackRequestMessageHandler startTrackRequestMessageHandler;
@@ -63,6 +71,7 @@ public class GroundStation implements Runnable {
     private final Counter rxCounter;
     private final Counter txCounter;
     private final Timer encryptionTimer;
+    private final Counter txDroppedCounter;
 
     public GroundStation(Role nzymeRole,
                          String nzymeId,
@@ -71,15 +80,12 @@ public class GroundStation implements Runnable {
                          ContactIdentifierProcess contacts,
                          @Nullable TrackerManager trackerManager,
                          UplinkDeviceConfiguration config) throws ConfigException {
-        //noinspection UnstableApiUsage
-        this.transmitQueue = new ArrayDeque(100);
         this.hids = Lists.newArrayList();
 
         this.rxCounter = metrics.counter(MetricNames.GROUNDSTATION_RX);
         this.txCounter = metrics.counter(MetricNames.GROUNDSTATION_TX);
         this.encryptionTimer = metrics.timer(MetricNames.GROUNDSTATION_ENCRYPTION_TIMING);
-        metrics.register(MetricNames.GROUNDSTATION_QUEUE_SIZE, (Gauge<Integer>) transmitQueue::size);
-
+        this.txDroppedCounter = metrics.counter(MetricNames.GROUNDSTATION_TX_DROPPED);
 
         this.pendingStartBanditTrackRequests = Lists.newArrayList();
         this.pendingCancelBanditTrackRequests = Lists.newArrayList();
@@ -106,8 +112,20 @@ public class GroundStation implements Runnable {
                 throw new IllegalStateException("Unexpected device type: " + deviceType);
         }
 
+        int airtimeBudget = config.parameters().hasPath(ConfigurationKeys.AIRTIME_BUDGET_PERCENT)
+                ? config.parameters().getInt(ConfigurationKeys.AIRTIME_BUDGET_PERCENT) : DEFAULT_AIRTIME_BUDGET_PERCENT;
+        this.wireFormat = new TrackerWireFormat(nzymeId);
+        this.transmitScheduler = new TransmitScheduler<>(
+                MAX_TRANSMIT_QUEUE_SIZE,
+                airtimeBudget,
+                message -> wireFormat.encodedLength(message, System.currentTimeMillis()),
+                trackerDevice::airtimeMillis,
+                System::currentTimeMillis
+        );
+        metrics.register(MetricNames.GROUNDSTATION_QUEUE_SIZE, (Gauge<Integer>) transmitScheduler::size);
+
         // Handle incoming messages.
-        this.trackerDevice.onMessageReceived((message, rssi) -> {
+        WrapperMessageHandler messageHandler = (message, rssi) -> {
             // Ping.
             if (message.hasPing()) {
                 if (pingHandler != null) {
@@ -171,6 +189,16 @@ public class GroundStation implements Runnable {
                     contactStatusMessageHandler.handle(message.getContactStatus());
                 }
             }
+        };
+
+        this.trackerDevice.onPayloadReceived((payload, rssi) -> {
+            try {
+                for (TrackerMessage.Wrapper message : wireFormat.decode(payload, System.currentTimeMillis())) {
+                    messageHandler.handle(message, rssi);
+                }
+            } catch (InvalidProtocolBufferException e) {
+                LOG.debug("Skipping invalid tracker message.", e);
+            }
         });
 
         // Send our pings.
@@ -192,6 +220,8 @@ public class GroundStation implements Runnable {
                                         .setVersion(nzymeVersion)
                                         .setNodeType(TrackerMessage.Ping.NodeType.valueOf(nzymeRole.toString().toUpperCase()))
                                         .setTrackingMode(currentlyTrackedBandit)
+                                        .setNodeId(TrackerWireFormat.nodeId(nzymeId))
+                                        .setWireVersion(TrackerWireFormat.VERSION)
                                         .build())
                                 .build());
                     } catch(Exception e) {
@@ -287,8 +317,23 @@ public class GroundStation implements Runnable {
     public void run() {
         while(true) {
             try {
-                while(transmitQueue.peek() != null) {
-                    trackerDevice.transmit(transmitQueue.poll());
+                while(true) {
+                    long now = System.currentTimeMillis();
+
+                    // Stick to the legacy format of one message per frame until all peers announced support.
+                    if (wireFormat.peersSupportCompact(now)) {
+                        List<TrackerMessage.Wrapper> bundle = transmitScheduler.pollBundle(MAX_BUNDLE_LENGTH);
+                        if (bundle.isEmpty()) {
+                            break;
+                        }
+                        trackerDevice.transmit(wireFormat.encodeCompact(bundle, now));
+                    } else {
+                        TrackerMessage.Wrapper next = transmitScheduler.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        trackerDevice.transmit(wireFormat.encodeLegacy(next));
+                    }
                 }
             } catch (Exception e) {
                 LOG.error("Could not transmit message to trackers.", e);
@@ -309,11 +354,38 @@ public class GroundStation implements Runnable {
     }
 
     public void transmit(@NotNull TrackerMessage.Wrapper message) {
-        if (transmitQueue.size() > 5) {
-            LOG.warn("Transmit queue size is unusually large at <{}> entries.", transmitQueue.size());
+        if (transmitScheduler.size() > 5) {
+            LOG.warn("Transmit queue size is unusually large at <{}> entries.", transmitScheduler.size());
         }
 
-        transmitQueue.addLast(message.toByteArray());
+        TransmitScheduler.Priority priority;
+        String coalesceKey;
+        switch (message.getContentCase()) {
+            case STARTTRACKREQUEST:
+                priority = TransmitScheduler.Priority.TRACK_COMMAND;
+                coalesceKey = "start-track:" + message.getStartTrackRequest().getReceiver() + ":" + message.getStartTrackRequest().getUuid();
+                break;
+            case CANCELTRACKREQUEST:
+                priority = TransmitScheduler.Priority.TRACK_COMMAND;
+                coalesceKey = "cancel-track:" + message.getCancelTrackRequest().getReceiver();
+                break;
+            case CONTACTSTATUS:
+                priority = TransmitScheduler.Priority.CONTACT_STATUS;
+                coalesceKey = "contact-status:" + message.getContactStatus().getUuid();
+                break;
+            case PING:
+                priority = TransmitScheduler.Priority.PING;
+                coalesceKey = "ping";
+                break;
+            default:
+                priority = TransmitScheduler.Priority.PING;
+                coalesceKey = null;
+        }
+
+        if (!transmitScheduler.offer(priority, coalesceKey, message)) {
+            LOG.warn("Transmit queue is full. Dropping message.");
+            txDroppedCounter.inc();
+        }
     }
 
     public void startTrackRequest(TrackerMessage.StartTrackRequest newRequest) {
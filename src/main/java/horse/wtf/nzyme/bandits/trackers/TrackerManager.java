@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class TrackerManager {
@@ -38,8 +39,12 @@ public class TrackerManager {
 
     private final AtomicReference<Map<String, Tracker>> activeTrackers;
 
+    // Incremented on every tracker change. Used by REST resources to answer conditional requests.
+    private final AtomicLong generation;
+
     public TrackerManager() {
         activeTrackers = new AtomicReference<>(Maps.newHashMap());
+        generation = new AtomicLong(0);
 
         Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setDaemon(true)
@@ -56,6 +61,10 @@ public class TrackerManager {
                     }
 
                     activeTrackers.set(result);
+
+                    if (result.size() != copy.size()) {
+                        generation.incrementAndGet();
+                    }
                 }, RETENTION_MINUTES, 1, TimeUnit.MINUTES);
     }
 
@@ -81,6 +90,12 @@ public class TrackerManager {
             tracker.setTrackingMode(ping.getTrackingMode());
             tracker.setRssi(rssi);
         }
+
+        generation.incrementAndGet();
+    }
+
+    public long getGeneration() {
+        return generation.get();
     }
 
     public Map<String, Tracker> getTrackers() {
@@ -0,0 +1,307 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.bandits.trackers;
+
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import horse.wtf.nzyme.bandits.trackers.protobuf.TrackerMessage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes tracker messages for the LoRa link.
+ *
+ * The legacy format is a single serialized Wrapper per frame. The compact format starts with a version byte that can
+ * never be the first byte of a Wrapper (protobuf field number 0), followed by a Bundle of several Wrappers with
+ * numeric node IDs, binary UUIDs and relative timestamps. Decoding accepts both formats.
+ *
+ * Nodes announce their numeric ID and supported wire version in pings. The compact format is only sent when every
+ * recently seen peer supports it. Numeric IDs are translated back to names here, so message handlers always see the
+ * legacy representation.
+ */
+public class TrackerWireFormat {
+
+    private static final Logger LOG = LogManager.getLogger(TrackerWireFormat.class);
+
+    public static final byte COMPACT_V1 = 0x01;
+    public static final int VERSION = COMPACT_V1;
+
+    private static final long PEER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private final String nodeName;
+
+    // Numeric node ID -> node name. Learned from pings.
+    private final Map<Integer, String> directory;
+
+    // Node name -> wire version and time of last ping.
+    private final Map<String, long[]> peers;
+
+    public TrackerWireFormat(String nodeName) {
+        this.nodeName = nodeName;
+        this.directory = Maps.newConcurrentMap();
+        this.peers = Maps.newConcurrentMap();
+
+        directory.put(nodeId(nodeName), nodeName);
+    }
+
+    public static int nodeId(String nodeName) {
+        return Hashing.murmur3_32().hashString(nodeName, StandardCharsets.UTF_8).asInt();
+    }
+
+    /**
+     * @return true if all peers that pinged recently can read the compact format. false if no peer is known yet.
+     */
+    public boolean peersSupportCompact(long now) {
+        boolean any = false;
+        for (long[] peer : peers.values()) {
+            if (peer[1] < now - PEER_TIMEOUT_MILLIS) {
+                continue;
+            }
+
+            if (peer[0] < COMPACT_V1) {
+                return false;
+            }
+            any = true;
+        }
+
+        return any;
+    }
+
+    public byte[] encodeLegacy(TrackerMessage.Wrapper message) {
+        return message.toByteArray();
+    }
+
+    public byte[] encodeCompact(List<TrackerMessage.Wrapper> messages, long now) {
+        TrackerMessage.Bundle.Builder bundle = TrackerMessage.Bundle.newBuilder().setTimestamp(now);
+        for (TrackerMessage.Wrapper message : messages) {
+            bundle.addMessages(compact(message, now));
+        }
+
+        byte[] serialized = bundle.build().toByteArray();
+        byte[] result = new byte[serialized.length + 1];
+        result[0] = COMPACT_V1;
+        System.arraycopy(serialized, 0, result, 1, serialized.length);
+
+        return result;
+    }
+
+    /**
+     * Size of the message inside a frame of the currently negotiated format.
+     */
+    public int encodedLength(TrackerMessage.Wrapper message, long now) {
+        if (peersSupportCompact(now)) {
+            int size = compact(message, now).getSerializedSize();
+            // Tag and length prefix of the message in the bundle.
+            return size + 1 + (size < 128 ? 1 : 2);
+        } else {
+            return message.getSerializedSize();
+        }
+    }
+
+    public List<TrackerMessage.Wrapper> decode(byte[] payload, long now) throws InvalidProtocolBufferException {
+        if (payload.length == 0) {
+            throw new InvalidProtocolBufferException("Empty tracker message.");
+        }
+
+        List<TrackerMessage.Wrapper> result;
+        if (payload[0] == COMPACT_V1) {
+            TrackerMessage.Bundle bundle = TrackerMessage.Bundle.parseFrom(ByteString.copyFrom(payload, 1, payload.length - 1));
+
+            // Pings first, so that the node IDs of all other messages in the bundle are known.
+            for (TrackerMessage.Wrapper message : bundle.getMessagesList()) {
+                if (message.hasPing()) {
+                    learn(message.getPing(), now);
+                }
+            }
+
+            result = bundle.getMessagesList().stream()
+                    .map(message -> expand(message, bundle.getTimestamp()))
+                    .collect(Collectors.toList());
+        } else if (payload[0] >= 0 && payload[0] < 0x08) {
+            // Field number 0. Not a legacy Wrapper but a future version.
+            throw new InvalidProtocolBufferException("Unsupported tracker wire format version <" + payload[0] + ">.");
+        } else {
+            TrackerMessage.Wrapper message = TrackerMessage.Wrapper.parseFrom(payload);
+            if (message.hasPing()) {
+                learn(message.getPing(), now);
+                message = expand(message, now);
+            }
+            result = Collections.singletonList(message);
+        }
+
+        return result;
+    }
+
+    private void learn(TrackerMessage.Ping ping, long now) {
+        if (ping.getSource().equals(nodeName)) {
+            return;
+        }
+
+        if (ping.getNodeId() != 0) {
+            String previous = directory.put(ping.getNodeId(), ping.getSource());
+            if (previous != null && !previous.equals(ping.getSource())) {
+                LOG.warn("Node ID collision between [{}] and [{}]. Rename one of the nodes.", previous, ping.getSource());
+            }
+        }
+
+        peers.put(ping.getSource(), new long[]{ping.getWireVersion(), now});
+    }
+
+    private TrackerMessage.Wrapper compact(TrackerMessage.Wrapper message, long now) {
+        switch (message.getContentCase()) {
+            case PING:
+                TrackerMessage.Ping ping = message.getPing();
+                ByteString trackingMode = uuidToBytes(ping.getTrackingMode());
+                if (trackingMode == null) {
+                    return message;
+                }
+                return TrackerMessage.Wrapper.newBuilder().setPing(ping.toBuilder()
+                        .clearTrackingMode()
+                        .setTrackingModeBinary(trackingMode)
+                ).build();
+            case STARTTRACKREQUEST:
+                TrackerMessage.StartTrackRequest start = message.getStartTrackRequest();
+                TrackerMessage.StartTrackRequest.Builder compactStart = start.toBuilder()
+                        .clearSource().clearReceiver()
+                        .setSourceId(nodeId(start.getSource()))
+                        .setReceiverId(nodeId(start.getReceiver()));
+                ByteString startUUID = uuidToBytes(start.getUuid());
+                if (startUUID != null) {
+                    compactStart.clearUuid().setUuidBinary(startUUID);
+                }
+                return TrackerMessage.Wrapper.newBuilder().setStartTrackRequest(compactStart).build();
+            case CANCELTRACKREQUEST:
+                TrackerMessage.CancelTrackRequest cancel = message.getCancelTrackRequest();
+                return TrackerMessage.Wrapper.newBuilder().setCancelTrackRequest(cancel.toBuilder()
+                        .clearSource().clearReceiver()
+                        .setSourceId(nodeId(cancel.getSource()))
+                        .setReceiverId(nodeId(cancel.getReceiver()))
+                ).build();
+            case CONTACTSTATUS:
+                TrackerMessage.ContactStatus status = message.getContactStatus();
+                TrackerMessage.ContactStatus.Builder compactStatus = status.toBuilder()
+                        .clearSource().clearLastSeen()
+                        .setSourceId(nodeId(status.getSource()))
+                        .setLastSeenDelta(now - status.getLastSeen());
+                ByteString statusUUID = uuidToBytes(status.getUuid());
+                if (statusUUID != null) {
+                    compactStatus.clearUuid().setUuidBinary(statusUUID);
+                }
+                return TrackerMessage.Wrapper.newBuilder().setContactStatus(compactStatus).build();
+            default:
+                return message;
+        }
+    }
+
+    private TrackerMessage.Wrapper expand(TrackerMessage.Wrapper message, long timestamp) {
+        switch (message.getContentCase()) {
+            case PING:
+                TrackerMessage.Ping ping = message.getPing();
+                if (ping.getTrackingModeBinary().isEmpty()) {
+                    return message;
+                }
+                return TrackerMessage.Wrapper.newBuilder().setPing(ping.toBuilder()
+                        .clearTrackingModeBinary()
+                        .setTrackingMode(bytesToUUID(ping.getTrackingModeBinary()))
+                ).build();
+            case STARTTRACKREQUEST:
+                TrackerMessage.StartTrackRequest start = message.getStartTrackRequest();
+                if (start.getSourceId() == 0 && start.getReceiverId() == 0) {
+                    return message;
+                }
+                TrackerMessage.StartTrackRequest.Builder expandedStart = start.toBuilder()
+                        .clearSourceId().clearReceiverId()
+                        .setSource(nodeName(start.getSourceId()))
+                        .setReceiver(nodeName(start.getReceiverId()));
+                if (!start.getUuidBinary().isEmpty()) {
+                    expandedStart.clearUuidBinary().setUuid(bytesToUUID(start.getUuidBinary()));
+                }
+                return TrackerMessage.Wrapper.newBuilder().setStartTrackRequest(expandedStart).build();
+            case CANCELTRACKREQUEST:
+                TrackerMessage.CancelTrackRequest cancel = message.getCancelTrackRequest();
+                if (cancel.getSourceId() == 0 && cancel.getReceiverId() == 0) {
+                    return message;
+                }
+                return TrackerMessage.Wrapper.newBuilder().setCancelTrackRequest(cancel.toBuilder()
+                        .clearSourceId().clearReceiverId()
+                        .setSource(nodeName(cancel.getSourceId()))
+                        .setReceiver(nodeName(cancel.getReceiverId()))
+                ).build();
+            case CONTACTSTATUS:
+                TrackerMessage.ContactStatus status = message.getContactStatus();
+                if (status.getSourceId() == 0) {
+                    return message;
+                }
+                TrackerMessage.ContactStatus.Builder expandedStatus = status.toBuilder()
+                        .clearSourceId().clearLastSeenDelta()
+                        .setSource(nodeName(status.getSourceId()))
+                        .setLastSeen(timestamp - status.getLastSeenDelta());
+                if (!status.getUuidBinary().isEmpty()) {
+                    expandedStatus.clearUuidBinary().setUuid(bytesToUUID(status.getUuidBinary()));
+                }
+                return TrackerMessage.Wrapper.newBuilder().setContactStatus(expandedStatus).build();
+            default:
+                return message;
+        }
+    }
+
+    /**
+     * Unknown IDs resolve to an empty name. Messages from or to unknown nodes are ignored by the handlers until a ping
+     * from that node has been received.
+     */
+    private String nodeName(int nodeId) {
+        String name = directory.get(nodeId);
+        return name == null ? "" : name;
+    }
+
+    /**
+     * @return null if the string is not a UUID. It is sent as a string then.
+     */
+    @Nullable
+    private static ByteString uuidToBytes(String uuid) {
+        UUID parsed;
+        try {
+            parsed = UUID.fromString(uuid);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(16);
+        buf.putLong(parsed.getMostSignificantBits());
+        buf.putLong(parsed.getLeastSignificantBits());
+        return ByteString.copyFrom(buf.array());
+    }
+
+    private static String bytesToUUID(ByteString bytes) {
+        ByteBuffer buf = bytes.asReadOnlyByteBuffer();
+        return new UUID(buf.getLong(), buf.getLong()).toString();
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.bandits.trackers;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Decides what to send next over the slow tracker link.
+ *
+ * Messages are sent strictly by priority. A message with a coalescing key replaces the payload of a queued message with
+ * the same key, keeping its place in the queue, so only the newest version of superseded messages is transmitted.
+ * Transmissions are limited to an airtime budget in a sliding window. Several messages can be taken at once to be
+ * bundled into a single frame.
+ */
+public class TransmitScheduler<T> {
+
+    /**
+     * In order of precedence.
+     */
+    public enum Priority {
+        TRACK_COMMAND, CONTACT_STATUS, PING
+    }
+
+    public static final long BUDGET_WINDOW_MILLIS = 60_000;
+
+    private final int maxQueueSize;
+    private final long budgetMillis;
+    private final ToIntFunction<T> length;
+    private final IntToLongFunction airtime;
+    private final LongSupplier clock;
+
+    private final Map<Priority, Deque<Entry<T>>> queues;
+    private final Map<String, Entry<T>> coalescing;
+
+    // Start time and airtime of recent transmissions.
+    private final Deque<long[]> spent;
+    private long spentMillis = 0;
+
+    private int size = 0;
+
+    /**
+     * @param airtimeBudgetPercent Share of the sliding window the radio may be on air.
+     * @param length Encoded length of a message.
+     * @param airtime Estimated airtime of a frame of the given length in milliseconds.
+     */
+    public TransmitScheduler(int maxQueueSize, int airtimeBudgetPercent, ToIntFunction<T> length, IntToLongFunction airtime, LongSupplier clock) {
+        if (airtimeBudgetPercent <= 0 || airtimeBudgetPercent > 100) {
+            throw new IllegalArgumentException("Airtime budget must be between 1 and 100 percent.");
+        }
+
+        this.maxQueueSize = maxQueueSize;
+        this.budgetMillis = BUDGET_WINDOW_MILLIS * airtimeBudgetPercent / 100;
+        this.length = length;
+        this.airtime = airtime;
+        this.clock = clock;
+
+        this.queues = Maps.newEnumMap(Priority.class);
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+        }
+        this.coalescing = Maps.newHashMap();
+        this.spent = new ArrayDeque<>();
+    }
+
+    /**
+     * @param coalesceKey Queued messages with the same key are replaced by this one. No coalescing if null.
+     * @return false if the message was dropped because the queue is full of messages of the same or higher priority.
+     */
+    public synchronized boolean offer(Priority priority, @Nullable String coalesceKey, T message) {
+        if (coalesceKey != null) {
+            Entry<T> existing = coalescing.get(coalesceKey);
+            if (existing != null && existing.priority == priority) {
+                existing.message = message;
+                return true;
+            }
+        }
+
+        if (size >= maxQueueSize && !dropLowerThan(priority)) {
+            return false;
+        }
+
+        Entry<T> entry = new Entry<>(priority, coalesceKey, message);
+        queues.get(priority).addLast(entry);
+        if (coalesceKey != null) {
+            coalescing.put(coalesceKey, entry);
+        }
+        size++;
+
+        return true;
+    }
+
+    /**
+     * Removes and returns the next message to transmit and charges its airtime to the budget.
+     *
+     * @return null if there is nothing to send or the budget is used up for now.
+     */
+    @Nullable
+    public synchronized T poll() {
+        List<T> messages = pollBundle(0);
+        return messages.isEmpty() ? null : messages.get(0);
+    }
+
+    /**
+     * Removes and returns the next messages to transmit in a single frame, in order of priority, and charges the
+     * airtime of the frame to the budget. The first message is always included if the budget allows it. More messages
+     * are added as long as the total length does not exceed maxLength.
+     *
+     * @return Empty if there is nothing to send or the budget is used up for now.
+     */
+    public synchronized List<T> pollBundle(int maxLength) {
+        List<Entry<T>> bundle = Lists.newArrayList();
+        int total = 0;
+        for (Deque<Entry<T>> queue : queues.values()) {
+            for (Entry<T> entry : queue) {
+                int entryLength = length.applyAsInt(entry.message);
+                if (bundle.isEmpty() || total + entryLength <= maxLength) {
+                    bundle.add(entry);
+                    total += entryLength;
+                }
+            }
+        }
+
+        if (bundle.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        long now = clock.getAsLong();
+        expireSpent(now);
+
+        // Always allow a single frame into an empty window, even if it is larger than the budget.
+        while (spentMillis > 0 && spentMillis + airtime.applyAsLong(total) > budgetMillis) {
+            if (bundle.size() == 1) {
+                return Collections.emptyList();
+            }
+
+            // Try with fewer messages.
+            total -= length.applyAsInt(bundle.remove(bundle.size() - 1).message);
+        }
+        long cost = airtime.applyAsLong(total);
+
+        List<T> result = Lists.newArrayListWithCapacity(bundle.size());
+        for (Entry<T> entry : bundle) {
+            remove(entry);
+            result.add(entry.message);
+        }
+        spent.addLast(new long[]{now, cost});
+        spentMillis += cost;
+
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long spentAirtimeMillis() {
+        expireSpent(clock.getAsLong());
+        return spentMillis;
+    }
+
+    private void expireSpent(long now) {
+        while (!spent.isEmpty() && spent.peekFirst()[0] <= now - BUDGET_WINDOW_MILLIS) {
+            spentMillis -= spent.removeFirst()[1];
+        }
+    }
+
+    private boolean dropLowerThan(Priority priority) {
+        Priority[] priorities = Priority.values();
+        for (int i = priorities.length - 1; i > priority.ordinal(); i--) {
+            Entry<T> oldest = queues.get(priorities[i]).peekFirst();
+            if (oldest != null) {
+                remove(oldest);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void remove(Entry<T> entry) {
+        queues.get(entry.priority).remove(entry);
+        if (entry.coalesceKey != null && coalescing.get(entry.coalesceKey) == entry) {
+            coalescing.remove(entry.coalesceKey);
+        }
+        size--;
+    }
+
+    private static final class Entry<T> {
+
+        private final Priority priority;
+        private final String coalesceKey;
+        private T message;
+
+        private Entry(Priority priority, String coalesceKey, T message) {
+            this.priority = priority;
+            this.coalesceKey = coalesceKey;
+            this.message = message;
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.bandits.trackers.devices;
+
+/**
+ * Fixed size byte FIFO. Not thread-safe.
+ */
+public class ByteRingBuffer {
+
+    private final byte[] buffer;
+
+    private int readPosition = 0;
+    private int size = 0;
+
+    public ByteRingBuffer(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * @return Number of bytes written. Less than length if the buffer is full.
+     */
+    public int write(byte[] data, int offset, int length) {
+        int written = Math.min(length, buffer.length - size);
+        int writePosition = (readPosition + size) % buffer.length;
+
+        int first = Math.min(written, buffer.length - writePosition);
+        System.arraycopy(data, offset, buffer, writePosition, first);
+        System.arraycopy(data, offset + first, buffer, 0, written - first);
+
+        size += written;
+        return written;
+    }
+
+    /**
+     * @return Number of bytes read into target. 0 if the buffer is empty.
+     */
+    public int read(byte[] target, int offset, int length) {
+        int read = Math.min(length, size);
+
+        int first = Math.min(read, buffer.length - readPosition);
+        System.arraycopy(buffer, readPosition, target, offset, first);
+        System.arraycopy(buffer, 0, target, offset + first, read - first);
+
+        readPosition = (readPosition + read) % buffer.length;
+        size -= read;
+        return read;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+}
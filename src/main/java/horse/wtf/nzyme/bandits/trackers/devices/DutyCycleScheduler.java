@@ -0,0 +1,64 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.bandits.trackers.devices;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Paces transmissions so that the radio is on air for at most the configured share of time. The pause after a
+ * message grows with its estimated airtime instead of being a fixed sleep.
+ */
+public class DutyCycleScheduler {
+
+    private final double dutyCycle;
+    private final int airDataRateBps;
+    private final long overheadMillis;
+    private final LongSupplier clock;
+
+    private long nextTransmissionAllowed = 0;
+
+    public DutyCycleScheduler(double dutyCycle, int airDataRateBps, long overheadMillis, LongSupplier clock) {
+        if (dutyCycle <= 0 || dutyCycle > 1) {
+            throw new IllegalArgumentException("Duty cycle must be in (0,1].");
+        }
+
+        this.dutyCycle = dutyCycle;
+        this.airDataRateBps = airDataRateBps;
+        this.overheadMillis = overheadMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return Milliseconds to wait before the next transmission may start. 0 if it can start immediately.
+     */
+    public synchronized long delayMillis() {
+        return Math.max(0, nextTransmissionAllowed - clock.getAsLong());
+    }
+
+    /**
+     * Record a transmission of the given size that started now.
+     */
+    public synchronized void transmitted(int bytes) {
+        nextTransmissionAllowed = clock.getAsLong() + (long) Math.ceil(airtimeMillis(bytes) / dutyCycle);
+    }
+
+    public long airtimeMillis(int bytes) {
+        return overheadMillis + (bytes * 8L * 1000L) / airDataRateBps;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.bandits.trackers.devices;
+
+import jssc.SerialPort;
+import jssc.SerialPortException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class JsscSerialConnection implements SerialConnection {
+
+    private static final Logger LOG = LogManager.getLogger(JsscSerialConnection.class);
+
+    private final String portName;
+    private final int baud;
+
+    private SerialPort serialPort;
+
+    public JsscSerialConnection(String portName, int baud) {
+        this.portName = portName;
+        this.baud = baud;
+    }
+
+    @Override
+    public void open(DataListener listener) throws SerialPortException {
+        SerialPort port = new SerialPort(portName);
+        port.openPort();
+        port.setParams(baud, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+
+        // jssc polls the port on its own thread and reports the number of available bytes. Read all of them at once.
+        port.addEventListener(event -> {
+            if (!event.isRXCHAR() || event.getEventValue() <= 0) {
+                return;
+            }
+
+            try {
+                byte[] data = port.readBytes(event.getEventValue());
+                if (data != null) {
+                    listener.onData(data);
+                }
+            } catch (SerialPortException e) {
+                LOG.warn("Could not read from serial port [{}].", portName, e);
+            }
+        }, SerialPort.MASK_RXCHAR);
+
+        this.serialPort = port;
+    }
+
+    @Override
+    public void write(byte[] data) throws SerialPortException {
+        if (serialPort == null) {
+            throw new SerialPortException(portName, "write", SerialPortException.TYPE_PORT_NOT_OPENED);
+        }
+
+        serialPort.writeBytes(data);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return serialPort != null && serialPort.isOpened();
+    }
+
+    @Override
+    public void close() throws SerialPortException {
+        if (isOpen()) {
+            serialPort.removeEventListener();
+            serialPort.closePort();
+        }
+    }
+
+}
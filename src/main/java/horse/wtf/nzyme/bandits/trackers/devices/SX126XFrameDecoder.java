@@ -0,0 +1,127 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.bandits.trackers.devices;
+
+import java.util.Arrays;
+
+/**
+ * Framing of the byte stream a SX126X HAT emits in transparent mode with RSSI reporting enabled.
+ *
+ * Our frames are terminated by three NUL bytes. The radio transmits in packets of at most 240 bytes and the HAT
+ * appends an RSSI byte to every packet it receives, so a RSSI byte follows every 240 bytes of a frame and the
+ * terminator of every frame. Bytes can be fed in chunks of any size.
+ */
+public class SX126XFrameDecoder {
+
+    public static final int PACKET_SIZE = 240;
+    public static final short TERMINATOR_LENGTH = 3;
+
+    private enum State {
+        PAYLOAD, RSSI
+    }
+
+    private final FrameHandler handler;
+    private final byte[] frame;
+
+    private State state = State.PAYLOAD;
+    private int frameLength = 0;
+    private int pendingNulCount = 0;
+    private int packetByteCount = 0;
+    private boolean overflowed = false;
+
+    public SX126XFrameDecoder(int maxFrameSize, FrameHandler handler) {
+        this.frame = new byte[maxFrameSize];
+        this.handler = handler;
+    }
+
+    public void feed(byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            consume(data[i]);
+        }
+    }
+
+    private void consume(byte b) {
+        if (state == State.RSSI) {
+            if (b == 0x00) {
+                /*
+                 * A RSSI of 0 would be -256dBm. This is another NUL, meaning that the payload itself ended with NUL
+                 * bytes and the terminator starts one byte later.
+                 */
+                packetByteCount++;
+                append((byte) 0x00);
+                return;
+            }
+
+            // RSSI of the last packet of the frame.
+            if (!overflowed) {
+                handler.onFrame(Arrays.copyOf(frame, frameLength), b & 0xFF);
+            }
+
+            reset();
+            return;
+        }
+
+        if (packetByteCount == PACKET_SIZE) {
+            // RSSI of a full packet in the middle of a frame. Not part of the payload.
+            packetByteCount = 0;
+            return;
+        }
+        packetByteCount++;
+
+        if (b == 0x00) {
+            pendingNulCount++;
+
+            if (pendingNulCount == TERMINATOR_LENGTH) {
+                state = State.RSSI;
+            }
+
+            return;
+        }
+
+        // NUL bytes that turned out to be payload and not a terminator.
+        for (int i = 0; i < pendingNulCount; i++) {
+            append((byte) 0x00);
+        }
+        pendingNulCount = 0;
+
+        append(b);
+    }
+
+    private void append(byte b) {
+        if (frameLength == frame.length) {
+            // Drop everything until the next terminator.
+            overflowed = true;
+            return;
+        }
+
+        frame[frameLength++] = b;
+    }
+
+    private void reset() {
+        state = State.PAYLOAD;
+        frameLength = 0;
+        pendingNulCount = 0;
+        packetByteCount = 0;
+        overflowed = false;
+    }
+
+    public interface FrameHandler {
+        void onFrame(byte[] frame, int rssi);
+    }
+
+}
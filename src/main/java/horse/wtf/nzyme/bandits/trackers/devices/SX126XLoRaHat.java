@@ -18,20 +18,14 @@
 package horse.wtf.nzyme.bandits.trackers.devices;
 
 import com.codahale.metrics.Counter;
-import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
-import com.google.protobuf.InvalidProtocolBufferException;
-import horse.wtf.nzyme.bandits.trackers.messagehandlers.WrapperMessageHandler;
-import horse.wtf.nzyme.bandits.trackers.protobuf.TrackerMessage;
 import horse.wtf.nzyme.security.transport.TransportEncryption;
 import horse.wtf.nzyme.util.Tools;
-import jssc.SerialPort;
 import jssc.SerialPortException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.security.GeneralSecurityException;
 
 public class SX126XLoRaHat implements TrackerDevice {
@@ -39,12 +33,24 @@ public class SX126XLoRaHat implements TrackerDevice {
     private static final Logger LOG = LogManager.getLogger(SX126XLoRaHat.class);
     private static final int BAUD = 2400;
 
-    private static final short NULL_BYTE_SEQUENCE_COUNT = 3;
+    // Default air data rate of the HAT. Messages are spread out to not overload the LoRa band or the UART buffer.
+    private static final int AIR_DATA_RATE_BPS = 2400;
+    private static final long TX_OVERHEAD_MILLIS = 50;
+    private static final double TX_DUTY_CYCLE = 0.25;
 
-    private final String portName;
+    // AES-GCM IV and tag.
+    private static final int ENCRYPTION_OVERHEAD = 28;
 
-    private SerialPort serialPort;
-    private WrapperMessageHandler messageHandler = null;
+    private static final int RX_BUFFER_SIZE = 8192;
+    private static final int MAX_FRAME_SIZE = 4096;
+
+    private final SerialConnection connection;
+
+    private final ByteRingBuffer rxBuffer;
+    private final SX126XFrameDecoder decoder;
+    private final DutyCycleScheduler txScheduler;
+
+    private PayloadHandler payloadHandler = null;
 
     TransportEncryption encryption;
 
@@ -52,16 +58,34 @@ public class SX126XLoRaHat implements TrackerDevice {
     private final Counter txCounter;
     private final Timer encryptionTimer;
 
-    private boolean healthyReceive = false;
-    private boolean healthyTransmit = false;
+    private volatile boolean running = true;
+
+    private volatile boolean healthyReceive = false;
+    private volatile boolean healthyTransmit = false;
 
     public SX126XLoRaHat(String portName, String encryptionKey, Counter rxCounter, Counter txCounter, Timer encryptionTimer) {
-        this.portName = portName;
+        this(
+                new JsscSerialConnection(portName, BAUD),
+                new DutyCycleScheduler(TX_DUTY_CYCLE, AIR_DATA_RATE_BPS, TX_OVERHEAD_MILLIS, System::currentTimeMillis),
+                encryptionKey,
+                rxCounter,
+                txCounter,
+                encryptionTimer
+        );
+    }
+
+    public SX126XLoRaHat(SerialConnection connection, DutyCycleScheduler txScheduler, String encryptionKey,
+                         Counter rxCounter, Counter txCounter, Timer encryptionTimer) {
+        this.connection = connection;
+        this.txScheduler = txScheduler;
 
         this.rxCounter = rxCounter;
         this.txCounter = txCounter;
         this.encryptionTimer = encryptionTimer;
 
+        this.rxBuffer = new ByteRingBuffer(RX_BUFFER_SIZE);
+        this.decoder = new SX126XFrameDecoder(MAX_FRAME_SIZE, this::handleFrame);
+
         try {
             this.encryption = new TransportEncryption(encryptionKey);
         } catch(Exception e) {
@@ -71,7 +95,7 @@ public class SX126XLoRaHat implements TrackerDevice {
 
     @Override
     public void initialize() throws TrackerDeviceInitializationException {
-        if (this.messageHandler == null) {
+        if (this.payloadHandler == null) {
             throw new TrackerDeviceInitializationException("No message receiver registered.");
         }
 
@@ -87,120 +111,99 @@ public class SX126XLoRaHat implements TrackerDevice {
 
     @Override
     public void stop() {
-        if (this.serialPort != null && this.serialPort.isOpened()) {
-            try {
-                this.serialPort.closePort();
-            } catch (SerialPortException e) {
-                LOG.warn("Could not close serial port.", e);
-            }
+        running = false;
+        synchronized (rxBuffer) {
+            rxBuffer.notifyAll();
+        }
+
+        try {
+            connection.close();
+        } catch (SerialPortException e) {
+            LOG.warn("Could not close serial port.", e);
         }
     }
 
     @Override
     public boolean isHealthy() {
-        return this.serialPort != null && this.serialPort.isOpened() && healthyTransmit && healthyReceive;
+        return connection.isOpen() && healthyTransmit && healthyReceive;
+    }
+
+    /**
+     * Called by the serial port with whatever bytes were available. Only buffers, so the port is never blocked by
+     * decryption or message handling.
+     */
+    private void onData(byte[] data) {
+        synchronized (rxBuffer) {
+            int written = rxBuffer.write(data, 0, data.length);
+            if (written < data.length) {
+                LOG.warn("Receive buffer full. Dropped <{}> bytes.", data.length - written);
+            }
+
+            rxBuffer.notifyAll();
+        }
     }
 
     @Override
     public void readLoop() {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        short nulCount = 0;
-        short chunkByteCount = 0;
+        byte[] chunk = new byte[RX_BUFFER_SIZE];
 
-        while(true) {
+        while(running) {
             try {
-                byte[] b = handle().readBytes(1);
+                handle();
                 healthyReceive = true;
 
-                if (b == null) {
-                    // Nothing to read. End of message.
-                    nulCount = 0;
-                    buffer.reset();
-                    continue;
-                }
-
-                chunkByteCount++;
-                if(chunkByteCount == 241) {
-                    // This is the first byte of a new chunk and it's the RSSI byte again, messing up our payload. Ignore it.
-                    chunkByteCount = 0;
-                    continue;
-                }
-
-                if (b[0] == 0x00) {
-                    // Our frames end with NULL bytes.
-                    nulCount++;
-
-                    if (nulCount == NULL_BYTE_SEQUENCE_COUNT) {
-                        // Message is complete!
-                        try {
-                            byte[] message = buffer.toByteArray();
-                            byte[] rssiChunk = handle().readBytes(1);
-
-                            if(rssiChunk == null || rssiChunk.length != 1) {
-                                continue;
-                            }
-
-                            int rssi = rssiChunk[0] & 0xFF;
-                            LOG.debug("Received <{}> bytes: {}", message.length, Tools.byteArrayToHexPrettyPrint(message));
-                            byte[] decrypted = encryption.decrypt(message);
-                            messageHandler.handle(
-                                    TrackerMessage.Wrapper.parseFrom(decrypted),
-                                    rssi
-                            );
-
-                            rxCounter.inc(decrypted.length);
-                        } catch (javax.crypto.AEADBadTagException e) {
-                            LOG.debug("Skipping invalid message. Payload was: [{}]", Tools.byteArrayToHexPrettyPrint(buffer.toByteArray()), e);
-                            continue;
-                        } catch(InvalidProtocolBufferException e) {
-                            LOG.debug("Skipping invalid protobuf message. Payload was: [{}]", Tools.byteArrayToHexPrettyPrint(buffer.toByteArray()), e);
-                            continue;
-                        } finally {
-                            nulCount = 0;
-                            chunkByteCount = 0;
-                            buffer.reset();
-                        }
+                int read;
+                synchronized (rxBuffer) {
+                    if (rxBuffer.isEmpty()) {
+                        // Wake up regularly to check if the port is still open.
+                        rxBuffer.wait(1000);
                     }
 
-                    continue;
+                    read = rxBuffer.read(chunk, 0, chunk.length);
                 }
 
-                if (nulCount > 0) {
-                    for(int i = 0; i < nulCount; i++) {
-                        buffer.write(0x00);
-                    }
-
-                    nulCount = 0;
+                if (!running) {
+                    return;
                 }
 
-                try {
-                    buffer.write(b);
-                } catch (IOException e) {
-                    LOG.warn("Could not write to buffer.", e);
-                    buffer.reset();
-                    nulCount = 0;
-                    chunkByteCount = 0;
-                    continue;
-                }
+                decoder.feed(chunk, 0, read);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             } catch(Exception e) {
                 LOG.warn("Error in read loop.", e);
                 healthyReceive = false;
 
                 try {
                     Thread.sleep(1000);
-                } catch (InterruptedException ignored) { }
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
         }
     }
 
-    private SerialPort handle() throws SerialPortException {
-        if (serialPort == null || !serialPort.isOpened()) {
-            serialPort = new SerialPort(this.portName);
-            serialPort.openPort();
-            serialPort.setParams(BAUD, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+    private void handleFrame(byte[] message, int rssi) {
+        try {
+            LOG.debug("Received <{}> bytes: {}", message.length, Tools.byteArrayToHexPrettyPrint(message));
+            byte[] decrypted = encryption.decrypt(message);
+            rxCounter.inc(decrypted.length);
+
+            payloadHandler.handle(decrypted, rssi);
+        } catch (GeneralSecurityException e) {
+            LOG.debug("Skipping invalid message. Payload was: [{}]", Tools.byteArrayToHexPrettyPrint(message), e);
+        } catch(Exception e) {
+            LOG.warn("Could not handle received message.", e);
+        }
+    }
+
+    private synchronized SerialConnection handle() throws SerialPortException {
+        if (!connection.isOpen()) {
+            connection.open(this::onData);
         }
 
-        return serialPort;
+        return connection;
     }
 
     @Override
@@ -208,8 +211,11 @@ public class SX126XLoRaHat implements TrackerDevice {
         return "Waveshare SX126X LoRa HAT";
     }
 
+    /**
+     * Blocks until the duty cycle allows the next transmission. Reception is not affected.
+     */
     @Override
-    public synchronized void transmit(byte[] message) {
+    public void transmit(byte[] message) {
         try {
             ByteArrayOutputStream payload = new ByteArrayOutputStream();
 
@@ -221,23 +227,27 @@ public class SX126XLoRaHat implements TrackerDevice {
 
             payload.write(encrypted);
 
-            for (short i = 0; i < NULL_BYTE_SEQUENCE_COUNT; i++) {
+            for (short i = 0; i < SX126XFrameDecoder.TERMINATOR_LENGTH; i++) {
                 payload.write(0x00);
             }
             byte[] buf = payload.toByteArray();
 
-            LOG.debug("Transmitting <{}> bytes: {}", buf.length, Tools.byteArrayToHexPrettyPrint(buf));
-
-            handle().writeBytes(buf);
-            txCounter.inc(buf.length);
+            synchronized (txScheduler) {
+                long delay = txScheduler.delayMillis();
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
 
-            healthyTransmit = true;
+                LOG.debug("Transmitting <{}> bytes: {}", buf.length, Tools.byteArrayToHexPrettyPrint(buf));
 
-            // Spread out message sending to not overload LoRa bands or UART connection buffer.
-            try {
-                Thread.sleep(1500);
-            } catch (InterruptedException ignored) {
+                handle().write(buf);
+                txScheduler.transmitted(buf.length);
             }
+
+            txCounter.inc(buf.length);
+            healthyTransmit = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             LOG.error("Could not transmit message.", e);
             healthyTransmit = false;
@@ -245,8 +255,13 @@ public class SX126XLoRaHat implements TrackerDevice {
     }
 
     @Override
-    public void onMessageReceived(WrapperMessageHandler receiver) {
-        this.messageHandler = receiver;
+    public long airtimeMillis(int messageLength) {
+        return txScheduler.airtimeMillis(messageLength + ENCRYPTION_OVERHEAD + SX126XFrameDecoder.TERMINATOR_LENGTH);
+    }
+
+    @Override
+    public void onPayloadReceived(PayloadHandler receiver) {
+        this.payloadHandler = receiver;
     }
 
 }
@@ -0,0 +1,39 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.bandits.trackers.devices;
+
+import jssc.SerialPortException;
+
+/**
+ * A serial port that pushes received bytes to a listener as soon as they are available.
+ */
+public interface SerialConnection {
+
+    void open(DataListener listener) throws SerialPortException;
+    void write(byte[] data) throws SerialPortException;
+    boolean isOpen();
+    void close() throws SerialPortException;
+
+    interface DataListener {
+        /**
+         * Called with whatever number of bytes the port had available. Frames can be split across any number of calls.
+         */
+        void onData(byte[] data);
+    }
+
+}
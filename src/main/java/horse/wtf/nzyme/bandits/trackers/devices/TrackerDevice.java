@@ -17,7 +17,6 @@
 
 package horse.wtf.nzyme.bandits.trackers.devices;
 
-import horse.wtf.nzyme.bandits.trackers.messagehandlers.WrapperMessageHandler;
 import jssc.SerialPortException;
 
 public interface TrackerDevice {
@@ -35,7 +34,19 @@ public interface TrackerDevice {
 
     void readLoop();
     void transmit(byte[] message) throws SerialPortException;
-    void onMessageReceived(WrapperMessageHandler receiver);
+    void onPayloadReceived(PayloadHandler receiver);
+
+    /**
+     * Estimated time on air for transmitting a message of the given length, including transport overhead.
+     */
+    long airtimeMillis(int messageLength);
+
+    interface PayloadHandler {
+        /**
+         * @param payload Decrypted payload of a received frame.
+         */
+        void handle(byte[] payload, int rssi);
+    }
 
     class TrackerDeviceInitializationException extends Exception {
 
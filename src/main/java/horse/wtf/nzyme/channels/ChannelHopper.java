@@ -17,20 +17,24 @@
 
 package horse.wtf.nzyme.channels;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.io.CharStreams;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import horse.wtf.nzyme.configuration.Dot11NetworkDefinition;
 import horse.wtf.nzyme.dot11.probes.Dot11Probe;
 import horse.wtf.nzyme.dot11.probes.Dot11ProbeConfiguration;
-import horse.wtf.nzyme.util.Tools;
+import horse.wtf.nzyme.util.MetricNames;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.InputStreamReader;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class ChannelHopper {
@@ -42,12 +46,32 @@ public class ChannelHopper {
 
     private final List<ChannelSwitchHandler> channelSwitchHandlers;
 
+    private final ChannelSwitcher commandSwitcher;
+    private volatile ChannelSwitcher netlinkSwitcher;
+
+    private final Timer switchTimer;
+
     private List<Integer> configuredChannels;
 
+    // Only set for adaptive channel hopping.
+    private ChannelScheduler scheduler;
+
+    private ScheduledExecutorService executor;
+
     private int currentChannel = 0;
     private int currentChannelIndex = 0;
 
-    public ChannelHopper(Dot11Probe probe, Dot11ProbeConfiguration probeConfiguration) {
+    public ChannelHopper(Dot11Probe probe, Dot11ProbeConfiguration probeConfiguration, MetricRegistry metrics) {
+        this(probe, probeConfiguration, metrics,
+                probeConfiguration.netlinkChannelSwitching() ? buildNetlinkSwitcher() : null,
+                new CommandChannelSwitcher(probeConfiguration.channelHopCommand()));
+    }
+
+    /**
+     * @param netlinkSwitcher Tried first if set. Replaced by the commandSwitcher for good after the first setup failure.
+     */
+    public ChannelHopper(Dot11Probe probe, Dot11ProbeConfiguration probeConfiguration, MetricRegistry metrics,
+                         @Nullable ChannelSwitcher netlinkSwitcher, ChannelSwitcher commandSwitcher) {
         if(probeConfiguration.channels() == null || probeConfiguration.channels().isEmpty()) {
             throw new RuntimeException("Channels empty or NULL. You need to configure at least one channel.");
         }
@@ -57,14 +81,29 @@ public class ChannelHopper {
 
         this.probe = probe;
         this.probeConfiguration = probeConfiguration;
+
+        this.netlinkSwitcher = netlinkSwitcher;
+        this.commandSwitcher = commandSwitcher;
+        this.switchTimer = metrics.timer(MetricRegistry.name(MetricNames.CHANNEL_SWITCH_TIMING, probeConfiguration.probeName()));
+
+        if (probeConfiguration.adaptiveChannelHopping()) {
+            this.scheduler = buildScheduler(configuredChannels);
+        }
     }
 
     public void initialize() {
-        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setDaemon(true)
                 .setNameFormat("channel-hopper-%d")
                 .build()
-        ).scheduleWithFixedDelay(() -> {
+        );
+
+        if (scheduler != null) {
+            executor.schedule(this::adaptiveHop, 0, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        executor.scheduleWithFixedDelay(() -> {
             try {
                 List<Integer> channels = new ArrayList<>(configuredChannels);
                 if (!this.probe.isInLoop()) {
@@ -90,39 +129,122 @@ public class ChannelHopper {
         }, 0, probeConfiguration.channelHopInterval(), TimeUnit.SECONDS);
     }
 
-    private void changeToChannel(Integer channel) {
+    private void adaptiveHop() {
+        long dwellMillis = TimeUnit.SECONDS.toMillis(probeConfiguration.channelHopInterval());
+
         try {
-            int previousChannel = currentChannel;
-            String networkInterface = Tools.safeAlphanumericString(probeConfiguration.networkInterfaceName());
+            if (!this.probe.isInLoop()) {
+                LOG.debug("Not hopping channel. Probe [{}] not in loop.", probeConfiguration.networkInterfaceName());
+                return;
+            }
 
-            String command = probeConfiguration.channelHopCommand()
-                    .replace("{channel}", channel.toString()).replace("{interface}", networkInterface);
-            LOG.debug("Executing: [{}]", command);
+            Hop hop;
+            synchronized (this) {
+                hop = scheduler.next();
+            }
 
-            Process exec = Runtime.getRuntime().exec(command);
-            int returnCode = exec.waitFor();
+            LOG.debug("Configuring [{}] to use channel <{}> for <{}ms>", probeConfiguration.networkInterfaceName(), hop.channel(), hop.dwellMillis());
 
-            String stderr = CharStreams.toString(new InputStreamReader(exec.getErrorStream())).replace("\n", "").replace("\r", "");
+            changeToChannel(hop.channel());
+            dwellMillis = hop.dwellMillis();
+        } catch(Exception e) {
+            LOG.error("Could not hop channel.", e);
+        } finally {
+            // Re-schedule with the dwell time of the channel we just switched to.
+            executor.schedule(this::adaptiveHop, dwellMillis, TimeUnit.MILLISECONDS);
+        }
+    }
 
-            if (returnCode != 0 || !stderr.trim().isEmpty()) {
-                if (stderr.contains("no tty present and no askpass program specified")) {
-                    stderr = stderr + " (are you running with sudo? It must succeed without STDIN/user input. See README for instructions.)";
-                }
+    /**
+     * Feeds the adaptive channel scheduler. Does nothing if adaptive channel hopping is disabled.
+     */
+    public void recordFrame(int channel, @Nullable String bssid) {
+        if (scheduler == null) {
+            return;
+        }
 
-                LOG.fatal("Could not configure interface [{}] to use channel <{}>. Return code <{}>, STDERR: [{}]", networkInterface, channel, returnCode, stderr);
-            } else {
-                currentChannel = channel;
-                LOG.debug("Channel change successful.");
-                for (ChannelSwitchHandler handler : channelSwitchHandlers) {
-                    handler.handle(previousChannel, currentChannel);
-                }
+        synchronized (this) {
+            scheduler.recordFrame(channel, bssid);
+        }
+    }
+
+    @Nullable
+    private static ChannelSwitcher buildNetlinkSwitcher() {
+        try {
+            return new NetlinkChannelSwitcher();
+        } catch (ChannelSwitchException e) {
+            LOG.info("Netlink channel switching not available. Using channel hop command. ({})", e.getMessage());
+            return null;
+        }
+    }
 
+    private ChannelScheduler buildScheduler(List<Integer> channels) {
+        ImmutableSet.Builder<String> monitoredBSSIDs = ImmutableSet.builder();
+        ImmutableSet.Builder<Integer> monitoredChannels = ImmutableSet.builder();
+        if (probeConfiguration.getDot11Networks() != null) {
+            for (Dot11NetworkDefinition network : probeConfiguration.getDot11Networks()) {
+                monitoredBSSIDs.addAll(network.allBSSIDAddresses());
+                monitoredChannels.addAll(network.channels());
             }
+        }
+
+        return new ChannelScheduler(
+                channels,
+                TimeUnit.SECONDS.toMillis(probeConfiguration.channelHopInterval()),
+                monitoredBSSIDs.build(),
+                monitoredChannels.build()
+        );
+    }
+
+    private void changeToChannel(Integer channel) {
+        int previousChannel = currentChannel;
+        String networkInterface = probeConfiguration.networkInterfaceName();
+
+        try {
+            long start = System.nanoTime();
+            switchChannel(networkInterface, channel);
+            switchTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (ChannelSwitchException e) {
+            LOG.fatal("Could not configure interface [{}] to use channel <{}>. {}", networkInterface, channel, e.getMessage(), e.getCause());
+            return;
         } catch(Exception e) {
             LOG.error("Could not hop to channel <{}>.", channel, e);
+            return;
+        }
+
+        currentChannel = channel;
+        LOG.debug("Channel change successful.");
+        for (ChannelSwitchHandler handler : channelSwitchHandlers) {
+            try {
+                handler.handle(previousChannel, currentChannel);
+            } catch (Exception e) {
+                LOG.error("Channel switch handler failed.", e);
+            }
         }
     }
 
+    private void switchChannel(String networkInterface, int channel) throws ChannelSwitchException {
+        ChannelSwitcher netlink = this.netlinkSwitcher;
+        if (netlink != null) {
+            try {
+                netlink.switchChannel(networkInterface, channel);
+                return;
+            } catch (ChannelSwitchException e) {
+                if (!e.isSetupFailure()) {
+                    // Only this channel failed, like one that the regulatory domain does not allow. Keep using netlink.
+                    throw e;
+                }
+
+                // Usually missing permissions or a driver without nl80211 support. Won't get better by retrying.
+                LOG.warn("Netlink channel switch on [{}] failed. Falling back to channel hop command.", networkInterface, e);
+                this.netlinkSwitcher = null;
+                netlink.close();
+            }
+        }
+
+        commandSwitcher.switchChannel(networkInterface, channel);
+    }
+
     public void setChannels(List<Integer> channels) {
         if (channels.equals(this.configuredChannels)) {
             // No need to update if channels did not change.
@@ -134,6 +256,12 @@ public class ChannelHopper {
 
         this.currentChannel = 0;
         this.currentChannelIndex = 0;
+
+        if (scheduler != null) {
+            synchronized (this) {
+                this.scheduler = buildScheduler(channels);
+            }
+        }
     }
 
     public Integer getCurrentChannel() {
@@ -0,0 +1,181 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.channels;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which channel to hop to next and how long to stay there. Channels are visited in round robin order, so
+ * every channel is visited once per round, but the dwell time of each visit is weighted by the recent frame rate,
+ * the number of distinct BSSIDs and the presence of monitored networks on that channel. A channel without any
+ * activity still gets at least MIN_DWELL_FACTOR of the configured hop interval and a busy channel gets at most
+ * MAX_DWELL_FACTOR of it. Without any observed traffic, this behaves like the static round robin.
+ *
+ * Not thread-safe on its own. The ChannelHopper synchronizes access.
+ */
+public class ChannelScheduler {
+
+    public static final double MIN_DWELL_FACTOR = 0.25;
+    public static final double MAX_DWELL_FACTOR = 4.0;
+
+    private static final double FRAME_RATE_WEIGHT = 2.0;
+    private static final double BSSID_WEIGHT = 1.0;
+    private static final double MONITORED_WEIGHT = 1.0;
+
+    // Weight of the most recent visit in the moving averages.
+    private static final double SMOOTHING = 0.3;
+
+    // A monitored BSSID keeps a channel marked as monitored for this many visits after it was last seen.
+    private static final int MONITORED_VISITS = 3;
+
+    private final ImmutableList<Integer> channels;
+    private final long baseDwellMillis;
+    private final ImmutableSet<String> monitoredBSSIDs;
+    private final ImmutableSet<Integer> monitoredChannels;
+
+    private final Map<Integer, ChannelStatistics> statistics;
+
+    private int currentIndex = -1;
+    private long currentDwellMillis = 0;
+
+    public ChannelScheduler(List<Integer> channels, long baseDwellMillis, Set<String> monitoredBSSIDs, Set<Integer> monitoredChannels) {
+        if (channels == null || channels.isEmpty()) {
+            throw new IllegalArgumentException("Channels empty or NULL. You need to configure at least one channel.");
+        }
+
+        this.channels = ImmutableList.copyOf(channels);
+        this.baseDwellMillis = baseDwellMillis;
+        this.monitoredBSSIDs = ImmutableSet.copyOf(monitoredBSSIDs);
+        this.monitoredChannels = ImmutableSet.copyOf(monitoredChannels);
+
+        this.statistics = Maps.newHashMap();
+        for (Integer channel : channels) {
+            statistics.put(channel, new ChannelStatistics());
+        }
+    }
+
+    public void recordFrame(int channel, @Nullable String bssid) {
+        ChannelStatistics stats = statistics.get(channel);
+        if (stats == null) {
+            // Frame from a channel we don't hop to. (Overlapping 2.4GHz channels, remote designations, ...)
+            return;
+        }
+
+        stats.frames++;
+        if (bssid != null) {
+            stats.visitBSSIDs.add(bssid);
+
+            if (monitoredBSSIDs.contains(bssid)) {
+                stats.monitoredSeen = true;
+            }
+        }
+    }
+
+    /**
+     * Closes the visit of the current channel and returns the next channel to visit.
+     */
+    public Hop next() {
+        if (currentIndex >= 0) {
+            statistics.get(channels.get(currentIndex)).closeVisit(currentDwellMillis);
+        }
+
+        currentIndex = (currentIndex + 1) % channels.size();
+        int channel = channels.get(currentIndex);
+        currentDwellMillis = dwellMillis(channel);
+
+        return Hop.create(channel, currentDwellMillis);
+    }
+
+    public long dwellMillis(int channel) {
+        double totalWeight = 0;
+        for (Integer c : channels) {
+            totalWeight += weight(c);
+        }
+
+        // The total time of a round stays the same as with static hopping. It is only distributed differently.
+        double share = baseDwellMillis * channels.size() * weight(channel) / totalWeight;
+
+        return Math.round(Math.max(baseDwellMillis * MIN_DWELL_FACTOR, Math.min(baseDwellMillis * MAX_DWELL_FACTOR, share)));
+    }
+
+    private double weight(int channel) {
+        double maxFrameRate = 0;
+        double maxBSSIDs = 0;
+        for (ChannelStatistics stats : statistics.values()) {
+            maxFrameRate = Math.max(maxFrameRate, stats.frameRate);
+            maxBSSIDs = Math.max(maxBSSIDs, stats.bssids);
+        }
+
+        ChannelStatistics stats = statistics.get(channel);
+
+        double weight = 1.0;
+        if (maxFrameRate > 0) {
+            weight += FRAME_RATE_WEIGHT * stats.frameRate / maxFrameRate;
+        }
+        if (maxBSSIDs > 0) {
+            weight += BSSID_WEIGHT * stats.bssids / maxBSSIDs;
+        }
+        if (monitoredChannels.contains(channel) || stats.visitsSinceMonitored < MONITORED_VISITS) {
+            weight += MONITORED_WEIGHT;
+        }
+
+        return weight;
+    }
+
+    public ImmutableList<Integer> getChannels() {
+        return channels;
+    }
+
+    private static final class ChannelStatistics {
+
+        private double frameRate = 0;
+        private double bssids = 0;
+        private int visitsSinceMonitored = MONITORED_VISITS;
+
+        private long frames = 0;
+        private final Set<String> visitBSSIDs = Sets.newHashSet();
+        private boolean monitoredSeen = false;
+
+        private void closeVisit(long dwellMillis) {
+            double visitFrameRate = dwellMillis > 0 ? frames * 1000.0 / dwellMillis : 0;
+
+            frameRate = SMOOTHING * visitFrameRate + (1 - SMOOTHING) * frameRate;
+            bssids = SMOOTHING * visitBSSIDs.size() + (1 - SMOOTHING) * bssids;
+
+            if (monitoredSeen) {
+                visitsSinceMonitored = 0;
+            } else if (visitsSinceMonitored < MONITORED_VISITS) {
+                visitsSinceMonitored++;
+            }
+
+            frames = 0;
+            visitBSSIDs.clear();
+            monitoredSeen = false;
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.channels;
+
+public class ChannelSwitchException extends Exception {
+
+    private final boolean setupFailure;
+
+    public ChannelSwitchException(String msg) {
+        this(msg, false);
+    }
+
+    public ChannelSwitchException(String msg, Throwable e) {
+        this(msg, e, false);
+    }
+
+    /**
+     * @param setupFailure The switcher can not switch any channel, like with missing permissions. As opposed to a
+     *                     single channel that could not be switched to.
+     */
+    public ChannelSwitchException(String msg, boolean setupFailure) {
+        super(msg);
+        this.setupFailure = setupFailure;
+    }
+
+    public ChannelSwitchException(String msg, Throwable e, boolean setupFailure) {
+        super(msg, e);
+        this.setupFailure = setupFailure;
+    }
+
+    public boolean isSetupFailure() {
+        return setupFailure;
+    }
+
+}
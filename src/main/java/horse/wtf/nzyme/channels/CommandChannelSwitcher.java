@@ -0,0 +1,69 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.channels;
+
+import com.google.common.io.CharStreams;
+import horse.wtf.nzyme.util.Tools;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.InputStreamReader;
+
+/**
+ * Switches channels by executing the configured channel_hop_command. Forks a process for every hop.
+ */
+public class CommandChannelSwitcher implements ChannelSwitcher {
+
+    private static final Logger LOG = LogManager.getLogger(CommandChannelSwitcher.class);
+
+    private final String channelHopCommand;
+
+    public CommandChannelSwitcher(String channelHopCommand) {
+        this.channelHopCommand = channelHopCommand;
+    }
+
+    @Override
+    public void switchChannel(String networkInterface, int channel) throws ChannelSwitchException {
+        String command = channelHopCommand
+                .replace("{channel}", String.valueOf(channel))
+                .replace("{interface}", Tools.safeAlphanumericString(networkInterface));
+        LOG.debug("Executing: [{}]", command);
+
+        int returnCode;
+        String stderr;
+        try {
+            Process exec = Runtime.getRuntime().exec(command);
+            returnCode = exec.waitFor();
+            stderr = CharStreams.toString(new InputStreamReader(exec.getErrorStream())).replace("\n", "").replace("\r", "");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChannelSwitchException("Interrupted while waiting for channel hop command.", e);
+        } catch (Exception e) {
+            throw new ChannelSwitchException("Could not execute channel hop command [" + command + "].", e);
+        }
+
+        if (returnCode != 0 || !stderr.trim().isEmpty()) {
+            if (stderr.contains("no tty present and no askpass program specified")) {
+                stderr = stderr + " (are you running with sudo? It must succeed without STDIN/user input. See README for instructions.)";
+            }
+
+            throw new ChannelSwitchException("Return code <" + returnCode + ">, STDERR: [" + stderr + "]");
+        }
+    }
+
+}
@@ -74,4 +74,23 @@ public class Frequencies {
         }
     }
 
+    /**
+     * Center frequency in MHz of a 2.4 GHz or 5 GHz channel. 0 if unknown.
+     */
+    public static int channelToFrequency(int channel) {
+        if (channel == 14) {
+            return 2484;
+        }
+
+        if (channel >= 1 && channel <= 13) {
+            return 2407 + channel * 5;
+        }
+
+        if (channel >= 32 && channel <= 177) {
+            return 5000 + channel * 5;
+        }
+
+        return 0;
+    }
+
 }
@@ -0,0 +1,48 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.channels;
+
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class Hop {
+
+    public abstract int channel();
+    public abstract long dwellMillis();
+
+    public static Hop create(int channel, long dwellMillis) {
+        return builder()
+                .channel(channel)
+                .dwellMillis(dwellMillis)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_Hop.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder channel(int channel);
+
+        public abstract Builder dwellMillis(long dwellMillis);
+
+        public abstract Hop build();
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.channels;
+
+import com.google.common.collect.Maps;
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Platform;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+/**
+ * Switches channels by sending NL80211_CMD_SET_WIPHY over a generic netlink socket instead of forking a process for
+ * every hop. Linux only and requires CAP_NET_ADMIN, just like the iw command.
+ *
+ * The kernel handles netlink requests synchronously while sending, so the ACK is already queued when we read it. A
+ * receive timeout still guards against a missing ACK, so that the hopper thread can never block forever.
+ */
+public class NetlinkChannelSwitcher implements ChannelSwitcher {
+
+    private static final int RECEIVE_BUFFER_SIZE = 8192;
+    private static final long RECEIVE_TIMEOUT_MILLIS = 1000;
+
+    private static final int SOL_SOCKET = 1;
+    private static final int SO_RCVTIMEO = 20;
+    private static final int EPERM = 1;
+    private static final int EAGAIN = 11;
+    private static final int ENODEV = 19;
+    private static final int EOPNOTSUPP = 95;
+
+    private final int socket;
+    private final short familyId;
+
+    private final Map<String, Integer> interfaceIndexes;
+    private final byte[] receiveBuffer;
+
+    private int sequence = 0;
+
+    public NetlinkChannelSwitcher() throws ChannelSwitchException {
+        if (!Platform.isLinux()) {
+            throw new ChannelSwitchException("Netlink channel switching is only supported on Linux.");
+        }
+
+        this.interfaceIndexes = Maps.newHashMap();
+        this.receiveBuffer = new byte[RECEIVE_BUFFER_SIZE];
+
+        try {
+            this.socket = LibC.INSTANCE.socket(Nl80211Messages.AF_NETLINK, Nl80211Messages.SOCK_RAW, Nl80211Messages.NETLINK_GENERIC);
+        } catch (LastErrorException | UnsatisfiedLinkError | NoClassDefFoundError e) {
+            throw new ChannelSwitchException("Could not open generic netlink socket.", e);
+        }
+
+        try {
+            setReceiveTimeout(RECEIVE_TIMEOUT_MILLIS);
+
+            int seq = ++sequence;
+            send(Nl80211Messages.getFamilyRequest(seq, Nl80211Messages.NL80211_FAMILY_NAME));
+            this.familyId = Nl80211Messages.parseFamilyId(receiveBuffer, receive(), seq);
+        } catch (ChannelSwitchException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void switchChannel(String networkInterface, int channel) throws ChannelSwitchException {
+        int frequency = Frequencies.channelToFrequency(channel);
+        if (frequency == 0) {
+            throw new ChannelSwitchException("Unknown frequency of channel <" + channel + ">.");
+        }
+
+        int seq = ++sequence;
+        send(Nl80211Messages.setFrequencyRequest(familyId, seq, interfaceIndex(networkInterface), frequency));
+
+        int error = Nl80211Messages.parseAck(receiveBuffer, receive(), seq);
+        if (error != 0) {
+            throw new ChannelSwitchException("Could not switch [" + networkInterface + "] to channel <" + channel
+                    + "> (" + frequency + " MHz). Error <" + -error + ">.", isSetupError(-error));
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            LibC.INSTANCE.close(socket);
+        } catch (LastErrorException ignored) {
+            // Nothing to do.
+        }
+    }
+
+    private int interfaceIndex(String networkInterface) throws ChannelSwitchException {
+        Integer index = interfaceIndexes.get(networkInterface);
+        if (index == null) {
+            index = LibC.INSTANCE.if_nametoindex(networkInterface);
+            if (index == 0) {
+                throw new ChannelSwitchException("Unknown network interface [" + networkInterface + "].", true);
+            }
+
+            interfaceIndexes.put(networkInterface, index);
+        }
+
+        return index;
+    }
+
+    private void send(byte[] message) throws ChannelSwitchException {
+        try {
+            LibC.INSTANCE.send(socket, message, new NativeLong(message.length), 0);
+        } catch (LastErrorException e) {
+            throw new ChannelSwitchException("Could not send netlink message.", e, true);
+        }
+    }
+
+    private int receive() throws ChannelSwitchException {
+        try {
+            return LibC.INSTANCE.recv(socket, receiveBuffer, new NativeLong(receiveBuffer.length), 0).intValue();
+        } catch (LastErrorException e) {
+            if (e.getErrorCode() == EAGAIN) {
+                throw new ChannelSwitchException("No netlink response within <" + RECEIVE_TIMEOUT_MILLIS + "ms>.", e, true);
+            }
+
+            throw new ChannelSwitchException("Could not receive netlink message.", e, true);
+        }
+    }
+
+    private void setReceiveTimeout(long millis) throws ChannelSwitchException {
+        byte[] timeval = timeval(millis, NativeLong.SIZE, ByteOrder.nativeOrder());
+        try {
+            LibC.INSTANCE.setsockopt(socket, SOL_SOCKET, SO_RCVTIMEO, timeval, timeval.length);
+        } catch (LastErrorException e) {
+            throw new ChannelSwitchException("Could not set receive timeout of netlink socket.", e);
+        }
+    }
+
+    /**
+     * Errors that mean netlink channel switching does not work on this system or interface at all. Everything else,
+     * like EINVAL for a channel the regulatory domain does not allow, only affects the requested channel.
+     */
+    static boolean isSetupError(int errno) {
+        return errno == EPERM || errno == ENODEV || errno == EOPNOTSUPP;
+    }
+
+    /**
+     * struct timeval: seconds and microseconds, each a C long.
+     */
+    static byte[] timeval(long millis, int longSize, ByteOrder order) {
+        ByteBuffer buffer = ByteBuffer.allocate(longSize * 2).order(order);
+        long seconds = millis / 1000;
+        long micros = (millis % 1000) * 1000;
+
+        if (longSize == 8) {
+            buffer.putLong(seconds).putLong(micros);
+        } else {
+            buffer.putInt((int) seconds).putInt((int) micros);
+        }
+
+        return buffer.array();
+    }
+
+    private interface LibC extends Library {
+
+        LibC INSTANCE = Native.load("c", LibC.class);
+
+        int socket(int domain, int type, int protocol) throws LastErrorException;
+
+        NativeLong send(int socket, byte[] buffer, NativeLong length, int flags) throws LastErrorException;
+
+        NativeLong recv(int socket, byte[] buffer, NativeLong length, int flags) throws LastErrorException;
+
+        int setsockopt(int socket, int level, int option, byte[] value, int length) throws LastErrorException;
+
+        int close(int socket) throws LastErrorException;
+
+        int if_nametoindex(String name);
+
+    }
+
+}
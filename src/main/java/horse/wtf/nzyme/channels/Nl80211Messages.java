@@ -0,0 +1,213 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.channels;
+
+import com.google.common.base.Charsets;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encodes and decodes the few generic netlink / nl80211 messages required to switch the channel of a wireless
+ * interface. Netlink uses host byte order. See linux/netlink.h, linux/genetlink.h and linux/nl80211.h.
+ */
+public class Nl80211Messages {
+
+    public static final int AF_NETLINK = 16;
+    public static final int SOCK_RAW = 3;
+    public static final int NETLINK_GENERIC = 16;
+
+    public static final String NL80211_FAMILY_NAME = "nl80211";
+
+    static final int NLMSG_HDRLEN = 16;
+    static final int GENL_HDRLEN = 4;
+    static final int NLA_HDRLEN = 4;
+
+    static final short NLMSG_ERROR = 0x2;
+
+    static final short NLM_F_REQUEST = 0x1;
+    static final short NLM_F_ACK = 0x4;
+
+    static final short GENL_ID_CTRL = 0x10;
+    static final byte CTRL_CMD_GETFAMILY = 3;
+    static final short CTRL_ATTR_FAMILY_ID = 1;
+    static final short CTRL_ATTR_FAMILY_NAME = 2;
+
+    static final byte NL80211_CMD_SET_WIPHY = 2;
+    static final short NL80211_ATTR_IFINDEX = 3;
+    static final short NL80211_ATTR_WIPHY_FREQ = 38;
+    static final short NL80211_ATTR_WIPHY_CHANNEL_TYPE = 39;
+    static final int NL80211_CHAN_NO_HT = 0;
+
+    // Upper bits of the attribute type are the nested and byte order flags.
+    private static final int NLA_TYPE_MASK = 0x3FFF;
+
+    private static final int MAX_REQUEST_SIZE = 128;
+
+    /**
+     * CTRL_CMD_GETFAMILY request to resolve the dynamic ID of a generic netlink family.
+     */
+    public static byte[] getFamilyRequest(int sequence, String familyName) {
+        byte[] name = familyName.getBytes(Charsets.US_ASCII);
+        byte[] nullTerminated = new byte[name.length + 1];
+        System.arraycopy(name, 0, nullTerminated, 0, name.length);
+
+        ByteBuffer buf = begin(GENL_ID_CTRL, NLM_F_REQUEST, sequence, CTRL_CMD_GETFAMILY, 1);
+        putAttribute(buf, CTRL_ATTR_FAMILY_NAME, nullTerminated);
+        return finish(buf);
+    }
+
+    /**
+     * NL80211_CMD_SET_WIPHY request that tunes the interface to a 20MHz channel on the given frequency. Same as
+     * "iw dev {interface} set freq {frequency}". Requests an ACK so that errors are reported back.
+     */
+    public static byte[] setFrequencyRequest(short familyId, int sequence, int interfaceIndex, int frequency) {
+        ByteBuffer buf = begin(familyId, (short) (NLM_F_REQUEST | NLM_F_ACK), sequence, NL80211_CMD_SET_WIPHY, 0);
+        putU32Attribute(buf, NL80211_ATTR_IFINDEX, interfaceIndex);
+        putU32Attribute(buf, NL80211_ATTR_WIPHY_FREQ, frequency);
+        putU32Attribute(buf, NL80211_ATTR_WIPHY_CHANNEL_TYPE, NL80211_CHAN_NO_HT);
+        return finish(buf);
+    }
+
+    /**
+     * Reads the family ID from the response to a CTRL_CMD_GETFAMILY request.
+     */
+    public static short parseFamilyId(byte[] response, int length, int sequence) throws ChannelSwitchException {
+        ByteBuffer buf = ByteBuffer.wrap(response, 0, length).order(ByteOrder.nativeOrder());
+
+        while (buf.remaining() >= NLMSG_HDRLEN) {
+            int start = buf.position();
+            int messageLength = buf.getInt();
+            short type = buf.getShort();
+            buf.getShort(); // flags
+            int messageSequence = buf.getInt();
+            buf.getInt(); // port ID
+
+            if (messageLength < NLMSG_HDRLEN || start + messageLength > length) {
+                throw new ChannelSwitchException("Truncated netlink message.");
+            }
+
+            if (messageSequence == sequence) {
+                if (type == NLMSG_ERROR) {
+                    throw new ChannelSwitchException("Could not resolve generic netlink family. Error <" + -buf.getInt() + ">.");
+                }
+
+                if (type == GENL_ID_CTRL) {
+                    buf.position(start + NLMSG_HDRLEN + GENL_HDRLEN);
+                    while (buf.position() + NLA_HDRLEN <= start + messageLength) {
+                        int attributeStart = buf.position();
+                        int attributeLength = buf.getShort() & 0xFFFF;
+                        int attributeType = buf.getShort() & NLA_TYPE_MASK;
+
+                        if (attributeLength < NLA_HDRLEN) {
+                            throw new ChannelSwitchException("Malformed netlink attribute.");
+                        }
+
+                        if (attributeType == CTRL_ATTR_FAMILY_ID) {
+                            return buf.getShort();
+                        }
+
+                        buf.position(Math.min(attributeStart + align(attributeLength), start + messageLength));
+                    }
+                }
+            }
+
+            buf.position(start + align(messageLength));
+        }
+
+        throw new ChannelSwitchException("No family ID in generic netlink response.");
+    }
+
+    /**
+     * Reads the error code of the ACK to a request. 0 on success, a negative errno otherwise.
+     */
+    public static int parseAck(byte[] response, int length, int sequence) throws ChannelSwitchException {
+        ByteBuffer buf = ByteBuffer.wrap(response, 0, length).order(ByteOrder.nativeOrder());
+
+        while (buf.remaining() >= NLMSG_HDRLEN) {
+            int start = buf.position();
+            int messageLength = buf.getInt();
+            short type = buf.getShort();
+            buf.getShort(); // flags
+            int messageSequence = buf.getInt();
+            buf.getInt(); // port ID
+
+            if (messageLength < NLMSG_HDRLEN || start + messageLength > length) {
+                throw new ChannelSwitchException("Truncated netlink message.");
+            }
+
+            if (type == NLMSG_ERROR && messageSequence == sequence && messageLength >= NLMSG_HDRLEN + 4) {
+                return buf.getInt();
+            }
+
+            buf.position(start + align(messageLength));
+        }
+
+        throw new ChannelSwitchException("No ACK for netlink request <" + sequence + ">.");
+    }
+
+    private static ByteBuffer begin(short type, short flags, int sequence, byte command, int version) {
+        ByteBuffer buf = ByteBuffer.allocate(MAX_REQUEST_SIZE).order(ByteOrder.nativeOrder());
+
+        // nlmsghdr. Length is written in finish().
+        buf.putInt(0);
+        buf.putShort(type);
+        buf.putShort(flags);
+        buf.putInt(sequence);
+        buf.putInt(0); // Port ID. The kernel fills it in.
+
+        // genlmsghdr
+        buf.put(command);
+        buf.put((byte) version);
+        buf.putShort((short) 0);
+
+        return buf;
+    }
+
+    private static void putU32Attribute(ByteBuffer buf, short type, int value) {
+        buf.putShort((short) (NLA_HDRLEN + 4));
+        buf.putShort(type);
+        buf.putInt(value);
+    }
+
+    private static void putAttribute(ByteBuffer buf, short type, byte[] value) {
+        buf.putShort((short) (NLA_HDRLEN + value.length));
+        buf.putShort(type);
+        buf.put(value);
+
+        // Attributes are aligned to 4 bytes.
+        for (int i = value.length; i < align(value.length); i++) {
+            buf.put((byte) 0);
+        }
+    }
+
+    private static byte[] finish(ByteBuffer buf) {
+        int length = buf.position();
+        buf.putInt(0, length);
+
+        byte[] message = new byte[length];
+        buf.flip();
+        buf.get(message);
+        return message;
+    }
+
+    static int align(int length) {
+        return (length + 3) & ~3;
+    }
+
+}
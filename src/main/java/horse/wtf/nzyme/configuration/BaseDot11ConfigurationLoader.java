@@ -60,13 +60,21 @@ public class BaseDot11ConfigurationLoader {
                 maxIdleTimeSeconds = 60;
             }
 
+            boolean adaptiveChannelHopping = config.hasPath(ConfigurationKeys.ADAPTIVE_CHANNEL_HOPPING)
+                    && config.getBoolean(ConfigurationKeys.ADAPTIVE_CHANNEL_HOPPING);
+
+            boolean netlinkChannelSwitching = !config.hasPath(ConfigurationKeys.NETLINK_CHANNEL_SWITCHING)
+                    || config.getBoolean(ConfigurationKeys.NETLINK_CHANNEL_SWITCHING);
+
             result.add(Dot11MonitorDefinition.create(
                     config.getString(ConfigurationKeys.DEVICE),
                     ImmutableList.copyOf(config.getIntList(ConfigurationKeys.CHANNELS)),
                     config.getString(ConfigurationKeys.HOP_COMMAND),
                     config.getInt(ConfigurationKeys.HOP_INTERVAL),
                     skipEnableMonitor,
-                    maxIdleTimeSeconds
+                    maxIdleTimeSeconds,
+                    adaptiveChannelHopping,
+                    netlinkChannelSwitching
             ));
         }
 
@@ -131,6 +139,12 @@ public class BaseDot11ConfigurationLoader {
             ConfigurationValidator.expect(c, ConfigurationKeys.CHANNELS, where, ImmutableList.class);
             ConfigurationValidator.expect(c, ConfigurationKeys.HOP_COMMAND, where, String.class);
             ConfigurationValidator.expect(c, ConfigurationKeys.HOP_INTERVAL, where, Integer.class);
+            if (c.hasPath(ConfigurationKeys.ADAPTIVE_CHANNEL_HOPPING)) {
+                ConfigurationValidator.expect(c, ConfigurationKeys.ADAPTIVE_CHANNEL_HOPPING, where, Boolean.class);
+            }
+            if (c.hasPath(ConfigurationKeys.NETLINK_CHANNEL_SWITCHING)) {
+                ConfigurationValidator.expect(c, ConfigurationKeys.NETLINK_CHANNEL_SWITCHING, where, Boolean.class);
+            }
             i++;
         }
 
@@ -33,6 +33,10 @@ public class ConfigurationKeys {
     public static final String GROUNDSTATION_DEVICE = "groundstation_device";
     public static final String DATA_DIRECTORY = "data_directory";
     public static final String REMOTE_INPUT = "remote_input";
+    public static final String RECEIVE_BUFFER_SIZE = "receive_buffer_size";
+    public static final String WORKERS = "workers";
+    public static final String STRUCTURED_DATA_ID = "structured_data_id";
+    public static final String TRUSTED_SOURCES = "trusted_sources";
     public static final String REPORTING = "reporting";
 
     public static final String DEVICE = "device";
@@ -40,12 +44,15 @@ public class ConfigurationKeys {
     public static final String CHANNEL = "channel";
     public static final String HOP_COMMAND = "channel_hop_command";
     public static final String HOP_INTERVAL = "channel_hop_interval";
+    public static final String ADAPTIVE_CHANNEL_HOPPING = "adaptive_channel_hopping";
+    public static final String NETLINK_CHANNEL_SWITCHING = "netlink_channel_switching";
     public static final String SKIP_ENABLE_MONITOR = "skip_enable_monitor";
     public static final String MAX_IDLE_TIME_SECONDS = "max_idle_time_seconds";
     public static final String ROLE = "role";
     public static final String ID = "id";
     public static final String ADMIN_PASSWORD_HASH = "admin_password_hash";
     public static final String DATABASE_PATH = "database_path";
+    public static final String SLOW_QUERY_THRESHOLD_MS = "slow_query_threshold_ms";
     public static final String VERSIONCHECKS = "versionchecks";
     public static final String FETCH_OUIS = "fetch_ouis";
     public static final String PYTHON_PATH = "path";
@@ -57,6 +64,9 @@ public class ConfigurationKeys {
     public static final String USE_TLS = "use_tls";
     public static final String TLS_CERTIFICATE_PATH = "tls_certificate_path";
     public static final String TLS_KEY_PATH = "tls_key_path";
+    public static final String LIVE_UPDATES_INTERVAL_SECONDS = "live_updates_interval_seconds";
+    public static final String PROMETHEUS_METRICS_ENABLED = "prometheus_metrics_enabled";
+    public static final String FRAME_PROCESSING_SHARDS = "frame_processing_shards";
     public static final String SSID = "ssid";
     public static final String SSIDS = "ssids";
     public static final String BSSIDS = "bssids";
@@ -92,12 +102,15 @@ public class ConfigurationKeys {
     public static final String FROM = "from";
     public static final String SUBJECT_PREFIX = "subject_prefix";
     public static final String PATH = "path";
+    public static final String MAX_SIZE_MB = "max_size_mb";
+    public static final String DIGEST_WINDOW_SECONDS = "digest_window_seconds";
     public static final String DEAUTH_MONITOR = "deauth_monitor";
     public static final String GLOBAL_THRESHOLD = "global_threshold";
 
     public static final String PARAMETERS = "parameters";
     public static final String SERIAL_PORT = "serial_port";
     public static final String ENCRYPTION_KEY = "encryption_key";
+    public static final String AIRTIME_BUDGET_PERCENT = "airtime_budget_percent";
 
     public static final String ENABLED = "enabled";
     public static final String TRACKER_NAME = "tracker_name";
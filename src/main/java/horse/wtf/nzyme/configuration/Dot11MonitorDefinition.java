@@ -31,8 +31,10 @@ public abstract class Dot11MonitorDefinition {
     public abstract Integer channelHopInterval();
     public abstract boolean skipEnableMonitor();
     public abstract int maxIdleTimeSeconds();
+    public abstract boolean adaptiveChannelHopping();
+    public abstract boolean netlinkChannelSwitching();
 
-    public static Dot11MonitorDefinition create(String device, ImmutableList<Integer> channels, String channelHopCommand, Integer channelHopInterval, boolean skipEnableMonitor, int maxIdleTimeSeconds) {
+    public static Dot11MonitorDefinition create(String device, ImmutableList<Integer> channels, String channelHopCommand, Integer channelHopInterval, boolean skipEnableMonitor, int maxIdleTimeSeconds, boolean adaptiveChannelHopping, boolean netlinkChannelSwitching) {
         return builder()
                 .device(device)
                 .channels(channels)
@@ -40,6 +42,8 @@ public abstract class Dot11MonitorDefinition {
                 .channelHopInterval(channelHopInterval)
                 .skipEnableMonitor(skipEnableMonitor)
                 .maxIdleTimeSeconds(maxIdleTimeSeconds)
+                .adaptiveChannelHopping(adaptiveChannelHopping)
+                .netlinkChannelSwitching(netlinkChannelSwitching)
                 .build();
     }
 
@@ -68,6 +72,10 @@ public abstract class Dot11MonitorDefinition {
 
         public abstract Builder maxIdleTimeSeconds(int maxIdleTimeSeconds);
 
+        public abstract Builder adaptiveChannelHopping(boolean adaptiveChannelHopping);
+
+        public abstract Builder netlinkChannelSwitching(boolean netlinkChannelSwitching);
+
         public abstract Dot11MonitorDefinition build();
     }
 }
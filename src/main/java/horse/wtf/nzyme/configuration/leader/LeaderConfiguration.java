@@ -65,13 +65,27 @@ public abstract class LeaderConfiguration {
     @Nullable
     public abstract DeauthenticationMonitorConfiguration deauth();
 
+    public abstract int liveUpdatesIntervalSeconds();
+
+    public abstract boolean prometheusMetricsEnabled();
+
+    public abstract int frameProcessingShards();
+
+    public abstract int remoteInputReceiveBufferSize();
+
+    public abstract int remoteInputWorkers();
+
+    public abstract ImmutableList<String> remoteInputTrustedSources();
+
+    public abstract int slowQueryThresholdMs();
+
     public ImmutableList<String> ourSSIDs() {
         ImmutableList.Builder<String> ssids = new ImmutableList.Builder<>();
         dot11Networks().forEach(n -> ssids.add(n.ssid()));
         return ssids.build();
     }
 
-    public static LeaderConfiguration create(boolean versionchecksEnabled, boolean fetchOuis, Role role, String adminPasswordHash, String databasePath, String pythonExecutable, String pythonScriptDirectory, String pythonScriptPrefix, URI restListenUri, URI httpExternalUri, boolean useTls, Path tlsCertificatePath, Path tlsKeyPath, InetSocketAddress remoteInputAddress, ImmutableList<UplinkDefinition> uplinks, ImmutableList<Dot11MonitorDefinition> dot11Monitors, ImmutableList<Dot11NetworkDefinition> dot11Networks, ImmutableList<Dot11TrapDeviceDefinition> dot11TrapDevices, ImmutableList<Alert.TYPE_WIDE> dot11Alerts, int alertingTrainingPeriodSeconds, ImmutableList<AlertCallback> alertCallbacks, ImmutableList<ForwarderDefinition> forwarders, UplinkDeviceConfiguration groundstationDevice, ReportingConfiguration reporting, DeauthenticationMonitorConfiguration deauth) {
+    public static LeaderConfiguration create(boolean versionchecksEnabled, boolean fetchOuis, Role role, String adminPasswordHash, String databasePath, String pythonExecutable, String pythonScriptDirectory, String pythonScriptPrefix, URI restListenUri, URI httpExternalUri, boolean useTls, Path tlsCertificatePath, Path tlsKeyPath, InetSocketAddress remoteInputAddress, ImmutableList<UplinkDefinition> uplinks, ImmutableList<Dot11MonitorDefinition> dot11Monitors, ImmutableList<Dot11NetworkDefinition> dot11Networks, ImmutableList<Dot11TrapDeviceDefinition> dot11TrapDevices, ImmutableList<Alert.TYPE_WIDE> dot11Alerts, int alertingTrainingPeriodSeconds, ImmutableList<AlertCallback> alertCallbacks, ImmutableList<ForwarderDefinition> forwarders, UplinkDeviceConfiguration groundstationDevice, ReportingConfiguration reporting, DeauthenticationMonitorConfiguration deauth, int liveUpdatesIntervalSeconds, boolean prometheusMetricsEnabled, int frameProcessingShards, int remoteInputReceiveBufferSize, int remoteInputWorkers, ImmutableList<String> remoteInputTrustedSources, int slowQueryThresholdMs) {
         return builder()
                 .versionchecksEnabled(versionchecksEnabled)
                 .fetchOuis(fetchOuis)
@@ -98,6 +112,13 @@ public abstract class LeaderConfiguration {
                 .groundstationDevice(groundstationDevice)
                 .reporting(reporting)
                 .deauth(deauth)
+                .liveUpdatesIntervalSeconds(liveUpdatesIntervalSeconds)
+                .prometheusMetricsEnabled(prometheusMetricsEnabled)
+                .frameProcessingShards(frameProcessingShards)
+                .remoteInputReceiveBufferSize(remoteInputReceiveBufferSize)
+                .remoteInputWorkers(remoteInputWorkers)
+                .remoteInputTrustedSources(remoteInputTrustedSources)
+                .slowQueryThresholdMs(slowQueryThresholdMs)
                 .build();
     }
 
@@ -182,6 +203,20 @@ public abstract class LeaderConfiguration {
 
         public abstract Builder deauth(DeauthenticationMonitorConfiguration deauth);
 
+        public abstract Builder liveUpdatesIntervalSeconds(int liveUpdatesIntervalSeconds);
+
+        public abstract Builder prometheusMetricsEnabled(boolean prometheusMetricsEnabled);
+
+        public abstract Builder frameProcessingShards(int frameProcessingShards);
+
+        public abstract Builder remoteInputReceiveBufferSize(int remoteInputReceiveBufferSize);
+
+        public abstract Builder remoteInputWorkers(int remoteInputWorkers);
+
+        public abstract Builder remoteInputTrustedSources(ImmutableList<String> remoteInputTrustedSources);
+
+        public abstract Builder slowQueryThresholdMs(int slowQueryThresholdMs);
+
         public abstract LeaderConfiguration build();
     }
 
@@ -31,8 +31,10 @@ import horse.wtf.nzyme.alerts.service.callbacks.EmailCallback;
 import horse.wtf.nzyme.alerts.service.callbacks.FileCallback;
 import horse.wtf.nzyme.bandits.trackers.devices.TrackerDevice;
 import horse.wtf.nzyme.configuration.*;
+import horse.wtf.nzyme.database.QueryMetrics;
 import horse.wtf.nzyme.dot11.deception.traps.Trap;
 import horse.wtf.nzyme.notifications.uplinks.graylog.GraylogAddress;
+import horse.wtf.nzyme.remote.inputs.RemoteFrameInput;
 import horse.wtf.nzyme.util.Tools;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -111,7 +113,14 @@ public class LeaderConfigurationLoader {
                 parseForwarders(),
                 parseGroundstationDevice(),
                 parseReporting(),
-                parseDeauth()
+                parseDeauth(),
+                parseLiveUpdatesIntervalSeconds(),
+                parsePrometheusMetricsEnabled(),
+                parseFrameProcessingShards(),
+                parseRemoteInputReceiveBufferSize(),
+                parseRemoteInputWorkers(),
+                parseRemoteInputTrustedSources(),
+                parseSlowQueryThresholdMs()
         );
     }
 
@@ -270,6 +279,59 @@ public class LeaderConfigurationLoader {
         return URI.create(interfaces.getString(ConfigurationKeys.HTTP_EXTERNAL_URI));
     }
 
+    private int parseLiveUpdatesIntervalSeconds() {
+        if (interfaces.hasPath(ConfigurationKeys.LIVE_UPDATES_INTERVAL_SECONDS)) {
+            return interfaces.getInt(ConfigurationKeys.LIVE_UPDATES_INTERVAL_SECONDS);
+        } else {
+            return 2;
+        }
+    }
+
+    private boolean parsePrometheusMetricsEnabled() {
+        return interfaces.hasPath(ConfigurationKeys.PROMETHEUS_METRICS_ENABLED)
+                && interfaces.getBoolean(ConfigurationKeys.PROMETHEUS_METRICS_ENABLED);
+    }
+
+    private int parseRemoteInputReceiveBufferSize() {
+        if (root.hasPath(ConfigurationKeys.REMOTE_INPUT + "." + ConfigurationKeys.RECEIVE_BUFFER_SIZE)) {
+            return root.getConfig(ConfigurationKeys.REMOTE_INPUT).getInt(ConfigurationKeys.RECEIVE_BUFFER_SIZE);
+        } else {
+            return RemoteFrameInput.DEFAULT_RECEIVE_BUFFER_SIZE;
+        }
+    }
+
+    private int parseRemoteInputWorkers() {
+        if (root.hasPath(ConfigurationKeys.REMOTE_INPUT + "." + ConfigurationKeys.WORKERS)) {
+            return root.getConfig(ConfigurationKeys.REMOTE_INPUT).getInt(ConfigurationKeys.WORKERS);
+        } else {
+            return RemoteFrameInput.DEFAULT_WORKERS;
+        }
+    }
+
+    private ImmutableList<String> parseRemoteInputTrustedSources() {
+        if (root.hasPath(ConfigurationKeys.REMOTE_INPUT + "." + ConfigurationKeys.TRUSTED_SOURCES)) {
+            return ImmutableList.copyOf(root.getConfig(ConfigurationKeys.REMOTE_INPUT).getStringList(ConfigurationKeys.TRUSTED_SOURCES));
+        } else {
+            return ImmutableList.of();
+        }
+    }
+
+    private int parseFrameProcessingShards() {
+        if (general.hasPath(ConfigurationKeys.FRAME_PROCESSING_SHARDS)) {
+            return general.getInt(ConfigurationKeys.FRAME_PROCESSING_SHARDS);
+        } else {
+            return 0;
+        }
+    }
+
+    private int parseSlowQueryThresholdMs() {
+        if (general.hasPath(ConfigurationKeys.SLOW_QUERY_THRESHOLD_MS)) {
+            return general.getInt(ConfigurationKeys.SLOW_QUERY_THRESHOLD_MS);
+        } else {
+            return QueryMetrics.DEFAULT_SLOW_QUERY_THRESHOLD_MS;
+        }
+    }
+
     private Integer parseAlertingTrainingPeriodSeconds() {
         return alerting.getInt(ConfigurationKeys.TRAINING_PERIOD_SECONDS);
     }
@@ -407,9 +469,30 @@ public class LeaderConfigurationLoader {
         ConfigurationValidator.expect(python, ConfigurationKeys.PYTHON_PATH, ConfigurationKeys.GENERAL + "." + ConfigurationKeys.PYTHON, String.class);
         ConfigurationValidator.expect(python, ConfigurationKeys.PYTHON_SCRIPT_DIR, ConfigurationKeys.GENERAL + "." + ConfigurationKeys.PYTHON, String.class);
         ConfigurationValidator.expect(python, ConfigurationKeys.PYTHON_SCRIPT_PREFIX, ConfigurationKeys.GENERAL + "." + ConfigurationKeys.PYTHON, String.class);
+        if (general.hasPath(ConfigurationKeys.FRAME_PROCESSING_SHARDS)) {
+            ConfigurationValidator.expect(general, ConfigurationKeys.FRAME_PROCESSING_SHARDS, ConfigurationKeys.GENERAL, Integer.class);
+            if (general.getInt(ConfigurationKeys.FRAME_PROCESSING_SHARDS) < 0) {
+                throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.GENERAL + "." + ConfigurationKeys.FRAME_PROCESSING_SHARDS + "] must not be negative.");
+            }
+        }
+        if (general.hasPath(ConfigurationKeys.SLOW_QUERY_THRESHOLD_MS)) {
+            ConfigurationValidator.expect(general, ConfigurationKeys.SLOW_QUERY_THRESHOLD_MS, ConfigurationKeys.GENERAL, Integer.class);
+            if (general.getInt(ConfigurationKeys.SLOW_QUERY_THRESHOLD_MS) < 0) {
+                throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.GENERAL + "." + ConfigurationKeys.SLOW_QUERY_THRESHOLD_MS + "] must not be negative.");
+            }
+        }
         ConfigurationValidator.expect(alerting, ConfigurationKeys.TRAINING_PERIOD_SECONDS, ConfigurationKeys.GENERAL + "." + ConfigurationKeys.ALERTING, Integer.class);
         ConfigurationValidator.expect(interfaces, ConfigurationKeys.REST_LISTEN_URI, ConfigurationKeys.INTERFACES, String.class);
         ConfigurationValidator.expect(interfaces, ConfigurationKeys.HTTP_EXTERNAL_URI, ConfigurationKeys.INTERFACES, String.class);
+        if (interfaces.hasPath(ConfigurationKeys.PROMETHEUS_METRICS_ENABLED)) {
+            ConfigurationValidator.expect(interfaces, ConfigurationKeys.PROMETHEUS_METRICS_ENABLED, ConfigurationKeys.INTERFACES, Boolean.class);
+        }
+        if (interfaces.hasPath(ConfigurationKeys.LIVE_UPDATES_INTERVAL_SECONDS)) {
+            ConfigurationValidator.expect(interfaces, ConfigurationKeys.LIVE_UPDATES_INTERVAL_SECONDS, ConfigurationKeys.INTERFACES, Integer.class);
+            if (interfaces.getInt(ConfigurationKeys.LIVE_UPDATES_INTERVAL_SECONDS) < 1) {
+                throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.INTERFACES + "." + ConfigurationKeys.LIVE_UPDATES_INTERVAL_SECONDS + "] must be at least 1.");
+            }
+        }
         ConfigurationValidator.expect(root, ConfigurationKeys.DOT11_MONITORS, "<root>", List.class);
         ConfigurationValidator.expect(root, ConfigurationKeys.DOT11_NETWORKS, "<root>", List.class);
         ConfigurationValidator.expect(root, ConfigurationKeys.DOT11_ALERTS, "<root>", List.class);
@@ -439,6 +522,24 @@ public class LeaderConfigurationLoader {
             Config remoteInput = root.getConfig(ConfigurationKeys.REMOTE_INPUT);
             ConfigurationValidator.expect(remoteInput, ConfigurationKeys.HOST, ConfigurationKeys.REMOTE_INPUT, String.class);
             ConfigurationValidator.expect(remoteInput, ConfigurationKeys.PORT, ConfigurationKeys.REMOTE_INPUT, Integer.class);
+
+            if (remoteInput.hasPath(ConfigurationKeys.RECEIVE_BUFFER_SIZE)) {
+                ConfigurationValidator.expect(remoteInput, ConfigurationKeys.RECEIVE_BUFFER_SIZE, ConfigurationKeys.REMOTE_INPUT, Integer.class);
+                if (remoteInput.getInt(ConfigurationKeys.RECEIVE_BUFFER_SIZE) <= 0) {
+                    throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.REMOTE_INPUT + "." + ConfigurationKeys.RECEIVE_BUFFER_SIZE + "] must be greater than 0.");
+                }
+            }
+
+            if (remoteInput.hasPath(ConfigurationKeys.WORKERS)) {
+                ConfigurationValidator.expect(remoteInput, ConfigurationKeys.WORKERS, ConfigurationKeys.REMOTE_INPUT, Integer.class);
+                if (remoteInput.getInt(ConfigurationKeys.WORKERS) <= 0) {
+                    throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.REMOTE_INPUT + "." + ConfigurationKeys.WORKERS + "] must be greater than 0.");
+                }
+            }
+
+            if (remoteInput.hasPath(ConfigurationKeys.TRUSTED_SOURCES)) {
+                ConfigurationValidator.expect(remoteInput, ConfigurationKeys.TRUSTED_SOURCES, ConfigurationKeys.REMOTE_INPUT, List.class);
+            }
         }
 
         if (root.hasPath(ConfigurationKeys.GROUNDSTATION_DEVICE)) {
@@ -467,6 +568,16 @@ public class LeaderConfigurationLoader {
                         throw new InvalidConfigurationException("Parameter " + ConfigurationKeys.GROUNDSTATION_DEVICE + "." + ConfigurationKeys.PARAMETERS + "."
                                 + ConfigurationKeys.ENCRYPTION_KEY + " must be exactly 32 characters long.");
                     }
+
+                    // Optional airtime budget.
+                    if (loraConfig.hasPath(ConfigurationKeys.AIRTIME_BUDGET_PERCENT)) {
+                        ConfigurationValidator.expect(loraConfig, ConfigurationKeys.AIRTIME_BUDGET_PERCENT, ConfigurationKeys.GROUNDSTATION_DEVICE + "." + ConfigurationKeys.PARAMETERS, Integer.class);
+                        int airtimeBudget = loraConfig.getInt(ConfigurationKeys.AIRTIME_BUDGET_PERCENT);
+                        if (airtimeBudget < 1 || airtimeBudget > 100) {
+                            throw new InvalidConfigurationException("Parameter " + ConfigurationKeys.GROUNDSTATION_DEVICE + "." + ConfigurationKeys.PARAMETERS + "."
+                                    + ConfigurationKeys.AIRTIME_BUDGET_PERCENT + " must be between 1 and 100.");
+                        }
+                    }
                 }
             }
         }
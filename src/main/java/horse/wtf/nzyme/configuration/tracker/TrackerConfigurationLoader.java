@@ -128,6 +128,16 @@ public class TrackerConfigurationLoader {
                 throw new InvalidConfigurationException("Parameter " + ConfigurationKeys.UPLINK_DEVICE + "." + ConfigurationKeys.PARAMETERS + "."
                         + ConfigurationKeys.ENCRYPTION_KEY + " must be exactly 32 characters long.");
             }
+
+            // Optional airtime budget.
+            if (loraConfig.hasPath(ConfigurationKeys.AIRTIME_BUDGET_PERCENT)) {
+                ConfigurationValidator.expect(loraConfig, ConfigurationKeys.AIRTIME_BUDGET_PERCENT, ConfigurationKeys.UPLINK_DEVICE + "." + ConfigurationKeys.PARAMETERS, Integer.class);
+                int airtimeBudget = loraConfig.getInt(ConfigurationKeys.AIRTIME_BUDGET_PERCENT);
+                if (airtimeBudget < 1 || airtimeBudget > 100) {
+                    throw new InvalidConfigurationException("Parameter " + ConfigurationKeys.UPLINK_DEVICE + "." + ConfigurationKeys.PARAMETERS + "."
+                            + ConfigurationKeys.AIRTIME_BUDGET_PERCENT + " must be between 1 and 100.");
+                }
+            }
         }
 
         // Validate shared/base 802.11 config.
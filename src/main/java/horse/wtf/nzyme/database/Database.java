@@ -11,6 +11,9 @@ import horse.wtf.nzyme.events.db.EventRecordMapper;
 import horse.wtf.nzyme.measurements.mappers.MeasurementMapper;
 import horse.wtf.nzyme.reporting.db.ExecutionLogEntryMapper;
 import horse.wtf.nzyme.reporting.db.ScheduledReportEntryMapper;
+import com.codahale.metrics.MetricRegistry;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import liquibase.Contexts;
 import liquibase.LabelExpression;
 import liquibase.Liquibase;
@@ -45,16 +48,38 @@ public class Database {
             .appendPattern("yyyy-MM-dd HH:mm:ss")
             .toFormatter().withZoneUTC();
 
+    // Upper bound of concurrent database work. (REST requests, periodicals, frame processing shards)
+    public static final int MAX_CONNECTIONS = 10;
+
+    // Server-side prepare every statement on first use. The driver caches prepared statements per pooled connection
+    // by their SQL text, so all statements must use bind parameters instead of inlined values to be reused.
+    public static final int PREPARE_THRESHOLD = 1;
+    public static final int PREPARED_STATEMENT_CACHE_QUERIES = 512;
+    public static final int PREPARED_STATEMENT_CACHE_SIZE_MIB = 10;
+
     private final LeaderConfiguration configuration;
+    private final QueryMetrics queryMetrics;
 
+    private HikariDataSource dataSource;
     private Jdbi jdbi;
 
-    public Database(LeaderConfiguration configuration) {
+    public Database(LeaderConfiguration configuration, MetricRegistry metrics) {
         this.configuration = configuration;
+        this.queryMetrics = new QueryMetrics(metrics, configuration.slowQueryThresholdMs());
     }
 
     public void initializeAndMigrate() throws LiquibaseException {
-        this.jdbi = Jdbi.create("jdbc:" + configuration.databasePath())
+        HikariConfig pool = new HikariConfig();
+        pool.setPoolName("nzyme-database");
+        pool.setJdbcUrl("jdbc:" + configuration.databasePath());
+        pool.setMaximumPoolSize(MAX_CONNECTIONS);
+        pool.setMinimumIdle(1);
+        pool.addDataSourceProperty("prepareThreshold", PREPARE_THRESHOLD);
+        pool.addDataSourceProperty("preparedStatementCacheQueries", PREPARED_STATEMENT_CACHE_QUERIES);
+        pool.addDataSourceProperty("preparedStatementCacheSizeMiB", PREPARED_STATEMENT_CACHE_SIZE_MIB);
+        this.dataSource = new HikariDataSource(pool);
+
+        this.jdbi = Jdbi.create(dataSource)
                 .installPlugin(new PostgresPlugin())
                 .installPlugin(new JodaTimePlugin())
                 .registerRowMapper(new MeasurementMapper())
@@ -71,7 +96,8 @@ public class Database {
                 .registerRowMapper(new ExecutionLogEntryMapper())
                 .registerRowMapper(new ContactRecordMapper())
                 .registerRowMapper(new ContactRecordValueAggregationMapper())
-                .registerRowMapper(new ContactRecorderHistogramEntryMapper());
+                .registerRowMapper(new ContactRecorderHistogramEntryMapper())
+                .setSqlLogger(queryMetrics);
 
         // Run migrations against underlying JDBC connection.
         JdbcConnection connection = new JdbcConnection(jdbi.open().getConnection());
@@ -92,6 +118,28 @@ public class Database {
         });
     }
 
+    /**
+     * Number of statements executed by the calling thread so far. The difference before and after an operation is the
+     * number of database round trips it took.
+     */
+    public long getStatementCountOfCurrentThread() {
+        return queryMetrics.getCountOfCurrentThread();
+    }
+
+    public long getStatementCount() {
+        return queryMetrics.getCount();
+    }
+
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    public void close() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
     public <R, X extends Exception> R withHandle(HandleCallback<R, X> callback) throws X {
         return jdbi.withHandle(callback);
     }
@@ -100,4 +148,12 @@ public class Database {
         jdbi.useHandle(callback);
     }
 
+    public <X extends Exception> void useTransaction(final HandleConsumer<X> callback) throws X {
+        jdbi.useTransaction(callback);
+    }
+
+    public <R, X extends Exception> R inTransaction(HandleCallback<R, X> callback) throws X {
+        return jdbi.inTransaction(callback);
+    }
+
 }
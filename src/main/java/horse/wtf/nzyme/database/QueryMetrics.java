@@ -0,0 +1,224 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.database;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import horse.wtf.nzyme.util.MetricNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Times and counts every executed statement (database round trip) per statement name and logs statements that took
+ * longer than the slow query threshold. A batch counts as one statement.
+ *
+ * The statement name is derived from the SQL: "verb.table.hash", like "select.alerts.5f1e0b2c". Inlined numbers and
+ * strings are ignored when hashing, so the same statement with different inlined values has the same name. So are the
+ * hour suffixes of {@link TimePartitions} tables, so that partition maintenance does not add new names every hour.
+ *
+ * Deriving the name takes a few regular expressions. The name of a known SQL string is looked up in an LRU cache of
+ * {@link #MAX_SQL_STRINGS} entries, so the per-statement overhead of frequent statements is a cache lookup and a timer
+ * update. Only SQL strings that are built anew every time, like those with inlined values, pay the regex cost.
+ */
+public class QueryMetrics implements SqlLogger {
+
+    private static final Logger LOG = LogManager.getLogger(QueryMetrics.class);
+
+    public static final int DEFAULT_SLOW_QUERY_THRESHOLD_MS = 500;
+
+    // Upper bound of statement names. Anything beyond is tracked as OTHER.
+    public static final int MAX_STATEMENTS = 500;
+    public static final int MAX_SQL_STRINGS = 2000;
+    public static final String OTHER = "other";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARTITION_SUFFIX = Pattern.compile("(_p)\\d{10}\\b");
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update|table)\\s+([a-z_][a-z0-9_.]*)");
+
+    private final MetricRegistry metrics;
+    private final long slowQueryThresholdNanos;
+
+    private final Cache<String, Statement> statementsBySql = CacheBuilder.newBuilder()
+            .maximumSize(MAX_SQL_STRINGS)
+            .build();
+    private final ConcurrentMap<String, Statement> statementsByName = new ConcurrentHashMap<>();
+
+    private final Counter slowQueries;
+    private final Counter failedQueries;
+
+    private final LongAdder count = new LongAdder();
+    private final ThreadLocal<long[]> countOfThread = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * @param slowQueryThresholdMs Statements that take longer are logged. 0 disables the slow query log.
+     */
+    public QueryMetrics(MetricRegistry metrics, int slowQueryThresholdMs) {
+        this.metrics = metrics;
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+
+        this.slowQueries = metrics.counter(MetricNames.DATABASE_SLOW_QUERIES);
+        this.failedQueries = metrics.counter(MetricNames.DATABASE_FAILED_QUERIES);
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        record(context, context.getElapsedTime(ChronoUnit.NANOS));
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        failedQueries.inc();
+
+        Instant start = context.getExecutionMoment();
+        Instant end = context.getExceptionMoment();
+        record(context, start == null || end == null ? 0 : Duration.between(start, end).toNanos());
+    }
+
+    private void record(StatementContext context, long nanos) {
+        count.increment();
+        countOfThread.get()[0]++;
+
+        String sql = context.getRawSql();
+        if (sql == null) {
+            return;
+        }
+
+        Statement statement = statementOf(sql);
+        statement.timer.update(nanos, TimeUnit.NANOSECONDS);
+        statement.totalNanos.add(nanos);
+
+        if (slowQueryThresholdNanos > 0 && nanos > slowQueryThresholdNanos) {
+            slowQueries.inc();
+            String rendered = context.getRenderedSql();
+            LOG.warn("Slow query [{}] took <{}ms>: {}", statement.name, TimeUnit.NANOSECONDS.toMillis(nanos),
+                    rendered == null ? sql : rendered);
+        }
+    }
+
+    private Statement statementOf(String sql) {
+        Statement statement = statementsBySql.getIfPresent(sql);
+        if (statement != null) {
+            return statement;
+        }
+
+        String normalized = normalize(sql);
+        String name = statementName(normalized);
+        if (!statementsByName.containsKey(name) && statementsByName.size() >= MAX_STATEMENTS) {
+            name = OTHER;
+            normalized = OTHER;
+        }
+
+        String finalSql = normalized;
+        statement = statementsByName.computeIfAbsent(name, n -> new Statement(n, finalSql,
+                metrics.timer(MetricRegistry.name(MetricNames.DATABASE_QUERY_TIMING, n))));
+
+        statementsBySql.put(sql, statement);
+
+        return statement;
+    }
+
+    /**
+     * The statements with the highest total execution time first.
+     */
+    public ImmutableList<QueryStatistics> getTopStatements(int limit) {
+        return statementsByName.values().stream()
+                .map(Statement::toStatistics)
+                .sorted(Comparator.comparingLong(QueryStatistics::totalTimeNanos).reversed())
+                .limit(limit)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getCountOfCurrentThread() {
+        return countOfThread.get()[0];
+    }
+
+    static String normalize(String sql) {
+        return WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase(Locale.ENGLISH);
+    }
+
+    static String statementName(String normalizedSql) {
+        int verbEnd = normalizedSql.indexOf(' ');
+        String verb = verbEnd < 0 ? normalizedSql : normalizedSql.substring(0, verbEnd);
+
+        String withoutPartitions = PARTITION_SUFFIX.matcher(normalizedSql).replaceAll("$1");
+        String withoutLiterals = LITERALS.matcher(withoutPartitions).replaceAll("?");
+        String hash = String.format("%08x", withoutLiterals.hashCode());
+
+        Matcher table = TABLE.matcher(withoutPartitions);
+        if (table.find()) {
+            return verb + "." + table.group(1).replace('.', '_') + "." + hash;
+        } else {
+            return verb + "." + hash;
+        }
+    }
+
+    private static final class Statement {
+
+        private final String name;
+        private final String sql;
+        private final Timer timer;
+        private final LongAdder totalNanos = new LongAdder();
+
+        private Statement(String name, String sql, Timer timer) {
+            this.name = name;
+            this.sql = sql;
+            this.timer = timer;
+        }
+
+        private QueryStatistics toStatistics() {
+            Snapshot snapshot = timer.getSnapshot();
+
+            return QueryStatistics.builder()
+                    .name(name)
+                    .sql(sql)
+                    .count(timer.getCount())
+                    .totalTimeNanos(totalNanos.sum())
+                    .meanNanos((long) snapshot.getMean())
+                    .percentile99Nanos((long) snapshot.get99thPercentile())
+                    .maxNanos(snapshot.getMax())
+                    .build();
+        }
+
+    }
+
+}
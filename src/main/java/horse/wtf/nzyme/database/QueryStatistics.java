@@ -0,0 +1,56 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.database;
+
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class QueryStatistics {
+
+    public abstract String name();
+    public abstract String sql();
+    public abstract long count();
+    public abstract long totalTimeNanos();
+    public abstract long meanNanos();
+    public abstract long percentile99Nanos();
+    public abstract long maxNanos();
+
+    public static Builder builder() {
+        return new AutoValue_QueryStatistics.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder name(String name);
+
+        public abstract Builder sql(String sql);
+
+        public abstract Builder count(long count);
+
+        public abstract Builder totalTimeNanos(long totalTimeNanos);
+
+        public abstract Builder meanNanos(long meanNanos);
+
+        public abstract Builder percentile99Nanos(long percentile99Nanos);
+
+        public abstract Builder maxNanos(long maxNanos);
+
+        public abstract QueryStatistics build();
+    }
+
+}
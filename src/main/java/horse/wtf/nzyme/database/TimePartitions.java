@@ -0,0 +1,137 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.database;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import java.util.List;
+
+/**
+ * Maintains the hourly range partitions of a time-series table that is partitioned on created_at. (see migration 35)
+ *
+ * Partitions are created a few hours ahead and whole partitions are dropped once they are entirely outside of the
+ * retention period. This replaces row-level retention DELETEs and the vacuuming and index bloat that came with them.
+ */
+public class TimePartitions {
+
+    private static final Logger LOG = LogManager.getLogger(TimePartitions.class);
+
+    public static final int HOURS_AHEAD = 6;
+
+    private static final DateTimeFormatter SUFFIX_FORMATTER = DateTimeFormat.forPattern("yyyyMMddHH").withZoneUTC();
+    private static final DateTimeFormatter BOUND_FORMATTER = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss").withZoneUTC();
+
+    private final Database database;
+    private final String table;
+    private final int retentionHours;
+
+    public TimePartitions(Database database, String table, int retentionHours) {
+        this.database = database;
+        this.table = table;
+        this.retentionHours = retentionHours;
+    }
+
+    public void maintain() {
+        maintain(DateTime.now(DateTimeZone.UTC));
+    }
+
+    public void maintain(DateTime now) {
+        DateTime cutoff = now.withZone(DateTimeZone.UTC).minusHours(retentionHours);
+        List<String> existing = findPartitions();
+
+        // Create missing partitions, including those for the next few hours.
+        DateTime last = now.withZone(DateTimeZone.UTC).plusHours(HOURS_AHEAD);
+        for (DateTime hour = cutoff.hourOfDay().roundFloorCopy(); !hour.isAfter(last); hour = hour.plusHours(1)) {
+            String partition = partitionName(hour);
+            if (!existing.contains(partition)) {
+                createPartition(partition, hour);
+            }
+        }
+
+        // Drop partitions that only contain rows outside of the retention period.
+        for (String partition : existing) {
+            DateTime start = parsePartitionStart(partition);
+            if (start != null && !start.plusHours(1).isAfter(cutoff)) {
+                LOG.debug("Dropping partition [{}].", partition);
+                database.useHandle(handle -> handle.execute("DROP TABLE " + partition));
+            }
+        }
+
+        // Rows that did not fit into any hourly partition. Usually empty.
+        database.useHandle(handle -> handle.execute("DELETE FROM " + defaultPartitionName()
+                + " WHERE created_at < '" + BOUND_FORMATTER.print(cutoff) + "'"));
+    }
+
+    public List<String> findPartitions() {
+        return database.withHandle(handle ->
+                handle.createQuery("SELECT child.relname FROM pg_inherits " +
+                                "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent " +
+                                "JOIN pg_class child ON child.oid = pg_inherits.inhrelid " +
+                                "WHERE parent.relname = :table ORDER BY child.relname")
+                        .bind("table", table)
+                        .mapTo(String.class)
+                        .list()
+        );
+    }
+
+    public String partitionName(DateTime hour) {
+        return table + "_p" + SUFFIX_FORMATTER.print(hour);
+    }
+
+    public String defaultPartitionName() {
+        return table + "_default";
+    }
+
+    private void createPartition(String partition, DateTime start) {
+        String from = BOUND_FORMATTER.print(start);
+        String to = BOUND_FORMATTER.print(start.plusHours(1));
+
+        LOG.debug("Creating partition [{}] for [{}] to [{}].", partition, from, to);
+
+        // Rows of this range might already sit in the default partition, which would fail a plain CREATE ... PARTITION
+        // OF. Move them into the new table before attaching it.
+        String range = " WHERE created_at >= '" + from + "' AND created_at < '" + to + "'";
+        database.useHandle(handle -> handle.useTransaction(tx -> {
+            tx.execute("CREATE TABLE " + partition + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            tx.execute("INSERT INTO " + partition + " SELECT * FROM " + defaultPartitionName() + range);
+            tx.execute("DELETE FROM " + defaultPartitionName() + range);
+            tx.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        }));
+    }
+
+    private DateTime parsePartitionStart(String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+
+        try {
+            return SUFFIX_FORMATTER.parseDateTime(partition.substring(prefix.length()));
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Unexpected partition [{}] of table [{}]. Skipping.", partition, table);
+            return null;
+        }
+    }
+
+}
@@ -33,8 +33,13 @@ public class Dot11MetaInformation {
     private final int channel;
     private final long macTimestamp;
     private final boolean isWep;
+    private final long captureTimestamp;
 
     public Dot11MetaInformation(boolean malformed, int antennaSignal, int frequency, int channel, long macTimestamp, boolean isWep) {
+        this(malformed, antennaSignal, frequency, channel, macTimestamp, isWep, System.currentTimeMillis());
+    }
+
+    public Dot11MetaInformation(boolean malformed, int antennaSignal, int frequency, int channel, long macTimestamp, boolean isWep, long captureTimestamp) {
         this.malformed = malformed;
         this.antennaSignal = antennaSignal;
         this.signalQuality = calculateSignalQuality(antennaSignal);
@@ -42,6 +47,7 @@ public class Dot11MetaInformation {
         this.frequency = frequency;
         this.macTimestamp = macTimestamp;
         this.isWep = isWep;
+        this.captureTimestamp = captureTimestamp;
     }
 
     public boolean isMalformed() {
@@ -72,7 +78,19 @@ public class Dot11MetaInformation {
         return isWep;
     }
 
+    /**
+     * Epoch milliseconds. Kept primitive along the whole frame processing path and only turned into a DateTime where
+     * REST, database or alert code needs one.
+     */
+    public long getCaptureTimestamp() {
+        return captureTimestamp;
+    }
+
     public static Dot11MetaInformation parse(ArrayList<RadiotapPacket.RadiotapData> dataFields) {
+        return parse(dataFields, System.currentTimeMillis());
+    }
+
+    public static Dot11MetaInformation parse(ArrayList<RadiotapPacket.RadiotapData> dataFields, long captureTimestamp) {
         int antennaSignal = 0;
         int frequency = 0;
         int channel = -1;
@@ -116,7 +134,7 @@ public class Dot11MetaInformation {
             }
         }
 
-        return new Dot11MetaInformation( delimiterCrcError || badPlcpCrc || badFcs, antennaSignal, frequency, channel, macTimestamp, isWep);
+        return new Dot11MetaInformation( delimiterCrcError || badPlcpCrc || badFcs, antennaSignal, frequency, channel, macTimestamp, isWep, captureTimestamp);
     }
 
 }
@@ -14,8 +14,18 @@ public abstract class Client {
     @JsonProperty
     public abstract String mac();
 
+    // Epoch milliseconds. Updated for every frame.
+    private volatile long lastSeen = System.currentTimeMillis();
+
     @JsonProperty("last_seen")
-    public DateTime lastSeen = new DateTime();
+    public DateTime getLastSeen() {
+        return new DateTime(lastSeen);
+    }
+
+    @JsonIgnore
+    public long getLastSeenMillis() {
+        return lastSeen;
+    }
 
     @AutoValue.Builder
     public abstract static class Builder {
@@ -27,8 +37,10 @@ public abstract class Client {
     }
 
     @JsonIgnore
-    public void updateLastSeen() {
-        this.lastSeen = new DateTime();
+    public void updateLastSeen(long timestamp) {
+        if (timestamp > this.lastSeen) {
+            this.lastSeen = timestamp;
+        }
     }
 
     public static Client create(String oui, String mac) {
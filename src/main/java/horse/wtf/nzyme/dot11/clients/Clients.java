@@ -9,7 +9,6 @@ import horse.wtf.nzyme.dot11.frames.Dot11AssociationRequestFrame;
 import horse.wtf.nzyme.dot11.frames.Dot11ProbeRequestFrame;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.joda.time.DateTime;
 
 import java.util.Map;
 import java.util.concurrent.Executors;
@@ -37,17 +36,17 @@ public class Clients {
     }
 
     public void registerProbeRequestFrame(Dot11ProbeRequestFrame frame) {
-        register(frame.requester());
+        register(frame.requester(), frame.meta().getCaptureTimestamp());
     }
 
     public void registerAssociationRequestFrame(Dot11AssociationRequestFrame frame) {
-        register(frame.transmitter());
+        register(frame.transmitter(), frame.meta().getCaptureTimestamp());
     }
 
-    private synchronized void register(String mac) {
+    private synchronized void register(String mac, long timestamp) {
         Client client;
         if (clients.containsKey(mac)) {
-            clients.get(mac).updateLastSeen();
+            clients.get(mac).updateLastSeen(timestamp);
         } else {
             String oui = nzyme.getOUIManager().lookupBSSID(mac);
 
@@ -67,10 +66,11 @@ public class Clients {
 
     public void retentionClean(int seconds) {
         try {
+            long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(seconds);
             for (Map.Entry<String, Client> entry : Lists.newArrayList(clients.entrySet())) {
                 Client client = entry.getValue();
 
-                if (client.lastSeen.isBefore(DateTime.now().minusSeconds(seconds))) {
+                if (client.getLastSeenMillis() < cutoff) {
                     LOG.debug("Retention cleaning expired client [{}] from internal clients list.", client);
                     clients.remove(entry.getKey());
                 }
@@ -22,6 +22,7 @@ import horse.wtf.nzyme.dot11.Dot11MetaInformation;
 public interface Dot11Frame {
 
     byte frameType();
+    String transmitter();
     Dot11MetaInformation meta();
     byte[] payload();
     byte[] header();
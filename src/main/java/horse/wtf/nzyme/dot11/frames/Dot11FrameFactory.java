@@ -50,7 +50,11 @@ public class Dot11FrameFactory {
     }
 
     public Dot11Frame build(Dot11FrameType type, byte[] payload, byte[] header, Dot11MetaInformation meta) throws MalformedFrameException, IllegalRawDataException {
-        switch(type.value()) {
+        return build(type.value(), payload, header, meta);
+    }
+
+    public Dot11Frame build(byte subtype, byte[] payload, byte[] header, Dot11MetaInformation meta) throws MalformedFrameException, IllegalRawDataException {
+        switch(subtype) {
             case Dot11FrameSubtype.ASSOCIATION_REQUEST:
                 return associationRequestParser.parse(payload, header, meta);
             case Dot11FrameSubtype.ASSOCIATION_RESPONSE:
@@ -68,55 +72,130 @@ public class Dot11FrameFactory {
             case Dot11FrameSubtype.DEAUTHENTICATION:
                 return deauthenticationFrameParser.parse(payload, header, meta);
             default:
-                throw new IllegalStateException("Unexpected value: " + type.value());
+                throw new IllegalStateException("Unexpected value: " + subtype);
         }
     }
 
     public Dot11Frame fromRemote(NzymeMessage.Dot11Frame frame) throws MalformedFrameException, IllegalRawDataException {
-        Dot11FrameType type;
-        switch (frame.getFrameType()) {
+        return fromRemote(frame, false);
+    }
+
+    /**
+     * @param trusted Use the fields the sensor already parsed, if it sent any, instead of parsing them again.
+     */
+    public Dot11Frame fromRemote(NzymeMessage.Dot11Frame frame, boolean trusted) throws MalformedFrameException, IllegalRawDataException {
+        byte subtype;
+        if (frame.getSubtype() != NzymeMessage.Dot11Subtype.UNKNOWN_SUBTYPE) {
+            subtype = fromRemoteSubtype(frame.getSubtype());
+        } else {
+            // Sensor from before the numeric frame type.
+            subtype = fromLegacyFrameType(frame.getFrameType());
+        }
+
+        NzymeMessage.FrameMeta remoteMeta = frame.getFrameMeta();
+        Dot11MetaInformation meta = new Dot11MetaInformation(
+                remoteMeta.getIsMalformed(),
+                remoteMeta.getAntennaSignal(),
+                remoteMeta.getFrequency(),
+                remoteMeta.getChannel(),
+                remoteMeta.getMacTimestamp(),
+                remoteMeta.getIsWEP()
+        );
+
+        byte[] payload = frame.getFramePayload().toByteArray();
+        byte[] header = frame.getFrameHeader().toByteArray();
+
+        if (trusted && frame.hasParsed()) {
+            NzymeMessage.Dot11Parsed parsed = frame.getParsed();
+            switch (subtype) {
+                case Dot11FrameSubtype.BEACON:
+                    return beaconParser.fromParsed(
+                            parsed.getIsBroadcast() ? null : parsed.getSsid(),
+                            parsed.getTransmitter(),
+                            parsed.getFingerprint(),
+                            payload, header, meta
+                    );
+                case Dot11FrameSubtype.PROBE_RESPONSE:
+                    return probeResponseFrameParser.fromParsed(
+                            parsed.getIsBroadcast() ? null : parsed.getSsid(),
+                            parsed.getDestination(),
+                            parsed.getTransmitter(),
+                            parsed.getFingerprint(),
+                            payload, header, meta
+                    );
+            }
+        }
+
+        return build(subtype, payload, header, meta);
+    }
+
+    public static NzymeMessage.Dot11Subtype toRemoteSubtype(byte subtype) {
+        switch (subtype) {
+            case Dot11FrameSubtype.ASSOCIATION_REQUEST:
+                return NzymeMessage.Dot11Subtype.ASSOCIATION_REQUEST;
+            case Dot11FrameSubtype.ASSOCIATION_RESPONSE:
+                return NzymeMessage.Dot11Subtype.ASSOCIATION_RESPONSE;
+            case Dot11FrameSubtype.PROBE_REQUEST:
+                return NzymeMessage.Dot11Subtype.PROBE_REQUEST;
+            case Dot11FrameSubtype.PROBE_RESPONSE:
+                return NzymeMessage.Dot11Subtype.PROBE_RESPONSE;
+            case Dot11FrameSubtype.BEACON:
+                return NzymeMessage.Dot11Subtype.BEACON;
+            case Dot11FrameSubtype.DISASSOCIATION:
+                return NzymeMessage.Dot11Subtype.DISASSOCIATION;
+            case Dot11FrameSubtype.AUTHENTICATION:
+                return NzymeMessage.Dot11Subtype.AUTHENTICATION;
+            case Dot11FrameSubtype.DEAUTHENTICATION:
+                return NzymeMessage.Dot11Subtype.DEAUTHENTICATION;
+            default:
+                return NzymeMessage.Dot11Subtype.UNKNOWN_SUBTYPE;
+        }
+    }
+
+    private static byte fromRemoteSubtype(NzymeMessage.Dot11Subtype subtype) {
+        switch (subtype) {
+            case ASSOCIATION_REQUEST:
+                return Dot11FrameSubtype.ASSOCIATION_REQUEST;
+            case ASSOCIATION_RESPONSE:
+                return Dot11FrameSubtype.ASSOCIATION_RESPONSE;
+            case PROBE_REQUEST:
+                return Dot11FrameSubtype.PROBE_REQUEST;
+            case PROBE_RESPONSE:
+                return Dot11FrameSubtype.PROBE_RESPONSE;
+            case BEACON:
+                return Dot11FrameSubtype.BEACON;
+            case DISASSOCIATION:
+                return Dot11FrameSubtype.DISASSOCIATION;
+            case AUTHENTICATION:
+                return Dot11FrameSubtype.AUTHENTICATION;
+            case DEAUTHENTICATION:
+                return Dot11FrameSubtype.DEAUTHENTICATION;
+            default:
+                throw new RuntimeException("Unknown frame subtype [" + subtype + "].");
+        }
+    }
+
+    private static byte fromLegacyFrameType(String frameType) {
+        switch (frameType) {
             case "horse.wtf.nzyme.dot11.frames.AutoValue_Dot11AssociationRequestFrame":
-                type = Dot11FrameType.ASSOCIATION_REQUEST;
-                break;
+                return Dot11FrameSubtype.ASSOCIATION_REQUEST;
             case "horse.wtf.nzyme.dot11.frames.AutoValue_Dot11AssociationResponseFrame":
-                type = Dot11FrameType.ASSOCIATION_RESPONSE;
-                break;
+                return Dot11FrameSubtype.ASSOCIATION_RESPONSE;
             case "horse.wtf.nzyme.dot11.frames.AutoValue_Dot11AuthenticationFrame":
-                type = Dot11FrameType.AUTHENTICATION;
-                break;
+                return Dot11FrameSubtype.AUTHENTICATION;
             case "horse.wtf.nzyme.dot11.frames.AutoValue_Dot11BeaconFrame":
-                type = Dot11FrameType.BEACON;
-                break;
+                return Dot11FrameSubtype.BEACON;
             case "horse.wtf.nzyme.dot11.frames.AutoValue_Dot11DeauthenticationFrame":
-                type = Dot11FrameType.DEAUTHENTICATION;
-                break;
+                return Dot11FrameSubtype.DEAUTHENTICATION;
             case "horse.wtf.nzyme.dot11.frames.AutoValue_Dot11DisassociationFrame":
-                type = Dot11FrameType.DISASSOCIATION;
-                break;
+                return Dot11FrameSubtype.DISASSOCIATION;
             case "horse.wtf.nzyme.dot11.frames.AutoValue_Dot11ProbeRequestFrame":
-                type = Dot11FrameType.PROBE_REQUEST;
-                break;
+                return Dot11FrameSubtype.PROBE_REQUEST;
             case "horse.wtf.nzyme.dot11.frames.AutoValue_Dot11ProbeResponseFrame":
-                type = Dot11FrameType.PROBE_RESPONSE;
-                break;
+                return Dot11FrameSubtype.PROBE_RESPONSE;
             default:
-                throw new RuntimeException("Unknown frame type [" + frame.getFrameType() + "].");
+                throw new RuntimeException("Unknown frame type [" + frameType + "].");
         }
-
-        NzymeMessage.FrameMeta meta = frame.getFrameMeta();
-
-        return build(
-                type,
-                frame.getFramePayload().toByteArray(),
-                frame.getFrameHeader().toByteArray(),
-                new Dot11MetaInformation(
-                        meta.getIsMalformed(),
-                        meta.getAntennaSignal(),
-                        meta.getFrequency(),
-                        meta.getChannel(),
-                        meta.getMacTimestamp(),
-                        meta.getIsWEP()
-                )
-        );
     }
+
 }
@@ -36,6 +36,12 @@ public abstract class Dot11ProbeRequestFrame implements Dot11Frame {
     public abstract byte[] header();
     public abstract byte frameType();
 
+    @Override
+    @JsonIgnore
+    public String transmitter() {
+        return requester();
+    }
+
     @JsonIgnore
     public String descriptionString() {
         StringBuilder sb = new StringBuilder();
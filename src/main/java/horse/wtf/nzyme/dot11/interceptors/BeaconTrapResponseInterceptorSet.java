@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.BeaconTrapResponseAlert;
 import horse.wtf.nzyme.alerts.ProbeRequestTrapResponseAlert;
+import horse.wtf.nzyme.alerts.service.AlertKey;
 import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
 import horse.wtf.nzyme.dot11.Dot11FrameSubtype;
@@ -62,15 +63,16 @@ public class BeaconTrapResponseInterceptorSet {
 
                 for (String ssid : trappedSSIDs) {
                     if (ssid.equals(frame.ssid())) {
-                        alerts.handle(BeaconTrapResponseAlert.create(
-                                DateTime.now(),
-                                ssid,
-                                frame.transmitter(),
-                                frame.meta().getChannel(),
-                                frame.meta().getFrequency(),
-                                frame.meta().getAntennaSignal(),
-                                1
-                        ));
+                        alerts.handle(AlertKey.create(Alert.TYPE.BEACON_TRAP_1, ssid, frame.transmitter()),
+                                frames -> BeaconTrapResponseAlert.create(
+                                        DateTime.now(),
+                                        ssid,
+                                        frame.transmitter(),
+                                        frame.meta().getChannel(),
+                                        frame.meta().getFrequency(),
+                                        frame.meta().getAntennaSignal(),
+                                        frames
+                                ));
                     }
                 }
             }
@@ -103,15 +105,16 @@ public class BeaconTrapResponseInterceptorSet {
 
                 for (String ssid : trappedSSIDs) {
                     if (ssid.equals(frame.ssid())) {
-                        alerts.handle(BeaconTrapResponseAlert.create(
-                                DateTime.now(),
-                                ssid,
-                                frame.transmitter(),
-                                frame.meta().getChannel(),
-                                frame.meta().getFrequency(),
-                                frame.meta().getAntennaSignal(),
-                                1
-                        ));
+                        alerts.handle(AlertKey.create(Alert.TYPE.BEACON_TRAP_1, ssid, frame.transmitter()),
+                                frames -> BeaconTrapResponseAlert.create(
+                                        DateTime.now(),
+                                        ssid,
+                                        frame.transmitter(),
+                                        frame.meta().getChannel(),
+                                        frame.meta().getFrequency(),
+                                        frame.meta().getAntennaSignal(),
+                                        frames
+                                ));
                     }
                 }
             }
@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.CryptoChangeBeaconAlert;
 import horse.wtf.nzyme.alerts.CryptoChangeProbeRespAlert;
+import horse.wtf.nzyme.alerts.service.AlertKey;
 import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.configuration.Dot11NetworkDefinition;
 import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
@@ -60,8 +61,8 @@ public class CryptoChangeInterceptorSet {
                     if (network.ssid().equals(frame.ssid())) {
                         // One of our networks. Compare security configuration.
                         if (!Dot11CryptoComparator.compareSecurity(frame.taggedParameters().getSecurityStrings(), network.security())) {
-                            alerts.handle(
-                                    CryptoChangeProbeRespAlert.create(
+                            alerts.handle(AlertKey.create(Alert.TYPE.CRYPTO_CHANGE_PROBERESP, frame.ssid(), frame.transmitter(), frame.taggedParameters().getFullSecurityString()),
+                                    frames -> CryptoChangeProbeRespAlert.create(
                                             DateTime.now(),
                                             frame.ssid(),
                                             frame.transmitter(),
@@ -69,9 +70,8 @@ public class CryptoChangeInterceptorSet {
                                             frame.meta().getChannel(),
                                             frame.meta().getFrequency(),
                                             frame.meta().getAntennaSignal(),
-                                            1
-                                    )
-                            );
+                                            frames
+                                    ));
                         }
                     }
                 }
@@ -102,8 +102,8 @@ public class CryptoChangeInterceptorSet {
                     if (network.ssid().equals(frame.ssid())) {
                         // One of our networks. Compare security configuration.
                         if (!Dot11CryptoComparator.compareSecurity(frame.taggedParameters().getSecurityStrings(), network.security())) {
-                            alerts.handle(
-                                    CryptoChangeBeaconAlert.create(
+                            alerts.handle(AlertKey.create(Alert.TYPE.CRYPTO_CHANGE_BEACON, frame.ssid(), frame.transmitter(), frame.taggedParameters().getFullSecurityString()),
+                                    frames -> CryptoChangeBeaconAlert.create(
                                             DateTime.now(),
                                             frame.ssid(),
                                             frame.transmitter(),
@@ -111,9 +111,8 @@ public class CryptoChangeInterceptorSet {
                                             frame.meta().getChannel(),
                                             frame.meta().getFrequency(),
                                             frame.meta().getAntennaSignal(),
-                                            1
-                                    )
-                            );
+                                            frames
+                                    ));
                         }
                     }
                 }
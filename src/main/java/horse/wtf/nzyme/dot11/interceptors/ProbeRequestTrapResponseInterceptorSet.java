@@ -20,6 +20,7 @@ package horse.wtf.nzyme.dot11.interceptors;
 import com.google.common.collect.ImmutableList;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.ProbeRequestTrapResponseAlert;
+import horse.wtf.nzyme.alerts.service.AlertKey;
 import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.configuration.ConfigurationKeys;
 import horse.wtf.nzyme.configuration.Dot11TrapConfiguration;
@@ -58,15 +59,16 @@ public class ProbeRequestTrapResponseInterceptorSet {
 
                 for (String ssid : trappedSSIDs) {
                     if (ssid.equals(frame.ssid())) {
-                        alerts.handle(ProbeRequestTrapResponseAlert.create(
-                                DateTime.now(),
-                                ssid,
-                                frame.transmitter(),
-                                frame.meta().getChannel(),
-                                frame.meta().getFrequency(),
-                                frame.meta().getAntennaSignal(),
-                                1
-                        ));
+                        alerts.handle(AlertKey.create(Alert.TYPE.PROBE_RESPONSE_TRAP_1, ssid, frame.transmitter()),
+                                frames -> ProbeRequestTrapResponseAlert.create(
+                                        DateTime.now(),
+                                        ssid,
+                                        frame.transmitter(),
+                                        frame.meta().getChannel(),
+                                        frame.meta().getFrequency(),
+                                        frame.meta().getAntennaSignal(),
+                                        frames
+                                ));
                     }
                 }
             }
@@ -94,15 +96,16 @@ public class ProbeRequestTrapResponseInterceptorSet {
 
                 for (String ssid : trappedSSIDs) {
                     if (ssid.equals(frame.ssid())) {
-                        alerts.handle(ProbeRequestTrapResponseAlert.create(
-                                DateTime.now(),
-                                ssid,
-                                frame.transmitter(),
-                                frame.meta().getChannel(),
-                                frame.meta().getFrequency(),
-                                frame.meta().getAntennaSignal(),
-                                1
-                        ));
+                        alerts.handle(AlertKey.create(Alert.TYPE.PROBE_RESPONSE_TRAP_1, ssid, frame.transmitter()),
+                                frames -> ProbeRequestTrapResponseAlert.create(
+                                        DateTime.now(),
+                                        ssid,
+                                        frame.transmitter(),
+                                        frame.meta().getChannel(),
+                                        frame.meta().getFrequency(),
+                                        frame.meta().getAntennaSignal(),
+                                        frames
+                                ));
                     }
                 }
             }
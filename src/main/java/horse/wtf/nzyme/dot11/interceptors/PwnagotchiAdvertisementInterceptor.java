@@ -19,6 +19,7 @@ package horse.wtf.nzyme.dot11.interceptors;
 
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.PwnagotchiAdvertisementAlert;
+import horse.wtf.nzyme.alerts.service.AlertKey;
 import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
 import horse.wtf.nzyme.dot11.Dot11FrameSubtype;
@@ -43,13 +44,16 @@ public class PwnagotchiAdvertisementInterceptor implements Dot11FrameInterceptor
 
     @Override
     public void intercept(Dot11BeaconFrame frame) {
-        extractor.extract(frame).ifPresent(advertisement -> alerts.handle(PwnagotchiAdvertisementAlert.create(
-                DateTime.now(),
-                advertisement,
-                frame.meta().getChannel(),
-                frame.meta().getFrequency(),
-                frame.meta().getAntennaSignal(),
-                1)
+        extractor.extract(frame).ifPresent(advertisement -> alerts.handle(
+                AlertKey.create(Alert.TYPE.PWNAGOTCHI_ADVERTISEMENT, null, frame.transmitter(), advertisement.identity()),
+                frames -> PwnagotchiAdvertisementAlert.create(
+                        DateTime.now(),
+                        advertisement,
+                        frame.meta().getChannel(),
+                        frame.meta().getFrequency(),
+                        frame.meta().getAntennaSignal(),
+                        frames
+                )
         ));
     }
 
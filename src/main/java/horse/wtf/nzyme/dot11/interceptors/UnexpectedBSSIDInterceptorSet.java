@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.UnexpectedBSSIDBeaconAlert;
 import horse.wtf.nzyme.alerts.UnexpectedBSSIDProbeRespAlert;
+import horse.wtf.nzyme.alerts.service.AlertKey;
 import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.configuration.Dot11NetworkDefinition;
 import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
@@ -60,16 +61,17 @@ public class UnexpectedBSSIDInterceptorSet {
                     if (network.ssid().equals(frame.ssid())) {
                         // Frame advertising our network. Check if it comes from an allowed BSSID.
                         if (!network.allBSSIDAddresses().contains(frame.transmitter())) {
-                            alerts.handle(UnexpectedBSSIDProbeRespAlert.create(
-                                    DateTime.now(),
-                                    frame.ssid(),
-                                    frame.transmitter(),
-                                    frame.destination(),
-                                    frame.meta().getChannel(),
-                                    frame.meta().getFrequency(),
-                                    frame.meta().getAntennaSignal(),
-                                    1
-                            ));
+                            alerts.handle(AlertKey.create(Alert.TYPE.UNEXPECTED_BSSID_PROBERESP, frame.ssid(), frame.transmitter()),
+                                    frames -> UnexpectedBSSIDProbeRespAlert.create(
+                                            DateTime.now(),
+                                            frame.ssid(),
+                                            frame.transmitter(),
+                                            frame.destination(),
+                                            frame.meta().getChannel(),
+                                            frame.meta().getFrequency(),
+                                            frame.meta().getAntennaSignal(),
+                                            frames
+                                    ));
                         }
                     }
                 }
@@ -101,15 +103,16 @@ public class UnexpectedBSSIDInterceptorSet {
                     if (network.ssid().equals(frame.ssid())) {
                         // Frame advertising our network. Check if it comes from an allowed BSSID.
                         if (!network.allBSSIDAddresses().contains(frame.transmitter())) {
-                            alerts.handle(UnexpectedBSSIDBeaconAlert.create(
-                                    DateTime.now(),
-                                    frame.ssid(),
-                                    frame.transmitter(),
-                                    frame.meta().getChannel(),
-                                    frame.meta().getFrequency(),
-                                    frame.meta().getAntennaSignal(),
-                                    1
-                            ));
+                            alerts.handle(AlertKey.create(Alert.TYPE.UNEXPECTED_BSSID_BEACON, frame.ssid(), frame.transmitter()),
+                                    frames -> UnexpectedBSSIDBeaconAlert.create(
+                                            DateTime.now(),
+                                            frame.ssid(),
+                                            frame.transmitter(),
+                                            frame.meta().getChannel(),
+                                            frame.meta().getFrequency(),
+                                            frame.meta().getAntennaSignal(),
+                                            frames
+                                    ));
                         }
                     }
                 }
@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.UnexpectedChannelBeaconAlert;
 import horse.wtf.nzyme.alerts.UnexpectedChannelProbeRespAlert;
+import horse.wtf.nzyme.alerts.service.AlertKey;
 import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.configuration.Dot11NetworkDefinition;
 import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
@@ -57,15 +58,16 @@ public class UnexpectedChannelInterceptorSet {
 
                 for (Dot11NetworkDefinition network : configuredNetworks) {
                     if (network.ssid().equals(frame.ssid()) && !network.channels().contains(frame.meta().getChannel())) {
-                        alerts.handle(UnexpectedChannelProbeRespAlert.create(
-                                DateTime.now(),
-                                frame.ssid(),
-                                frame.transmitter(),
-                                frame.meta().getChannel(),
-                                frame.meta().getFrequency(),
-                                frame.meta().getAntennaSignal(),
-                                1
-                        ));
+                        alerts.handle(AlertKey.create(Alert.TYPE.UNEXPECTED_CHANNEL_PROBERESP, frame.ssid(), frame.transmitter(), frame.meta().getChannel()),
+                                frames -> UnexpectedChannelProbeRespAlert.create(
+                                        DateTime.now(),
+                                        frame.ssid(),
+                                        frame.transmitter(),
+                                        frame.meta().getChannel(),
+                                        frame.meta().getFrequency(),
+                                        frame.meta().getAntennaSignal(),
+                                        frames
+                                ));
                     }
                 }
             }
@@ -93,15 +95,16 @@ public class UnexpectedChannelInterceptorSet {
 
                 for (Dot11NetworkDefinition network : configuredNetworks) {
                     if (network.ssid().equals(frame.ssid()) && !network.channels().contains(frame.meta().getChannel())) {
-                        alerts.handle(UnexpectedChannelBeaconAlert.create(
-                                DateTime.now(),
-                                frame.ssid(),
-                                frame.transmitter(),
-                                frame.meta().getChannel(),
-                                frame.meta().getFrequency(),
-                                frame.meta().getAntennaSignal(),
-                                1
-                        ));
+                        alerts.handle(AlertKey.create(Alert.TYPE.UNEXPECTED_CHANNEL_BEACON, frame.ssid(), frame.transmitter(), frame.meta().getChannel()),
+                                frames -> UnexpectedChannelBeaconAlert.create(
+                                        DateTime.now(),
+                                        frame.ssid(),
+                                        frame.transmitter(),
+                                        frame.meta().getChannel(),
+                                        frame.meta().getFrequency(),
+                                        frame.meta().getAntennaSignal(),
+                                        frames
+                                ));
                     }
                 }
             }
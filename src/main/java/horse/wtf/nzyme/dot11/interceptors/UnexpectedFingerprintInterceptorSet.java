@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableList;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.UnexpectedFingerprintBeaconAlert;
 import horse.wtf.nzyme.alerts.UnexpectedFingerprintProbeRespAlert;
+import horse.wtf.nzyme.alerts.service.AlertKey;
 import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.configuration.Dot11BSSIDDefinition;
 import horse.wtf.nzyme.configuration.Dot11NetworkDefinition;
@@ -46,16 +47,17 @@ public class UnexpectedFingerprintInterceptorSet {
                         if (!Strings.isNullOrEmpty(frame.transmitterFingerprint())
                                 && frame.transmitter().equals(bssid.address())
                                 && !bssid.fingerprints().contains(frame.transmitterFingerprint())) {
-                            alerts.handle(UnexpectedFingerprintProbeRespAlert.create(
-                                    DateTime.now(),
-                                    frame.ssid(),
-                                    frame.transmitterFingerprint(),
-                                    frame.transmitter(),
-                                    frame.meta().getChannel(),
-                                    frame.meta().getFrequency(),
-                                    frame.meta().getAntennaSignal(),
-                                    1
-                            ));
+                            alerts.handle(AlertKey.create(Alert.TYPE.UNEXPECTED_FINGERPRINT_PROBERESP, frame.ssid(), frame.transmitter(), frame.transmitterFingerprint()),
+                                    frames -> UnexpectedFingerprintProbeRespAlert.create(
+                                            DateTime.now(),
+                                            frame.ssid(),
+                                            frame.transmitterFingerprint(),
+                                            frame.transmitter(),
+                                            frame.meta().getChannel(),
+                                            frame.meta().getFrequency(),
+                                            frame.meta().getAntennaSignal(),
+                                            frames
+                                    ));
                         }
                     }
                 }
@@ -88,16 +90,17 @@ public class UnexpectedFingerprintInterceptorSet {
                         if (!Strings.isNullOrEmpty(frame.transmitterFingerprint())
                                 && frame.transmitter().equals(bssid.address())
                                 && !bssid.fingerprints().contains(frame.transmitterFingerprint())) {
-                            alerts.handle(UnexpectedFingerprintBeaconAlert.create(
-                                    DateTime.now(),
-                                    frame.ssid(),
-                                    frame.transmitterFingerprint(),
-                                    frame.transmitter(),
-                                    frame.meta().getChannel(),
-                                    frame.meta().getFrequency(),
-                                    frame.meta().getAntennaSignal(),
-                                    1
-                            ));
+                            alerts.handle(AlertKey.create(Alert.TYPE.UNEXPECTED_FINGERPRINT_BEACON, frame.ssid(), frame.transmitter(), frame.transmitterFingerprint()),
+                                    frames -> UnexpectedFingerprintBeaconAlert.create(
+                                            DateTime.now(),
+                                            frame.ssid(),
+                                            frame.transmitterFingerprint(),
+                                            frame.transmitter(),
+                                            frame.meta().getChannel(),
+                                            frame.meta().getFrequency(),
+                                            frame.meta().getAntennaSignal(),
+                                            frames
+                                    ));
                         }
                     }
                 }
@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.UnexpectedSSIDBeaconAlert;
 import horse.wtf.nzyme.alerts.UnexpectedSSIDProbeRespAlert;
+import horse.wtf.nzyme.alerts.service.AlertKey;
 import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.configuration.Dot11NetworkDefinition;
 import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
@@ -58,15 +59,16 @@ public class UnexpectedSSIDInterceptorSet {
 
                 for (Dot11NetworkDefinition network : configuredNetworks) {
                     if (network.allBSSIDAddresses().contains(frame.transmitter()) && !network.ssid().equals(frame.ssid())) {
-                        alerts.handle(UnexpectedSSIDProbeRespAlert.create(
-                                DateTime.now(),
-                                frame.ssid(),
-                                frame.transmitter(),
-                                frame.meta().getChannel(),
-                                frame.meta().getFrequency(),
-                                frame.meta().getAntennaSignal(),
-                                1
-                        ));
+                        alerts.handle(AlertKey.create(Alert.TYPE.UNEXPECTED_SSID_PROBERESP, frame.ssid(), frame.transmitter()),
+                                frames -> UnexpectedSSIDProbeRespAlert.create(
+                                        DateTime.now(),
+                                        frame.ssid(),
+                                        frame.transmitter(),
+                                        frame.meta().getChannel(),
+                                        frame.meta().getFrequency(),
+                                        frame.meta().getAntennaSignal(),
+                                        frames
+                                ));
                     }
                 }
             }
@@ -95,15 +97,16 @@ public class UnexpectedSSIDInterceptorSet {
 
                 for (Dot11NetworkDefinition network : configuredNetworks) {
                     if (network.allBSSIDAddresses().contains(frame.transmitter()) && !network.ssid().equals(frame.ssid())) {
-                        alerts.handle(UnexpectedSSIDBeaconAlert.create(
-                                DateTime.now(),
-                                frame.ssid(),
-                                frame.transmitter(),
-                                frame.meta().getChannel(),
-                                frame.meta().getFrequency(),
-                                frame.meta().getAntennaSignal(),
-                                1
-                        ));
+                        alerts.handle(AlertKey.create(Alert.TYPE.UNEXPECTED_SSID_BEACON, frame.ssid(), frame.transmitter()),
+                                frames -> UnexpectedSSIDBeaconAlert.create(
+                                        DateTime.now(),
+                                        frame.ssid(),
+                                        frame.transmitter(),
+                                        frame.meta().getChannel(),
+                                        frame.meta().getFrequency(),
+                                        frame.meta().getAntennaSignal(),
+                                        frames
+                                ));
                     }
                 }
             }
@@ -39,7 +39,8 @@ public abstract class BSSID {
     @JsonProperty
     public abstract String bssid();
 
-    private DateTime lastSeen = new DateTime();
+    // Epoch milliseconds. Updated for every frame.
+    private volatile long lastSeen = System.currentTimeMillis();
 
     private boolean isWPS;
 
@@ -50,6 +51,11 @@ public abstract class BSSID {
 
     @JsonProperty("last_seen")
     public DateTime getLastSeen() {
+        return new DateTime(lastSeen);
+    }
+
+    @JsonIgnore
+    public long getLastSeenMillis() {
         return lastSeen;
     }
 
@@ -79,13 +85,21 @@ public abstract class BSSID {
     }
 
     @JsonIgnore
-    public void updateLastSeen() {
-        this.lastSeen = new DateTime();
+    public void updateLastSeen(long timestamp) {
+        // Frames of several probes do not necessarily arrive in capture order.
+        if (timestamp > this.lastSeen) {
+            this.lastSeen = timestamp;
+        }
     }
 
+    /**
+     * @return true if the value changed
+     */
     @JsonIgnore
-    public void updateIsWPS(boolean isWPS) {
+    public boolean updateIsWPS(boolean isWPS) {
+        boolean changed = this.isWPS != isWPS;
         this.isWPS = isWPS;
+        return changed;
     }
 
     public static Builder builder() {
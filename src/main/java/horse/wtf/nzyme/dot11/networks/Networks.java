@@ -30,7 +30,6 @@ import horse.wtf.nzyme.dot11.networks.signalstrength.SignalStrengthTable;
 import horse.wtf.nzyme.util.MetricNames;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.joda.time.DateTime;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
@@ -50,9 +49,14 @@ public class Networks {
 
     private final BeaconRateManager beaconRateManager;
 
+    // Incremented on structural changes to the tracked networks. (new BSSID, SSID or channel, security or WPS changes)
+    // Used by REST resources to answer conditional requests.
+    private final AtomicLong generation;
+
     public Networks(NzymeLeader nzyme) {
         this.nzyme = nzyme;
         this.bssids = Maps.newConcurrentMap();
+        this.generation = new AtomicLong(0);
         this.beaconRateManager = new BeaconRateManager(nzyme);
 
         // Metric: Combined length of all signal strength tables.
@@ -122,7 +126,7 @@ public class Networks {
         }
 
         if (!Strings.isNullOrEmpty(frame.ssid())) { // Don't consider broadcast frames..
-            register(Dot11FrameSubtype.BEACON, frame.transmitter(), frame.transmitterFingerprint(), frame.taggedParameters(), frame.ssid(), frame.meta().getChannel(), frame.meta().getAntennaSignal());
+            register(Dot11FrameSubtype.BEACON, frame.transmitter(), frame.transmitterFingerprint(), frame.taggedParameters(), frame.ssid(), frame.meta().getChannel(), frame.meta().getAntennaSignal(), frame.meta().getCaptureTimestamp());
         }
     }
 
@@ -133,7 +137,7 @@ public class Networks {
         }
 
         if (!Strings.isNullOrEmpty(frame.ssid())) { // Don't consider broadcast frames..
-            register(Dot11FrameSubtype.PROBE_RESPONSE, frame.transmitter(), frame.transmitterFingerprint(), frame.taggedParameters(), frame.ssid(), frame.meta().getChannel(), frame.meta().getAntennaSignal());
+            register(Dot11FrameSubtype.PROBE_RESPONSE, frame.transmitter(), frame.transmitterFingerprint(), frame.taggedParameters(), frame.ssid(), frame.meta().getChannel(), frame.meta().getAntennaSignal(), frame.meta().getCaptureTimestamp());
         }
     }
 
@@ -143,7 +147,12 @@ public class Networks {
                           Dot11TaggedParameters taggedParameters,
                           String ssidName,
                           int channelNumber,
-                          int antennaSignal) {
+                          int antennaSignal,
+                          long timestamp) {
+        // Only structural changes bump the generation. Per-frame values like last seen, signal strength and frame
+        // counts are covered by the time bucket of consumers, or every frame would invalidate every client.
+        boolean changed = false;
+
         // Ensure that the BSSID exists in the map.
         BSSID bssid;
         if (bssids.containsKey(transmitter)) {
@@ -152,6 +161,7 @@ public class Networks {
             // Ensure that the SSID has been recorded for this BSSID.
             if (!bssid.ssids().containsKey(ssidName)) {
                 bssid.ssids().put(ssidName, SSID.create(ssidName, bssid.bssid(), beaconRateManager));
+                changed = true;
             }
         } else {
             // First time we are seeing this BSSID.
@@ -167,17 +177,18 @@ public class Networks {
             }}, oui, transmitter);
 
             bssids.put(transmitter, bssid);
+            changed = true;
         }
 
         // Update 'last seen'.
-        bssid.updateLastSeen();
+        bssid.updateLastSeen(timestamp);
 
         // Update properties that could change during the lifetime of this BSSID.
-        bssid.updateIsWPS(taggedParameters.isWPS());
+        changed |= bssid.updateIsWPS(taggedParameters.isWPS());
 
         // Find our SSID.
         SSID ssid = bssid.ssids().get(ssidName);
-        ssid.updateSecurity(taggedParameters.getSecurityConfiguration());
+        changed |= ssid.updateSecurity(taggedParameters.getSecurityConfiguration());
 
         // Update beacon counter.
         if (subtype == Dot11FrameSubtype.BEACON) {
@@ -185,7 +196,6 @@ public class Networks {
             ssid.beaconCount.incrementAndGet();
         }
 
-        DateTime now = DateTime.now();
         try {
             // Create or update channel.
             if (ssid.channels().containsKey(channelNumber)) {
@@ -202,7 +212,7 @@ public class Networks {
                 // Record signal strength.
                 channel.signalStrengthTable().recordSignalStrength(
                         SignalStrengthTable.SignalStrength.create(
-                                now,
+                                timestamp,
                                 antennaSignal
                         )
                 );
@@ -222,15 +232,21 @@ public class Networks {
 
                 // Record signal strength.
                 channel.signalStrengthTable().recordSignalStrength(
-                        SignalStrengthTable.SignalStrength.create(now, antennaSignal)
+                        SignalStrengthTable.SignalStrength.create(timestamp, antennaSignal)
                 );
 
                 ssid.channels().put(channelNumber, channel);
+                changed = true;
             }
         } catch (NullPointerException e) {
             LOG.error(ssid);
             throw e;
         }
+
+        // Bump after all changes have been applied, to never tag a response with a generation it does not contain.
+        if (changed) {
+            generation.incrementAndGet();
+        }
     }
 
     public Map<String, BSSID> getBSSIDs() {
@@ -277,12 +293,14 @@ public class Networks {
 
     public void retentionClean(int seconds) {
         try {
+            long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(seconds);
             for (Map.Entry<String, BSSID> entry : Lists.newArrayList(bssids.entrySet())) {
                 BSSID bssid = entry.getValue();
 
-                if (bssid.getLastSeen().isBefore(DateTime.now().minusSeconds(seconds))) {
+                if (bssid.getLastSeenMillis() < cutoff) {
                     LOG.debug("Retention cleaning expired BSSID [{}] from internal networks list.", bssid.bssid());
                     bssids.remove(entry.getKey());
+                    generation.incrementAndGet();
                 }
             }
         } catch(Exception e) {
@@ -292,6 +310,11 @@ public class Networks {
 
     public void reset() {
         this.bssids.clear();
+        generation.incrementAndGet();
+    }
+
+    public long getGeneration() {
+        return generation.get();
     }
 
     public static class NoSuchNetworkException extends Exception {
@@ -94,9 +94,14 @@ public abstract class SSID {
                 .build();
     }
 
+    /**
+     * @return true if the security configuration changed
+     */
     @JsonIgnore
-    public void updateSecurity(List<Dot11SecurityConfiguration> security) {
+    public boolean updateSecurity(List<Dot11SecurityConfiguration> security) {
+        boolean changed = !this.security.equals(security);
         this.security = security;
+        return changed;
     }
 
     public static Builder builder() {
@@ -33,6 +33,11 @@ public class Sentry {
 
     private static final Logger LOG = LogManager.getLogger(Sentry.class);
 
+    private static final String UPDATE_SSID_QUERY = "UPDATE sentry_ssids SET last_seen = :last_seen WHERE ssid = :ssid";
+    private static final String INSERT_SSID_QUERY = "INSERT INTO sentry_ssids(ssid, first_seen, last_seen) " +
+            "VALUES(:ssid, :first_seen, :last_seen)";
+    private static final String SYNC_SAVEPOINT = "sentry_ssid";
+
     private final NzymeLeader nzyme;
     private final ScheduledExecutorService executor;
     private final ConcurrentMap<String, SentrySSID> table;
@@ -65,34 +70,36 @@ public class Sentry {
         }
     }
 
-    private void syncDatabase() {
-        for (SentrySSID entry : table.values()) {
-            try {
-                long count = nzyme.getDatabase().withHandle(handle ->
-                        handle.createQuery("SELECT COUNT(*) FROM sentry_ssids WHERE ssid = :ssid")
+    void syncDatabase() {
+        try {
+            // One transaction and two shared statements for all SSIDs. A savepoint per SSID keeps one bad row from
+            // rolling back all others.
+            nzyme.getDatabase().useTransaction(handle -> {
+                for (SentrySSID entry : table.values()) {
+                    handle.savepoint(SYNC_SAVEPOINT);
+                    try {
+                        int updated = handle.createUpdate(UPDATE_SSID_QUERY)
+                                .bind("last_seen", entry.lastSeen().withMillisOfSecond(0))
                                 .bind("ssid", entry.ssid())
-                                .mapTo(Long.class)
-                                .first());
-
-                if (count == 0) {
-                    nzyme.getDatabase().useHandle(handle -> handle.createUpdate(
-                            "INSERT INTO sentry_ssids(ssid, first_seen, last_seen) VALUES(:ssid, :first_seen, :last_seen)")
-                            .bind("ssid", entry.ssid())
-                            .bind("first_seen", entry.firstSeen().withMillisOfSecond(0))
-                            .bind("last_seen", entry.lastSeen().withMillisOfSecond(0))
-                            .execute()
-                    );
-                } else {
-                    nzyme.getDatabase().useHandle(handle -> handle.createUpdate(
-                            "UPDATE sentry_ssids SET last_seen = :last_seen WHERE ssid = :ssid")
-                            .bind("last_seen", entry.lastSeen().withMillisOfSecond(0))
-                            .bind("ssid", entry.ssid())
-                            .execute()
-                    );
+                                .execute();
+
+                        if (updated == 0) {
+                            handle.createUpdate(INSERT_SSID_QUERY)
+                                    .bind("ssid", entry.ssid())
+                                    .bind("first_seen", entry.firstSeen().withMillisOfSecond(0))
+                                    .bind("last_seen", entry.lastSeen().withMillisOfSecond(0))
+                                    .execute();
+                        }
+
+                        handle.release(SYNC_SAVEPOINT);
+                    } catch(Exception e) {
+                        handle.rollbackToSavepoint(SYNC_SAVEPOINT);
+                        LOG.warn("Could not sync sentry SSID [{}]. Retrying with next run.", entry.ssid(), e);
+                    }
                 }
-            } catch(Exception e) {
-                LOG.error("Could not sync sentry SSID. Skipping.", e);
-            }
+            });
+        } catch(Exception e) {
+            LOG.error("Could not sync sentry SSIDs.", e);
         }
     }
 
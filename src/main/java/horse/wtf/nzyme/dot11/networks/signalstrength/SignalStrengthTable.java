@@ -28,6 +28,7 @@ import org.joda.time.DateTime;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class SignalStrengthTable {
@@ -63,7 +64,7 @@ public class SignalStrengthTable {
     }
 
     public void retentionClean(int seconds) {
-        DateTime cutoff = DateTime.now().minusSeconds(seconds);
+        long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(seconds);
 
         List<SignalStrength> newList = newEmptyTable();
 
@@ -71,7 +72,7 @@ public class SignalStrengthTable {
         synchronized (mutex) {
             timer.stop();
             for (SignalStrength s : table) {
-                if (s.timestamp().isAfter(cutoff)) {
+                if (s.timestampMillis() > cutoff) {
                     newList.add(s);
                 }
             }
@@ -125,23 +126,32 @@ public class SignalStrengthTable {
     @AutoValue
     public static abstract class SignalStrength {
 
-        public abstract DateTime timestamp();
+        // Epoch milliseconds. One of these is recorded for every frame.
+        public abstract long timestampMillis();
         public abstract Integer signalStrength();
 
-        public static SignalStrength create(DateTime timestamp, Integer signalStrength) {
+        public DateTime timestamp() {
+            return new DateTime(timestampMillis());
+        }
+
+        public static SignalStrength create(long timestampMillis, Integer signalStrength) {
             return builder()
-                    .timestamp(timestamp)
+                    .timestampMillis(timestampMillis)
                     .signalStrength(signalStrength)
                     .build();
         }
 
+        public static SignalStrength create(DateTime timestamp, Integer signalStrength) {
+            return create(timestamp.getMillis(), signalStrength);
+        }
+
         public static Builder builder() {
             return new AutoValue_SignalStrengthTable_SignalStrength.Builder();
         }
 
         @AutoValue.Builder
         public abstract static class Builder {
-            public abstract Builder timestamp(DateTime timestamp);
+            public abstract Builder timestampMillis(long timestampMillis);
 
             public abstract Builder signalStrength(Integer signalStrength);
 
@@ -23,6 +23,7 @@ import horse.wtf.nzyme.dot11.anonymization.Anonymizer;
 import horse.wtf.nzyme.dot11.frames.Dot11BeaconFrame;
 import org.pcap4j.packet.IllegalRawDataException;
 
+import javax.annotation.Nullable;
 
 public class Dot11BeaconFrameParser extends Dot11FrameParser<Dot11BeaconFrame> {
 
@@ -60,4 +61,19 @@ public class Dot11BeaconFrameParser extends Dot11FrameParser<Dot11BeaconFrame> {
         return Dot11BeaconFrame.create(ssid, transmitter, taggedParameters.fingerprint(), taggedParameters, meta, payload, header);
     }
 
+    /**
+     * Builds a beacon from fields a trusted remote sensor already parsed. Skips header parsing, SSID decoding and
+     * fingerprinting. The tagged parameters are still parsed because the security configuration is read from them.
+     */
+    public Dot11BeaconFrame fromParsed(@Nullable String ssid, String transmitter, String fingerprint, byte[] payload, byte[] header, Dot11MetaInformation meta) throws MalformedFrameException {
+        Dot11TaggedParameters taggedParameters = new Dot11TaggedParameters(metrics, Dot11TaggedParameters.BEACON_TAGGED_PARAMS_POSITION, payload);
+
+        if (anonymizer != null && anonymizer.isEnabled()) {
+            ssid = anonymizer.anonymizeSSID(ssid);
+            transmitter = anonymizer.anonymizeBSSID(transmitter);
+        }
+
+        return Dot11BeaconFrame.create(ssid, transmitter, fingerprint, taggedParameters, meta, payload, header);
+    }
+
 }
@@ -64,4 +64,20 @@ public class Dot11ProbeResponseFrameParser extends Dot11FrameParser<Dot11ProbeRe
         return Dot11ProbeResponseFrame.create(ssid, destination, transmitter, taggedParameters.fingerprint(), taggedParameters, meta, payload, header);
     }
 
+    /**
+     * Builds a probe response from fields a trusted remote sensor already parsed. See
+     * {@link Dot11BeaconFrameParser#fromParsed}.
+     */
+    public Dot11ProbeResponseFrame fromParsed(String ssid, String destination, String transmitter, String fingerprint, byte[] payload, byte[] header, Dot11MetaInformation meta) throws MalformedFrameException {
+        Dot11TaggedParameters taggedParameters = new Dot11TaggedParameters(metrics, Dot11TaggedParameters.PROBERESP_TAGGED_PARAMS_POSITION, payload);
+
+        if (anonymizer.isEnabled()) {
+            ssid = anonymizer.anonymizeSSID(ssid);
+            transmitter = anonymizer.anonymizeBSSID(transmitter);
+            destination = anonymizer.anonymizeBSSID(destination);
+        }
+
+        return Dot11ProbeResponseFrame.create(ssid, destination, transmitter, fingerprint, taggedParameters, meta, payload, header);
+    }
+
 }
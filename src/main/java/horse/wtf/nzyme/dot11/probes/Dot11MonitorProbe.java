@@ -27,7 +27,10 @@ import horse.wtf.nzyme.channels.ChannelHopper;
 import horse.wtf.nzyme.dot11.Dot11MetaInformation;
 import horse.wtf.nzyme.dot11.MalformedFrameException;
 import horse.wtf.nzyme.dot11.anonymization.Anonymizer;
+import horse.wtf.nzyme.dot11.frames.Dot11BeaconFrame;
+import horse.wtf.nzyme.dot11.frames.Dot11Frame;
 import horse.wtf.nzyme.dot11.frames.Dot11FrameFactory;
+import horse.wtf.nzyme.dot11.frames.Dot11ProbeResponseFrame;
 import horse.wtf.nzyme.notifications.FieldNames;
 import horse.wtf.nzyme.notifications.Notification;
 import horse.wtf.nzyme.processing.FrameProcessor;
@@ -66,7 +69,7 @@ public class Dot11MonitorProbe extends Dot11Probe {
 
     private final AtomicBoolean inLoop = new AtomicBoolean(false);
 
-    private DateTime mostRecentFrameTimestamp;
+    private volatile long mostRecentFrameTimestamp = 0;
 
     public Dot11MonitorProbe(Dot11ProbeConfiguration configuration, FrameProcessor frameProcessor, MetricRegistry metrics, Anonymizer anonymizer, RemoteConnector remote, boolean hasDesignator) {
         super(configuration, metrics);
@@ -82,7 +85,7 @@ public class Dot11MonitorProbe extends Dot11Probe {
         this.globalFrameTimer = metrics.timer(MetricNames.FRAME_TIMER);
         this.localFrameMeter = metrics.meter(MetricRegistry.name(this.getClass(), this.getName(), "frameCount"));
 
-        channelHopper = new ChannelHopper(this, configuration);
+        channelHopper = new ChannelHopper(this, configuration, metrics);
         channelHopper.initialize();
 
         channelDesignator = hasDesignator ? new ChannelDesignator(this) : null;
@@ -178,7 +181,9 @@ public class Dot11MonitorProbe extends Dot11Probe {
                             RadiotapPacket r = (RadiotapPacket) packet;
                             byte[] payload = r.getPayload().getRawData();
 
-                            Dot11MetaInformation meta = Dot11MetaInformation.parse(r.getHeader().getDataFields());
+                            // Capture time as recorded by pcap.
+                            long capturedAt = pcap.getTimestamp().getTime();
+                            Dot11MetaInformation meta = Dot11MetaInformation.parse(r.getHeader().getDataFields(), capturedAt);
 
                             if (meta.isMalformed()) {
                                 LOG.trace("Bad checksum. Skipping malformed packet on probe [{}].", getName());
@@ -190,10 +195,13 @@ public class Dot11MonitorProbe extends Dot11Probe {
                                     (byte) (((payload[0] << 2) & 0x30) | ((payload[0] >> 4) & 0x0F))
                             );
 
-                            mostRecentFrameTimestamp = DateTime.now();
+                            mostRecentFrameTimestamp = capturedAt;
+
+                            Dot11Frame frame = frameFactory.build(type, payload, r.getHeader().getRawData(), meta);
+                            channelHopper.recordFrame(meta.getChannel(), transmitterOf(frame));
 
                             // Intercept and handle frame.
-                            frameProcessor.processDot11Frame(frameFactory.build(type, payload, r.getHeader().getRawData(), meta));
+                            frameProcessor.processDot11Frame(frame);
 
                             time.stop();
                         }
@@ -237,13 +245,27 @@ public class Dot11MonitorProbe extends Dot11Probe {
     @Override
     @Nullable
     public DateTime getMostRecentFrameTimestamp() {
-        return mostRecentFrameTimestamp;
+        long timestamp = mostRecentFrameTimestamp;
+        return timestamp == 0 ? null : new DateTime(timestamp);
     }
 
     public void onChannelSwitch(ChannelHopper.ChannelSwitchHandler handler) {
         channelHopper.onChannelSwitch(handler);
     }
 
+    @Nullable
+    private static String transmitterOf(Dot11Frame frame) {
+        if (frame instanceof Dot11BeaconFrame) {
+            return ((Dot11BeaconFrame) frame).transmitter();
+        }
+
+        if (frame instanceof Dot11ProbeResponseFrame) {
+            return ((Dot11ProbeResponseFrame) frame).transmitter();
+        }
+
+        return null;
+    }
+
     private void notifyOfMalformedFrame(Dot11MetaInformation meta) {
         int channel = 0;
         if(meta != null) {
@@ -40,6 +40,8 @@ public abstract class Dot11ProbeConfiguration {
     public abstract String channelHopCommand();
     public abstract boolean skipEnableMonitor();
     public abstract int maxIdleTimeSeconds();
+    public abstract boolean adaptiveChannelHopping();
+    public abstract boolean netlinkChannelSwitching();
 
     @Nullable
     public abstract ImmutableList<Dot11NetworkDefinition> getDot11Networks();
@@ -47,7 +49,7 @@ public abstract class Dot11ProbeConfiguration {
     @Nullable
     public abstract ImmutableList<Dot11TrapDeviceDefinition> getDot11TrapDevices();
 
-    public static Dot11ProbeConfiguration create(String probeName, ImmutableList<Uplink> uplinks, String nzymeId, String networkInterfaceName, ImmutableList<Integer> channels, Integer channelHopInterval, String channelHopCommand, boolean skipEnableMonitor, int maxIdleTimeSeconds, ImmutableList<Dot11NetworkDefinition> getDot11Networks, ImmutableList<Dot11TrapDeviceDefinition> getDot11TrapDevices) {
+    public static Dot11ProbeConfiguration create(String probeName, ImmutableList<Uplink> uplinks, String nzymeId, String networkInterfaceName, ImmutableList<Integer> channels, Integer channelHopInterval, String channelHopCommand, boolean skipEnableMonitor, int maxIdleTimeSeconds, boolean adaptiveChannelHopping, boolean netlinkChannelSwitching, ImmutableList<Dot11NetworkDefinition> getDot11Networks, ImmutableList<Dot11TrapDeviceDefinition> getDot11TrapDevices) {
         return builder()
                 .probeName(probeName)
                 .uplinks(uplinks)
@@ -58,6 +60,8 @@ public abstract class Dot11ProbeConfiguration {
                 .channelHopCommand(channelHopCommand)
                 .skipEnableMonitor(skipEnableMonitor)
                 .maxIdleTimeSeconds(maxIdleTimeSeconds)
+                .adaptiveChannelHopping(adaptiveChannelHopping)
+                .netlinkChannelSwitching(netlinkChannelSwitching)
                 .getDot11Networks(getDot11Networks)
                 .getDot11TrapDevices(getDot11TrapDevices)
                 .build();
@@ -87,6 +91,10 @@ public abstract class Dot11ProbeConfiguration {
 
         public abstract Builder maxIdleTimeSeconds(int maxIdleTimeSeconds);
 
+        public abstract Builder adaptiveChannelHopping(boolean adaptiveChannelHopping);
+
+        public abstract Builder netlinkChannelSwitching(boolean netlinkChannelSwitching);
+
         public abstract Builder getDot11Networks(ImmutableList<Dot11NetworkDefinition> getDot11Networks);
 
         public abstract Builder getDot11TrapDevices(ImmutableList<Dot11TrapDeviceDefinition> getDot11TrapDevices);
@@ -53,7 +53,7 @@ public class Dot11SenderProbe extends Dot11Probe {
 
         this.totalFrames = 0;
 
-        channelHopper = new ChannelHopper(this, configuration);
+        channelHopper = new ChannelHopper(this, configuration, metrics);
         channelHopper.initialize();
     }
 
@@ -33,6 +33,14 @@ public class EventService {
 
     private static final Logger LOG = LogManager.getLogger(EventService.class);
 
+    private static final String INSERT_EVENT_QUERY = "INSERT INTO events(type, name, description, created_at) " +
+            "VALUES(:type, :name, :description, :created_at)";
+    private static final String COUNT_ALL_QUERY = "SELECT COUNT(*) FROM events";
+    private static final String COUNT_OF_TYPE_SINCE_QUERY = "SELECT COUNT(*) FROM events " +
+            "WHERE type = :type AND created_at > :created_at";
+    private static final String FIND_ALL_SINCE_QUERY = "SELECT * FROM events WHERE created_at > :created_at " +
+            "ORDER BY created_at";
+
     private final NzymeLeader nzyme;
 
     private final Map<Event.TYPE, List<Consumer<Event>>> subscribers;
@@ -57,17 +65,19 @@ public class EventService {
             LOG.error("Callback for event [{}] failed. Continuing.", event, e);
         }
 
-        nzyme.getDatabase().useHandle(handle -> handle.execute("INSERT INTO events(type, name, description, created_at) VALUES(?, ?, ?, ?)",
-                event.type().toString(),
-                event.name(),
-                event.description(),
-                timestamp.withMillisOfSecond(0)
-        ));
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate(INSERT_EVENT_QUERY)
+                        .bind("type", event.type().toString())
+                        .bind("name", event.name())
+                        .bind("description", event.description())
+                        .bind("created_at", timestamp.withMillisOfSecond(0))
+                        .execute()
+        );
     }
 
     public long countAll() {
         return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT COUNT(*) FROM events")
+                handle.createQuery(COUNT_ALL_QUERY)
                         .mapTo(Long.class)
                         .one()
         );
@@ -75,7 +85,7 @@ public class EventService {
 
     public long countAllOfTypeOfLast24Hours(Event.TYPE type) {
         return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT COUNT(*) FROM events WHERE type = :type AND created_at > :created_at")
+                handle.createQuery(COUNT_OF_TYPE_SINCE_QUERY)
                         .bind("type", type.toString())
                         .bind("created_at", DateTime.now().minusHours(24))
                         .mapTo(Long.class)
@@ -85,7 +95,7 @@ public class EventService {
 
    public List<EventRecord> findAllEventsOfLast24Hours() {
         return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT * FROM events WHERE created_at > :created_at ORDER BY created_at")
+                handle.createQuery(FIND_ALL_SINCE_QUERY)
                         .bind("created_at", DateTime.now().minusHours(24))
                         .mapTo(EventRecord.class)
                         .list()
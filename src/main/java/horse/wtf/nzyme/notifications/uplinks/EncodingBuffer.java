@@ -0,0 +1,159 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.notifications.uplinks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Growable byte buffer that uplink encoders write their wire format into. It is reset and reused for every message or
+ * batch, so that encoding does not allocate once the buffer has grown to its working size.
+ *
+ * Not thread-safe.
+ */
+public class EncodingBuffer {
+
+    private static final int INITIAL_SIZE = 64 * 1024;
+
+    private byte[] buf = new byte[INITIAL_SIZE];
+    private int length = 0;
+
+    public void reset() {
+        this.length = 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte[] array() {
+        return buf;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, length);
+    }
+
+    public void writeTo(OutputStream out, int offset, int len) throws IOException {
+        out.write(buf, offset, len);
+    }
+
+    public void writeByte(int b) {
+        ensureCapacity(1);
+        buf[length++] = (byte) b;
+    }
+
+    public void write(byte[] bytes, int offset, int len) {
+        ensureCapacity(len);
+        System.arraycopy(bytes, offset, buf, length, len);
+        length += len;
+    }
+
+    public void writeAscii(String s) {
+        ensureCapacity(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            buf[length++] = (byte) s.charAt(i);
+        }
+    }
+
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+
+        ensureCapacity(20);
+
+        if (value < 0) {
+            buf[length++] = '-';
+            value = -value;
+        }
+
+        int start = length;
+        do {
+            buf[length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+
+        // Digits were written in reverse.
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte tmp = buf[i];
+            buf[i] = buf[j];
+            buf[j] = tmp;
+        }
+    }
+
+    /**
+     * Writes a number with a fixed amount of digits, padded with leading zeros.
+     */
+    public void writePadded(int value, int digits) {
+        ensureCapacity(digits);
+        for (int i = digits - 1; i >= 0; i--) {
+            buf[length + i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    /**
+     * Writes the char at the given index of the string as UTF-8. A surrogate pair is consumed as a whole.
+     *
+     * @return The index of the last consumed char.
+     */
+    public int writeUtf8(CharSequence s, int i) {
+        ensureCapacity(4);
+
+        char c = s.charAt(i);
+        if (c < 0x80) {
+            buf[length++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[length++] = (byte) (0xC0 | (c >> 6));
+            buf[length++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, s.charAt(++i));
+            buf[length++] = (byte) (0xF0 | (cp >> 18));
+            buf[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            buf[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            buf[length++] = (byte) (0x80 | (cp & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            // Unpaired surrogate. Not representable in UTF-8.
+            buf[length++] = '?';
+        } else {
+            buf[length++] = (byte) (0xE0 | (c >> 12));
+            buf[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[length++] = (byte) (0x80 | (c & 0x3F));
+        }
+
+        return i;
+    }
+
+    public void writeUtf8(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            i = writeUtf8(s, i);
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buf.length) {
+            byte[] grown = new byte[Math.max(buf.length * 2, length + additional)];
+            System.arraycopy(buf, 0, grown, 0, length);
+            buf = grown;
+        }
+    }
+
+}
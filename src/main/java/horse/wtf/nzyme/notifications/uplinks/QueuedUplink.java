@@ -0,0 +1,187 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.notifications.uplinks;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.notifications.Notification;
+import horse.wtf.nzyme.notifications.Uplink;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+
+/**
+ * Base of uplinks that must not slow down frame processing. Notifications and alerts are put on a bounded queue and
+ * handed to the implementation in batches on a single sender thread. Messages are dropped (and counted) if the queue
+ * is full or if a batch could not be sent. Implementations call {@link #start()} at the end of their constructor.
+ */
+public abstract class QueuedUplink implements Uplink {
+
+    private static final Logger LOG = LogManager.getLogger(QueuedUplink.class);
+
+    public static final int QUEUE_SIZE = 8192;
+    public static final int MAX_BATCH_SIZE = 512;
+
+    private static final int RETRY_DELAY_MS = 1000;
+
+    private final String name;
+    private final BlockingQueue<QueuedMessage> queue;
+
+    private final Meter sent;
+    private final Meter dropped;
+
+    /**
+     * @param name Used for the sender thread and in log messages.
+     * @param target Address of the receiver. Metrics are registered per target.
+     */
+    protected QueuedUplink(String name, String target, MetricRegistry metrics,
+                           String queueSizeMetric, String sentMetric, String droppedMetric) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+        String queueSizeName = MetricRegistry.name(queueSizeMetric, target);
+        metrics.remove(queueSizeName);
+        metrics.register(queueSizeName, (Gauge<Integer>) queue::size);
+        this.sent = metrics.meter(MetricRegistry.name(sentMetric, target));
+        this.dropped = metrics.meter(MetricRegistry.name(droppedMetric, target));
+    }
+
+    /**
+     * Sends a batch of messages. Any exception drops the whole batch and leads to a call of {@link #reset()}.
+     */
+    protected abstract void send(List<QueuedMessage> batch) throws Exception;
+
+    /**
+     * Called after a failed batch. Implementations close their connections here and re-open them on the next send.
+     */
+    protected abstract void reset();
+
+    protected void start() {
+        Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(name + "-%d")
+                .build())
+                .submit(this::run);
+    }
+
+    @Override
+    public void notify(Notification notification, @Nullable Dot11MetaInformation meta) {
+        enqueue(new QueuedMessage(notification, meta, null));
+    }
+
+    @Override
+    public void notifyOfAlert(Alert alert) {
+        enqueue(new QueuedMessage(null, null, alert));
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getSentCount() {
+        return sent.getCount();
+    }
+
+    public long getDroppedCount() {
+        return dropped.getCount();
+    }
+
+    private void enqueue(QueuedMessage message) {
+        if (!queue.offer(message)) {
+            dropped.mark();
+        }
+    }
+
+    private void run() {
+        List<QueuedMessage> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+                send(batch);
+                sent.mark(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.warn("Uplink [{}] could not send <{}> messages. Dropping them and retrying.", name, batch.size(), e);
+                dropped.mark(batch.size());
+                reset();
+
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Either a frame notification (with optional meta information) or an alert.
+     */
+    public static final class QueuedMessage {
+
+        @Nullable
+        private final Notification notification;
+
+        @Nullable
+        private final Dot11MetaInformation meta;
+
+        @Nullable
+        private final Alert alert;
+
+        private QueuedMessage(@Nullable Notification notification, @Nullable Dot11MetaInformation meta, @Nullable Alert alert) {
+            this.notification = notification;
+            this.meta = meta;
+            this.alert = alert;
+        }
+
+        @Nullable
+        public Notification getNotification() {
+            return notification;
+        }
+
+        @Nullable
+        public Dot11MetaInformation getMeta() {
+            return meta;
+        }
+
+        @Nullable
+        public Alert getAlert() {
+            return alert;
+        }
+
+    }
+
+}
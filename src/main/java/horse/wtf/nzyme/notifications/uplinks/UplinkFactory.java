@@ -17,11 +17,14 @@
 
 package horse.wtf.nzyme.notifications.uplinks;
 
+import com.codahale.metrics.MetricRegistry;
 import com.typesafe.config.Config;
 import horse.wtf.nzyme.configuration.ConfigurationKeys;
 import horse.wtf.nzyme.configuration.UplinkDefinition;
 import horse.wtf.nzyme.notifications.Uplink;
 import horse.wtf.nzyme.notifications.uplinks.graylog.GraylogUplink;
+import horse.wtf.nzyme.notifications.uplinks.syslog.SyslogEncoder;
+import horse.wtf.nzyme.notifications.uplinks.syslog.SyslogTCPRFC5424Uplink;
 import horse.wtf.nzyme.notifications.uplinks.syslog.SyslogUDPRFC3164UDPUplink;
 import horse.wtf.nzyme.notifications.uplinks.syslog.SyslogUDPRFC5424UDPUplink;
 
@@ -30,25 +33,39 @@ import java.net.InetSocketAddress;
 public class UplinkFactory {
 
     private final String nzymeId;
+    private final MetricRegistry metrics;
 
-    public UplinkFactory(String nzymeId) {
+    public UplinkFactory(String nzymeId, MetricRegistry metrics) {
         this.nzymeId = nzymeId;
+        this.metrics = metrics;
     }
 
     public Uplink fromConfigurationDefinition(UplinkDefinition definition) {
         String def = definition.type().toLowerCase();
         switch(def) {
             case "graylog":
-                return new GraylogUplink(parseInetSocketAddress(definition.configuration()), nzymeId);
+                return new GraylogUplink(parseInetSocketAddress(definition.configuration()), nzymeId, metrics);
             case "syslog_udp_rfc5424":
-                return new SyslogUDPRFC5424UDPUplink(parseInetSocketAddress(definition.configuration()), nzymeId);
+                return new SyslogUDPRFC5424UDPUplink(parseInetSocketAddress(definition.configuration()),
+                        parseStructuredDataId(definition.configuration()), nzymeId, metrics);
             case "syslog_udp_rfc3164":
-                return new SyslogUDPRFC3164UDPUplink(parseInetSocketAddress(definition.configuration()), nzymeId);
+                return new SyslogUDPRFC3164UDPUplink(parseInetSocketAddress(definition.configuration()), nzymeId, metrics);
+            case "syslog_tcp_rfc5424":
+                return new SyslogTCPRFC5424Uplink(parseInetSocketAddress(definition.configuration()),
+                        parseStructuredDataId(definition.configuration()), nzymeId, metrics);
             default:
                 throw new RuntimeException("Unknown uplink type [" + def + "].");
         }
     }
 
+    private String parseStructuredDataId(Config config) {
+        if (config.hasPath(ConfigurationKeys.STRUCTURED_DATA_ID)) {
+            return config.getString(ConfigurationKeys.STRUCTURED_DATA_ID);
+        } else {
+            return SyslogEncoder.DEFAULT_STRUCTURED_DATA_ID;
+        }
+    }
+
     private InetSocketAddress parseInetSocketAddress(Config config) {
         if(config.hasPath(ConfigurationKeys.HOST) && config.hasPath(ConfigurationKeys.PORT)) {
             return new InetSocketAddress(config.getString(ConfigurationKeys.HOST), config.getInt(ConfigurationKeys.PORT));
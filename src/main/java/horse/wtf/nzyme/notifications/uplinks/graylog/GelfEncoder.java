@@ -0,0 +1,137 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.notifications.uplinks.graylog;
+
+import horse.wtf.nzyme.notifications.uplinks.EncodingBuffer;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes GELF 1.1 messages as null-byte terminated JSON (the GELF TCP framing) directly into a reusable byte buffer.
+ * Several messages can be appended before the buffer is written out in one go. Nothing is allocated per message
+ * except for the string representation of field values that are neither strings nor integral numbers.
+ *
+ * Not thread-safe. Every sending thread must use its own encoder.
+ */
+public class GelfEncoder {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final EncodingBuffer buf = new EncodingBuffer();
+
+    public GelfEncoder reset() {
+        buf.reset();
+        return this;
+    }
+
+    public GelfEncoder begin(String host, CharSequence shortMessage, long timestampMillis) {
+        buf.writeAscii("{\"version\":\"1.1\",\"host\":");
+        writeString(host);
+        buf.writeAscii(",\"short_message\":");
+        writeString(shortMessage);
+
+        // Seconds with millisecond precision, as expected by GELF.
+        buf.writeAscii(",\"timestamp\":");
+        buf.writeLong(timestampMillis / 1000);
+        buf.writeByte('.');
+        buf.writePadded((int) (timestampMillis % 1000), 3);
+
+        return this;
+    }
+
+    /**
+     * Adds an additional field. The key is prefixed with an underscore. Fields with null values are skipped.
+     */
+    public GelfEncoder field(String key, @Nullable Object value) {
+        if (value == null) {
+            return this;
+        }
+
+        buf.writeAscii(",\"_");
+        writeEscaped(key);
+        buf.writeAscii("\":");
+
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            buf.writeLong(((Number) value).longValue());
+        } else if (value instanceof Number && Double.isFinite(((Number) value).doubleValue())) {
+            buf.writeAscii(value.toString());
+        } else if (value instanceof CharSequence) {
+            writeString((CharSequence) value);
+        } else {
+            writeString(value.toString());
+        }
+
+        return this;
+    }
+
+    public GelfEncoder field(String key, long value) {
+        buf.writeAscii(",\"_");
+        writeEscaped(key);
+        buf.writeAscii("\":");
+        buf.writeLong(value);
+
+        return this;
+    }
+
+    public GelfEncoder end() {
+        buf.writeByte('}');
+        buf.writeByte(0);
+
+        return this;
+    }
+
+    public int length() {
+        return buf.length();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        buf.writeTo(out);
+    }
+
+    private void writeString(CharSequence s) {
+        buf.writeByte('"');
+        writeEscaped(s);
+        buf.writeByte('"');
+    }
+
+    private void writeEscaped(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                buf.writeByte('\\');
+                buf.writeByte(c);
+            } else if (c == '\n') {
+                buf.writeAscii("\\n");
+            } else if (c == '\r') {
+                buf.writeAscii("\\r");
+            } else if (c == '\t') {
+                buf.writeAscii("\\t");
+            } else if (c < 0x20) {
+                buf.writeAscii("\\u00");
+                buf.writeByte(HEX[c >> 4]);
+                buf.writeByte(HEX[c & 0xF]);
+            } else {
+                i = buf.writeUtf8(s, i);
+            }
+        }
+    }
+
+}
@@ -17,82 +17,139 @@
 
 package horse.wtf.nzyme.notifications.uplinks.graylog;
 
+import com.codahale.metrics.MetricRegistry;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.dot11.Dot11MetaInformation;
 import horse.wtf.nzyme.notifications.FieldNames;
 import horse.wtf.nzyme.notifications.Notification;
-import horse.wtf.nzyme.notifications.Uplink;
-import org.graylog2.gelfclient.GelfConfiguration;
-import org.graylog2.gelfclient.GelfMessage;
-import org.graylog2.gelfclient.GelfTransports;
-import org.graylog2.gelfclient.transport.GelfTransport;
+import horse.wtf.nzyme.notifications.uplinks.QueuedUplink;
+import horse.wtf.nzyme.util.MetricNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
-import java.net.InetAddress;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
 import java.util.Map;
 
-public class GraylogUplink implements Uplink {
+/**
+ * Streams GELF messages to Graylog over one persistent TCP connection. Every batch is encoded into one buffer and
+ * written with one socket write.
+ */
+public class GraylogUplink extends QueuedUplink {
+
+    private static final Logger LOG = LogManager.getLogger(GraylogUplink.class);
 
     private static final String SOURCE = "nzyme";
 
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int SEND_BUFFER_SIZE = 65536;
+
+    private final InetSocketAddress address;
     private final String nzymeId;
 
-    private final GelfTransport gelfTransport;
+    private final GelfEncoder encoder;
+
+    @Nullable
+    private Socket socket;
 
-    public GraylogUplink(InetSocketAddress address, String nzymeId) {
+    @Nullable
+    private OutputStream out;
+
+    public GraylogUplink(InetSocketAddress address, String nzymeId, MetricRegistry metrics) {
+        super("graylog-uplink", address.getHostString() + ":" + address.getPort(), metrics,
+                MetricNames.GRAYLOG_UPLINK_QUEUE_SIZE, MetricNames.GRAYLOG_UPLINK_SENT, MetricNames.GRAYLOG_UPLINK_DROPPED);
+
+        this.address = address;
         this.nzymeId = nzymeId;
+        this.encoder = new GelfEncoder();
 
-        this.gelfTransport = GelfTransports.create(new GelfConfiguration(address)
-                .transport(GelfTransports.TCP)
-                .queueSize(512)
-                .connectTimeout(5000)
-                .reconnectDelay(1000)
-                .tcpNoDelay(true)
-                .sendBufferSize(32768));
+        start();
     }
 
     @Override
-    public void notify(Notification notification, @Nullable Dot11MetaInformation meta) {
-        // Add signal strength and frequency to message.
-        StringBuilder sb = new StringBuilder(notification.getMessage());
-
-        if(meta != null) {
-            sb.append(" ").append("(").append(meta.getFrequency()).append("MHz @")
-                    .append(" ").append(meta.getAntennaSignal()).append("dBm)");
+    protected void send(List<QueuedMessage> batch) throws IOException {
+        encoder.reset();
+        for (QueuedMessage message : batch) {
+            encode(message);
         }
 
-        GelfMessage gelf = new GelfMessage(sb.toString(), SOURCE);
-        gelf.addAdditionalFields(notification.getAdditionalFields());
-        gelf.addAdditionalField(FieldNames.NZYME_SENSOR_ID, this.nzymeId);
-        gelf.addAdditionalField(FieldNames.NZYME_MESSAGE_TYPE, "frame_record");
+        if (out == null) {
+            Socket s = new Socket();
+            s.setTcpNoDelay(true);
+            s.setSendBufferSize(SEND_BUFFER_SIZE);
+            s.setKeepAlive(true);
+            s.connect(address, CONNECT_TIMEOUT_MS);
 
-        // Meta information.
-        if(meta != null) {
-            gelf.addAdditionalField(FieldNames.ANTENNA_SIGNAL, meta.getAntennaSignal());
-            gelf.addAdditionalField(FieldNames.FREQUENCY, meta.getFrequency());
-            gelf.addAdditionalField(FieldNames.SIGNAL_QUALITY, meta.getSignalQuality());
+            this.socket = s;
+            this.out = s.getOutputStream();
+            LOG.info("Connected to Graylog at [{}].", address);
+        }
+
+        encoder.writeTo(out);
+        out.flush();
+    }
 
-            if(meta.getMacTimestamp() >= 0) {
-                gelf.addAdditionalField(FieldNames.MAC_TIMESTAMP, meta.getMacTimestamp());
+    @Override
+    protected void reset() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
             }
         }
 
-        this.gelfTransport.trySend(gelf);
+        this.socket = null;
+        this.out = null;
     }
 
-    @Override
-    public void notifyOfAlert(Alert alert) {
-        GelfMessage gelf = new GelfMessage("ALERT: " + alert.getMessage(), SOURCE);
-        gelf.addAdditionalField(FieldNames.NZYME_SENSOR_ID, this.nzymeId);
-        gelf.addAdditionalField(FieldNames.NZYME_MESSAGE_TYPE, "alert");
-        gelf.addAdditionalField(FieldNames.ALERT_TYPE, alert.getType().toString().toLowerCase());
-
-        for (Map.Entry<String, Object> x : alert.getFields().entrySet()) {
-            gelf.addAdditionalField("alert_" + x.getKey(), x.getValue());
+    private void encode(QueuedMessage queued) {
+        Alert alert = queued.getAlert();
+        if (alert != null) {
+            encoder.begin(SOURCE, "ALERT: " + alert.getMessage(), System.currentTimeMillis())
+                    .field(FieldNames.NZYME_SENSOR_ID, nzymeId)
+                    .field(FieldNames.NZYME_MESSAGE_TYPE, "alert")
+                    .field(FieldNames.ALERT_TYPE, alert.getType().toString().toLowerCase());
+
+            for (Map.Entry<String, Object> x : alert.getFields().entrySet()) {
+                encoder.field("alert_" + x.getKey(), x.getValue());
+            }
+
+            encoder.end();
+            return;
+        }
+
+        Notification notification = queued.getNotification();
+        Dot11MetaInformation meta = queued.getMeta();
+
+        String message = notification.getMessage();
+        if (meta != null) {
+            // Add signal strength and frequency to message.
+            message = message + " (" + meta.getFrequency() + "MHz @ " + meta.getAntennaSignal() + "dBm)";
+        }
+
+        encoder.begin(SOURCE, message, meta == null ? System.currentTimeMillis() : meta.getCaptureTimestamp());
+        for (Map.Entry<String, Object> x : notification.getAdditionalFields().entrySet()) {
+            encoder.field(x.getKey(), x.getValue());
+        }
+        encoder.field(FieldNames.NZYME_SENSOR_ID, nzymeId)
+                .field(FieldNames.NZYME_MESSAGE_TYPE, "frame_record");
+
+        // Meta information.
+        if (meta != null) {
+            encoder.field(FieldNames.ANTENNA_SIGNAL, meta.getAntennaSignal())
+                    .field(FieldNames.FREQUENCY, meta.getFrequency())
+                    .field(FieldNames.SIGNAL_QUALITY, meta.getSignalQuality());
+
+            if (meta.getMacTimestamp() >= 0) {
+                encoder.field(FieldNames.MAC_TIMESTAMP, meta.getMacTimestamp());
+            }
         }
 
-        this.gelfTransport.trySend(gelf);
+        encoder.end();
     }
 
 }
@@ -0,0 +1,208 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.notifications.uplinks.syslog;
+
+import horse.wtf.nzyme.notifications.uplinks.EncodingBuffer;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Writes syslog messages directly into a reusable byte buffer. RFC 5424 messages carry all fields as structured data,
+ * RFC 3164 messages carry them as key="value" pairs after the message text. The formatted timestamp is cached for the
+ * current second.
+ *
+ * Not thread-safe. Every sending thread must use its own encoder.
+ */
+public class SyslogEncoder {
+
+    public enum Format {
+        RFC_5424, RFC_3164
+    }
+
+    /**
+     * Default structured data ID. Not registered with IANA and without a private enterprise number, because nzyme has
+     * none. Receivers that require "name@<enterprise number>" IDs can be served by configuring one.
+     */
+    public static final String DEFAULT_STRUCTURED_DATA_ID = "nzyme";
+
+    // Facility USER (1), severity INFORMATIONAL (6).
+    private static final String PRI = "<14>";
+
+    private static final DateTimeFormatter RFC_5424_SECONDS = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH:mm:ss", Locale.US)
+            .withZone(ZoneOffset.UTC);
+
+    private static final DateTimeFormatter RFC_3164_SECONDS = DateTimeFormatter
+            .ofPattern("MMM ppd HH:mm:ss", Locale.US)
+            .withZone(ZoneId.systemDefault());
+
+    private final Format format;
+    private final String hostname;
+    private final String appName;
+    private final String structuredDataId;
+
+    private final EncodingBuffer buf = new EncodingBuffer();
+
+    private long cachedSecond = Long.MIN_VALUE;
+    private byte[] cachedTimestamp;
+
+    public SyslogEncoder(Format format, String hostname, String appName) {
+        this(format, hostname, appName, DEFAULT_STRUCTURED_DATA_ID);
+    }
+
+    public SyslogEncoder(Format format, String hostname, String appName, String structuredDataId) {
+        this.format = format;
+        this.hostname = hostname;
+        this.appName = appName;
+        this.structuredDataId = structuredDataId;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public SyslogEncoder reset() {
+        buf.reset();
+        return this;
+    }
+
+    /**
+     * Writes the header. The message ID is only used in RFC 5424 messages.
+     */
+    public SyslogEncoder begin(long timestampMillis, String messageId) {
+        buf.writeAscii(PRI);
+
+        if (format == Format.RFC_5424) {
+            buf.writeAscii("1 ");
+            writeTimestamp(timestampMillis);
+            buf.writeByte('.');
+            buf.writePadded((int) Math.floorMod(timestampMillis, 1000L), 3);
+            buf.writeByte('Z');
+            buf.writeByte(' ');
+            buf.writeAscii(hostname);
+            buf.writeByte(' ');
+            buf.writeAscii(appName);
+            buf.writeAscii(" - ");
+            buf.writeAscii(messageId);
+            buf.writeByte(' ');
+        } else {
+            writeTimestamp(timestampMillis);
+            buf.writeByte(' ');
+            buf.writeAscii(hostname);
+            buf.writeByte(' ');
+            buf.writeAscii(appName);
+            buf.writeAscii(": ");
+        }
+
+        return this;
+    }
+
+    public SyslogEncoder beginStructuredData() {
+        buf.writeByte('[');
+        buf.writeAscii(structuredDataId);
+        return this;
+    }
+
+    public SyslogEncoder endStructuredData() {
+        buf.writeByte(']');
+        return this;
+    }
+
+    /**
+     * Writes " key="value"". Null values are skipped.
+     */
+    public SyslogEncoder param(String key, @Nullable Object value) {
+        if (value == null) {
+            return this;
+        }
+
+        buf.writeByte(' ');
+        buf.writeAscii(key);
+        buf.writeAscii("=\"");
+
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            buf.writeLong(((Number) value).longValue());
+        } else if (value instanceof CharSequence) {
+            writeParamValue((CharSequence) value);
+        } else {
+            writeParamValue(value.toString());
+        }
+
+        buf.writeByte('"');
+        return this;
+    }
+
+    public SyslogEncoder param(String key, long value) {
+        buf.writeByte(' ');
+        buf.writeAscii(key);
+        buf.writeAscii("=\"");
+        buf.writeLong(value);
+        buf.writeByte('"');
+        return this;
+    }
+
+    public SyslogEncoder text(CharSequence text) {
+        buf.writeUtf8(text);
+        return this;
+    }
+
+    public SyslogEncoder text(long value) {
+        buf.writeLong(value);
+        return this;
+    }
+
+    public EncodingBuffer buffer() {
+        return buf;
+    }
+
+    public String toString() {
+        return new String(buf.array(), 0, buf.length(), StandardCharsets.UTF_8);
+    }
+
+    private void writeParamValue(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            // RFC 5424 PARAM-VALUE escaping. RFC 3164 messages only escape quotes, like they always did.
+            if (c == '"' || (format == Format.RFC_5424 && (c == '\\' || c == ']'))) {
+                buf.writeByte('\\');
+                buf.writeByte(c);
+            } else {
+                i = buf.writeUtf8(value, i);
+            }
+        }
+    }
+
+    private void writeTimestamp(long timestampMillis) {
+        long second = Math.floorDiv(timestampMillis, 1000L);
+        if (second != cachedSecond) {
+            DateTimeFormatter formatter = format == Format.RFC_5424 ? RFC_5424_SECONDS : RFC_3164_SECONDS;
+            cachedTimestamp = formatter.format(Instant.ofEpochSecond(second)).getBytes(StandardCharsets.US_ASCII);
+            cachedSecond = second;
+        }
+
+        buf.write(cachedTimestamp, 0, cachedTimestamp.length);
+    }
+
+}
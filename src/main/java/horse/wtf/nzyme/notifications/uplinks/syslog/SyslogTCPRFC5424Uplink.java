@@ -0,0 +1,34 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.notifications.uplinks.syslog;
+
+import com.codahale.metrics.MetricRegistry;
+
+import java.net.InetSocketAddress;
+
+public class SyslogTCPRFC5424Uplink extends SyslogTCPUplink {
+
+    public SyslogTCPRFC5424Uplink(InetSocketAddress address, String nzymeId, MetricRegistry metrics) {
+        this(address, SyslogEncoder.DEFAULT_STRUCTURED_DATA_ID, nzymeId, metrics);
+    }
+
+    public SyslogTCPRFC5424Uplink(InetSocketAddress address, String structuredDataId, String nzymeId, MetricRegistry metrics) {
+        super(address, SyslogEncoder.Format.RFC_5424, structuredDataId, nzymeId, metrics);
+    }
+
+}
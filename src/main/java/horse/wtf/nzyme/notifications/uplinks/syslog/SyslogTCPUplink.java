@@ -0,0 +1,98 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.notifications.uplinks.syslog;
+
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.notifications.uplinks.EncodingBuffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * Octet-counted framing (RFC 6587) over one persistent TCP connection. Every batch is framed into one buffer and
+ * written with one socket write.
+ */
+public abstract class SyslogTCPUplink extends SyslogUplink {
+
+    private static final Logger LOG = LogManager.getLogger(SyslogTCPUplink.class);
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int SEND_BUFFER_SIZE = 65536;
+
+    private final EncodingBuffer frames = new EncodingBuffer();
+
+    @Nullable
+    private Socket socket;
+
+    @Nullable
+    private OutputStream out;
+
+    protected SyslogTCPUplink(InetSocketAddress address, SyslogEncoder.Format format, String structuredDataId, String nzymeId, MetricRegistry metrics) {
+        super("syslog-tcp-uplink", address, format, structuredDataId, nzymeId, metrics);
+
+        start();
+    }
+
+    @Override
+    protected void send(List<QueuedMessage> batch) throws IOException {
+        frames.reset();
+        for (QueuedMessage message : batch) {
+            encode(message);
+
+            EncodingBuffer buf = encoder.buffer();
+            frames.writeLong(buf.length());
+            frames.writeByte(' ');
+            frames.write(buf.array(), 0, buf.length());
+        }
+
+        if (out == null) {
+            Socket s = new Socket();
+            s.setTcpNoDelay(true);
+            s.setSendBufferSize(SEND_BUFFER_SIZE);
+            s.setKeepAlive(true);
+            s.connect(address, CONNECT_TIMEOUT_MS);
+
+            this.socket = s;
+            this.out = s.getOutputStream();
+            LOG.info("Connected to syslog server at [{}].", address);
+        }
+
+        frames.writeTo(out);
+        out.flush();
+    }
+
+    @Override
+    protected void reset() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        this.socket = null;
+        this.out = null;
+    }
+
+}
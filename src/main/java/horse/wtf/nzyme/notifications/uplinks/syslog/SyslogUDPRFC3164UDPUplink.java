@@ -17,14 +17,15 @@
 
 package horse.wtf.nzyme.notifications.uplinks.syslog;
 
-import com.cloudbees.syslog.MessageFormat;
+import com.codahale.metrics.MetricRegistry;
 
 import java.net.InetSocketAddress;
 
 public class SyslogUDPRFC3164UDPUplink extends SyslogUDPUplink {
 
-    public SyslogUDPRFC3164UDPUplink(InetSocketAddress address, String nzymeId) {
-        super(address, MessageFormat.RFC_3164, nzymeId);
+    public SyslogUDPRFC3164UDPUplink(InetSocketAddress address, String nzymeId, MetricRegistry metrics) {
+        // RFC 3164 has no structured data.
+        super(address, SyslogEncoder.Format.RFC_3164, SyslogEncoder.DEFAULT_STRUCTURED_DATA_ID, nzymeId, metrics);
     }
 
 }
@@ -17,13 +17,18 @@
 
 package horse.wtf.nzyme.notifications.uplinks.syslog;
 
-import com.cloudbees.syslog.MessageFormat;
+import com.codahale.metrics.MetricRegistry;
+
 import java.net.InetSocketAddress;
 
 public class SyslogUDPRFC5424UDPUplink extends SyslogUDPUplink {
 
-    public SyslogUDPRFC5424UDPUplink(InetSocketAddress address, String nzymeId) {
-        super(address, MessageFormat.RFC_5424, nzymeId);
+    public SyslogUDPRFC5424UDPUplink(InetSocketAddress address, String nzymeId, MetricRegistry metrics) {
+        this(address, SyslogEncoder.DEFAULT_STRUCTURED_DATA_ID, nzymeId, metrics);
+    }
+
+    public SyslogUDPRFC5424UDPUplink(InetSocketAddress address, String structuredDataId, String nzymeId, MetricRegistry metrics) {
+        super(address, SyslogEncoder.Format.RFC_5424, structuredDataId, nzymeId, metrics);
     }
 
 }
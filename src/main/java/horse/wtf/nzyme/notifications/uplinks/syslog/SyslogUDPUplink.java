@@ -17,107 +17,59 @@
 
 package horse.wtf.nzyme.notifications.uplinks.syslog;
 
-import com.cloudbees.syslog.Facility;
-import com.cloudbees.syslog.MessageFormat;
-import com.cloudbees.syslog.sender.UdpSyslogMessageSender;
-import horse.wtf.nzyme.alerts.Alert;
-import horse.wtf.nzyme.dot11.Dot11MetaInformation;
-import horse.wtf.nzyme.notifications.FieldNames;
-import horse.wtf.nzyme.notifications.Notification;
-import horse.wtf.nzyme.notifications.Uplink;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-import org.jetbrains.annotations.Nullable;
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.notifications.uplinks.EncodingBuffer;
 
-import java.net.InetAddress;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
-import java.util.Map;
+import java.util.List;
 
-public abstract class SyslogUDPUplink implements Uplink {
-
-    private static final Logger LOG = LogManager.getLogger(SyslogUDPUplink.class);
+/**
+ * One UDP datagram per message, sent from the encoder buffer.
+ */
+public abstract class SyslogUDPUplink extends SyslogUplink {
 
-    protected final UdpSyslogMessageSender sender;
-    private final String nzymeId;
+    private final DatagramPacket packet = new DatagramPacket(new byte[0], 0);
 
-    protected SyslogUDPUplink(InetSocketAddress address, MessageFormat messageFormat, String nzymeId) {
-        this.nzymeId = nzymeId;
+    @Nullable
+    private DatagramSocket socket;
 
-        sender = new UdpSyslogMessageSender();
-        sender.setMessageFormat(messageFormat);
-        sender.setSyslogServerHostname(address.getHostName());
-        sender.setSyslogServerPort(address.getPort());
+    protected SyslogUDPUplink(InetSocketAddress address, SyslogEncoder.Format format, String structuredDataId, String nzymeId, MetricRegistry metrics) {
+        super("syslog-udp-uplink", address, format, structuredDataId, nzymeId, metrics);
 
-        String hostname;
-        try {
-            hostname = InetAddress.getLocalHost().getCanonicalHostName();
-        } catch (Exception e) {
-            hostname = "nzyme";
-            LOG.error("Could not determine local hostname for syslog uplink. Falling back to [{}].", hostname, e);
-        }
-
-        sender.setDefaultMessageHostname(hostname);
-        sender.setDefaultAppName("nzyme");
-        sender.setDefaultFacility(Facility.USER);
+        start();
     }
 
-
     @Override
-    public void notify(Notification notification, @Nullable Dot11MetaInformation meta) {
-        try {
-            sender.sendMessage(buildMessage(notification, meta));
-        } catch (Exception e) {
-            LOG.info("Could not send syslog message.", e);
+    protected void send(List<QueuedMessage> batch) throws IOException {
+        if (socket == null) {
+            InetSocketAddress target = address.isUnresolved()
+                    ? new InetSocketAddress(address.getHostString(), address.getPort())
+                    : address;
+
+            this.socket = new DatagramSocket();
+            packet.setSocketAddress(target);
         }
-    }
-
-    @Override
-    public void notifyOfAlert(Alert alert) {
-        try {
-            StringBuilder sb = new StringBuilder("ALERT: ");
-            sb.append(alert.getMessage());
-
-            for (Map.Entry<String, Object> field : alert.getFields().entrySet()) {
-                sb.append(" ").append(field.getKey()).append("=\"").append(field.getValue().toString().replace("\"", "\\\"")).append("\"");
-            }
 
-            sb.append(" ").append(FieldNames.NZYME_SENSOR_ID).append("=\"").append(this.nzymeId).append("\"");
-            sb.append(" ").append(FieldNames.NZYME_MESSAGE_TYPE).append("=\"alert\"");
-            sb.append(" ").append(FieldNames.ALERT_TYPE).append("=\"").append(alert.getType().toString().toLowerCase()).append("\"");
+        for (QueuedMessage message : batch) {
+            encode(message);
 
-
-            sender.sendMessage(sb.toString());
-        } catch (Exception e) {
-            LOG.info("Could not send syslog message.", e);
+            EncodingBuffer buf = encoder.buffer();
+            packet.setData(buf.array(), 0, buf.length());
+            socket.send(packet);
         }
     }
 
-    public String buildMessage(Notification notification, @Nullable Dot11MetaInformation meta) {
-        StringBuilder sb = new StringBuilder(notification.getMessage());
-
-        if(meta != null) {
-            sb.append(" ").append("(").append(meta.getFrequency()).append("MHz @")
-                    .append(" ").append(meta.getAntennaSignal()).append("dBm)");
-        }
-
-        for (Map.Entry<String, Object> field : notification.getAdditionalFields().entrySet()) {
-            sb.append(" ").append(field.getKey()).append("=\"").append(field.getValue().toString().replace("\"", "\\\"")).append("\"");
-        }
-
-        sb.append(" ").append(FieldNames.NZYME_SENSOR_ID).append("=\"").append(this.nzymeId).append("\"");
-        sb.append(" ").append(FieldNames.NZYME_MESSAGE_TYPE).append("=\"frame_record\"");
-
-        if(meta != null) {
-            sb.append(" ").append(FieldNames.ANTENNA_SIGNAL).append("=\"").append(meta.getAntennaSignal()).append("\"");
-            sb.append(" ").append(FieldNames.FREQUENCY).append("=\"").append(meta.getFrequency()).append("\"");
-            sb.append(" ").append(FieldNames.SIGNAL_QUALITY).append("=\"").append(meta.getSignalQuality()).append("\"");
-
-            if(meta.getMacTimestamp() >= 0) {
-                sb.append(" ").append(FieldNames.MAC_TIMESTAMP).append("=\"").append(meta.getMacTimestamp()).append("\"");
-            }
+    @Override
+    protected void reset() {
+        if (socket != null) {
+            socket.close();
         }
 
-        return sb.toString();
+        this.socket = null;
     }
 
 }
@@ -0,0 +1,147 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.notifications.uplinks.syslog;
+
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.notifications.FieldNames;
+import horse.wtf.nzyme.notifications.Notification;
+import horse.wtf.nzyme.notifications.uplinks.QueuedUplink;
+import horse.wtf.nzyme.util.MetricNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * Encodes notifications and alerts as syslog messages. The transport is implemented by subclasses.
+ */
+public abstract class SyslogUplink extends QueuedUplink {
+
+    private static final Logger LOG = LogManager.getLogger(SyslogUplink.class);
+
+    private static final String APP_NAME = "nzyme";
+
+    protected final InetSocketAddress address;
+    protected final SyslogEncoder encoder;
+
+    private final String nzymeId;
+
+    protected SyslogUplink(String name, InetSocketAddress address, SyslogEncoder.Format format, String structuredDataId, String nzymeId, MetricRegistry metrics) {
+        super(name, address.getHostString() + ":" + address.getPort(), metrics,
+                MetricNames.SYSLOG_UPLINK_QUEUE_SIZE, MetricNames.SYSLOG_UPLINK_SENT, MetricNames.SYSLOG_UPLINK_DROPPED);
+
+        this.address = address;
+        this.nzymeId = nzymeId;
+
+        String hostname;
+        try {
+            hostname = InetAddress.getLocalHost().getCanonicalHostName();
+        } catch (Exception e) {
+            hostname = "nzyme";
+            LOG.error("Could not determine local hostname for syslog uplink. Falling back to [{}].", hostname, e);
+        }
+
+        this.encoder = new SyslogEncoder(format, hostname, APP_NAME, structuredDataId);
+    }
+
+    /**
+     * Encodes one message into the (reset) encoder.
+     */
+    protected void encode(QueuedMessage queued) {
+        Alert alert = queued.getAlert();
+        if (alert != null) {
+            encodeAlert(alert);
+        } else {
+            encodeNotification(queued.getNotification(), queued.getMeta());
+        }
+    }
+
+    void encodeAlert(Alert alert) {
+        encoder.reset();
+        encoder.begin(System.currentTimeMillis(), "alert");
+
+        if (encoder.getFormat() == SyslogEncoder.Format.RFC_5424) {
+            encoder.beginStructuredData();
+            writeAlertParams(alert);
+            encoder.endStructuredData();
+            encoder.text(" ALERT: ").text(alert.getMessage());
+        } else {
+            encoder.text("ALERT: ").text(alert.getMessage());
+            writeAlertParams(alert);
+        }
+    }
+
+    void encodeNotification(Notification notification, @Nullable Dot11MetaInformation meta) {
+        encoder.reset();
+        encoder.begin(meta == null ? System.currentTimeMillis() : meta.getCaptureTimestamp(), "frame_record");
+
+        if (encoder.getFormat() == SyslogEncoder.Format.RFC_5424) {
+            encoder.beginStructuredData();
+            writeNotificationParams(notification, meta);
+            encoder.endStructuredData();
+            encoder.text(" ");
+            writeNotificationText(notification, meta);
+        } else {
+            writeNotificationText(notification, meta);
+            writeNotificationParams(notification, meta);
+        }
+    }
+
+    private void writeNotificationText(Notification notification, @Nullable Dot11MetaInformation meta) {
+        encoder.text(notification.getMessage());
+
+        if (meta != null) {
+            encoder.text(" (").text(meta.getFrequency()).text("MHz @ ").text(meta.getAntennaSignal()).text("dBm)");
+        }
+    }
+
+    private void writeNotificationParams(Notification notification, @Nullable Dot11MetaInformation meta) {
+        for (Map.Entry<String, Object> field : notification.getAdditionalFields().entrySet()) {
+            encoder.param(field.getKey(), field.getValue());
+        }
+
+        encoder.param(FieldNames.NZYME_SENSOR_ID, nzymeId)
+                .param(FieldNames.NZYME_MESSAGE_TYPE, "frame_record");
+
+        if (meta != null) {
+            encoder.param(FieldNames.ANTENNA_SIGNAL, meta.getAntennaSignal())
+                    .param(FieldNames.FREQUENCY, meta.getFrequency())
+                    .param(FieldNames.SIGNAL_QUALITY, meta.getSignalQuality());
+
+            if (meta.getMacTimestamp() >= 0) {
+                encoder.param(FieldNames.MAC_TIMESTAMP, meta.getMacTimestamp());
+            }
+        }
+    }
+
+    private void writeAlertParams(Alert alert) {
+        for (Map.Entry<String, Object> field : alert.getFields().entrySet()) {
+            encoder.param(field.getKey(), field.getValue());
+        }
+
+        encoder.param(FieldNames.NZYME_SENSOR_ID, nzymeId)
+                .param(FieldNames.NZYME_MESSAGE_TYPE, "alert")
+                .param(FieldNames.ALERT_TYPE, alert.getType().toString().toLowerCase());
+    }
+
+}
@@ -19,10 +19,7 @@ package horse.wtf.nzyme.ouis;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
-import com.google.common.base.Splitter;
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.util.MetricNames;
 import okhttp3.OkHttpClient;
@@ -32,51 +29,132 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * MAC address to vendor lookups. The table is loaded from a local cache file (or from a snapshot bundled at
+ * {@link #BUNDLED_SNAPSHOT} if there is no cache yet) during startup, which takes milliseconds. The IEEE registry is
+ * only downloaded by the {@link OUIUpdater} in the background. A successful download replaces the table in one
+ * reference swap and is written back to the cache.
+ */
 public class OUIManager {
 
     private static final Logger LOG = LogManager.getLogger(OUIManager.class);
 
-    private static final String OUI_SOURCE = "http://standards-oui.ieee.org/oui/oui.txt";
-    private static final Pattern LINE_REGEX = Pattern.compile("^(.+)\\b.+\\(base 16\\)(.+)$");
+    public static final long REFRESH_INTERVAL_HOURS = 12;
 
-    private ImmutableMap<String, String> ouis;
+    public static final String CACHE_FILE_NAME = "ouis.cache";
+    public static final String BUNDLED_SNAPSHOT = "/ouis/ouis.cache";
+
+    private static final String OUI_SOURCE = "http://standards-oui.ieee.org/oui/oui.txt";
+    private volatile OUITable ouis;
 
     private final NzymeLeader nzyme;
 
+    @Nullable
+    private final File cacheFile;
+
+    private final String snapshotResource;
+
     private final Timer lookupTimer;
 
     public OUIManager(NzymeLeader nzyme) {
+        this(nzyme, null);
+    }
+
+    public OUIManager(NzymeLeader nzyme, @Nullable File cacheFile) {
+        this(nzyme, cacheFile, BUNDLED_SNAPSHOT);
+    }
+
+    OUIManager(NzymeLeader nzyme, @Nullable File cacheFile, String snapshotResource) {
         this.nzyme = nzyme;
+        this.cacheFile = cacheFile;
+        this.snapshotResource = snapshotResource;
 
-        this.ouis = ImmutableMap.<String, String>builder().build();
+        this.ouis = OUITable.empty();
         this.lookupTimer = nzyme.getMetrics().timer(MetricRegistry.name(MetricNames.OUI_LOOKUP_TIMING));
     }
 
-    @Nullable
-    public String lookupBSSID(String bssid) {
-        if (this.ouis == null || this.ouis.isEmpty()) {
-            LOG.debug("Internal OUI table is NULL or empty.");
-            return null;
+    /**
+     * Loads the table from the cache file or, if there is none, from the bundled snapshot. Never downloads. The
+     * snapshot is generated by {@link OUISnapshotGenerator} during the build (see the oui-snapshot profile).
+     */
+    public void initialize() {
+        Stopwatch loadTime = Stopwatch.createStarted();
+
+        if (cacheFile != null && cacheFile.exists()) {
+            try (InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+                this.ouis = OUITable.readFrom(in);
+                LOG.info("Loaded <{}> OUIs from cache [{}] in <{}ms>.",
+                        ouis.size(), cacheFile, loadTime.elapsed(TimeUnit.MILLISECONDS));
+                return;
+            } catch (IOException e) {
+                LOG.warn("Could not read OUI cache [{}]. Ignoring it.", cacheFile, e);
+            }
+        }
+
+        try (InputStream snapshot = OUIManager.class.getResourceAsStream(snapshotResource)) {
+            if (snapshot == null) {
+                LOG.info("No OUI cache or bundled snapshot available. OUIs will be available after the first refresh.");
+                return;
+            }
+
+            this.ouis = OUITable.readFrom(new GZIPInputStream(new BufferedInputStream(snapshot)));
+            LOG.info("Loaded <{}> OUIs from bundled snapshot in <{}ms>.",
+                    ouis.size(), loadTime.elapsed(TimeUnit.MILLISECONDS));
+        } catch (IOException e) {
+            LOG.warn("Could not read bundled OUI snapshot.", e);
+        }
+    }
+
+    /**
+     * Time until the next refresh is due, based on the age of the cache. Used as initial delay of the
+     * {@link OUIUpdater} so that restarts do not download the registry every time.
+     */
+    public long millisUntilRefresh() {
+        if (cacheFile == null || !cacheFile.exists() || ouis.isEmpty()) {
+            return 0;
         }
 
-        if (bssid == null || bssid.isEmpty()) {
-            LOG.debug("Passed OUI is null or empty.");
+        long age = System.currentTimeMillis() - cacheFile.lastModified();
+        return Math.max(0, TimeUnit.HOURS.toMillis(REFRESH_INTERVAL_HOURS) - age);
+    }
+
+    @Nullable
+    public String lookupBSSID(String bssid) {
+        OUITable table = this.ouis;
+        if (table.isEmpty()) {
+            LOG.debug("Internal OUI table is empty.");
             return null;
         }
 
-        Timer.Context timer = lookupTimer.time();
-        String result = ouis.get(bssid.toUpperCase().substring(0, 8).replace(":", ""));
-        timer.stop();
+        long start = System.nanoTime();
+        String result = table.lookup(bssid);
+        lookupTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         return result;
     }
 
+    public int getTableSize() {
+        return ouis.size();
+    }
+
     public void fetchAndUpdate() throws IOException {
         if (!nzyme.getConfiguration().fetchOuis()) {
             LOG.info("Fetching OUIs has been disabled in nzyme configuration. Not fetching.");
@@ -92,16 +170,34 @@ public class OUIManager {
                 .followRedirects(true)
                 .build();
 
-        Stopwatch downloadTime = Stopwatch.createStarted();
-        Response response = c.newCall(new Request.Builder()
+        Request.Builder request = new Request.Builder()
                 .addHeader("User-Agent", "nzyme")
                 .get()
-                .url(OUI_SOURCE)
-                .build())
-                .execute();
+                .url(OUI_SOURCE);
+
+        // Skip the download if the registry did not change since the cache was written.
+        boolean conditional = cacheFile != null && cacheFile.exists() && !ouis.isEmpty();
+        if (conditional) {
+            request.addHeader("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME
+                    .format(Instant.ofEpochMilli(cacheFile.lastModified()).atOffset(ZoneOffset.UTC)));
+        }
+
+        Stopwatch downloadTime = Stopwatch.createStarted();
+        Response response = c.newCall(request.build()).execute();
         downloadTime.stop();
 
+        if (conditional && response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            response.close();
+            LOG.info("OUI registry not modified since last refresh. Keeping <{}> OUIs.", ouis.size());
+
+            if (!cacheFile.setLastModified(System.currentTimeMillis())) {
+                LOG.warn("Could not update modification time of OUI cache [{}].", cacheFile);
+            }
+            return;
+        }
+
         if (!response.isSuccessful()) {
+            response.close();
             throw new RuntimeException("Expected HTTP 200 but got HTTP " + response.code());
         }
 
@@ -110,16 +206,9 @@ public class OUIManager {
         }
 
         Stopwatch parsingTime = Stopwatch.createStarted();
-        Map<String, String> map = Maps.newHashMap();
+        OUITable table;
         try {
-            for (String line : Splitter.on("\n").trimResults().omitEmptyStrings().split(response.body().string())) {
-                if (line.contains("(base 16)")) {
-                    Matcher m = LINE_REGEX.matcher(line);
-                    if (m.find()) {
-                        map.put(m.group(1).trim(), m.group(2).trim());
-                    }
-                }
-            }
+            table = OUITable.parseIEEE(response.body().charStream());
             parsingTime.stop();
         } catch(Exception e) {
             throw new RuntimeException("OUI parsing error.", e);
@@ -127,12 +216,33 @@ public class OUIManager {
             response.body().close();
         }
 
-        this.ouis = ImmutableMap.copyOf(map);
+        if (table.isEmpty()) {
+            throw new RuntimeException("Parsed OUI registry is empty. Keeping previous table.");
+        }
+
+        this.ouis = table;
 
-        LOG.info("Done! Now <{}> OUIs in memory. Download time <{}ms>, parsing time <{}s>.",
+        LOG.info("Done! Now <{}> OUIs in memory. Download time <{}ms>, parsing time <{}ms>.",
                 this.ouis.size(),
                 downloadTime.elapsed(TimeUnit.MILLISECONDS),
-                parsingTime.elapsed(TimeUnit.SECONDS));
+                parsingTime.elapsed(TimeUnit.MILLISECONDS));
+
+        if (cacheFile != null) {
+            writeCache(table, cacheFile);
+        }
+    }
+
+    /**
+     * Writes to a temporary file first and moves it over the cache, so that a crash never leaves a partial cache.
+     */
+    static void writeCache(OUITable table, File cacheFile) throws IOException {
+        File tmp = new File(cacheFile.getPath() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            table.writeTo(out);
+        }
+
+        Files.move(tmp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOG.debug("Wrote <{}> OUIs to cache [{}].", table.size(), cacheFile);
     }
 
 }
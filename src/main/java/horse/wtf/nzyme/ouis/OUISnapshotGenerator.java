@@ -0,0 +1,111 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.ouis;
+
+import com.google.common.hash.Hashing;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts the IEEE registry (oui.txt) into the compressed cache format of {@link OUITable}. Run by the oui-snapshot
+ * release profile to produce the snapshot that {@link OUIManager} loads from {@link OUIManager#BUNDLED_SNAPSHOT} on
+ * first start. The registry changes daily, so the SHA-256 checksum of the exact file to bundle is required.
+ *
+ * Usage: OUISnapshotGenerator &lt;oui.txt file or https URL&gt; &lt;SHA-256 of oui.txt&gt; &lt;target file&gt;
+ */
+public class OUISnapshotGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: OUISnapshotGenerator <oui.txt file or https URL> <SHA-256 of oui.txt> <target file>");
+            System.exit(1);
+        }
+
+        OUITable table = generate(args[0], args[1], new File(args[2]));
+        System.out.println("Wrote <" + table.size() + "> OUIs to [" + args[2] + "].");
+    }
+
+    static OUITable generate(String source, String sha256, File target) throws IOException {
+        if (sha256 == null || sha256.trim().isEmpty()) {
+            throw new IOException("SHA-256 checksum of [" + source + "] is required.");
+        }
+
+        byte[] registry = source.contains("://") ? download(source) : Files.readAllBytes(new File(source).toPath());
+
+        String checksum = Hashing.sha256().hashBytes(registry).toString();
+        if (!checksum.equals(sha256.trim().toLowerCase(Locale.ENGLISH))) {
+            throw new IOException("Checksum mismatch of [" + source + "]. Expected <" + sha256 + "> but got <"
+                    + checksum + ">.");
+        }
+
+        OUITable table;
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(registry), StandardCharsets.UTF_8)) {
+            table = OUITable.parseIEEE(reader);
+        }
+
+        if (table.isEmpty()) {
+            throw new IOException("No OUIs found in [" + source + "].");
+        }
+
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory [" + parent + "].");
+        }
+
+        OUIManager.writeCache(table, target);
+        return table;
+    }
+
+    private static byte[] download(String url) throws IOException {
+        if (!url.startsWith("https://")) {
+            throw new IOException("Refusing to download OUI registry over plain HTTP from [" + url + "].");
+        }
+
+        OkHttpClient c = new OkHttpClient.Builder()
+                .connectTimeout(60, TimeUnit.SECONDS)
+                .readTimeout(5, TimeUnit.MINUTES)
+                .followRedirects(true)
+                .build();
+
+        Request request = new Request.Builder()
+                .addHeader("User-Agent", "nzyme")
+                .get()
+                .url(url)
+                .build();
+
+        try (Response response = c.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Expected HTTP 200 from [" + url + "] but got HTTP " + response.code());
+            }
+
+            return response.body().bytes();
+        }
+    }
+
+}
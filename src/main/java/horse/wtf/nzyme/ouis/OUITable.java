@@ -0,0 +1,226 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.ouis;
+
+import com.google.common.collect.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable vendor table keyed by the 24-bit OUI prefix of a MAC address. Prefixes are kept in a sorted int array and
+ * looked up with a binary search, so that lookups do not allocate.
+ */
+public class OUITable {
+
+    private static final Pattern LINE_REGEX = Pattern.compile("^(.+)\\b.+\\(base 16\\)(.+)$");
+
+    // "NZOU"
+    private static final int CACHE_MAGIC = 0x4E5A4F55;
+    private static final int CACHE_VERSION = 1;
+
+    private static final OUITable EMPTY = new OUITable(new int[0], new String[0]);
+
+    private final int[] prefixes;
+    private final String[] vendors;
+
+    private OUITable(int[] prefixes, String[] vendors) {
+        this.prefixes = prefixes;
+        this.vendors = vendors;
+    }
+
+    @Nullable
+    public String lookup(int prefix) {
+        int idx = Arrays.binarySearch(prefixes, prefix);
+        return idx < 0 ? null : vendors[idx];
+    }
+
+    @Nullable
+    public String lookup(String mac) {
+        int prefix = prefixOf(mac);
+        return prefix < 0 ? null : lookup(prefix);
+    }
+
+    public int size() {
+        return prefixes.length;
+    }
+
+    public boolean isEmpty() {
+        return prefixes.length == 0;
+    }
+
+    public static OUITable empty() {
+        return EMPTY;
+    }
+
+    public static OUITable of(Map<Integer, String> entries) {
+        TreeMap<Integer, String> sorted = Maps.newTreeMap();
+        sorted.putAll(entries);
+
+        int[] prefixes = new int[sorted.size()];
+        String[] vendors = new String[sorted.size()];
+        int i = 0;
+        for (Map.Entry<Integer, String> entry : sorted.entrySet()) {
+            prefixes[i] = entry.getKey();
+            vendors[i] = entry.getValue();
+            i++;
+        }
+
+        return new OUITable(prefixes, vendors);
+    }
+
+    /**
+     * Parses the IEEE MA-L registry in its oui.txt format. Only the "(base 16)" lines are used.
+     */
+    public static OUITable parseIEEE(Reader reader) throws IOException {
+        Map<Integer, String> entries = Maps.newHashMap();
+        Map<String, String> distinctVendors = Maps.newHashMap();
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (!line.contains("(base 16)")) {
+                continue;
+            }
+
+            Matcher m = LINE_REGEX.matcher(line.trim());
+            if (m.find()) {
+                int prefix = prefixOf(m.group(1).trim());
+                String vendor = m.group(2).trim();
+                if (prefix >= 0 && !vendor.isEmpty()) {
+                    // Many vendors own hundreds of prefixes. Keep only one instance of each name.
+                    entries.put(prefix, distinctVendors.computeIfAbsent(vendor, v -> v));
+                }
+            }
+        }
+
+        return of(entries);
+    }
+
+    /**
+     * Writes the table in the compact cache format: Each distinct vendor name once, followed by the sorted prefixes
+     * and the index of their vendor. The caller is expected to wrap the stream in compression and to close it.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Map<String, Integer> vendorIndex = new LinkedHashMap<>();
+        for (String vendor : vendors) {
+            vendorIndex.putIfAbsent(vendor, vendorIndex.size());
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(CACHE_MAGIC);
+        data.writeInt(CACHE_VERSION);
+
+        data.writeInt(vendorIndex.size());
+        for (String vendor : vendorIndex.keySet()) {
+            data.writeUTF(vendor);
+        }
+
+        data.writeInt(prefixes.length);
+        for (int i = 0; i < prefixes.length; i++) {
+            data.writeInt(prefixes[i]);
+            data.writeInt(vendorIndex.get(vendors[i]));
+        }
+
+        data.flush();
+    }
+
+    /**
+     * Reads a table written by {@link #writeTo(OutputStream)}.
+     *
+     * @throws IOException If the stream is not a cache of a supported version or is truncated.
+     */
+    public static OUITable readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != CACHE_MAGIC) {
+            throw new IOException("Not an OUI cache.");
+        }
+
+        int version = data.readInt();
+        if (version != CACHE_VERSION) {
+            throw new IOException("Unsupported OUI cache version <" + version + ">.");
+        }
+
+        String[] distinctVendors = new String[data.readInt()];
+        for (int i = 0; i < distinctVendors.length; i++) {
+            distinctVendors[i] = data.readUTF();
+        }
+
+        int size = data.readInt();
+        int[] prefixes = new int[size];
+        String[] vendors = new String[size];
+        for (int i = 0; i < size; i++) {
+            prefixes[i] = data.readInt();
+            int vendor = data.readInt();
+            if (vendor < 0 || vendor >= distinctVendors.length) {
+                throw new IOException("Invalid vendor index <" + vendor + "> in OUI cache.");
+            }
+            vendors[i] = distinctVendors[vendor];
+
+            if (i > 0 && prefixes[i] <= prefixes[i-1]) {
+                throw new IOException("OUI cache is not sorted.");
+            }
+        }
+
+        return new OUITable(prefixes, vendors);
+    }
+
+    /**
+     * The 24-bit OUI prefix of a MAC address (or of just the prefix) in any of the common notations, like
+     * 00:c0:ca:95:68:3b, 00-C0-CA-95-68-3B or 00C0CA. Does not allocate.
+     *
+     * @return The prefix or -1 if the string does not start with six hex digits.
+     */
+    public static int prefixOf(@Nullable String mac) {
+        if (mac == null) {
+            return -1;
+        }
+
+        int prefix = 0;
+        int digits = 0;
+        for (int i = 0; i < mac.length() && digits < 6; i++) {
+            char c = mac.charAt(i);
+            if (c == ':' || c == '-' || c == '.') {
+                continue;
+            }
+
+            int value = Character.digit(c, 16);
+            if (value < 0) {
+                return -1;
+            }
+
+            prefix = (prefix << 4) | value;
+            digits++;
+        }
+
+        return digits == 6 ? prefix : -1;
+    }
+
+}
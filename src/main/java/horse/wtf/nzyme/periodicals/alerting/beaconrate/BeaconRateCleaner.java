@@ -18,7 +18,7 @@
 package horse.wtf.nzyme.periodicals.alerting.beaconrate;
 
 import horse.wtf.nzyme.NzymeLeader;
-import horse.wtf.nzyme.database.Database;
+import horse.wtf.nzyme.database.TimePartitions;
 import horse.wtf.nzyme.periodicals.Periodical;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -27,10 +27,10 @@ public class BeaconRateCleaner extends Periodical {
 
     private static final Logger LOG = LogManager.getLogger(BeaconRateCleaner.class);
 
-    private final Database database;
+    private final TimePartitions partitions;
 
     public BeaconRateCleaner(NzymeLeader nzyme) {
-        this.database = nzyme.getDatabase();
+        this.partitions = new TimePartitions(nzyme.getDatabase(), "beacon_rate_history", 24);
     }
 
     @Override
@@ -38,9 +38,7 @@ public class BeaconRateCleaner extends Periodical {
         try {
             LOG.debug("Retention cleaning beacon rate values.");
 
-            database.useHandle(handle -> {
-                handle.execute("DELETE FROM beacon_rate_history WHERE created_at < (current_timestamp at time zone 'UTC' - interval '1 day')");
-            });
+            partitions.maintain();
         } catch(Exception e) {
             LOG.error("Could not retention clean beacon rate information.", e);
         }
@@ -17,52 +17,117 @@
 
 package horse.wtf.nzyme.periodicals.alerting.beaconrate;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.database.Database;
 import horse.wtf.nzyme.dot11.networks.BSSID;
 import horse.wtf.nzyme.dot11.networks.Networks;
 import horse.wtf.nzyme.dot11.networks.SSID;
 import horse.wtf.nzyme.periodicals.Periodical;
+import horse.wtf.nzyme.util.MetricNames;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.statement.PreparedBatch;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class BeaconRateWriter extends Periodical {
 
     private static final Logger LOG = LogManager.getLogger(BeaconRateWriter.class);
 
+    // Rows of failed writes are retried with the time they were counted at, but not forever.
+    public static final long PENDING_RETENTION_MINUTES = 10;
+
+    // created_at is the time the row was counted at. The age is relative to the database clock, like all other rows.
+    private static final String INSERT_QUERY = "INSERT INTO beacon_rate_history(bssid, ssid, beacon_rate, created_at) " +
+            "VALUES(?, ?, ?, (current_timestamp - ? * interval '1 millisecond') at time zone 'UTC')";
+
     private final Networks networks;
     private final Database database;
 
+    private final Meter rowsWritten;
+    private final Timer flushTimer;
+
+    // Only accessed by the periodical thread.
+    private final List<PendingRow> pending;
+
     public BeaconRateWriter(NzymeLeader nzyme) {
         this.networks = nzyme.getNetworks();
         this.database = nzyme.getDatabase();
+
+        this.rowsWritten = nzyme.getMetrics().meter(MetricNames.BEACON_RATE_WRITER_ROWS);
+        this.flushTimer = nzyme.getMetrics().timer(MetricNames.BEACON_RATE_WRITER_TIMING);
+
+        this.pending = Lists.newArrayList();
     }
 
     @Override
     protected void execute() {
-        try {
-            for (BSSID bssid : networks.getBSSIDs().values()) {
-                for (SSID ssid : bssid.ssids().values()) {
-                    if (!ssid.isHumanReadable()) {
-                        continue;
-                    }
+        long now = System.currentTimeMillis();
 
-                    database.useHandle(handle -> handle.execute("INSERT INTO beacon_rate_history(bssid, ssid, beacon_rate, created_at) " +
-                            "VALUES(?, ?, ?, current_timestamp at time zone 'UTC')",
-                            bssid.bssid().toLowerCase(),
-                            ssid.name(),
-                            ssid.beaconCount.get()
-                    ));
-
-                    // Reset internal counter.
-                    ssid.beaconCount.set(0);
+        // The beacon rate is a rate per run. Counters are reset every run, so a failed write never ends up in the
+        // row of the next run.
+        for (BSSID bssid : networks.getBSSIDs().values()) {
+            for (SSID ssid : bssid.ssids().values()) {
+                if (!ssid.isHumanReadable()) {
+                    continue;
                 }
+
+                pending.add(new PendingRow(bssid.bssid().toLowerCase(), ssid.name(), ssid.beaconCount.getAndSet(0), now));
             }
+        }
+
+        long cutoff = now - TimeUnit.MINUTES.toMillis(PENDING_RETENTION_MINUTES);
+        int expired = pending.size();
+        pending.removeIf(row -> row.countedAt < cutoff);
+        expired -= pending.size();
+        if (expired > 0) {
+            LOG.warn("Dropped <{}> beacon rate rows that could not be written for more than <{}> minutes.",
+                    expired, PENDING_RETENTION_MINUTES);
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            // One batch in one transaction instead of a round trip per SSID.
+            try (Timer.Context ignored = flushTimer.time()) {
+                database.useTransaction(handle -> {
+                    PreparedBatch batch = handle.prepareBatch(INSERT_QUERY);
+                    for (PendingRow row : pending) {
+                        batch.add(row.bssid, row.ssid, row.beaconRate, Math.max(0, now - row.countedAt));
+                    }
+                    batch.execute();
+                });
+            }
+
+            rowsWritten.mark(pending.size());
+            pending.clear();
         } catch(Exception e) {
-            LOG.error("Could not write beacon rate information.", e);
+            LOG.error("Could not write beacon rate information. Retrying with next run.", e);
         }
     }
 
+    private static final class PendingRow {
+
+        private final String bssid;
+        private final String ssid;
+        private final int beaconRate;
+        private final long countedAt;
+
+        private PendingRow(String bssid, String ssid, int beaconRate, long countedAt) {
+            this.bssid = bssid;
+            this.ssid = ssid;
+            this.beaconRate = beaconRate;
+            this.countedAt = countedAt;
+        }
+
+    }
+
     @Override
     public String getName() {
         return "BeaconRateWriter";
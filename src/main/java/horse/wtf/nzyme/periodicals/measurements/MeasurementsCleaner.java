@@ -18,6 +18,7 @@
 package horse.wtf.nzyme.periodicals.measurements;
 
 import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.database.TimePartitions;
 import horse.wtf.nzyme.periodicals.Periodical;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -26,19 +27,17 @@ public class MeasurementsCleaner extends Periodical {
 
     private static final Logger LOG = LogManager.getLogger(MeasurementsCleaner.class);
 
-    private final NzymeLeader nzyme;
+    private final TimePartitions partitions;
 
     public MeasurementsCleaner(NzymeLeader nzyme) {
-        this.nzyme = nzyme;
+        this.partitions = new TimePartitions(nzyme.getDatabase(), "measurements", 24);
     }
 
     @Override
     protected void execute() {
         LOG.debug("Retention cleaning measurements.");
 
-        nzyme.getDatabase().useHandle(handle -> {
-            handle.execute("DELETE FROM measurements WHERE created_at < (current_timestamp at time zone 'UTC' - interval '1 day')");
-        });
+        partitions.maintain();
     }
 
     @Override
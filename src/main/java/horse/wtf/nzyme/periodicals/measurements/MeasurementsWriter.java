@@ -27,6 +27,9 @@ public class MeasurementsWriter extends Periodical  {
 
     private static final Logger LOG = LogManager.getLogger(MeasurementsWriter.class);
 
+    private static final String INSERT_MEASUREMENT_QUERY = "INSERT INTO measurements(measurement_type, " +
+            "measurement_value, created_at) VALUES(?, ?, current_timestamp at time zone 'UTC')";
+
     private final NzymeLeader nzyme;
 
     public MeasurementsWriter(NzymeLeader nzyme) {
@@ -37,16 +40,13 @@ public class MeasurementsWriter extends Periodical  {
     protected void execute() {
         LOG.debug("Updating measurements.");
 
-        nzyme.getDatabase().useHandle(handle -> {
-            handle.execute("INSERT INTO measurements(measurement_type, measurement_value, created_at) VALUES(?, ?, current_timestamp at time zone 'UTC')",
-                    MeasurementType.DOT11_ACCESS_POINT_COUNT, nzyme.getNetworks().getBSSIDs().keySet().size());
-
-            handle.execute("INSERT INTO measurements(measurement_type, measurement_value, created_at) VALUES(?, ?, current_timestamp at time zone 'UTC')",
-                    MeasurementType.DOT11_CLIENT_COUNT, nzyme.getClients().getClients().size());
-
-            handle.execute("INSERT INTO measurements(measurement_type, measurement_value, created_at) VALUES(?, ?, current_timestamp at time zone 'UTC')",
-                    MeasurementType.DOT11_FRAME_COUNT, nzyme.getFrameProcessor().getRecentFrameCount());
-        });
+        // One round trip for all measurements.
+        nzyme.getDatabase().useHandle(handle -> handle.prepareBatch(INSERT_MEASUREMENT_QUERY)
+                .add(MeasurementType.DOT11_ACCESS_POINT_COUNT, nzyme.getNetworks().getBSSIDs().keySet().size())
+                .add(MeasurementType.DOT11_CLIENT_COUNT, nzyme.getClients().getClients().size())
+                .add(MeasurementType.DOT11_FRAME_COUNT, nzyme.getFrameProcessor().getRecentFrameCount())
+                .execute()
+        );
     }
 
     @Override
@@ -1,7 +1,7 @@
 package horse.wtf.nzyme.periodicals.sigidx;
 
 import horse.wtf.nzyme.NzymeLeader;
-import horse.wtf.nzyme.database.Database;
+import horse.wtf.nzyme.database.TimePartitions;
 import horse.wtf.nzyme.periodicals.Periodical;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,10 +10,10 @@ public class SignalIndexHistogramCleaner extends Periodical {
 
     private static final Logger LOG = LogManager.getLogger(SignalIndexHistogramCleaner.class);
 
-    private final Database database;
+    private final TimePartitions partitions;
 
     public SignalIndexHistogramCleaner(NzymeLeader nzyme) {
-        this.database = nzyme.getDatabase();
+        this.partitions = new TimePartitions(nzyme.getDatabase(), "sigidx_histogram_history", 24);
     }
 
     @Override
@@ -21,9 +21,7 @@ public class SignalIndexHistogramCleaner extends Periodical {
         try {
             LOG.debug("Retention cleaning signal index history values.");
 
-            database.useHandle(handle -> {
-                handle.execute("DELETE FROM sigidx_histogram_history WHERE created_at < (current_timestamp at time zone 'UTC' - interval '24 hours')");
-            });
+            partitions.maintain();
         } catch(Exception e) {
             LOG.error("Could not retention clean signal index history information.", e);
         }
@@ -1,5 +1,7 @@
 package horse.wtf.nzyme.periodicals.sigidx;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
@@ -8,8 +10,10 @@ import horse.wtf.nzyme.dot11.networks.BSSID;
 import horse.wtf.nzyme.dot11.networks.Channel;
 import horse.wtf.nzyme.dot11.networks.SSID;
 import horse.wtf.nzyme.periodicals.Periodical;
+import horse.wtf.nzyme.util.MetricNames;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.statement.PreparedBatch;
 
 import java.util.List;
 
@@ -20,15 +24,22 @@ public class SignalIndexHistogramWriter extends Periodical {
     private final NzymeLeader nzyme;
     private final ObjectMapper om;
 
+    private final Meter rowsWritten;
+    private final Timer flushTimer;
+
     public SignalIndexHistogramWriter(NzymeLeader nzyme) {
         this.nzyme = nzyme;
         this.om = new ObjectMapper();
+
+        this.rowsWritten = nzyme.getMetrics().meter(MetricNames.SIGIDX_HISTOGRAM_WRITER_ROWS);
+        this.flushTimer = nzyme.getMetrics().timer(MetricNames.SIGIDX_HISTOGRAM_WRITER_TIMING);
     }
 
     @Override
     protected void execute() {
         LOG.debug("Updating signal index histograms.");
 
+        List<Object[]> rows = Lists.newArrayList();
         List<BSSID> bssids = Lists.newArrayList(nzyme.getNetworks().getBSSIDs().values());
         for (BSSID bssid : bssids) {
             List<SSID> ssids = Lists.newArrayList(bssid.ssids().values());
@@ -47,14 +58,28 @@ public class SignalIndexHistogramWriter extends Periodical {
                         continue;
                     }
 
-                    nzyme.getDatabase().useHandle(handle -> {
-                        handle.execute("INSERT INTO sigidx_histogram_history(bssid, ssid, channel, histogram, created_at) " +
-                                "VALUES(?, ?, ?, ?, current_timestamp at time zone 'UTC')",
-                                bssid.bssid(), ssid.nameSafe(), channel.channelNumber(), histogram);
-                    });
+                    rows.add(new Object[]{bssid.bssid(), ssid.nameSafe(), channel.channelNumber(), histogram});
                 }
             }
         }
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // One batch in one transaction instead of a round trip per channel.
+        try (Timer.Context ignored = flushTimer.time()) {
+            nzyme.getDatabase().useTransaction(handle -> {
+                PreparedBatch batch = handle.prepareBatch("INSERT INTO sigidx_histogram_history(bssid, ssid, channel, histogram, created_at) " +
+                        "VALUES(?, ?, ?, ?, current_timestamp at time zone 'UTC')");
+                for (Object[] row : rows) {
+                    batch.add(row);
+                }
+                batch.execute();
+            });
+        }
+
+        rowsWritten.mark(rows.size());
     }
 
     @Override
@@ -23,14 +23,24 @@ import com.google.common.util.concurrent.Monitor;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
 import horse.wtf.nzyme.dot11.frames.Dot11Frame;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class FrameProcessor {
 
+    private static final Logger LOG = LogManager.getLogger(FrameProcessor.class);
+
+    public static final int SHARD_QUEUE_SIZE = 4096;
+
     private final Monitor monitor;
 
     private final AtomicLong recentDot11FrameCount;
@@ -38,13 +48,36 @@ public class FrameProcessor {
 
     private final List<Dot11FrameInterceptor> dot11Interceptors;
 
+    // Empty if frames are processed on the calling threads.
+    private final List<BlockingQueue<Dot11Frame>> shards;
+
     public FrameProcessor() {
+        this(0);
+    }
+
+    /**
+     * @param shardCount Number of worker threads. Frames are routed to a worker by a hash of their transmitter address,
+     *                   so that all state of a BSSID is only ever touched by one thread. With 0, frames are processed
+     *                   on the calling threads, one frame at a time.
+     */
+    public FrameProcessor(int shardCount) {
         this.monitor = new Monitor();
-        this.dot11Interceptors = Lists.newArrayList();
+        this.dot11Interceptors = new CopyOnWriteArrayList<>();
 
         this.recentDot11FrameCount = new AtomicLong(0);
         this.recentDot11FrameCountTemp = new AtomicLong(0);
 
+        this.shards = Lists.newArrayListWithCapacity(shardCount);
+        ThreadFactory workerThreadFactory = new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("frameproc-shard-%d")
+                .build();
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<Dot11Frame> queue = new ArrayBlockingQueue<>(SHARD_QUEUE_SIZE);
+            shards.add(queue);
+            workerThreadFactory.newThread(() -> work(queue)).start();
+        }
+
         // Periodically clean up recent statistics.
         Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setDaemon(true)
@@ -54,21 +87,69 @@ public class FrameProcessor {
     }
 
     public void processDot11Frame(Dot11Frame frame) {
-        monitor.enter();
+        if (shards.isEmpty()) {
+            monitor.enter();
 
-        try {
-            recentDot11FrameCountTemp.incrementAndGet();
+            try {
+                process(frame);
+            } finally {
+                monitor.leave();
+            }
+        } else {
+            try {
+                // Blocks the capture thread if the worker falls behind, just like the lock above does.
+                shards.get(shardOf(frame)).put(frame);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void process(Dot11Frame frame) {
+        recentDot11FrameCountTemp.incrementAndGet();
 
-            for (Dot11FrameInterceptor interceptor : dot11Interceptors) {
-                if (interceptor.forSubtype() == frame.frameType()) {
-                    interceptor.intercept(frame);
-                }
+        for (Dot11FrameInterceptor interceptor : dot11Interceptors) {
+            if (interceptor.forSubtype() == frame.frameType()) {
+                interceptor.intercept(frame);
             }
-        } finally {
-            monitor.leave();
         }
     }
 
+    private void work(BlockingQueue<Dot11Frame> queue) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Dot11Frame frame;
+            try {
+                frame = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                process(frame);
+            } catch (Exception e) {
+                LOG.error("Could not process frame.", e);
+            }
+        }
+    }
+
+    int shardOf(Dot11Frame frame) {
+        String transmitter = frame.transmitter();
+        return transmitter == null ? 0 : Math.floorMod(transmitter.hashCode(), shards.size());
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public long getQueuedFrames() {
+        long result = 0;
+        for (BlockingQueue<Dot11Frame> shard : shards) {
+            result += shard.size();
+        }
+        return result;
+    }
+
     public void registerDot11Interceptors(List<Dot11FrameInterceptor> interceptors) {
         for (Dot11FrameInterceptor interceptor : interceptors) {
             registerDot11Interceptor(interceptor);
@@ -26,16 +26,18 @@ import java.net.InetSocketAddress;
 public class ForwarderFactory {
 
     private final String nzymeId;
+    private final boolean anonymized;
 
-    public ForwarderFactory(String nzymeId) {
+    public ForwarderFactory(String nzymeId, boolean anonymized) {
         this.nzymeId = nzymeId;
+        this.anonymized = anonymized;
     }
 
     public Forwarder fromConfigurationDefinition(ForwarderDefinition definition) {
         String def = definition.type().toLowerCase();
         switch(def) {
             case "udp":
-                return new UDPForwarder(parseInetSocketAddress(definition.configuration()), nzymeId);
+                return new UDPForwarder(parseInetSocketAddress(definition.configuration()), nzymeId, anonymized);
             default:
                 throw new RuntimeException("Unknown forwarder type [" + def + "].");
         }
@@ -17,9 +17,13 @@
 
 package horse.wtf.nzyme.remote.forwarders;
 
+import com.google.common.base.Strings;
 import com.google.protobuf.ByteString;
 import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.dot11.frames.Dot11BeaconFrame;
 import horse.wtf.nzyme.dot11.frames.Dot11Frame;
+import horse.wtf.nzyme.dot11.frames.Dot11FrameFactory;
+import horse.wtf.nzyme.dot11.frames.Dot11ProbeResponseFrame;
 import horse.wtf.nzyme.remote.protobuf.NzymeMessage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -35,14 +39,21 @@ public class UDPForwarder implements Forwarder {
     private static final Logger LOG = LogManager.getLogger(UDPForwarder.class);
 
     private final String nzymeId;
+    private final boolean anonymized;
     private InetSocketAddress address;
 
     private DatagramSocket socket;
 
-    public UDPForwarder(InetSocketAddress address, String nzymeId) {
+    /**
+     * @param anonymized true if the local parsers anonymize SSIDs and BSSIDs. The parsed fields are not forwarded
+     *                   then, because anonymization mappings are per node and the leader has to anonymize the
+     *                   original values itself, the same way it does for frames it decodes from the raw bytes.
+     */
+    public UDPForwarder(InetSocketAddress address, String nzymeId, boolean anonymized) {
         LOG.info("Initializing UDP forwarder to [{}]", address);
         this.address = address;
         this.nzymeId = nzymeId;
+        this.anonymized = anonymized;
 
         try {
             socket = new DatagramSocket();
@@ -54,20 +65,27 @@ public class UDPForwarder implements Forwarder {
     @Override
     public void forward(Dot11Frame frame) {
         try {
+            NzymeMessage.Dot11Frame.Builder dot11Frame = NzymeMessage.Dot11Frame.newBuilder()
+                    .setRecordedAt(new DateTime().getMillis())
+                    .setSource(nzymeId)
+                    // Class name string is still sent for leaders that do not know the numeric subtype yet.
+                    .setFrameType(frame.getClass().getCanonicalName())
+                    .setSubtype(Dot11FrameFactory.toRemoteSubtype(frame.frameType()))
+                    .setFrameHeader(ByteString.copyFrom(frame.header()))
+                    .setFramePayload(ByteString.copyFrom(frame.payload()))
+                    .setFrameMeta(buildMetaBuf(frame.meta()));
+
+            NzymeMessage.Dot11Parsed parsed = buildParsedBuf(frame);
+            if (parsed != null) {
+                dot11Frame.setParsed(parsed);
+            }
+
             byte[] forwardedFrame= NzymeMessage.Message.newBuilder()
                     .setMessageType("frame")
                     .setFrame(NzymeMessage.Frame.newBuilder()
                             .setFrameType("802.11")
-                            .setDot11Frame(
-                                    NzymeMessage.Dot11Frame.newBuilder()
-                                            .setRecordedAt(new DateTime().getMillis())
-                                            .setSource(nzymeId)
-                                            .setFrameType(frame.getClass().getCanonicalName())
-                                            .setFrameHeader(ByteString.copyFrom(frame.header()))
-                                            .setFramePayload(ByteString.copyFrom(frame.payload()))
-                                            .setFrameMeta(buildMetaBuf(frame.meta()))
-                                            .build()
-                            ).build())
+                            .setDot11Frame(dot11Frame.build())
+                            .build())
                     .build()
                     .toByteArray();
 
@@ -89,4 +107,33 @@ public class UDPForwarder implements Forwarder {
                 .build();
     }
 
+    NzymeMessage.Dot11Parsed buildParsedBuf(Dot11Frame frame) {
+        if (anonymized) {
+            return null;
+        }
+
+        if (frame instanceof Dot11BeaconFrame) {
+            Dot11BeaconFrame beacon = (Dot11BeaconFrame) frame;
+            return NzymeMessage.Dot11Parsed.newBuilder()
+                    .setIsBroadcast(beacon.ssid() == null)
+                    .setSsid(Strings.nullToEmpty(beacon.ssid()))
+                    .setTransmitter(beacon.transmitter())
+                    .setFingerprint(beacon.transmitterFingerprint())
+                    .build();
+        }
+
+        if (frame instanceof Dot11ProbeResponseFrame) {
+            Dot11ProbeResponseFrame probeResponse = (Dot11ProbeResponseFrame) frame;
+            return NzymeMessage.Dot11Parsed.newBuilder()
+                    .setIsBroadcast(probeResponse.ssid() == null)
+                    .setSsid(Strings.nullToEmpty(probeResponse.ssid()))
+                    .setTransmitter(probeResponse.transmitter())
+                    .setDestination(probeResponse.destination())
+                    .setFingerprint(probeResponse.transmitterFingerprint())
+                    .build();
+        }
+
+        return null;
+    }
+
 }
@@ -17,11 +17,17 @@
 
 package horse.wtf.nzyme.remote.inputs;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.InvalidProtocolBufferException;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.dot11.MalformedFrameException;
+import horse.wtf.nzyme.dot11.frames.Dot11Frame;
 import horse.wtf.nzyme.dot11.frames.Dot11FrameFactory;
 import horse.wtf.nzyme.processing.FrameProcessor;
 import horse.wtf.nzyme.remote.protobuf.NzymeMessage;
@@ -34,33 +40,89 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Receives frames forwarded by remote sensors over UDP. The receive loop only moves datagrams into a fixed pool of
+ * reusable buffers and hands them to a pool of workers that decode and process them. If all buffers are waiting for
+ * a worker, datagrams are read and dropped (and counted) instead of piling up in the kernel socket buffer.
+ */
 public class RemoteFrameInput {
 
     private static final Logger LOG = LogManager.getLogger(RemoteFrameInput.class);
 
+    public static final int DEFAULT_RECEIVE_BUFFER_SIZE = 4 * 1024 * 1024;
+    public static final int DEFAULT_WORKERS = 2;
+
+    private static final int MAX_DATAGRAM_SIZE = 4096;
+    private static final int BUFFERS_PER_WORKER = 512;
+
+    // Sensor IDs are sent by the sensors themselves. Don't let a misbehaving sender register unlimited metrics.
+    private static final int MAX_TRACKED_SOURCES = 256;
+
+    private final NzymeLeader nzyme;
     private final FrameProcessor processor;
-    private final Dot11FrameFactory frameFactory;
 
     private final InetSocketAddress address;
+    private final int receiveBufferSize;
+    private final int workers;
+    private final Set<String> trustedSources;
+
+    private final BlockingQueue<DatagramPacket> freeBuffers;
+    private final BlockingQueue<DatagramPacket> receivedBuffers;
 
     // Metrics
     private final Meter remoteFramesReceived;
+    private final Meter remoteFramesDropped;
     private final Timer remoteFrameTimer;
+    private final Timer remoteFrameDecodeTimer;
+    private final Map<String, Meter> sourceMeters;
 
     private final AtomicBoolean inLoop = new AtomicBoolean(false);
+    private final AtomicBoolean workersStarted = new AtomicBoolean(false);
 
     private DatagramSocket socket;
 
     public RemoteFrameInput(NzymeLeader nzyme, InetSocketAddress address) {
+        this(nzyme, address, DEFAULT_RECEIVE_BUFFER_SIZE, DEFAULT_WORKERS, Collections.emptySet());
+    }
+
+    /**
+     * @param trustedSources IDs of sensors whose already parsed frame fields are used as-is instead of parsing them again.
+     */
+    public RemoteFrameInput(NzymeLeader nzyme, InetSocketAddress address, int receiveBufferSize, int workers, Set<String> trustedSources) {
+        this.nzyme = nzyme;
         this.address = address;
+        this.receiveBufferSize = receiveBufferSize;
+        this.workers = workers;
+        this.trustedSources = ImmutableSet.copyOf(trustedSources);
         this.processor = nzyme.getFrameProcessor();
-        this.frameFactory = new Dot11FrameFactory(nzyme.getMetrics(), nzyme.getAnonymizer());
 
-        this.remoteFramesReceived = nzyme.getMetrics().meter(MetricNames.REMOTE_FRAMES_RECEIVED);
-        this.remoteFrameTimer = nzyme.getMetrics().timer(MetricNames.REMOTE_FRAMES_TIMING);
+        int buffers = workers * BUFFERS_PER_WORKER;
+        this.freeBuffers = new ArrayBlockingQueue<>(buffers);
+        this.receivedBuffers = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) {
+            freeBuffers.add(new DatagramPacket(new byte[MAX_DATAGRAM_SIZE], MAX_DATAGRAM_SIZE));
+        }
+
+        MetricRegistry metrics = nzyme.getMetrics();
+        this.remoteFramesReceived = metrics.meter(MetricNames.REMOTE_FRAMES_RECEIVED);
+        this.remoteFramesDropped = metrics.meter(MetricNames.REMOTE_FRAMES_DROPPED);
+        this.remoteFrameTimer = metrics.timer(MetricNames.REMOTE_FRAMES_TIMING);
+        this.remoteFrameDecodeTimer = metrics.timer(MetricNames.REMOTE_FRAMES_DECODE_TIMING);
+        this.sourceMeters = new ConcurrentHashMap<>();
+
+        metrics.remove(MetricNames.REMOTE_FRAMES_QUEUE_SIZE);
+        metrics.register(MetricNames.REMOTE_FRAMES_QUEUE_SIZE, (Gauge<Integer>) receivedBuffers::size);
     }
 
     private void initialize() throws SocketException {
@@ -69,11 +131,22 @@ public class RemoteFrameInput {
         }
 
         this.socket = new DatagramSocket(address);
+        this.socket.setReceiveBufferSize(receiveBufferSize);
+
+        // The kernel silently caps the buffer size. (net.core.rmem_max on Linux)
+        if (this.socket.getReceiveBufferSize() < receiveBufferSize) {
+            LOG.warn("Requested UDP receive buffer of <{}> bytes for remote input but got <{}> bytes. Consider raising " +
+                    "the operating system limit.", receiveBufferSize, this.socket.getReceiveBufferSize());
+        }
     }
 
     public Runnable run() {
         return () -> {
-            LOG.info("Starting remote frame input at [{}].", address);
+            LOG.info("Starting remote frame input at [{}] with <{}> workers.", address, workers);
+            startWorkers();
+
+            // Overflow target for datagrams that arrive while all buffers are in use.
+            DatagramPacket discard = new DatagramPacket(new byte[MAX_DATAGRAM_SIZE], MAX_DATAGRAM_SIZE);
 
             while (true) {
                 try {
@@ -95,41 +168,123 @@ public class RemoteFrameInput {
                 // We are in the loop and active if we reach here.
                 inLoop.set(true);
 
+                DatagramPacket packet = freeBuffers.poll();
                 try {
-                    byte[] buffer = new byte[4096];
-                    DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                    if (packet == null) {
+                        discard.setLength(MAX_DATAGRAM_SIZE);
+                        socket.receive(discard);
+                        remoteFramesDropped.mark();
+                        continue;
+                    }
+
+                    packet.setLength(MAX_DATAGRAM_SIZE);
                     socket.receive(packet);
 
-                    Timer.Context time = this.remoteFrameTimer.time();
-                    byte[] payload = Arrays.copyOfRange(packet.getData(), 0, packet.getLength());
+                    // Always fits. Both queues have room for all buffers.
+                    receivedBuffers.add(packet);
+                } catch (Exception e) {
+                    if (packet != null) {
+                        freeBuffers.add(packet);
+                    }
 
-                    NzymeMessage.Message message = NzymeMessage.Message.parseFrom(payload);
+                    LOG.warn("Error receiving remote frame. Skipping.", e);
+                    inLoop.set(false);
+                }
+            }
+        };
+    }
 
-                    if (!message.getMessageType().equals("frame")) {
-                        LOG.trace("Ignoring frame type [{}].", message.getMessageType());
-                        continue;
-                    }
+    /**
+     * Latest one-minute rate of frames received from every sensor.
+     */
+    public Map<String, Double> getSourceRates() {
+        Map<String, Double> rates = Maps.newHashMap();
+        for (Map.Entry<String, Meter> source : sourceMeters.entrySet()) {
+            rates.put(source.getKey(), source.getValue().getOneMinuteRate());
+        }
 
-                    if (!message.getFrame().getFrameType().equals("802.11")) {
-                        LOG.trace("Ignoring frame type [{}].", message.getFrame().getFrameType());
-                        continue;
-                    }
+        return rates;
+    }
+
+    private void startWorkers() {
+        if (!workersStarted.compareAndSet(false, true)) {
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("remote-input-worker-%d")
+                .build());
+
+        for (int i = 0; i < workers; i++) {
+            // Frame parsers are not shared between threads.
+            Dot11FrameFactory frameFactory = new Dot11FrameFactory(nzyme.getMetrics(), nzyme.getAnonymizer());
+            pool.submit(() -> work(frameFactory));
+        }
+    }
 
-                    this.remoteFramesReceived.mark();
+    private void work(Dot11FrameFactory frameFactory) {
+        while (!Thread.currentThread().isInterrupted()) {
+            DatagramPacket packet;
+            try {
+                packet = receivedBuffers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            Timer.Context time = this.remoteFrameTimer.time();
+            try {
+                long decodeStart = System.nanoTime();
 
-                    NzymeMessage.Dot11Frame frame = message.getFrame().getDot11Frame();
-                    processor.processDot11Frame(frameFactory.fromRemote(frame));
-                    time.stop();
-                } catch (MalformedFrameException | IllegalRawDataException | InvalidProtocolBufferException e) {
-                    LOG.warn("Invalid content of received remote frame. Skipping but not resetting connection.", e);
+                NzymeMessage.Message message;
+                try {
+                    message = NzymeMessage.Message.parser()
+                            .parseFrom(packet.getData(), packet.getOffset(), packet.getLength());
+                } finally {
+                    // The parsed message holds copies of all byte fields. Buffer can be re-used right away.
+                    freeBuffers.add(packet);
+                }
+
+                if (!message.getMessageType().equals("frame")) {
+                    LOG.trace("Ignoring frame type [{}].", message.getMessageType());
                     continue;
-                } catch (Exception e) {
-                    LOG.warn("Error receiving remote frame. Skipping.", e);
-                    inLoop.set(false);
+                }
+
+                if (!message.getFrame().getFrameType().equals("802.11")) {
+                    LOG.trace("Ignoring frame type [{}].", message.getFrame().getFrameType());
                     continue;
                 }
+
+                NzymeMessage.Dot11Frame frame = message.getFrame().getDot11Frame();
+                Dot11Frame parsed = frameFactory.fromRemote(frame, trustedSources.contains(frame.getSource()));
+                remoteFrameDecodeTimer.update(System.nanoTime() - decodeStart, TimeUnit.NANOSECONDS);
+
+                this.remoteFramesReceived.mark();
+                markSource(frame.getSource());
+
+                processor.processDot11Frame(parsed);
+                time.stop();
+            } catch (MalformedFrameException | IllegalRawDataException | InvalidProtocolBufferException e) {
+                LOG.warn("Invalid content of received remote frame. Skipping.", e);
+            } catch (Exception e) {
+                LOG.warn("Error processing remote frame. Skipping.", e);
             }
-        };
+        }
+    }
+
+    private void markSource(String source) {
+        Meter meter = sourceMeters.get(source);
+        if (meter == null) {
+            if (sourceMeters.size() >= MAX_TRACKED_SOURCES) {
+                return;
+            }
+
+            meter = sourceMeters.computeIfAbsent(source, s -> nzyme.getMetrics()
+                    .meter(MetricRegistry.name(MetricNames.REMOTE_FRAMES_RECEIVED, s)));
+        }
+
+        meter.mark();
     }
 
 }
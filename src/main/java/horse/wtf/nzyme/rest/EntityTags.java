@@ -0,0 +1,62 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest;
+
+import com.google.common.base.Joiner;
+
+import javax.ws.rs.core.EntityTag;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Builds cheap version tokens for the polled REST resources. A tag is derived from counters and timestamps of the
+ * underlying state and never from the response body itself, so that a matching If-None-Match header can be answered
+ * with 304 before any database query or serialization happens.
+ */
+public class EntityTags {
+
+    private static final Joiner JOINER = Joiner.on('-').useForNull("n");
+
+    private static volatile LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * Weak tag because the response body may be re-encoded (GZIP/deflate) on the way out.
+     */
+    public static EntityTag of(Object... parts) {
+        return new EntityTag(JOINER.join(parts), true);
+    }
+
+    /**
+     * Bucket for responses that also change with the passage of time. (expiring alerts, time axis of histograms, ...)
+     */
+    public static long timeBucket(long bucketSeconds) {
+        return clock.getAsLong() / TimeUnit.SECONDS.toMillis(bucketSeconds);
+    }
+
+    /**
+     * Replaces the source of the current time in milliseconds used for time buckets. Only for tests.
+     */
+    public static void setClock(LongSupplier clock) {
+        EntityTags.clock = clock;
+    }
+
+    public static void resetClock() {
+        EntityTags.clock = System::currentTimeMillis;
+    }
+
+}
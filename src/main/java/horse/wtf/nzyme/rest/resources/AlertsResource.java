@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.rest.EntityTags;
 import horse.wtf.nzyme.rest.authentication.Secured;
 import horse.wtf.nzyme.rest.responses.alerts.AlertConfigurationResponse;
 import horse.wtf.nzyme.rest.responses.alerts.AlertDetailsResponse;
@@ -31,7 +32,10 @@ import org.apache.logging.log4j.Logger;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +50,9 @@ public class AlertsResource {
 
     private static final int PAGE_SIZE = 25;
 
+    // Alerts expire with the passage of time. Limits how long an expired alert can be reported as active.
+    private static final int EXPIRY_BUCKET_SECONDS = 10;
+
     @Inject
     private NzymeLeader nzyme;
 
@@ -72,12 +79,23 @@ public class AlertsResource {
     }
 
     @GET
-    public Response all(@QueryParam("page") int page) {
+    public Response all(@Context Request request, @QueryParam("page") int page) {
         if(page < 0) {
             LOG.info("Invalid page parameter. Must be larger than 0.");
             return Response.status(Response.Status.BAD_REQUEST).build();
         }
 
+        // The active flag of listed alerts changes with time, even if no alerts were written.
+        EntityTag etag = EntityTags.of(
+                nzyme.getAlertsService().getLastModified(),
+                EntityTags.timeBucket(EXPIRY_BUCKET_SECONDS),
+                page
+        );
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+
         long total = nzyme.getAlertsService().countAllAlerts();
         Map<UUID, Alert> alerts = nzyme.getAlertsService().findAllAlerts(PAGE_SIZE, PAGE_SIZE*page);
 
@@ -86,16 +104,26 @@ public class AlertsResource {
             result.add(AlertDetailsResponse.fromAlert(alert));
         }
 
-        return Response.ok(AlertsListResponse.create(total, result)).build();
+        return Response.ok(AlertsListResponse.create(total, result)).tag(etag).build();
     }
 
     @GET
     @Path("/active")
-    public Response active(@QueryParam("limit") int limit) {
+    public Response active(@Context Request request, @QueryParam("limit") int limit) {
         if(limit == 0) {
             limit = 25;
         }
 
+        EntityTag etag = EntityTags.of(
+                nzyme.getAlertsService().getLastModified(),
+                EntityTags.timeBucket(EXPIRY_BUCKET_SECONDS),
+                limit
+        );
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+
         Map<UUID, Alert> alerts = nzyme.getAlertsService().findActiveAlerts();
 
         List<AlertDetailsResponse> details = Lists.newArrayList();
@@ -111,7 +139,7 @@ public class AlertsResource {
             details.add(AlertDetailsResponse.fromAlert(alert));
         }
 
-        return Response.ok(AlertsListResponse.create(alerts.size(), details)).build();
+        return Response.ok(AlertsListResponse.create(alerts.size(), details)).tag(etag).build();
     }
 
     @GET
@@ -20,11 +20,14 @@ package horse.wtf.nzyme.rest.resources;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.bandits.Bandit;
 import horse.wtf.nzyme.bandits.Contact;
+import horse.wtf.nzyme.bandits.engine.ContactManager;
 import horse.wtf.nzyme.bandits.engine.ContactRecordAggregation;
 import horse.wtf.nzyme.bandits.engine.ContactRecorder;
 import horse.wtf.nzyme.bandits.engine.ContactRecorderHistogramEntry;
@@ -32,6 +35,7 @@ import horse.wtf.nzyme.bandits.identifiers.BanditIdentifier;
 import horse.wtf.nzyme.bandits.identifiers.BanditIdentifierFactory;
 import horse.wtf.nzyme.bandits.trackers.Tracker;
 import horse.wtf.nzyme.bandits.trackers.TrackerManager;
+import horse.wtf.nzyme.rest.EntityTags;
 import horse.wtf.nzyme.rest.authentication.Secured;
 import horse.wtf.nzyme.rest.requests.CreateBanditIdentifierRequest;
 import horse.wtf.nzyme.rest.requests.CreateBanditRequest;
@@ -44,7 +48,10 @@ import org.joda.time.DateTime;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.*;
 
@@ -55,20 +62,55 @@ public class BanditsResource {
 
     private static final Logger LOG = LogManager.getLogger(BanditsResource.class);
 
+    private static final int EXPIRY_BUCKET_SECONDS = 10;
+    private static final int MAX_CONTACTS_LIMIT = 500;
+
     @Inject
     private NzymeLeader nzyme;
 
     @GET
-    public Response findAll() {
+    public Response findAll(@Context Request request,
+                            @QueryParam("limit") @DefaultValue("250") int limit,
+                            @QueryParam("offset") @DefaultValue("0") int offset,
+                            @QueryParam("contacts_limit") @DefaultValue("" + ContactManager.DEFAULT_CONTACTS_LIMIT) int contactsLimit,
+                            @QueryParam("contacts_max_age_minutes") @DefaultValue("0") int contactsMaxAgeMinutes) {
+        if (limit < 0 || offset < 0 || contactsLimit < 0 || contactsLimit > MAX_CONTACTS_LIMIT || contactsMaxAgeMinutes < 0) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        // Contacts and trackers go inactive or dark with time, even if nothing was written.
+        EntityTag etag = EntityTags.of(
+                nzyme.getContactManager().getGeneration(),
+                nzyme.getTrackerManager().getGeneration(),
+                EntityTags.timeBucket(EXPIRY_BUCKET_SECONDS),
+                limit,
+                offset,
+                contactsLimit,
+                contactsMaxAgeMinutes
+        );
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+
+        List<Bandit> allBandits = nzyme.getContactManager().getBanditList();
+        List<Bandit> page = allBandits.subList(
+                Math.min(offset, allBandits.size()),
+                (int) Math.min((long) offset + limit, allBandits.size())
+        );
+
+        // One query for the contacts of all bandits on this page.
+        Map<Long, List<Contact>> contactsOfBandits = nzyme.getContactManager().findContactsOfBandits(page, contactsMaxAgeMinutes, contactsLimit);
+
         List<BanditResponse> bandits = Lists.newArrayList();
 
-        for (Bandit x : nzyme.getContactManager().getBandits().values()) {
+        for (Bandit x : page) {
             if (x.databaseId() == null) {
                 LOG.error("Uninitialized bandit in BanditIdentifier. Skipping.");
                 continue;
             }
 
-            List<ContactResponse> contacts = buildContactsResponse(x, false);
+            List<ContactResponse> contacts = buildContactsResponse(x, contactsOfBandits.get(x.databaseId()), false);
 
             bandits.add(BanditResponse.create(
                     x.uuid(),
@@ -88,13 +130,20 @@ public class BanditsResource {
 
         return Response.ok(BanditsListResponse.create(
                 bandits,
-                bandits.size()
-        )).build();
+                allBandits.size()
+        )).tag(etag).build();
     }
 
     @GET
     @Path("/show/{uuid}")
-    public Response findOne(@PathParam("uuid") String id) {
+    public Response findOne(@PathParam("uuid") String id,
+                            @QueryParam("contacts_limit") @DefaultValue("" + ContactManager.DEFAULT_CONTACTS_LIMIT) int contactsLimit,
+                            @QueryParam("contacts_offset") @DefaultValue("0") int contactsOffset,
+                            @QueryParam("contacts_max_age_minutes") @DefaultValue("0") int contactsMaxAgeMinutes) {
+        if (contactsLimit < 0 || contactsLimit > MAX_CONTACTS_LIMIT || contactsOffset < 0 || contactsMaxAgeMinutes < 0) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
         if (Strings.isNullOrEmpty(id)) {
             LOG.warn("Bandit ID was null or empty.");
             return Response.status(Response.Status.BAD_REQUEST).build();
@@ -113,7 +162,11 @@ public class BanditsResource {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
 
-        List<ContactResponse> contacts = buildContactsResponse(bandit, true);
+        List<ContactResponse> contacts = buildContactsResponse(
+                bandit,
+                nzyme.getContactManager().findContactsOfBandit(bandit, contactsMaxAgeMinutes, contactsLimit, contactsOffset),
+                true
+        );
 
         return Response.ok(BanditResponse.create(
                 bandit.uuid(),
@@ -473,20 +526,24 @@ public class BanditsResource {
         return response.build();
     }
 
-    private List<ContactResponse> buildContactsResponse(Bandit bandit, boolean includeContactRecords) {
+    private List<ContactResponse> buildContactsResponse(Bandit bandit, List<Contact> contacts, boolean includeContactRecords) {
         ImmutableList.Builder<ContactResponse> response = new ImmutableList.Builder<>();
 
-        for (Contact contact : nzyme.getContactManager().findContactsOfBandit(bandit)) {
-
-            Optional<List<ContactRecordAggregation>> ssids;
-            Optional<List<ContactRecordAggregation>> bssids;
-            if (includeContactRecords) {
-                ssids = nzyme.getContactManager().findRecordValuesOfContact(contact.uuid(), ContactRecorder.RECORD_TYPE.SSID);
-                bssids = nzyme.getContactManager().findRecordValuesOfContact(contact.uuid(), ContactRecorder.RECORD_TYPE.BSSID);
-            } else {
-                ssids = Optional.empty();
-                bssids = Optional.empty();
+        // One query for the records of all contacts.
+        Table<UUID, ContactRecorder.RECORD_TYPE, List<ContactRecordAggregation>> records;
+        if (includeContactRecords) {
+            List<UUID> contactUUIDs = Lists.newArrayList();
+            for (Contact contact : contacts) {
+                contactUUIDs.add(contact.uuid());
             }
+            records = nzyme.getContactManager().findRecordValuesOfContacts(contactUUIDs);
+        } else {
+            records = ImmutableTable.of();
+        }
+
+        for (Contact contact : contacts) {
+            Optional<List<ContactRecordAggregation>> ssids = Optional.ofNullable(records.get(contact.uuid(), ContactRecorder.RECORD_TYPE.SSID));
+            Optional<List<ContactRecordAggregation>> bssids = Optional.ofNullable(records.get(contact.uuid(), ContactRecorder.RECORD_TYPE.BSSID));
 
             response.add(ContactResponse.create(
                     contact.uuid(),
@@ -18,6 +18,7 @@
 package horse.wtf.nzyme.rest.resources;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Table;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.bandits.Contact;
@@ -27,26 +28,30 @@ import horse.wtf.nzyme.dot11.deauth.db.DeauthenticationMonitorRecording;
 import horse.wtf.nzyme.dot11.probes.Dot11Probe;
 import horse.wtf.nzyme.measurements.Measurement;
 import horse.wtf.nzyme.measurements.MeasurementType;
+import horse.wtf.nzyme.rest.EntityTags;
 import horse.wtf.nzyme.rest.authentication.Secured;
 import horse.wtf.nzyme.rest.responses.alerts.AlertDetailsResponse;
 import horse.wtf.nzyme.rest.responses.alerts.AlertsListResponse;
 import horse.wtf.nzyme.rest.responses.bandits.ContactResponse;
+import horse.wtf.nzyme.rest.responses.dashboard.DailyHistogram;
 import horse.wtf.nzyme.rest.responses.dashboard.DashboardResponse;
 import horse.wtf.nzyme.rest.responses.system.ProbeResponse;
 import horse.wtf.nzyme.rest.responses.system.ProbesListResponse;
 import horse.wtf.nzyme.systemstatus.SystemStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 
 import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Path("/api/dashboard")
 @Secured
@@ -57,26 +62,33 @@ public class DashboardResource {
 
     private static final String MEASUREMENTS_QUERY = "SELECT * FROM measurements WHERE measurement_type = ? AND created_at > (current_timestamp at time zone 'UTC' - interval '1 day') ORDER BY created_at ASC;";
     private static final String DEAUTH_QUERY = "SELECT * FROM deauth_monitor WHERE created_at > (current_timestamp - interval '1 day') ORDER BY created_at ASC;";
+    private static final int RECENT_CONTACTS_MAX_AGE_MINUTES = (int) TimeUnit.DAYS.toMinutes(1);
 
     @Inject
     private NzymeLeader nzyme;
 
     @GET
-    public Response dashboard() {
+    public Response dashboard(@Context Request request) {
+        // Histograms are minute-based and contacts/alerts expire with time, so the minute is part of the version.
+        EntityTag etag = EntityTags.of(
+                nzyme.getAlertsService().getLastModified(),
+                nzyme.getContactManager().getGeneration(),
+                probesVersion(),
+                EntityTags.timeBucket(60)
+        );
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+
         long activeAlerts = nzyme.getAlertsService().findActiveAlerts().size();
-        long activeContacts = 0;
+        long activeContacts = nzyme.getContactManager().countActiveContacts();
 
         List<AlertDetailsResponse> alerts = Lists.newArrayList();
         for (Alert alert : nzyme.getAlertsService().findAllAlerts(5, 0).values()) {
             alerts.add(AlertDetailsResponse.fromAlert(alert));
         }
 
-        for (Contact contact : nzyme.getContactManager().findContacts().values()) {
-            if (contact.isActive()) {
-                activeContacts++;
-            }
-        }
-
         SystemStatus.HEALTH systemHealthStatus = nzyme.getSystemStatus().decideHealth(nzyme);
 
         Map<String, Long> frameThroughputHistogram = buildMeasurementHistogram(nzyme.getDatabase().withHandle(handle ->
@@ -94,13 +106,18 @@ public class DashboardResource {
 
         List<ContactResponse> contacts = Lists.newArrayList();
 
-        for (Contact contact : nzyme.getContactManager().findContacts(5, 0).values()) {
+        // Same one day window as the histograms.
+        Map<UUID, Contact> recentContacts = nzyme.getContactManager().findContacts(RECENT_CONTACTS_MAX_AGE_MINUTES, 5, 0);
+        Table<UUID, ContactRecorder.RECORD_TYPE, List<ContactRecordAggregation>> records = nzyme.getContactManager()
+                .findRecordValuesOfContacts(recentContacts.keySet());
+
+        for (Contact contact : recentContacts.values()) {
             if (contact.bandit() == null || contact.bandit().uuid() == null) {
                 LOG.warn("Skipping unexpected incomplete contact [{}].", contact);
                 continue;
             }
-            Optional<List<ContactRecordAggregation>> ssids = nzyme.getContactManager().findRecordValuesOfContact(contact.uuid(), ContactRecorder.RECORD_TYPE.SSID);
-            Optional<List<ContactRecordAggregation>> bssids = nzyme.getContactManager().findRecordValuesOfContact(contact.uuid(), ContactRecorder.RECORD_TYPE.BSSID);
+            List<ContactRecordAggregation> ssids = records.get(contact.uuid(), ContactRecorder.RECORD_TYPE.SSID);
+            List<ContactRecordAggregation> bssids = records.get(contact.uuid(), ContactRecorder.RECORD_TYPE.BSSID);
 
             contacts.add(ContactResponse.create(
                     contact.uuid(),
@@ -113,8 +130,8 @@ public class DashboardResource {
                     contact.bandit().name(),
                     contact.sourceRole().toString(),
                     contact.sourceName(),
-                    ssids.orElse(Collections.emptyList()),
-                    bssids.orElse(Collections.emptyList())
+                    ssids == null ? Collections.emptyList() : ssids,
+                    bssids == null ? Collections.emptyList() : bssids
             ));
         }
 
@@ -144,42 +161,47 @@ public class DashboardResource {
                         contacts,
                         ProbesListResponse.create(probes.size(), probes)
                 )
-        ).build();
+        ).tag(etag).build();
+    }
+
+    private int probesVersion() {
+        // Covers the probe list and the system health that is derived from it. Frame counts change with every frame
+        // and are refreshed by the time bucket instead.
+        int version = 1;
+        for (Dot11Probe probe : nzyme.getProbes()) {
+            version = 31 * version + Objects.hash(
+                    probe.getName(),
+                    probe.isInLoop(),
+                    probe.isActive(),
+                    probe.getCurrentChannel()
+            );
+        }
+
+        return version;
     }
 
     private Map<String, Long> buildMeasurementHistogram(List<Measurement> measurements) {
-        Map<String, Long> clientCountHistogram = buildEmptyDailyHistogram();
+        DailyHistogram histogram = new DailyHistogram();
 
-        if (measurements != null && !measurements.isEmpty()) {
+        if (measurements != null) {
             for (Measurement measurement : measurements) {
-                clientCountHistogram.put(measurement.createdAt().withZone(DateTimeZone.UTC).withSecondOfMinute(0).withMillisOfSecond(0).toString(), measurement.value());
+                histogram.put(measurement.createdAt(), measurement.value());
             }
         }
 
-        return clientCountHistogram;
+        return histogram.toMap();
     }
 
     private Map<String, Long> buildDeauthHistogram(List<DeauthenticationMonitorRecording> recordings) {
-        Map<String, Long> deauthHistogram = buildEmptyDailyHistogram();
+        DailyHistogram histogram = new DailyHistogram();
 
-        if (recordings != null && !recordings.isEmpty()) {
+        if (recordings != null) {
             for (DeauthenticationMonitorRecording recording : recordings) {
-                deauthHistogram.put(recording.createdAt().withZone(DateTimeZone.UTC).withSecondOfMinute(0).withMillisOfSecond(0).toString(), recording.totalFrameCount());
+                histogram.put(recording.createdAt(), recording.totalFrameCount());
             }
         }
 
-        return deauthHistogram;
-    }
-
-    private Map<String, Long> buildEmptyDailyHistogram() {
-        Map<String, Long> histo = new TreeMap<>();
-
-        // Always have an x-axis for full 24 hours to avoid weird diagonal connections.
-        for (int i = 1; i < 24*60; i++) {
-            histo.put(DateTime.now(DateTimeZone.UTC).minusMinutes(i).withSecondOfMinute(0).withMillisOfSecond(0).toString(), 0L);
-        }
-
-        return histo;
+        return histogram.toMap();
     }
 
 }
@@ -0,0 +1,44 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.resources;
+
+import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.rest.authentication.Secured;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.SseEventSink;
+
+@Path("/api/live")
+@Secured
+@Produces(MediaType.SERVER_SENT_EVENTS)
+public class LiveUpdatesResource {
+
+    @Inject
+    private NzymeLeader nzyme;
+
+    @GET
+    public void subscribe(@Context SseEventSink sink) {
+        nzyme.getLiveUpdates().subscribe(sink);
+    }
+
+}
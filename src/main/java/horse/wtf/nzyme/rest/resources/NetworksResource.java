@@ -32,6 +32,7 @@ import horse.wtf.nzyme.dot11.networks.signalstrength.tracks.SignalWaterfallHisto
 import horse.wtf.nzyme.dot11.networks.signalstrength.tracks.SignalWaterfallHistogramLoader;
 import horse.wtf.nzyme.dot11.networks.signalstrength.tracks.Track;
 import horse.wtf.nzyme.dot11.networks.signalstrength.tracks.TrackDetector;
+import horse.wtf.nzyme.rest.EntityTags;
 import horse.wtf.nzyme.rest.authentication.Secured;
 import horse.wtf.nzyme.rest.responses.networks.*;
 import org.apache.logging.log4j.LogManager;
@@ -41,7 +42,10 @@ import org.joda.time.DateTime;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +58,9 @@ public class NetworksResource {
 
     private static final Logger LOG = LogManager.getLogger(NetworksResource.class);
 
+    // Last seen, signal strengths and frame counts change with every frame and are only refreshed with this bucket.
+    public static final int FRAME_VALUES_BUCKET_SECONDS = 10;
+
     public static final String BEACON_RATE_AVERAGE_QUERY = "SELECT date_trunc('minute', created_at) AS bucket, AVG(beacon_rate) AS avg_beacon_rate " +
             "FROM beacon_rate_history " +
             "WHERE bssid = ? AND ssid = ? AND created_at > (current_timestamp at time zone 'UTC' - interval '1 day') " +
@@ -65,46 +72,23 @@ public class NetworksResource {
 
     @GET
     @Path("/bssids")
-    public Response bssids() {
-        List<BSSIDResponse> bssids = Lists.newArrayList();
+    public Response bssids(@Context Request request) {
+        // Don't rebuild the list if the client already has the current state.
+        EntityTag etag = EntityTags.of(
+                nzyme.getNetworks().getGeneration(),
+                EntityTags.timeBucket(FRAME_VALUES_BUCKET_SECONDS)
+        );
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
 
+        List<BSSIDResponse> bssids = Lists.newArrayList();
         for (BSSID bssid : nzyme.getNetworks().getBSSIDs().values()) {
-            List<String> ssids = Lists.newArrayList();
-            List<String> securityMechanisms = Lists.newArrayList();
-            List<String> fingerprints = Lists.newArrayList();
-
-            for (SSID ssid : bssid.ssids().values()) {
-                ssids.add(ssid.nameSafe());
-
-                for (Dot11SecurityConfiguration sec : ssid.getSecurity()) {
-                    if (!securityMechanisms.contains(sec.wpaMode().toString())) {
-                        securityMechanisms.add(sec.wpaMode().toString());
-                    }
-                }
-
-                for (Channel channel : ssid.channels().values()) {
-                    for (String fingerprint : channel.fingerprints()) {
-                        if (!fingerprints.contains(fingerprint)) {
-                            fingerprints.add(fingerprint);
-                        }
-                    }
-                }
-            }
-
-            bssids.add(BSSIDResponse.create(
-                    bssid.bssid(),
-                    bssid.averageRecentSignalStrength(),
-                    ssids,
-                    bssid.oui(),
-                    securityMechanisms,
-                    fingerprints.size(),
-                    bssid.isWPS(),
-                    bssid.getLastSeen()
-            ));
+            bssids.add(BSSIDResponse.fromBSSID(bssid));
         }
 
-
-        return Response.ok(BSSIDsResponse.create(bssids.size(), bssids)).build();
+        return Response.ok(BSSIDsResponse.create(bssids.size(), bssids)).tag(etag).build();
     }
 
     @GET
@@ -21,18 +21,24 @@ import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.database.QueryMetrics;
+import horse.wtf.nzyme.database.QueryStatistics;
 import horse.wtf.nzyme.rest.authentication.Secured;
 import horse.wtf.nzyme.rest.responses.metrics.*;
 import horse.wtf.nzyme.util.MetricNames;
 
 import javax.inject.Inject;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.List;
 import java.util.Map;
 
 @Path("/api/system/metrics")
@@ -167,9 +173,32 @@ public class MetricsResource {
                 GaugeResponse.fromGauge(getGauge(MetricNames.DATABASE_SIZE))
         );
 
+        metrics.put(
+                "database_slow_queries",
+                CounterResponse.fromCounter(getCounter(MetricNames.DATABASE_SLOW_QUERIES))
+        );
+
+        metrics.put(
+                "database_failed_queries",
+                CounterResponse.fromCounter(getCounter(MetricNames.DATABASE_FAILED_QUERIES))
+        );
+
         return Response.ok(MetricsListResponse.create(metrics.size(), metrics)).build();
     }
 
+    @GET
+    @Path("/database/queries")
+    public Response databaseQueries(@QueryParam("limit") @DefaultValue("25") int limit) {
+        QueryMetrics queryMetrics = nzyme.getDatabase().getQueryMetrics();
+
+        List<DatabaseQueryResponse> queries = Lists.newArrayList();
+        for (QueryStatistics statistics : queryMetrics.getTopStatements(Math.max(limit, 0))) {
+            queries.add(DatabaseQueryResponse.fromStatistics(statistics));
+        }
+
+        return Response.ok(DatabaseQueriesListResponse.create(queryMetrics.getCount(), queries)).build();
+    }
+
     private Meter getMeter(String name) {
         Meter meter = nzyme.getMetrics().getMeters().get(name);
         return meter == null ? new Meter() : meter;
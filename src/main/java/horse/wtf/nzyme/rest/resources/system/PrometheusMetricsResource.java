@@ -0,0 +1,56 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.resources.system;
+
+import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.util.PrometheusTextFormat;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Prometheus scrape target. Not secured because scrapers cannot obtain session tokens. Only registered if enabled in
+ * the configuration.
+ */
+@Path("/metrics")
+public class PrometheusMetricsResource {
+
+    @Inject
+    private NzymeLeader nzyme;
+
+    @GET
+    @Produces(PrometheusTextFormat.CONTENT_TYPE)
+    public Response metrics() {
+        StreamingOutput stream = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            PrometheusTextFormat.write(nzyme.getMetrics(), writer);
+            writer.flush();
+        };
+
+        return Response.ok(stream).build();
+    }
+
+}
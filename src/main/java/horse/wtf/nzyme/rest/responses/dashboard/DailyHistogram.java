@@ -0,0 +1,178 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.responses.dashboard;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-minute histogram over the last 24 hours, keyed by the ISO timestamp of the minute. The minute keys are built
+ * once per minute and shared between all requests. Values are merged into a primitive array and only exposed as a
+ * sorted map view for serialization.
+ *
+ * Minutes without a value are always included to give the web interface a full x-axis. The current minute and the
+ * minute exactly 24 hours ago are only included if they have a value.
+ */
+public class DailyHistogram {
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MINUTES = 24*60;
+
+    private static volatile Skeleton skeleton;
+
+    private final Skeleton keys;
+    private final long[] values;
+    private final boolean[] present;
+
+    private TreeMap<String, Long> outliers;
+
+    public DailyHistogram() {
+        this.keys = skeleton(System.currentTimeMillis() / MINUTE_MILLIS);
+        this.values = new long[MINUTES + 1];
+        this.present = new boolean[MINUTES + 1];
+
+        for (int i = 1; i < MINUTES; i++) {
+            present[i] = true;
+        }
+    }
+
+    /**
+     * Sets the value of the minute of the given timestamp. A later call for the same minute overwrites the value.
+     */
+    public void put(DateTime timestamp, long value) {
+        long minutesAgo = keys.epochMinute - Math.floorDiv(timestamp.getMillis(), MINUTE_MILLIS);
+
+        if (minutesAgo >= 0 && minutesAgo <= MINUTES) {
+            int idx = (int) minutesAgo;
+            values[idx] = value;
+            present[idx] = true;
+        } else {
+            // Clock skew between database and leader. Rare, so no need for a fast path.
+            if (outliers == null) {
+                outliers = new TreeMap<>();
+            }
+            outliers.put(format(timestamp), value);
+        }
+    }
+
+    public Map<String, Long> toMap() {
+        MapView view = new MapView();
+
+        if (outliers == null) {
+            return view;
+        }
+
+        TreeMap<String, Long> result = new TreeMap<>(view);
+        result.putAll(outliers);
+        return result;
+    }
+
+    private static Skeleton skeleton(long epochMinute) {
+        Skeleton current = skeleton;
+        if (current == null || current.epochMinute != epochMinute) {
+            current = new Skeleton(epochMinute);
+            skeleton = current;
+        }
+
+        return current;
+    }
+
+    private static String format(DateTime timestamp) {
+        return timestamp.withZone(DateTimeZone.UTC).withSecondOfMinute(0).withMillisOfSecond(0).toString();
+    }
+
+    private static final class Skeleton {
+
+        private final long epochMinute;
+        private final String[] keys;
+
+        private Skeleton(long epochMinute) {
+            this.epochMinute = epochMinute;
+            this.keys = new String[MINUTES + 1];
+
+            for (int i = 0; i <= MINUTES; i++) {
+                keys[i] = format(new DateTime((epochMinute - i) * MINUTE_MILLIS, DateTimeZone.UTC));
+            }
+        }
+
+    }
+
+    /**
+     * Oldest minute first, like a TreeMap of the same keys.
+     */
+    private final class MapView extends AbstractMap<String, Long> {
+
+        @Override
+        public Set<Entry<String, Long>> entrySet() {
+            return new AbstractSet<Entry<String, Long>>() {
+                @Override
+                public Iterator<Entry<String, Long>> iterator() {
+                    return new Iterator<Entry<String, Long>>() {
+                        private int next = advance(MINUTES);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public Entry<String, Long> next() {
+                            if (next < 0) {
+                                throw new NoSuchElementException();
+                            }
+
+                            Entry<String, Long> entry = new SimpleImmutableEntry<>(keys.keys[next], values[next]);
+                            next = advance(next - 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (boolean p : present) {
+                        if (p) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+
+        private int advance(int from) {
+            int i = from;
+            while (i >= 0 && !present[i]) {
+                i--;
+            }
+            return i;
+        }
+
+    }
+
+}
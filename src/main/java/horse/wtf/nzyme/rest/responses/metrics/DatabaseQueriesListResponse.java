@@ -0,0 +1,54 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.responses.metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.auto.value.AutoValue;
+
+import java.util.List;
+
+@AutoValue
+public abstract class DatabaseQueriesListResponse {
+
+    @JsonProperty("total_statements")
+    public abstract long totalStatements();
+
+    @JsonProperty("queries")
+    public abstract List<DatabaseQueryResponse> queries();
+
+    public static DatabaseQueriesListResponse create(long totalStatements, List<DatabaseQueryResponse> queries) {
+        return builder()
+                .totalStatements(totalStatements)
+                .queries(queries)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_DatabaseQueriesListResponse.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder totalStatements(long totalStatements);
+
+        public abstract Builder queries(List<DatabaseQueryResponse> queries);
+
+        public abstract DatabaseQueriesListResponse build();
+    }
+
+}
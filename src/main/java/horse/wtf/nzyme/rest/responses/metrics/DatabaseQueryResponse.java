@@ -0,0 +1,86 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.responses.metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.auto.value.AutoValue;
+import horse.wtf.nzyme.database.QueryStatistics;
+
+import java.util.concurrent.TimeUnit;
+
+@AutoValue
+public abstract class DatabaseQueryResponse {
+
+    @JsonProperty("name")
+    public abstract String name();
+
+    @JsonProperty("sql")
+    public abstract String sql();
+
+    @JsonProperty("count")
+    public abstract long count();
+
+    @JsonProperty("total_time_ms")
+    public abstract long totalTimeMs();
+
+    @JsonProperty("mean")
+    public abstract double mean();
+
+    @JsonProperty("percentile_99")
+    public abstract double percentile99();
+
+    @JsonProperty("max")
+    public abstract double max();
+
+    // Same units as TimerResponse: Microseconds, except for the total time.
+    public static DatabaseQueryResponse fromStatistics(QueryStatistics s) {
+        return builder()
+                .name(s.name())
+                .sql(s.sql())
+                .count(s.count())
+                .totalTimeMs(TimeUnit.NANOSECONDS.toMillis(s.totalTimeNanos()))
+                .mean(TimeUnit.NANOSECONDS.toMicros(s.meanNanos()))
+                .percentile99(TimeUnit.NANOSECONDS.toMicros(s.percentile99Nanos()))
+                .max(TimeUnit.NANOSECONDS.toMicros(s.maxNanos()))
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_DatabaseQueryResponse.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder name(String name);
+
+        public abstract Builder sql(String sql);
+
+        public abstract Builder count(long count);
+
+        public abstract Builder totalTimeMs(long totalTimeMs);
+
+        public abstract Builder mean(double mean);
+
+        public abstract Builder percentile99(double percentile99);
+
+        public abstract Builder max(double max);
+
+        public abstract DatabaseQueryResponse build();
+    }
+
+}
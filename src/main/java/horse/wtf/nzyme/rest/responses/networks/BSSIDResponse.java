@@ -19,6 +19,11 @@ package horse.wtf.nzyme.rest.responses.networks;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.auto.value.AutoValue;
+import com.google.common.collect.Lists;
+import horse.wtf.nzyme.dot11.Dot11SecurityConfiguration;
+import horse.wtf.nzyme.dot11.networks.BSSID;
+import horse.wtf.nzyme.dot11.networks.Channel;
+import horse.wtf.nzyme.dot11.networks.SSID;
 import org.joda.time.DateTime;
 
 import java.util.List;
@@ -50,6 +55,41 @@ public abstract class BSSIDResponse {
     @JsonProperty("last_seen")
     public abstract DateTime lastSeen();
 
+    public static BSSIDResponse fromBSSID(BSSID bssid) {
+        List<String> ssids = Lists.newArrayList();
+        List<String> securityMechanisms = Lists.newArrayList();
+        List<String> fingerprints = Lists.newArrayList();
+
+        for (SSID ssid : bssid.ssids().values()) {
+            ssids.add(ssid.nameSafe());
+
+            for (Dot11SecurityConfiguration sec : ssid.getSecurity()) {
+                if (!securityMechanisms.contains(sec.wpaMode().toString())) {
+                    securityMechanisms.add(sec.wpaMode().toString());
+                }
+            }
+
+            for (Channel channel : ssid.channels().values()) {
+                for (String fingerprint : channel.fingerprints()) {
+                    if (!fingerprints.contains(fingerprint)) {
+                        fingerprints.add(fingerprint);
+                    }
+                }
+            }
+        }
+
+        return create(
+                bssid.bssid(),
+                bssid.averageRecentSignalStrength(),
+                ssids,
+                bssid.oui(),
+                securityMechanisms,
+                fingerprints.size(),
+                bssid.isWPS(),
+                bssid.getLastSeen()
+        );
+    }
+
     public static BSSIDResponse create(String bssid, int signalStrength, List<String> ssids, String oui, List<String> securityMechanisms, int fingerprintCount, boolean hasWPS, DateTime lastSeen) {
         return builder()
                 .bssid(bssid)
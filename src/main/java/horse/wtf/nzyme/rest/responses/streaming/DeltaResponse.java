@@ -0,0 +1,54 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.responses.streaming;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.auto.value.AutoValue;
+
+import java.util.List;
+
+@AutoValue
+public abstract class DeltaResponse {
+
+    @JsonProperty("updated")
+    public abstract List<Object> updated();
+
+    @JsonProperty("removed")
+    public abstract List<String> removed();
+
+    public static DeltaResponse create(List<Object> updated, List<String> removed) {
+        return builder()
+                .updated(updated)
+                .removed(removed)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_DeltaResponse.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder updated(List<Object> updated);
+
+        public abstract Builder removed(List<String> removed);
+
+        public abstract DeltaResponse build();
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.streaming;
+
+import com.google.common.collect.ImmutableMap;
+import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.alerts.service.AlertsService;
+import horse.wtf.nzyme.rest.EntityTags;
+import horse.wtf.nzyme.rest.responses.alerts.AlertDetailsResponse;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+public class AlertsUpdateSource extends LiveUpdateSource<UUID, AlertDetailsResponse> {
+
+    private static final int EXPIRY_BUCKET_SECONDS = 10;
+
+    private final AlertsService alerts;
+
+    public AlertsUpdateSource(AlertsService alerts) {
+        this.alerts = alerts;
+    }
+
+    @Override
+    public String eventName() {
+        return "alerts";
+    }
+
+    @Override
+    protected Object version() {
+        // Alerts also expire with the passage of time, even if nothing was written.
+        return Arrays.asList(alerts.getLastModified(), EntityTags.timeBucket(EXPIRY_BUCKET_SECONDS));
+    }
+
+    @Override
+    protected Map<UUID, AlertDetailsResponse> load() {
+        ImmutableMap.Builder<UUID, AlertDetailsResponse> result = new ImmutableMap.Builder<>();
+        for (Alert alert : alerts.findActiveAlerts().values()) {
+            result.put(alert.getUUID(), AlertDetailsResponse.fromAlert(alert));
+        }
+
+        return result.build();
+    }
+
+}
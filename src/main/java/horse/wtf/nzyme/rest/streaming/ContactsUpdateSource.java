@@ -0,0 +1,83 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.streaming;
+
+import com.google.common.collect.ImmutableMap;
+import horse.wtf.nzyme.bandits.Bandit;
+import horse.wtf.nzyme.bandits.Contact;
+import horse.wtf.nzyme.bandits.engine.ContactManager;
+import horse.wtf.nzyme.rest.EntityTags;
+import horse.wtf.nzyme.rest.responses.bandits.ContactResponse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+public class ContactsUpdateSource extends LiveUpdateSource<UUID, ContactResponse> {
+
+    private static final int MAX_CONTACTS = 50;
+    private static final int EXPIRY_BUCKET_SECONDS = 10;
+
+    private final ContactManager contactManager;
+
+    public ContactsUpdateSource(ContactManager contactManager) {
+        this.contactManager = contactManager;
+    }
+
+    @Override
+    public String eventName() {
+        return "contacts";
+    }
+
+    @Override
+    protected Object version() {
+        // Contacts go inactive with the passage of time, even if nothing was written.
+        return Arrays.asList(contactManager.getGeneration(), EntityTags.timeBucket(EXPIRY_BUCKET_SECONDS));
+    }
+
+    @Override
+    protected Map<UUID, ContactResponse> load() {
+        ImmutableMap.Builder<UUID, ContactResponse> result = new ImmutableMap.Builder<>();
+        for (Contact contact : contactManager.findContacts(MAX_CONTACTS, 0).values()) {
+            Bandit bandit = contact.bandit();
+            if (bandit == null) {
+                continue;
+            }
+
+            // SSID/BSSID records are only loaded on the contact details page.
+            result.put(contact.uuid(), ContactResponse.create(
+                    contact.uuid(),
+                    contact.frameCount(),
+                    contact.firstSeen(),
+                    contact.lastSeen(),
+                    contact.isActive(),
+                    contact.lastSignal(),
+                    bandit.uuid().toString(),
+                    bandit.name(),
+                    contact.sourceRole().toString(),
+                    contact.sourceName(),
+                    Collections.emptyList(),
+                    Collections.emptyList()
+            ));
+        }
+
+        return result.build();
+    }
+
+}
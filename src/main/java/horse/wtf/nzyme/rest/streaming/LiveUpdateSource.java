@@ -0,0 +1,96 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.streaming;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import horse.wtf.nzyme.rest.responses.streaming.DeltaResponse;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One stream of live updates. The state is loaded at most once per tick, no matter how many clients are subscribed,
+ * and only the entries that changed since the last published state are sent out.
+ *
+ * @param <K> Key of an entry. Sent as string in the list of removed entries.
+ * @param <V> Response object of an entry. Must implement equals(). (AutoValue)
+ */
+public abstract class LiveUpdateSource<K, V> {
+
+    private Map<K, V> published = ImmutableMap.of();
+    private Object publishedVersion = null;
+
+    /**
+     * Name of the SSE events of this source.
+     */
+    public abstract String eventName();
+
+    /**
+     * A cheap token that changes whenever the state might have changed. Loading is skipped if it did not change.
+     */
+    protected abstract Object version();
+
+    protected abstract Map<K, V> load();
+
+    /**
+     * @return Changes since the last call or null if nothing changed.
+     */
+    @Nullable
+    public DeltaResponse poll() {
+        Object version = version();
+        if (Objects.equals(version, publishedVersion)) {
+            return null;
+        }
+
+        Map<K, V> current = load();
+
+        List<Object> updated = Lists.newArrayList();
+        for (Map.Entry<K, V> entry : current.entrySet()) {
+            if (!entry.getValue().equals(published.get(entry.getKey()))) {
+                updated.add(entry.getValue());
+            }
+        }
+
+        List<String> removed = Lists.newArrayList();
+        for (K key : published.keySet()) {
+            if (!current.containsKey(key)) {
+                removed.add(key.toString());
+            }
+        }
+
+        this.published = current;
+        this.publishedVersion = version;
+
+        if (updated.isEmpty() && removed.isEmpty()) {
+            return null;
+        }
+
+        return DeltaResponse.create(updated, removed);
+    }
+
+    /**
+     * @return The full last published state, for new subscribers.
+     */
+    public DeltaResponse snapshot() {
+        return DeltaResponse.create(Lists.newArrayList(published.values()), Lists.newArrayList());
+    }
+
+}
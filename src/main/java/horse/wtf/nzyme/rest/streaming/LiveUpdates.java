@@ -0,0 +1,178 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.streaming;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import horse.wtf.nzyme.rest.ObjectMapperProvider;
+import horse.wtf.nzyme.rest.responses.streaming.DeltaResponse;
+import horse.wtf.nzyme.util.MetricNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes changes of networks, alerts and contacts to all connected web interface clients via server-sent events.
+ *
+ * Every source is polled once per interval and each change is serialized once, then fanned out to all subscribers.
+ * The cost of a tick does not depend on the number of connected clients. Nothing is loaded if nobody is subscribed.
+ */
+public class LiveUpdates {
+
+    private static final Logger LOG = LogManager.getLogger(LiveUpdates.class);
+
+    private final List<LiveUpdateSource<?, ?>> sources;
+    private final int intervalSeconds;
+    private final ObjectMapper om;
+
+    private final List<LiveUpdatesSubscriber> subscribers = Lists.newArrayList();
+    private final Object mutex = new Object();
+
+    private final ExecutorService sender;
+
+    private final Counter droppedSubscribers;
+    private final Timer timer;
+
+    public LiveUpdates(MetricRegistry metrics, List<LiveUpdateSource<?, ?>> sources, int intervalSeconds) {
+        this.sources = ImmutableList.copyOf(sources);
+        this.intervalSeconds = intervalSeconds;
+        this.om = new ObjectMapperProvider().getContext(null);
+
+        this.sender = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("live-updates-sender-%d")
+                .build());
+
+        metrics.register(MetricNames.LIVE_UPDATES_SUBSCRIBERS, (Gauge<Integer>) this::getSubscriberCount);
+        this.droppedSubscribers = metrics.counter(MetricNames.LIVE_UPDATES_DROPPED_SUBSCRIBERS);
+        this.timer = metrics.timer(MetricNames.LIVE_UPDATES_TIMING);
+    }
+
+    public void start() {
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("live-updates-%d")
+                .build())
+                .scheduleWithFixedDelay(() -> {
+                    try {
+                        tick();
+                    } catch (Exception e) {
+                        LOG.error("Could not publish live updates.", e);
+                    }
+                }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void subscribe(SseEventSink sink) {
+        LiveUpdatesSubscriber subscriber = new LiveUpdatesSubscriber(sink, sender);
+
+        synchronized (mutex) {
+            // Nothing was polled while nobody was listening. Catch up before handing out snapshots.
+            if (subscribers.isEmpty()) {
+                for (LiveUpdateSource<?, ?> source : sources) {
+                    source.poll();
+                }
+            }
+
+            for (LiveUpdateSource<?, ?> source : sources) {
+                OutboundSseEvent event = buildEvent(source.eventName(), source.snapshot());
+                if (event != null) {
+                    subscriber.offer(event);
+                }
+            }
+
+            subscribers.add(subscriber);
+        }
+    }
+
+    void tick() {
+        synchronized (mutex) {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+
+            try (Timer.Context ignored = timer.time()) {
+                for (LiveUpdateSource<?, ?> source : sources) {
+                    DeltaResponse delta = source.poll();
+                    if (delta == null) {
+                        continue;
+                    }
+
+                    OutboundSseEvent event = buildEvent(source.eventName(), delta);
+                    if (event != null) {
+                        publish(event);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        synchronized (mutex) {
+            return subscribers.size();
+        }
+    }
+
+    private void publish(OutboundSseEvent event) {
+        Iterator<LiveUpdatesSubscriber> it = subscribers.iterator();
+        while (it.hasNext()) {
+            LiveUpdatesSubscriber subscriber = it.next();
+
+            if (!subscriber.isOpen()) {
+                it.remove();
+                continue;
+            }
+
+            // Slow client. Drop it instead of buffering without limit. It will reconnect and receive a fresh snapshot.
+            if (!subscriber.offer(event)) {
+                LOG.debug("Dropping live updates subscriber with [{}] queued events.", LiveUpdatesSubscriber.MAX_QUEUED_EVENTS);
+                droppedSubscribers.inc();
+                subscriber.close();
+                it.remove();
+            }
+        }
+    }
+
+    private OutboundSseEvent buildEvent(String name, DeltaResponse delta) {
+        try {
+            // Serialized here once and not by the sinks, to share the result between all subscribers.
+            return new OutboundEvent.Builder()
+                    .name(name)
+                    .data(String.class, om.writeValueAsString(delta))
+                    .build();
+        } catch (JsonProcessingException e) {
+            LOG.error("Could not serialize live update [{}].", name, e);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.streaming;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends events to one connected client. Events are queued and written on a separate thread so that a slow client
+ * never blocks the update loop or the other subscribers.
+ */
+class LiveUpdatesSubscriber {
+
+    private static final Logger LOG = LogManager.getLogger(LiveUpdatesSubscriber.class);
+
+    static final int MAX_QUEUED_EVENTS = 32;
+
+    private final SseEventSink sink;
+    private final Executor sender;
+
+    private final BlockingQueue<OutboundSseEvent> queue = new ArrayBlockingQueue<>(MAX_QUEUED_EVENTS);
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private volatile boolean closed = false;
+
+    LiveUpdatesSubscriber(SseEventSink sink, Executor sender) {
+        this.sink = sink;
+        this.sender = sender;
+    }
+
+    /**
+     * @return false if the queue of this subscriber is full.
+     */
+    boolean offer(OutboundSseEvent event) {
+        if (!queue.offer(event)) {
+            return false;
+        }
+
+        scheduleDrain();
+        return true;
+    }
+
+    boolean isOpen() {
+        return !closed && !sink.isClosed();
+    }
+
+    void close() {
+        closed = true;
+        queue.clear();
+
+        try {
+            sink.close();
+        } catch (Exception e) {
+            LOG.debug("Could not close event sink.", e);
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            OutboundSseEvent event;
+            while (!closed && (event = queue.poll()) != null) {
+                sink.send(event).toCompletableFuture().join();
+            }
+        } catch (Exception e) {
+            LOG.debug("Could not send live update. Closing subscriber.", e);
+            close();
+        } finally {
+            draining.set(false);
+        }
+
+        // An event might have been queued after the loop finished but before the flag was reset.
+        if (!closed && !queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+}
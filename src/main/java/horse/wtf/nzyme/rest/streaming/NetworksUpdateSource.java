@@ -0,0 +1,59 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.rest.streaming;
+
+import com.google.common.collect.ImmutableMap;
+import horse.wtf.nzyme.dot11.networks.BSSID;
+import horse.wtf.nzyme.dot11.networks.Networks;
+import horse.wtf.nzyme.rest.EntityTags;
+import horse.wtf.nzyme.rest.resources.NetworksResource;
+import horse.wtf.nzyme.rest.responses.networks.BSSIDResponse;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class NetworksUpdateSource extends LiveUpdateSource<String, BSSIDResponse> {
+
+    private final Networks networks;
+
+    public NetworksUpdateSource(Networks networks) {
+        this.networks = networks;
+    }
+
+    @Override
+    public String eventName() {
+        return "bssids";
+    }
+
+    @Override
+    protected Object version() {
+        // Per-frame values like signal strength and frame counts do not change the generation.
+        return Arrays.asList(networks.getGeneration(), EntityTags.timeBucket(NetworksResource.FRAME_VALUES_BUCKET_SECONDS));
+    }
+
+    @Override
+    protected Map<String, BSSIDResponse> load() {
+        ImmutableMap.Builder<String, BSSIDResponse> result = new ImmutableMap.Builder<>();
+        for (BSSID bssid : networks.getBSSIDs().values()) {
+            result.put(bssid.bssid(), BSSIDResponse.fromBSSID(bssid));
+        }
+
+        return result.build();
+    }
+
+}
@@ -17,17 +17,24 @@
 
 package horse.wtf.nzyme.util;
 
+import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.bandits.engine.ContactIdentifierEngine;
 import horse.wtf.nzyme.bandits.trackers.GroundStation;
+import horse.wtf.nzyme.channels.ChannelHopper;
 import horse.wtf.nzyme.database.Database;
 import horse.wtf.nzyme.dot11.Dot11TaggedParameters;
 import horse.wtf.nzyme.dot11.networks.Networks;
 import horse.wtf.nzyme.dot11.networks.signalstrength.SignalStrengthTable;
 import horse.wtf.nzyme.dot11.probes.Dot11MonitorProbe;
+import horse.wtf.nzyme.notifications.uplinks.graylog.GraylogUplink;
+import horse.wtf.nzyme.notifications.uplinks.syslog.SyslogUplink;
 import horse.wtf.nzyme.ouis.OUIManager;
 import horse.wtf.nzyme.periodicals.alerting.beaconrate.BeaconRateAnomalyAlertMonitor;
+import horse.wtf.nzyme.periodicals.alerting.beaconrate.BeaconRateWriter;
 import horse.wtf.nzyme.periodicals.alerting.tracks.SignalTrackMonitor;
+import horse.wtf.nzyme.periodicals.sigidx.SignalIndexHistogramWriter;
 import horse.wtf.nzyme.remote.inputs.RemoteFrameInput;
+import horse.wtf.nzyme.rest.streaming.LiveUpdates;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
@@ -58,8 +65,31 @@ public class MetricNames {
     public static final String GROUNDSTATION_RX = name(GroundStation.class, "rx");
     public static final String GROUNDSTATION_ENCRYPTION_TIMING = name(GroundStation.class, "encryption-timing");
     public static final String GROUNDSTATION_QUEUE_SIZE = name(GroundStation.class, "queue_size");
+    public static final String GROUNDSTATION_TX_DROPPED = name(GroundStation.class, "tx_dropped");
     public static final String REMOTE_FRAMES_RECEIVED = name(RemoteFrameInput.class, "frames-received");
     public static final String REMOTE_FRAMES_TIMING = name(RemoteFrameInput.class, "frame-timing");
+    public static final String REMOTE_FRAMES_DECODE_TIMING = name(RemoteFrameInput.class, "decode-timing");
+    public static final String REMOTE_FRAMES_DROPPED = name(RemoteFrameInput.class, "frames-dropped");
+    public static final String REMOTE_FRAMES_QUEUE_SIZE = name(RemoteFrameInput.class, "queue-size");
     public static final String DATABASE_SIZE = name(Database.class, "size");
+    public static final String DATABASE_QUERY_TIMING = name(Database.class, "query-timing");
+    public static final String DATABASE_SLOW_QUERIES = name(Database.class, "slow-queries");
+    public static final String DATABASE_FAILED_QUERIES = name(Database.class, "failed-queries");
+    public static final String LIVE_UPDATES_SUBSCRIBERS = name(LiveUpdates.class, "subscribers");
+    public static final String LIVE_UPDATES_DROPPED_SUBSCRIBERS = name(LiveUpdates.class, "dropped-subscribers");
+    public static final String LIVE_UPDATES_TIMING = name(LiveUpdates.class, "timing");
+    public static final String BEACON_RATE_WRITER_ROWS = name(BeaconRateWriter.class, "rows-written");
+    public static final String BEACON_RATE_WRITER_TIMING = name(BeaconRateWriter.class, "flush-timing");
+    public static final String SIGIDX_HISTOGRAM_WRITER_ROWS = name(SignalIndexHistogramWriter.class, "rows-written");
+    public static final String SIGIDX_HISTOGRAM_WRITER_TIMING = name(SignalIndexHistogramWriter.class, "flush-timing");
+    public static final String GRAYLOG_UPLINK_QUEUE_SIZE = name(GraylogUplink.class, "queue-size");
+    public static final String GRAYLOG_UPLINK_SENT = name(GraylogUplink.class, "sent");
+    public static final String GRAYLOG_UPLINK_DROPPED = name(GraylogUplink.class, "dropped");
+    public static final String SYSLOG_UPLINK_QUEUE_SIZE = name(SyslogUplink.class, "queue-size");
+    public static final String SYSLOG_UPLINK_SENT = name(SyslogUplink.class, "sent");
+    public static final String SYSLOG_UPLINK_DROPPED = name(SyslogUplink.class, "dropped");
+    public static final String ALERTS_SUPPRESSED = name(AlertsService.class, "suppressed");
+    public static final String ALERT_CALLBACKS_DROPPED = name(AlertsService.class, "callbacks-dropped");
+    public static final String CHANNEL_SWITCH_TIMING = name(ChannelHopper.class, "switch-timing");
 
 }
@@ -0,0 +1,173 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package horse.wtf.nzyme.util;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes all metrics of a registry in the Prometheus text exposition format (version 0.0.4), directly to the given
+ * writer and without building any intermediate representation of the registry.
+ *
+ * Metric names are the registry names with every character that is not allowed by Prometheus replaced by an
+ * underscore and prefixed with "nzyme_". Example: "mem.heap.used" becomes "nzyme_mem_heap_used".
+ *
+ * Counters and gauges become gauges, meters become counters with a "_total" suffix and histograms and timers become
+ * summaries. Timers are reported in seconds.
+ */
+public class PrometheusTextFormat {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String PREFIX = "nzyme_";
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    public static void write(MetricRegistry registry, Writer out) throws IOException {
+        for (Map.Entry<String, Metric> entry : registry.getMetrics().entrySet()) {
+            String name = entry.getKey();
+            Metric metric = entry.getValue();
+
+            if (metric instanceof Gauge) {
+                writeGauge(out, name, (Gauge<?>) metric);
+            } else if (metric instanceof Counter) {
+                writeHeader(out, name, "", "gauge");
+                writeSample(out, name, "", null, ((Counter) metric).getCount());
+            } else if (metric instanceof Meter) {
+                writeHeader(out, name, "_total", "counter");
+                writeSample(out, name, "_total", null, ((Meter) metric).getCount());
+            } else if (metric instanceof Timer) {
+                Timer timer = (Timer) metric;
+                writeSummary(out, name, timer.getSnapshot(), timer.getCount(), 1.0D / NANOS_PER_SECOND);
+            } else if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                writeSummary(out, name, histogram.getSnapshot(), histogram.getCount(), 1.0D);
+            }
+        }
+    }
+
+    private static void writeGauge(Writer out, String name, Gauge<?> gauge) throws IOException {
+        Object value;
+        try {
+            value = gauge.getValue();
+        } catch (RuntimeException e) {
+            // A broken gauge must not break the whole scrape.
+            return;
+        }
+
+        double number;
+        if (value instanceof Number) {
+            number = ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            number = ((Boolean) value) ? 1 : 0;
+        } else {
+            return;
+        }
+
+        writeHeader(out, name, "", "gauge");
+        writeSample(out, name, "", null, number);
+    }
+
+    private static void writeSummary(Writer out, String name, Snapshot snapshot, long count, double factor) throws IOException {
+        writeHeader(out, name, "", "summary");
+        writeSample(out, name, "", "0.5", snapshot.getMedian() * factor);
+        writeSample(out, name, "", "0.75", snapshot.get75thPercentile() * factor);
+        writeSample(out, name, "", "0.95", snapshot.get95thPercentile() * factor);
+        writeSample(out, name, "", "0.98", snapshot.get98thPercentile() * factor);
+        writeSample(out, name, "", "0.99", snapshot.get99thPercentile() * factor);
+        writeSample(out, name, "", "0.999", snapshot.get999thPercentile() * factor);
+        writeSample(out, name, "_count", null, count);
+    }
+
+    private static void writeHeader(Writer out, String name, String suffix, String type) throws IOException {
+        out.write("# HELP ");
+        writeName(out, name, suffix);
+        out.write(' ');
+        writeHelp(out, name);
+        out.write('\n');
+
+        out.write("# TYPE ");
+        writeName(out, name, suffix);
+        out.write(' ');
+        out.write(type);
+        out.write('\n');
+    }
+
+    private static void writeSample(Writer out, String name, String suffix, String quantile, double value) throws IOException {
+        writeName(out, name, suffix);
+        if (quantile != null) {
+            out.write("{quantile=\"");
+            out.write(quantile);
+            out.write("\"}");
+        }
+        out.write(' ');
+        writeValue(out, value);
+        out.write('\n');
+    }
+
+    private static void writeName(Writer out, String name, String suffix) throws IOException {
+        out.write(PREFIX);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == ':') {
+                out.write(c);
+            } else {
+                out.write('_');
+            }
+        }
+        out.write(suffix);
+    }
+
+    private static void writeHelp(Writer out, String name) throws IOException {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '\\') {
+                out.write("\\\\");
+            } else if (c == '\n') {
+                out.write("\\n");
+            } else {
+                out.write(c);
+            }
+        }
+    }
+
+    private static void writeValue(Writer out, double value) throws IOException {
+        if (Double.isNaN(value)) {
+            out.write("NaN");
+        } else if (value == Double.POSITIVE_INFINITY) {
+            out.write("+Inf");
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            out.write("-Inf");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.write(Long.toString((long) value));
+        } else {
+            out.write(Double.toString(value));
+        }
+    }
+
+}
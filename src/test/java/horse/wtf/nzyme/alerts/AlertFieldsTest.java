@@ -0,0 +1,176 @@
+package horse.wtf.nzyme.alerts;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import horse.wtf.nzyme.alerts.service.AlertDatabaseEntry;
+import horse.wtf.nzyme.dot11.interceptors.misc.PwnagotchiAdvertisement;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joda.time.DateTime;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class AlertFieldsTest {
+
+    private static final Logger LOG = LogManager.getLogger(AlertFieldsTest.class);
+
+    private static List<Alert> alerts() {
+        DateTime now = DateTime.now();
+
+        return ImmutableList.of(
+                CryptoChangeBeaconAlert.create(now, "wtf", "00:c0:ca:95:68:3b", "WPA2-EAM-PSK-CCMP", 1, 2412, -50, 1),
+                BeaconRateAnomalyAlert.create(now, "wtf", "00:c0:ca:95:68:3b", 10.0, 5),
+                DeauthFloodAlert.create(now, 100, 50),
+                BanditContactAlert.create(now, "foo", UUID.randomUUID().toString(), Optional.empty(), 5),
+                PwnagotchiAdvertisementAlert.create(now,
+                        PwnagotchiAdvertisement.create("pwn", "1.0", "abc", 12.5, 1, 2),
+                        6, 2437, -60, 1)
+        );
+    }
+
+    @Test
+    public void testRoundTripMatchesJackson() throws IOException {
+        ObjectMapper om = new ObjectMapper();
+
+        for (Alert alert : alerts()) {
+            String json = AlertFields.toJSON(alert.getFields());
+
+            // Same JSON and the same Java types as the generic map serialization.
+            assertEquals(om.readTree(json), om.readTree(om.writeValueAsString(alert.getFields())));
+            assertEquals(AlertFields.fromJSON(json), om.readValue(json, new TypeReference<Map<String, Object>>(){}));
+            assertEquals(AlertFields.fromJSON(json), alert.getFields());
+        }
+    }
+
+    @Test
+    public void testValueTypes() throws IOException {
+        Map<String, Object> fields = Maps.newLinkedHashMap();
+        fields.put("string", "foo");
+        fields.put("int", 1);
+        fields.put("long", 1L + Integer.MAX_VALUE);
+        fields.put("double", 1.5);
+        fields.put("bool", true);
+        fields.put("list", ImmutableList.of("a", "b"));
+        fields.put("map", ImmutableMap.of("a", 1));
+
+        Map<String, Object> read = AlertFields.fromJSON(AlertFields.toJSON(fields));
+        assertEquals(read, fields);
+        assertTrue(read.get("int") instanceof Integer);
+        assertTrue(read.get("long") instanceof Long);
+        assertTrue(read.get("double") instanceof Double);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNotAnObject() throws IOException {
+        AlertFields.fromJSON("[1,2]");
+    }
+
+    @Test
+    public void testSerializeFromDatabase() throws IOException {
+        for (Alert alert : alerts()) {
+            Alert read = Alert.serializeFromDatabase(entry(alert));
+
+            assertEquals(read.getType(), alert.getType());
+            assertEquals(read.getFields(), alert.getFields());
+            assertTrue(read.sameAs(alert));
+        }
+    }
+
+    @Test
+    public void testToJSONString() throws IOException {
+        ObjectMapper om = new ObjectMapper();
+
+        for (Alert alert : alerts()) {
+            Map<String, Object> payload = Maps.newHashMap();
+            payload.put("first_seen", alert.getFirstSeen().toString());
+            payload.put("last_seen", alert.getLastSeen().toString());
+            payload.put("frame_count", alert.getFrameCount());
+            payload.put("is_use_frame_count", alert.isUseFrameCount());
+            payload.put("message", alert.getMessage());
+            payload.put("type", alert.getType());
+            payload.put("subsystem", alert.getSubsystem());
+            payload.put("documentation_link", alert.getDocumentationLink());
+            payload.put("description", alert.getDescription());
+            payload.put("fields", alert.getFields());
+            payload.put("false_positives", alert.getFalsePositives());
+
+            assertEquals(om.readTree(alert.toJSONString()), om.readTree(om.writeValueAsString(payload)));
+        }
+    }
+
+    @Test
+    public void testThroughput() throws IOException {
+        List<Alert> alerts = alerts();
+        List<AlertDatabaseEntry> entries = entries(alerts);
+
+        int rounds = 20_000;
+
+        // Warm up.
+        for (int i = 0; i < rounds; i++) {
+            for (AlertDatabaseEntry entry : entries) {
+                Alert.serializeFromDatabase(entry);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            for (AlertDatabaseEntry entry : entries) {
+                Alert.serializeFromDatabase(entry);
+            }
+        }
+        long deserialization = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            for (Alert alert : alerts) {
+                AlertFields.toJSON(alert.getFields());
+            }
+        }
+        long serialization = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            alerts();
+        }
+        long creation = System.nanoTime() - start;
+
+        long total = (long) rounds * alerts.size();
+        LOG.info("Alert creation: <{}/sec>. Fields serialization: <{}/sec>. Deserialization from database: <{}/sec>.",
+                total * TimeUnit.SECONDS.toNanos(1) / creation,
+                total * TimeUnit.SECONDS.toNanos(1) / serialization,
+                total * TimeUnit.SECONDS.toNanos(1) / deserialization);
+    }
+
+    private static List<AlertDatabaseEntry> entries(List<Alert> alerts) throws IOException {
+        ImmutableList.Builder<AlertDatabaseEntry> entries = ImmutableList.builder();
+        for (Alert alert : alerts) {
+            entries.add(entry(alert));
+        }
+        return entries.build();
+    }
+
+    private static AlertDatabaseEntry entry(Alert alert) throws IOException {
+        return AlertDatabaseEntry.create(
+                1,
+                UUID.randomUUID(),
+                alert.getType(),
+                alert.getSubsystem(),
+                AlertFields.toJSON(alert.getFields()),
+                alert.getFirstSeen(),
+                alert.getLastSeen(),
+                alert.getFrameCount() == null ? 0 : alert.getFrameCount()
+        );
+    }
+
+}
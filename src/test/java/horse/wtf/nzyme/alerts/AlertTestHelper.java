@@ -36,6 +36,8 @@ public class AlertTestHelper {
             "foo",
             false,
             60,
+            false,
+            false,
             ImmutableList.of(),
             ImmutableList.of()
     );
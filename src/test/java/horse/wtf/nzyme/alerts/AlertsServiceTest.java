@@ -5,13 +5,18 @@ import com.google.common.collect.Lists;
 import horse.wtf.nzyme.MockNzyme;
 import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.alerts.service.AlertsService;
+import horse.wtf.nzyme.alerts.service.callbacks.AlertCallback;
 import horse.wtf.nzyme.notifications.uplinks.misc.LoopbackUplink;
 import org.joda.time.DateTime;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.testng.Assert.*;
 
@@ -75,6 +80,22 @@ public class AlertsServiceTest extends AlertTestHelper {
         assertEquals(a1a.getFrameCount(), (Long) 2L);
     }
 
+    @Test
+    public void testHandleIsOneReadAndOneWrite() {
+        NzymeLeader nzyme = new MockNzyme();
+        AlertsService as = new AlertsService(nzyme);
+
+        for (int i = 0; i < 2; i++) {
+            long before = nzyme.getDatabase().getStatementCountOfCurrentThread();
+            as.handle(UnexpectedSSIDBeaconAlert.create(DateTime.now(), "wtf", "00:c0:ca:95:68:3b", 1, 1000, -50, 1));
+
+            // Insert first, update afterwards.
+            assertEquals(nzyme.getDatabase().getStatementCountOfCurrentThread() - before, 2);
+        }
+
+        assertEquals(as.findActiveAlerts().size(), 1);
+    }
+
     @Test(expectedExceptions = UnsupportedOperationException.class)
     public void testGetActiveAlertsReturnsImmutableCopyPut() {
         NzymeLeader nzyme = new MockNzyme();
@@ -165,4 +186,74 @@ public class AlertsServiceTest extends AlertTestHelper {
         as.findAllAlerts(100, 0);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testBlockingCallbackDoesNotBlockHandling() throws InterruptedException {
+        NzymeLeader nzyme = new MockNzyme();
+        AlertsService as = new AlertsService(nzyme);
+
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingCallback blocking = new BlockingCallback(release);
+        RecordingCallback recording = new RecordingCallback();
+        as.registerCallback(blocking);
+        as.registerCallback(recording);
+
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            as.handle(ProbeFailureAlert.create(DateTime.now(), "probe" + i, "is broke"));
+            long took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Only the database access. The blocked callback does not add any latency.
+            assertTrue(took < 1000, "Handling took " + took + "ms.");
+        }
+
+        // Other callback types are not held up by the blocked one.
+        recording.await(10);
+        assertEquals(recording.alerts.size(), 10);
+        assertEquals(blocking.alerts.size(), 0);
+
+        release.countDown();
+        blocking.await(10);
+        assertEquals(blocking.alerts.size(), 10);
+
+        as.shutdown();
+    }
+
+    private static class RecordingCallback implements AlertCallback {
+
+        protected final List<Alert> alerts = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void call(Alert alert) {
+            alerts.add(alert);
+        }
+
+        protected void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+            while (alerts.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+    }
+
+    private static class BlockingCallback extends RecordingCallback {
+
+        private final CountDownLatch release;
+
+        private BlockingCallback(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void call(Alert alert) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.call(alert);
+        }
+
+    }
+
+}
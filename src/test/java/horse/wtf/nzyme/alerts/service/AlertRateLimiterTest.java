@@ -0,0 +1,68 @@
+package horse.wtf.nzyme.alerts.service;
+
+import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.alerts.UnexpectedBSSIDBeaconAlert;
+import org.joda.time.DateTime;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import static org.testng.Assert.*;
+
+public class AlertRateLimiterTest {
+
+    private static final AlertKey KEY_A = AlertKey.create(Alert.TYPE.UNEXPECTED_BSSID_BEACON, "wtf", "00:c0:ca:95:68:3b");
+    private static final AlertKey KEY_B = AlertKey.create(Alert.TYPE.UNEXPECTED_BSSID_BEACON, "wtf", "00:c0:ca:95:68:3c");
+
+    private static final LongFunction<Alert> ALERT = frames ->
+            UnexpectedBSSIDBeaconAlert.create(DateTime.now(), "wtf", "00:c0:ca:95:68:3b", 1, 2412, -50, frames);
+
+    @Test
+    public void testBucketsCollapseRepeats() {
+        AtomicLong clock = new AtomicLong(0);
+        AlertRateLimiter limiter = new AlertRateLimiter(1.0, 2, clock::get);
+
+        // Burst.
+        assertEquals(limiter.acquire(KEY_A, ALERT), 1);
+        assertEquals(limiter.acquire(KEY_A, ALERT), 1);
+
+        // Empty.
+        for (int i = 0; i < 100; i++) {
+            assertEquals(limiter.acquire(KEY_A, ALERT), 0);
+        }
+
+        // Other keys have their own bucket.
+        assertEquals(limiter.acquire(KEY_B, ALERT), 1);
+
+        // Refilled. Reports all collapsed frames.
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(limiter.acquire(KEY_A, ALERT), 101);
+        assertEquals(limiter.acquire(KEY_A, ALERT), 0);
+    }
+
+    @Test
+    public void testDrain() {
+        AtomicLong clock = new AtomicLong(0);
+        AlertRateLimiter limiter = new AlertRateLimiter(1.0, 1, clock::get);
+
+        assertEquals(limiter.acquire(KEY_A, ALERT), 1);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(KEY_A, ALERT);
+        }
+
+        List<Alert> drained = limiter.drain();
+        assertEquals(drained.size(), 1);
+        assertEquals(drained.get(0).getFrameCount(), Long.valueOf(5));
+        assertTrue(limiter.drain().isEmpty());
+
+        // Idle buckets are forgotten.
+        assertEquals(limiter.getBucketCount(), 1);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(AlertsService.EXPIRY_MINUTES + 1));
+        limiter.drain();
+        assertEquals(limiter.getBucketCount(), 0);
+    }
+
+}
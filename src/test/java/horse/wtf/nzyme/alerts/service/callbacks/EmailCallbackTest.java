@@ -1,10 +1,17 @@
 package horse.wtf.nzyme.alerts.service.callbacks;
 
+import com.google.common.collect.ImmutableList;
+import horse.wtf.nzyme.alerts.ProbeFailureAlert;
 import horse.wtf.nzyme.util.Tools;
+import org.joda.time.DateTime;
+import org.simplejavamail.api.email.Email;
 import org.simplejavamail.api.email.Recipient;
+import org.simplejavamail.api.mailer.config.TransportStrategy;
 import org.testng.annotations.Test;
 
 import javax.mail.Message;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.testng.Assert.*;
 
@@ -19,4 +26,57 @@ public class EmailCallbackTest {
         assertEquals(recipient.getType(), Message.RecipientType.TO);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testDigest() throws Exception {
+        List<Email> sent = new CopyOnWriteArrayList<>();
+        EmailCallback callback = new EmailCallback(configuration(3600), sent::add);
+
+        callback.call(ProbeFailureAlert.create(DateTime.now(), "probe1", "is broke"));
+        callback.call(ProbeFailureAlert.create(DateTime.now(), "probe2", "is broke"));
+        callback.call(ProbeFailureAlert.create(DateTime.now(), "probe3", "is broke"));
+        assertTrue(sent.isEmpty());
+
+        callback.sendDigest();
+        assertEquals(sent.size(), 1);
+        assertEquals(sent.get(0).getSubject(), "[NZYME] 3 Alerts");
+        assertTrue(sent.get(0).getPlainText().contains("probe1"));
+        assertTrue(sent.get(0).getPlainText().contains("probe3"));
+
+        // Nothing new in this window.
+        callback.sendDigest();
+        assertEquals(sent.size(), 1);
+
+        // Single alert in window. Regular email.
+        callback.call(ProbeFailureAlert.create(DateTime.now(), "probe4", "is broke"));
+        callback.close();
+        assertEquals(sent.size(), 2);
+        assertTrue(sent.get(1).getSubject().startsWith("[NZYME] Alert ["));
+        assertNotNull(sent.get(1).getHTMLText());
+    }
+
+    @Test
+    public void testNoDigest() throws Exception {
+        List<Email> sent = new CopyOnWriteArrayList<>();
+        EmailCallback callback = new EmailCallback(configuration(0), sent::add);
+
+        callback.call(ProbeFailureAlert.create(DateTime.now(), "probe1", "is broke"));
+        callback.call(ProbeFailureAlert.create(DateTime.now(), "probe2", "is broke"));
+        assertEquals(sent.size(), 2);
+    }
+
+    private EmailCallback.Configuration configuration(int digestWindowSeconds) throws Exception {
+        return EmailCallback.Configuration.create(
+                TransportStrategy.SMTP_TLS,
+                "smtp.example.org",
+                587,
+                "user",
+                "password",
+                ImmutableList.of(Tools.parseEmailAddress("Somebody <somebody@example.org>")),
+                Tools.parseEmailAddress("nzyme <nzyme@example.org>"),
+                "[NZYME]",
+                "http://127.0.0.1:22900/",
+                digestWindowSeconds
+        );
+    }
+
+}
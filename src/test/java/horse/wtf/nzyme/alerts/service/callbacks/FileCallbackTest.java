@@ -27,8 +27,9 @@ public class FileCallbackTest {
             Files.delete(path);
         }
 
-        FileCallback callback = new FileCallback(FileCallback.Configuration.create(path));
+        FileCallback callback = new FileCallback(FileCallback.Configuration.create(path, 1));
         callback.call(ProbeFailureAlert.create(DateTime.now(), "fooProbe", "is broke"));
+        callback.flush();
 
         String content = Files.readString(path);
         assertEquals(content.split("\n").length, 1);
@@ -36,11 +37,41 @@ public class FileCallbackTest {
         assertTrue(content.endsWith("}\n"));
 
         callback.call(BeaconRateAnomalyAlert.create(DateTime.now(), "foo", "bar", 100, 50));
+        callback.flush();
 
         content = Files.readString(path);
         assertEquals(content.split("\n").length, 2);
         assertTrue(content.startsWith("{"));
         assertTrue(content.endsWith("}\n"));
+
+        callback.close();
+    }
+
+    @Test
+    public void testRotation() throws IOException {
+        Path dir = Files.createTempDirectory("nzyme_alert_log");
+        Path path = dir.resolve("alerts.log");
+
+        FileCallback callback = new FileCallback(FileCallback.Configuration.create(path, 1));
+
+        // 1.5 MB of alerts.
+        long written = 0;
+        while (written < 1.5 * 1024 * 1024) {
+            ProbeFailureAlert alert = ProbeFailureAlert.create(DateTime.now(), "fooProbe", "is broke");
+            callback.call(alert);
+            written += alert.toJSONString().length() + 1;
+        }
+        callback.close();
+
+        assertTrue(Files.exists(path));
+        assertTrue(Files.exists(dir.resolve("alerts.log.1")));
+        assertTrue(Files.size(dir.resolve("alerts.log.1")) >= 1024 * 1024);
+        assertTrue(Files.size(path) < 1024 * 1024);
+
+        for (String line : Files.readAllLines(dir.resolve("alerts.log.1"))) {
+            assertTrue(line.startsWith("{"));
+            assertTrue(line.endsWith("}"));
+        }
     }
 
 }
\ No newline at end of file
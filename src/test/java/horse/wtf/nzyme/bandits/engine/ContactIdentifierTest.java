@@ -83,7 +83,7 @@ public class ContactIdentifierTest {
         ContactManager i = new ContactManager(new MockNzyme());
 
         assertEquals(i.getBandits().size(), DefaultBandits.BANDITS.size());
-        assertEquals(i.findContacts().size(), 0);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).size(), 0);
 
         UUID bandit1UUID = UUID.randomUUID();
         i.registerBandit(Bandit.create(null, bandit1UUID, "foo", "foo", false, DateTime.now(), DateTime.now(), Lists.newArrayList()));
@@ -91,7 +91,7 @@ public class ContactIdentifierTest {
         i.registerContact(Contact.create(UUID.randomUUID(), DateTime.now(), DateTime.now(), 0L, Role.LEADER, "nzyme-test", 0, bandit1.databaseId(), bandit1));
 
         assertEquals(i.getBandits().size(), DefaultBandits.BANDITS.size()+1);
-        assertEquals(i.findContacts().size(), 1);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).size(), 1);
 
         UUID bandit2UUID = UUID.randomUUID();
         i.registerBandit(Bandit.create(null, bandit2UUID, "foo", "foo", false, DateTime.now(), DateTime.now(), Lists.newArrayList()));
@@ -99,7 +99,7 @@ public class ContactIdentifierTest {
         i.registerContact(Contact.create(UUID.randomUUID(), DateTime.now(), DateTime.now(), 0L, Role.LEADER, "nzyme-test", 0,bandit2.databaseId(), bandit2));
 
         assertEquals(i.getBandits().size(), DefaultBandits.BANDITS.size()+2);
-        assertEquals(i.findContacts().size(), 2);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).size(), 2);
     }
 
     @Test
@@ -108,7 +108,7 @@ public class ContactIdentifierTest {
         ContactManager i = new ContactManager(nzyme);
 
         assertEquals(i.getBandits().size(), DefaultBandits.BANDITS.size());
-        assertEquals(i.findContacts().size(), 0);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).size(), 0);
 
         UUID bandit1UUID = UUID.randomUUID();
         i.registerBandit(Bandit.create(null, bandit1UUID, "foo", "foo", false, DateTime.now(), DateTime.now(), Lists.newArrayList()));
@@ -116,14 +116,14 @@ public class ContactIdentifierTest {
         i.registerContact(Contact.create(UUID.randomUUID(), DateTime.now(), DateTime.now(), 0L, Role.LEADER, nzyme.getNodeID(), 0,bandit1.databaseId(), bandit1));
 
         assertEquals(i.getBandits().size(), DefaultBandits.BANDITS.size()+1);
-        assertEquals(i.findContacts().size(), 1);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).size(), 1);
 
         UUID bandit2UUID = UUID.randomUUID();
         i.registerBandit(Bandit.create(null, bandit2UUID, "foo", "foo", false, DateTime.now(), DateTime.now(), Lists.newArrayList()));
         Bandit bandit2 = i.findBanditByUUID(bandit2UUID).orElseThrow((Supplier<Exception>) RuntimeException::new);
 
         assertEquals(i.getBandits().size(), DefaultBandits.BANDITS.size()+2);
-        assertEquals(i.findContacts().size(), 1);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).size(), 1);
 
         assertTrue(i.banditHasActiveContactOnSource(bandit1, nzyme.getNodeID()));
         assertFalse(i.banditHasActiveContactOnSource(bandit2, nzyme.getNodeID()));
@@ -136,7 +136,7 @@ public class ContactIdentifierTest {
         ContactManager i = new ContactManager(nzyme);
 
         assertEquals(i.getBandits().size(), DefaultBandits.BANDITS.size());
-        assertEquals(i.findContacts().size(), 0);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).size(), 0);
 
         UUID banditUUID = UUID.randomUUID();
         i.registerBandit(Bandit.create(null, banditUUID, "foo", "foo", false, DateTime.now(), DateTime.now(), Lists.newArrayList()));
@@ -146,22 +146,22 @@ public class ContactIdentifierTest {
         i.registerContact(Contact.create(contactUUID, DateTime.now(), DateTime.now(), 0L, Role.LEADER, nzyme.getNodeID(), 0,bandit.databaseId(), bandit));
 
         assertEquals(i.getBandits().size(), DefaultBandits.BANDITS.size()+1);
-        assertEquals(i.findContacts().size(), 1);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).size(), 1);
 
-        assertEquals(i.findContacts().get(contactUUID).frameCount().longValue(), 0);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).get(contactUUID).frameCount().longValue(), 0);
         assertTrue(i.findRecordValuesOfContact(contactUUID, ContactRecorder.RECORD_TYPE.SSID).isEmpty());
         assertTrue(i.findRecordValuesOfContact(contactUUID, ContactRecorder.RECORD_TYPE.BSSID).isEmpty());
 
         i.registerContactFrame(bandit, nzyme.getNodeID(), 0, "7C:75:5C:AF:E4:71", Optional.of("foo"));
-        assertEquals(i.findContacts().get(contactUUID).frameCount().longValue(), 1);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).get(contactUUID).frameCount().longValue(), 1);
 
         // Frame with no SSID should not change SSIDs but increase frame count.
         i.registerContactFrame(bandit, nzyme.getNodeID(), 0, "7C:75:5C:AF:E4:71", Optional.empty());
-        assertEquals(i.findContacts().get(contactUUID).frameCount().longValue(), 2);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).get(contactUUID).frameCount().longValue(), 2);
         i.registerContactFrame(bandit, nzyme.getNodeID(), 0,"7C:75:5C:AF:E4:71", Optional.of("bar"));
 
         i.registerContactFrame(bandit, nzyme.getNodeID(), 0, "7C:75:5C:AF:E4:71", Optional.of("foo"));
-        assertEquals(i.findContacts().get(contactUUID).frameCount().longValue(), 4);
+        assertEquals(i.findContacts(ContactManager.DEFAULT_CONTACTS_LIMIT, 0).get(contactUUID).frameCount().longValue(), 4);
     }
 
     @Test
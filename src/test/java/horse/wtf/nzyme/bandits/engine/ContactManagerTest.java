@@ -0,0 +1,164 @@
+package horse.wtf.nzyme.bandits.engine;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Table;
+import horse.wtf.nzyme.MockNzyme;
+import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.Role;
+import horse.wtf.nzyme.bandits.Bandit;
+import horse.wtf.nzyme.bandits.Contact;
+import org.joda.time.DateTime;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.testng.Assert.*;
+
+public class ContactManagerTest {
+
+    @BeforeMethod
+    public void cleanContacts() {
+        NzymeLeader nzyme = new MockNzyme();
+        nzyme.getDatabase().useHandle(handle -> handle.execute("DELETE FROM contacts;"));
+    }
+
+    @Test
+    public void testContactQueriesAreBounded() {
+        NzymeLeader nzyme = new MockNzyme();
+        ContactManager cm = nzyme.getContactManager();
+
+        List<Bandit> bandits = cm.getBanditList();
+        Bandit a = bandits.get(0);
+        Bandit b = bandits.get(1);
+
+        for (int i = 0; i < 5; i++) {
+            cm.registerContact(buildContact(a));
+        }
+        for (int i = 0; i < 2; i++) {
+            cm.registerContact(buildContact(b));
+        }
+
+        Map<Long, List<Contact>> contacts = cm.findContactsOfBandits(ImmutableList.of(a, b), 3);
+        assertEquals(contacts.get(a.databaseId()).size(), 3);
+        assertEquals(contacts.get(b.databaseId()).size(), 2);
+
+        assertEquals(cm.findContactsOfBandit(a, 2, 0).size(), 2);
+        assertEquals(cm.findContactsOfBandit(a, 2, 4).size(), 1);
+
+        assertEquals(cm.countActiveContacts(), 7);
+    }
+
+    @Test
+    public void testContactQueriesAreTimeBounded() {
+        NzymeLeader nzyme = new MockNzyme();
+        ContactManager cm = nzyme.getContactManager();
+        Bandit bandit = cm.getBanditList().get(0);
+
+        Contact recent = buildContact(bandit);
+        Contact old = buildContact(bandit);
+        cm.registerContact(recent);
+        cm.registerContact(old);
+
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("UPDATE contacts " +
+                        "SET last_seen = (current_timestamp at time zone 'UTC' - interval '2 hours') WHERE contact_uuid = :uuid")
+                .bind("uuid", old.uuid())
+                .execute()
+        );
+
+        assertEquals(cm.findContacts(60, 10, 0).keySet(), ImmutableSet.of(recent.uuid()));
+        assertEquals(cm.findContacts(180, 10, 0).size(), 2);
+        assertEquals(cm.findContacts(0, 10, 0).size(), 2);
+
+        assertEquals(cm.findContactsOfBandit(bandit, 60, 10, 0).size(), 1);
+        assertEquals(cm.findContactsOfBandit(bandit, 0, 10, 0).size(), 2);
+
+        assertEquals(cm.findContactsOfBandits(ImmutableList.of(bandit), 60, 10).get(bandit.databaseId()).size(), 1);
+        assertEquals(cm.findContactsOfBandits(ImmutableList.of(bandit), 0, 10).get(bandit.databaseId()).size(), 2);
+    }
+
+    @Test
+    public void testFindRecordValuesOfContacts() {
+        NzymeLeader nzyme = new MockNzyme();
+        ContactManager cm = nzyme.getContactManager();
+        Bandit bandit = cm.getBanditList().get(0);
+
+        Contact c1 = buildContact(bandit);
+        Contact c2 = buildContact(bandit);
+        cm.registerContact(c1);
+        cm.registerContact(c2);
+
+        insertRecord(nzyme, c1.uuid(), ContactRecorder.RECORD_TYPE.SSID, "foo", 10);
+        insertRecord(nzyme, c1.uuid(), ContactRecorder.RECORD_TYPE.SSID, "foo", 5);
+        insertRecord(nzyme, c1.uuid(), ContactRecorder.RECORD_TYPE.SSID, "bar", 1);
+        insertRecord(nzyme, c1.uuid(), ContactRecorder.RECORD_TYPE.BSSID, "6B:29:AF:99:17:20", 7);
+        insertRecord(nzyme, c2.uuid(), ContactRecorder.RECORD_TYPE.BSSID, "9A:87:13:D6:CA:F4", 3);
+
+        Table<UUID, ContactRecorder.RECORD_TYPE, List<ContactRecordAggregation>> records
+                = cm.findRecordValuesOfContacts(ImmutableList.of(c1.uuid(), c2.uuid()));
+
+        assertEquals(records.get(c1.uuid(), ContactRecorder.RECORD_TYPE.SSID), ImmutableList.of(
+                ContactRecordAggregation.create(15, "foo"),
+                ContactRecordAggregation.create(1, "bar")
+        ));
+        assertEquals(records.get(c1.uuid(), ContactRecorder.RECORD_TYPE.BSSID), ImmutableList.of(
+                ContactRecordAggregation.create(7, "6B:29:AF:99:17:20")
+        ));
+        assertNull(records.get(c2.uuid(), ContactRecorder.RECORD_TYPE.SSID));
+        assertEquals(records.get(c2.uuid(), ContactRecorder.RECORD_TYPE.BSSID).size(), 1);
+
+        assertTrue(cm.findRecordValuesOfContacts(ImmutableList.of()).isEmpty());
+    }
+
+    @Test
+    public void testQueryCountDoesNotDependOnNumberOfBandits() {
+        NzymeLeader nzyme = new MockNzyme();
+        assertTrue(nzyme.getContactManager().getBanditList().size() > 1);
+
+        // Fresh instance without cached bandits.
+        ContactManager cm = new ContactManager(nzyme);
+        long before = nzyme.getDatabase().getStatementCountOfCurrentThread();
+        cm.getBandits();
+        assertEquals(nzyme.getDatabase().getStatementCountOfCurrentThread() - before, 2);
+
+        Bandit bandit = cm.getBanditList().get(0);
+        Contact contact = buildContact(bandit);
+        cm.registerContact(contact);
+
+        before = nzyme.getDatabase().getStatementCountOfCurrentThread();
+        cm.registerContactFrame(bandit, "test", -50, "6B:29:AF:99:17:20", Optional.of("foo"));
+        assertEquals(nzyme.getDatabase().getStatementCountOfCurrentThread() - before, 1);
+        assertEquals((long) cm.findContactsOfBandit(bandit, 1, 0).get(0).frameCount(), 1L);
+    }
+
+    private Contact buildContact(Bandit bandit) {
+        return Contact.create(
+                UUID.randomUUID(),
+                DateTime.now(),
+                DateTime.now(),
+                0L,
+                Role.LEADER,
+                "test",
+                0,
+                bandit.databaseId(),
+                bandit
+        );
+    }
+
+    private void insertRecord(NzymeLeader nzyme, UUID contactUUID, ContactRecorder.RECORD_TYPE type, String value, long frameCount) {
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("INSERT INTO contact_records(contact_uuid, record_type, " +
+                "record_value, frame_count, rssi_average, rssi_stddev, created_at) " +
+                "VALUES(:contact_uuid, :record_type, :record_value, :frame_count, -50, 0, (current_timestamp at time zone 'UTC'))")
+                .bind("contact_uuid", contactUUID)
+                .bind("record_type", type)
+                .bind("record_value", value)
+                .bind("frame_count", frameCount)
+                .execute()
+        );
+    }
+
+}
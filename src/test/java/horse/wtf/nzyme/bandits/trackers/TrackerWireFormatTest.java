@@ -0,0 +1,198 @@
+package horse.wtf.nzyme.bandits.trackers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.InvalidProtocolBufferException;
+import horse.wtf.nzyme.bandits.trackers.protobuf.TrackerMessage;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.testng.Assert.*;
+
+public class TrackerWireFormatTest {
+
+    private static final long NOW = 1600000000000L;
+    private static final String BANDIT = "6b1fb2a4-45cb-4a80-bbd6-8a7b3e6f3f0e";
+
+    @Test
+    public void testContactStatusSize() {
+        TrackerWireFormat format = new TrackerWireFormat("tracker-1");
+        TrackerMessage.Wrapper status = contactStatus("tracker-1", BANDIT);
+
+        assertEquals(format.encodeLegacy(status).length, 63);
+
+        // Version byte, bundle timestamp and a contact status with binary UUID, numeric source and a 1.5s delta.
+        assertEquals(format.encodeCompact(ImmutableList.of(status), NOW).length, 43);
+    }
+
+    @Test
+    public void testBundleIsSmallerThanSingleFrames() {
+        TrackerWireFormat format = new TrackerWireFormat("leader");
+
+        List<TrackerMessage.Wrapper> messages = ImmutableList.of(
+                ping("leader", ""),
+                startTrackRequest("leader", "tracker-1", BANDIT),
+                cancelTrackRequest("leader", "tracker-2")
+        );
+
+        int legacy = 0;
+        for (TrackerMessage.Wrapper message : messages) {
+            legacy += format.encodeLegacy(message).length + 28; // Encryption overhead per frame.
+        }
+        int compact = format.encodeCompact(messages, NOW).length + 28;
+
+        assertEquals(legacy, 255);
+        assertEquals(compact, 175);
+    }
+
+    @Test
+    public void testRoundTrip() throws InvalidProtocolBufferException {
+        TrackerWireFormat leader = new TrackerWireFormat("leader");
+        TrackerWireFormat tracker = new TrackerWireFormat("tracker-1");
+
+        // Handshake. Both sides learn the node ID of the other side from its ping.
+        tracker.decode(leader.encodeLegacy(ping("leader", "")), NOW);
+        leader.decode(tracker.encodeLegacy(ping("tracker-1", BANDIT)), NOW);
+        assertTrue(leader.peersSupportCompact(NOW));
+        assertTrue(tracker.peersSupportCompact(NOW));
+
+        List<TrackerMessage.Wrapper> toTracker = ImmutableList.of(
+                ping("leader", ""),
+                startTrackRequest("leader", "tracker-1", BANDIT),
+                cancelTrackRequest("leader", "tracker-1")
+        );
+        assertEquals(tracker.decode(leader.encodeCompact(toTracker, NOW), NOW + 300), toTracker);
+
+        List<TrackerMessage.Wrapper> toLeader = ImmutableList.of(
+                ping("tracker-1", BANDIT),
+                contactStatus("tracker-1", BANDIT),
+                contactStatus("tracker-1", UUID.randomUUID().toString())
+        );
+        assertEquals(leader.decode(tracker.encodeCompact(toLeader, NOW), NOW + 300), toLeader);
+    }
+
+    @Test
+    public void testPingInBundleTeachesNodeId() throws InvalidProtocolBufferException {
+        TrackerWireFormat tracker = new TrackerWireFormat("tracker-1");
+        TrackerWireFormat leader = new TrackerWireFormat("leader");
+
+        // The tracker has not seen a ping of the leader yet. The ping in the same bundle is enough.
+        List<TrackerMessage.Wrapper> decoded = leader.decode(tracker.encodeCompact(ImmutableList.of(
+                contactStatus("tracker-1", BANDIT),
+                ping("tracker-1", "")
+        ), NOW), NOW);
+
+        assertEquals(decoded.get(0).getContactStatus().getSource(), "tracker-1");
+    }
+
+    @Test
+    public void testUnknownNodeResolvesToEmptyName() throws InvalidProtocolBufferException {
+        TrackerWireFormat leader = new TrackerWireFormat("leader");
+        TrackerWireFormat tracker = new TrackerWireFormat("tracker-1");
+
+        List<TrackerMessage.Wrapper> decoded = tracker.decode(leader.encodeCompact(ImmutableList.of(
+                startTrackRequest("leader", "tracker-1", BANDIT)
+        ), NOW), NOW);
+
+        assertEquals(decoded.get(0).getStartTrackRequest().getSource(), "");
+        assertEquals(decoded.get(0).getStartTrackRequest().getReceiver(), "tracker-1");
+    }
+
+    @Test
+    public void testNonUUIDsAreKeptAsStrings() throws InvalidProtocolBufferException {
+        TrackerWireFormat leader = new TrackerWireFormat("leader");
+        TrackerWireFormat tracker = new TrackerWireFormat("tracker-1");
+        tracker.decode(leader.encodeLegacy(ping("leader", "")), NOW);
+
+        List<TrackerMessage.Wrapper> messages = ImmutableList.of(startTrackRequest("leader", "tracker-1", "not-a-uuid"));
+        assertEquals(tracker.decode(leader.encodeCompact(messages, NOW), NOW), messages);
+    }
+
+    @Test
+    public void testLegacyPeerDisablesCompactFormat() throws InvalidProtocolBufferException {
+        TrackerWireFormat leader = new TrackerWireFormat("leader");
+        assertFalse(leader.peersSupportCompact(NOW));
+
+        leader.decode(ping("tracker-1", "").toByteArray(), NOW);
+        assertTrue(leader.peersSupportCompact(NOW));
+
+        // Old tracker without node ID and wire version.
+        leader.decode(TrackerMessage.Wrapper.newBuilder().setPing(TrackerMessage.Ping.newBuilder()
+                .setSource("tracker-old")
+                .setNodeType(TrackerMessage.Ping.NodeType.TRACKER)
+                .setVersion("1.0.0")
+        ).build().toByteArray(), NOW);
+        assertFalse(leader.peersSupportCompact(NOW + 1000));
+
+        // Old tracker disappeared.
+        leader.decode(ping("tracker-1", "").toByteArray(), NOW + 600_000);
+        assertTrue(leader.peersSupportCompact(NOW + 600_000));
+    }
+
+    @Test
+    public void testLegacyMessage() throws InvalidProtocolBufferException {
+        TrackerWireFormat format = new TrackerWireFormat("leader");
+        TrackerMessage.Wrapper status = contactStatus("tracker-1", BANDIT);
+
+        assertEquals(format.decode(status.toByteArray(), NOW), ImmutableList.of(status));
+    }
+
+    @Test(expectedExceptions = InvalidProtocolBufferException.class)
+    public void testUnsupportedVersion() throws InvalidProtocolBufferException {
+        new TrackerWireFormat("leader").decode(new byte[]{0x02, 0x08, 0x01}, NOW);
+    }
+
+    @Test
+    public void testEncodedLengthFollowsNegotiatedFormat() throws InvalidProtocolBufferException {
+        TrackerWireFormat leader = new TrackerWireFormat("leader");
+        TrackerMessage.Wrapper status = contactStatus("tracker-1", BANDIT);
+
+        assertEquals(leader.encodedLength(status, NOW), 63);
+
+        // Including tag and length inside the bundle.
+        leader.decode(ping("tracker-1", "").toByteArray(), NOW);
+        assertEquals(leader.encodedLength(status, NOW), 35);
+    }
+
+    private static TrackerMessage.Wrapper ping(String source, String trackingMode) {
+        return TrackerMessage.Wrapper.newBuilder().setPing(TrackerMessage.Ping.newBuilder()
+                .setSource(source)
+                .setNodeType(TrackerMessage.Ping.NodeType.TRACKER)
+                .setVersion("1.2.0")
+                .setTrackingMode(trackingMode)
+                .setNodeId(TrackerWireFormat.nodeId(source))
+                .setWireVersion(TrackerWireFormat.VERSION)
+        ).build();
+    }
+
+    private static TrackerMessage.Wrapper startTrackRequest(String source, String receiver, String uuid) {
+        return TrackerMessage.Wrapper.newBuilder().setStartTrackRequest(TrackerMessage.StartTrackRequest.newBuilder()
+                .setSource(source)
+                .setReceiver(receiver)
+                .setUuid(uuid)
+                .addIdentifier(TrackerMessage.ContactIdentifier.newBuilder()
+                        .setType("SSID")
+                        .setUuid(UUID.randomUUID().toString())
+                        .addConfiguration("{\"ssids\":[\"foo\"]}"))
+        ).build();
+    }
+
+    private static TrackerMessage.Wrapper cancelTrackRequest(String source, String receiver) {
+        return TrackerMessage.Wrapper.newBuilder().setCancelTrackRequest(TrackerMessage.CancelTrackRequest.newBuilder()
+                .setSource(source)
+                .setReceiver(receiver)
+        ).build();
+    }
+
+    private static TrackerMessage.Wrapper contactStatus(String source, String uuid) {
+        return TrackerMessage.Wrapper.newBuilder().setContactStatus(TrackerMessage.ContactStatus.newBuilder()
+                .setSource(source)
+                .setUuid(uuid)
+                .setRssi(-60)
+                .setLastSeen(NOW - 1500)
+                .setFrames(1000)
+        ).build();
+    }
+
+}
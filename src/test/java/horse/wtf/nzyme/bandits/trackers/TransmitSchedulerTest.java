@@ -0,0 +1,204 @@
+package horse.wtf.nzyme.bandits.trackers;
+
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.*;
+
+public class TransmitSchedulerTest {
+
+    // Roughly a LoRa link at 2400bps.
+    private static long airtime(int length) {
+        return length * 8L * 1000L / 2400L;
+    }
+
+    @Test
+    public void testPriorityOrder() {
+        TransmitScheduler<byte[]> scheduler = new TransmitScheduler<>(100, 100, b -> b.length, TransmitSchedulerTest::airtime, () -> 0L);
+
+        scheduler.offer(TransmitScheduler.Priority.PING, null, "ping".getBytes());
+        scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, null, "status".getBytes());
+        scheduler.offer(TransmitScheduler.Priority.TRACK_COMMAND, null, "start".getBytes());
+        scheduler.offer(TransmitScheduler.Priority.TRACK_COMMAND, null, "cancel".getBytes());
+
+        assertEquals(new String(scheduler.poll()), "start");
+        assertEquals(new String(scheduler.poll()), "cancel");
+        assertEquals(new String(scheduler.poll()), "status");
+        assertEquals(new String(scheduler.poll()), "ping");
+        assertNull(scheduler.poll());
+    }
+
+    @Test
+    public void testCoalescing() {
+        TransmitScheduler<byte[]> scheduler = new TransmitScheduler<>(100, 100, b -> b.length, TransmitSchedulerTest::airtime, () -> 0L);
+
+        scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, "contact-status:a", "a1".getBytes());
+        scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, "contact-status:b", "b1".getBytes());
+        scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, "contact-status:a", "a2".getBytes());
+        scheduler.offer(TransmitScheduler.Priority.PING, "ping", "p1".getBytes());
+        scheduler.offer(TransmitScheduler.Priority.PING, "ping", "p2".getBytes());
+        scheduler.offer(TransmitScheduler.Priority.PING, null, "other".getBytes());
+
+        assertEquals(scheduler.size(), 4);
+
+        // Newest payload, but at the position of the first one.
+        assertEquals(new String(scheduler.poll()), "a2");
+        assertEquals(new String(scheduler.poll()), "b1");
+        assertEquals(new String(scheduler.poll()), "p2");
+        assertEquals(new String(scheduler.poll()), "other");
+
+        // Sent messages are not coalesced with new ones anymore.
+        scheduler.offer(TransmitScheduler.Priority.PING, "ping", "p3".getBytes());
+        assertEquals(new String(scheduler.poll()), "p3");
+    }
+
+    @Test
+    public void testBundle() {
+        AtomicLong clock = new AtomicLong(0);
+        TransmitScheduler<byte[]> scheduler = new TransmitScheduler<>(100, 10, b -> b.length, TransmitSchedulerTest::airtime, clock::get);
+
+        scheduler.offer(TransmitScheduler.Priority.PING, null, new byte[50]);
+        scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, null, new byte[100]);
+        scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, null, new byte[100]);
+        scheduler.offer(TransmitScheduler.Priority.TRACK_COMMAND, null, new byte[40]);
+
+        // Highest priority first. Second status does not fit anymore but the ping does.
+        List<byte[]> bundle = scheduler.pollBundle(200);
+        assertEquals(bundle.size(), 3);
+        assertEquals(bundle.get(0).length, 40);
+        assertEquals(bundle.get(1).length, 100);
+        assertEquals(bundle.get(2).length, 50);
+
+        // Airtime is charged once for the whole frame.
+        assertEquals(scheduler.spentAirtimeMillis(), airtime(190));
+
+        // A single message is always returned, even if larger than the limit.
+        scheduler.offer(TransmitScheduler.Priority.PING, null, new byte[300]);
+        assertEquals(scheduler.pollBundle(200).get(0).length, 100);
+        assertEquals(scheduler.pollBundle(200).get(0).length, 300);
+        assertTrue(scheduler.pollBundle(200).isEmpty());
+    }
+
+    @Test
+    public void testFullQueueDropsLowestPriority() {
+        TransmitScheduler<byte[]> scheduler = new TransmitScheduler<>(2, 100, b -> b.length, TransmitSchedulerTest::airtime, () -> 0L);
+
+        assertTrue(scheduler.offer(TransmitScheduler.Priority.PING, null, "ping".getBytes()));
+        assertTrue(scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, null, "status".getBytes()));
+        assertTrue(scheduler.offer(TransmitScheduler.Priority.TRACK_COMMAND, null, "start".getBytes()));
+        assertFalse(scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, null, "status2".getBytes()));
+
+        assertEquals(scheduler.size(), 2);
+        assertEquals(new String(scheduler.poll()), "start");
+        assertEquals(new String(scheduler.poll()), "status");
+    }
+
+    @Test
+    public void testAirtimeBudget() {
+        AtomicLong clock = new AtomicLong(0);
+
+        // 10% of a minute are 6 seconds. 600 bytes are 2 seconds on air.
+        TransmitScheduler<byte[]> scheduler = new TransmitScheduler<>(100, 10, b -> b.length, TransmitSchedulerTest::airtime, clock::get);
+        for (int i = 0; i < 5; i++) {
+            scheduler.offer(TransmitScheduler.Priority.PING, null, new byte[600]);
+        }
+
+        assertNotNull(scheduler.poll());
+        assertNotNull(scheduler.poll());
+        assertNotNull(scheduler.poll());
+        assertNull(scheduler.poll());
+        assertEquals(scheduler.spentAirtimeMillis(), 6000);
+
+        clock.set(TransmitScheduler.BUDGET_WINDOW_MILLIS);
+        assertEquals(scheduler.spentAirtimeMillis(), 0);
+        assertNotNull(scheduler.poll());
+        assertNotNull(scheduler.poll());
+        assertNull(scheduler.poll());
+    }
+
+    @Test
+    public void testSimulatedSlowLink() {
+        AtomicLong clock = new AtomicLong(0);
+        TransmitScheduler<byte[]> scheduler = new TransmitScheduler<>(100, 25, b -> b.length, TransmitSchedulerTest::airtime, clock::get);
+
+        List<String> sent = Lists.newArrayList();
+        List<long[]> transmissions = Lists.newArrayList();
+        long linkBusyUntil = 0;
+        long trackCommandQueuedAt = -1;
+        long trackCommandSentAt = -1;
+
+        // 10 minutes in steps of 100ms.
+        for (long now = 0; now < 600_000; now += 100) {
+            clock.set(now);
+
+            if (now % 5000 == 0) {
+                scheduler.offer(TransmitScheduler.Priority.PING, "ping", ("ping-" + now).getBytes());
+            }
+
+            // Two trackers report every second, which is much more than the link can carry.
+            if (now % 1000 == 0) {
+                for (String bandit : new String[]{"a", "b"}) {
+                    byte[] status = new byte[80];
+                    byte[] label = ("status-" + bandit + "-" + now).getBytes();
+                    System.arraycopy(label, 0, status, 0, label.length);
+                    scheduler.offer(TransmitScheduler.Priority.CONTACT_STATUS, "contact-status:" + bandit, status);
+                }
+            }
+
+            if (now == 300_050 - 50) {
+                scheduler.offer(TransmitScheduler.Priority.TRACK_COMMAND, "start-track:t1:x", "start-track".getBytes());
+                trackCommandQueuedAt = now;
+            }
+
+            if (now < linkBusyUntil) {
+                continue;
+            }
+
+            byte[] next = scheduler.poll();
+            if (next != null) {
+                String message = new String(next).trim();
+                sent.add(message);
+                transmissions.add(new long[]{now, airtime(next.length)});
+                linkBusyUntil = now + airtime(next.length);
+
+                if (message.equals("start-track")) {
+                    trackCommandSentAt = now;
+                }
+            }
+        }
+
+        // Track command goes out with the next free slot of the link.
+        assertTrue(trackCommandSentAt >= trackCommandQueuedAt);
+        assertTrue(trackCommandSentAt - trackCommandQueuedAt <= 60_000);
+
+        // Superseded status updates are coalesced and the queue does not grow.
+        long statuses = sent.stream().filter(s -> s.startsWith("status-")).count();
+        assertTrue(statuses < 1200, "Sent " + statuses + " status updates.");
+        assertTrue(scheduler.size() <= 3);
+
+        // Only the newest status of a bandit is sent, so timestamps never go backwards.
+        long lastA = -1;
+        for (String s : sent) {
+            if (s.startsWith("status-a-")) {
+                long ts = Long.parseLong(s.substring("status-a-".length()).replace("\u0000", ""));
+                assertTrue(ts > lastA);
+                lastA = ts;
+            }
+        }
+
+        // Airtime in every window stays within the budget.
+        for (long[] start : transmissions) {
+            long used = 0;
+            for (long[] t : transmissions) {
+                if (t[0] >= start[0] && t[0] < start[0] + TransmitScheduler.BUDGET_WINDOW_MILLIS) {
+                    used += t[1];
+                }
+            }
+            assertTrue(used <= TransmitScheduler.BUDGET_WINDOW_MILLIS / 4, "Used " + used + "ms.");
+        }
+    }
+
+}
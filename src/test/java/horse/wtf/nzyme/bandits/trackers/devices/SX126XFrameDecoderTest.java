@@ -0,0 +1,132 @@
+package horse.wtf.nzyme.bandits.trackers.devices;
+
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public class SX126XFrameDecoderTest {
+
+    @Test
+    public void testSingleFrame() {
+        Recorder recorder = new Recorder();
+        SX126XFrameDecoder decoder = new SX126XFrameDecoder(4096, recorder);
+
+        byte[] stream = air(new byte[][]{{0x01, 0x02, 0x03}}, 180);
+        decoder.feed(stream, 0, stream.length);
+
+        assertEquals(recorder.frames.size(), 1);
+        assertEquals(recorder.frames.get(0), new byte[]{0x01, 0x02, 0x03});
+        assertEquals((int) recorder.rssis.get(0), 180);
+    }
+
+    @Test
+    public void testPayloadNulBytesArePreserved() {
+        Recorder recorder = new Recorder();
+        SX126XFrameDecoder decoder = new SX126XFrameDecoder(4096, recorder);
+
+        byte[] frame = new byte[]{0x00, 0x01, 0x00, 0x00, 0x02, 0x03, 0x00};
+        byte[] stream = air(new byte[][]{frame}, 200);
+        decoder.feed(stream, 0, stream.length);
+
+        assertEquals(recorder.frames.size(), 1);
+        assertEquals(recorder.frames.get(0), frame);
+    }
+
+    @Test
+    public void testMultiPacketFramesWithArbitraryChunking() {
+        Random random = new Random(42);
+
+        byte[][] frames = new byte[][]{
+                randomFrame(random, 10),
+                randomFrame(random, 237), // Terminator spans the packet boundary.
+                randomFrame(random, 240),
+                randomFrame(random, 700),
+                new byte[]{0x05, 0x00, 0x00}, // Trailing NUL bytes.
+                randomFrame(random, 1)
+        };
+        byte[] stream = air(frames, 150);
+
+        for (int run = 0; run < 50; run++) {
+            Recorder recorder = new Recorder();
+            SX126XFrameDecoder decoder = new SX126XFrameDecoder(4096, recorder);
+
+            int position = 0;
+            while (position < stream.length) {
+                int length = Math.min(1 + random.nextInt(run % 2 == 0 ? 5 : 300), stream.length - position);
+                decoder.feed(stream, position, length);
+                position += length;
+            }
+
+            assertEquals(recorder.frames.size(), frames.length);
+            for (int i = 0; i < frames.length; i++) {
+                assertEquals(recorder.frames.get(i), frames[i]);
+                assertEquals((int) recorder.rssis.get(i), 150);
+            }
+        }
+    }
+
+    @Test
+    public void testOversizedFrameIsDropped() {
+        Random random = new Random(7);
+        Recorder recorder = new Recorder();
+        SX126XFrameDecoder decoder = new SX126XFrameDecoder(100, recorder);
+
+        byte[] small = randomFrame(random, 50);
+        byte[] stream = air(new byte[][]{randomFrame(random, 101), small}, 150);
+        decoder.feed(stream, 0, stream.length);
+
+        assertEquals(recorder.frames.size(), 1);
+        assertEquals(recorder.frames.get(0), small);
+    }
+
+    /**
+     * What the HAT emits when receiving the given frames: Every frame is terminated, split into packets and every
+     * packet is followed by an RSSI byte.
+     */
+    public static byte[] air(byte[][] frames, int rssi) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for (byte[] frame : frames) {
+            byte[] terminated = new byte[frame.length + SX126XFrameDecoder.TERMINATOR_LENGTH];
+            System.arraycopy(frame, 0, terminated, 0, frame.length);
+
+            for (int i = 0; i < terminated.length; i++) {
+                out.write(terminated[i]);
+
+                if ((i + 1) % SX126XFrameDecoder.PACKET_SIZE == 0 || i == terminated.length - 1) {
+                    out.write(rssi);
+                }
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+    private static byte[] randomFrame(Random random, int length) {
+        byte[] frame = new byte[length];
+        for (int i = 0; i < length; i++) {
+            // No NUL bytes at all to not produce accidental terminators.
+            frame[i] = (byte) (1 + random.nextInt(255));
+        }
+        return frame;
+    }
+
+    private static class Recorder implements SX126XFrameDecoder.FrameHandler {
+
+        private final List<byte[]> frames = Lists.newArrayList();
+        private final List<Integer> rssis = Lists.newArrayList();
+
+        @Override
+        public void onFrame(byte[] frame, int rssi) {
+            frames.add(frame);
+            rssis.add(rssi);
+        }
+
+    }
+
+}
@@ -0,0 +1,179 @@
+package horse.wtf.nzyme.bandits.trackers.devices;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Strings;
+import com.google.protobuf.InvalidProtocolBufferException;
+import horse.wtf.nzyme.bandits.trackers.protobuf.TrackerMessage;
+import horse.wtf.nzyme.security.transport.TransportEncryption;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.*;
+
+public class SX126XLoRaHatTest {
+
+    private static final String KEY = "Gah6ieThaixei7Ohzu2ahch7ahba0Ish";
+
+    @Test
+    public void testReceiveWithArbitraryChunking() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        FakeSerialConnection port = new FakeSerialConnection();
+        SX126XLoRaHat hat = new SX126XLoRaHat(port, scheduler(new AtomicLong()), KEY,
+                metrics.counter("rx"), metrics.counter("tx"), metrics.timer("enc"));
+
+        List<TrackerMessage.Wrapper> received = new CopyOnWriteArrayList<>();
+        List<Integer> rssis = new CopyOnWriteArrayList<>();
+        hat.onPayloadReceived((payload, rssi) -> {
+            try {
+                received.add(TrackerMessage.Wrapper.parseFrom(payload));
+                rssis.add(rssi);
+            } catch (InvalidProtocolBufferException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        hat.initialize();
+        Executors.newSingleThreadExecutor().submit(hat::readLoop);
+
+        TrackerMessage.Wrapper small = ping("tracker-1", "1.0.0");
+        TrackerMessage.Wrapper large = ping("tracker-2", Strings.repeat("x", 600));
+
+        TransportEncryption encryption = new TransportEncryption(KEY);
+        byte[][] frames = new byte[][]{
+                encryption.encrypt(small.toByteArray()),
+                encryption.encrypt(small.toByteArray()),
+                new byte[]{0x01, 0x02, 0x03}, // Noise. Dropped.
+                encryption.encrypt(large.toByteArray()),
+                encryption.encrypt(small.toByteArray())
+        };
+
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            recording.write(SX126XFrameDecoderTest.air(new byte[][]{frame}, 190));
+        }
+        byte[] stream = recording.toByteArray();
+
+        Random random = new Random(1);
+        int position = 0;
+        while (position < stream.length) {
+            int length = Math.min(1 + random.nextInt(64), stream.length - position);
+            byte[] chunk = new byte[length];
+            System.arraycopy(stream, position, chunk, 0, length);
+            port.listener.onData(chunk);
+            position += length;
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (received.size() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        hat.stop();
+
+        assertEquals(received.size(), 4);
+        assertEquals(received.get(0), small);
+        assertEquals(received.get(1), small);
+        assertEquals(received.get(2), large);
+        assertEquals(received.get(3), small);
+        assertEquals((int) rssis.get(2), 190);
+    }
+
+    @Test
+    public void testTransmitFraming() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        FakeSerialConnection port = new FakeSerialConnection();
+        SX126XLoRaHat hat = new SX126XLoRaHat(port, scheduler(new AtomicLong()), KEY,
+                metrics.counter("rx"), metrics.counter("tx"), metrics.timer("enc"));
+        hat.onPayloadReceived((payload, rssi) -> { });
+        hat.initialize();
+
+        TrackerMessage.Wrapper message = ping("leader", "1.0.0");
+        hat.transmit(message.toByteArray());
+
+        assertEquals(port.written.size(), 1);
+        byte[] written = port.written.get(0);
+        for (int i = 1; i <= SX126XFrameDecoder.TERMINATOR_LENGTH; i++) {
+            assertEquals(written[written.length - i], 0x00);
+        }
+
+        byte[] encrypted = new byte[written.length - SX126XFrameDecoder.TERMINATOR_LENGTH];
+        System.arraycopy(written, 0, encrypted, 0, encrypted.length);
+        assertEquals(TrackerMessage.Wrapper.parseFrom(new TransportEncryption(KEY).decrypt(encrypted)), message);
+        assertEquals(metrics.counter("tx").getCount(), written.length);
+    }
+
+    @Test
+    public void testDutyCycle() {
+        AtomicLong clock = new AtomicLong(10000);
+        DutyCycleScheduler scheduler = new DutyCycleScheduler(0.25, 2400, 50, clock::get);
+
+        assertEquals(scheduler.delayMillis(), 0);
+
+        // 120 bytes at 2400bps are 400ms on air plus overhead. 25% duty cycle.
+        assertEquals(scheduler.airtimeMillis(120), 450);
+        scheduler.transmitted(120);
+        assertEquals(scheduler.delayMillis(), 1800);
+
+        clock.addAndGet(1000);
+        assertEquals(scheduler.delayMillis(), 800);
+
+        clock.addAndGet(800);
+        assertEquals(scheduler.delayMillis(), 0);
+
+        // Short messages are followed by a shorter pause.
+        scheduler.transmitted(30);
+        assertEquals(scheduler.delayMillis(), 600);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidDutyCycle() {
+        new DutyCycleScheduler(0, 2400, 50, System::currentTimeMillis);
+    }
+
+    private static DutyCycleScheduler scheduler(AtomicLong clock) {
+        return new DutyCycleScheduler(1.0, 2400, 0, clock::get);
+    }
+
+    private static TrackerMessage.Wrapper ping(String source, String version) {
+        return TrackerMessage.Wrapper.newBuilder()
+                .setPing(TrackerMessage.Ping.newBuilder()
+                        .setSource(source)
+                        .setVersion(version)
+                        .setNodeType(TrackerMessage.Ping.NodeType.TRACKER)
+                        .build())
+                .build();
+    }
+
+    private static class FakeSerialConnection implements SerialConnection {
+
+        private final List<byte[]> written = new CopyOnWriteArrayList<>();
+        private volatile DataListener listener;
+
+        @Override
+        public void open(DataListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(byte[] data) {
+            written.add(data);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return listener != null;
+        }
+
+        @Override
+        public void close() {
+            listener = null;
+        }
+
+    }
+
+}
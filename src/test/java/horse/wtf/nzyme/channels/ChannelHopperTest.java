@@ -0,0 +1,193 @@
+package horse.wtf.nzyme.channels;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import horse.wtf.nzyme.dot11.probes.Dot11Probe;
+import horse.wtf.nzyme.dot11.probes.Dot11ProbeConfiguration;
+import horse.wtf.nzyme.util.MetricNames;
+import org.joda.time.DateTime;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class ChannelHopperTest {
+
+    @Test
+    public void testNetlinkIsUsedFirst() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        RecordingSwitcher netlink = new RecordingSwitcher(false);
+        RecordingSwitcher command = new RecordingSwitcher(false);
+
+        Dot11ProbeConfiguration configuration = configuration();
+        ChannelHopper hopper = new ChannelHopper(new InLoopProbe(configuration, metrics), configuration, metrics, netlink, command);
+        CountDownLatch switched = new CountDownLatch(1);
+        hopper.onChannelSwitch((previous, current) -> switched.countDown());
+        hopper.initialize();
+
+        assertTrue(switched.await(5, TimeUnit.SECONDS));
+        assertEquals(netlink.switches.size(), 1);
+        assertTrue(command.switches.isEmpty());
+        assertEquals((int) hopper.getCurrentChannel(), 6);
+        assertEquals(metrics.timer(MetricRegistry.name(MetricNames.CHANNEL_SWITCH_TIMING, "test")).getCount(), 1);
+    }
+
+    @Test
+    public void testFallbackToCommandAfterNetlinkFailure() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        RecordingSwitcher netlink = new RecordingSwitcher(true);
+        RecordingSwitcher command = new RecordingSwitcher(false);
+
+        Dot11ProbeConfiguration configuration = configuration();
+        ChannelHopper hopper = new ChannelHopper(new InLoopProbe(configuration, metrics), configuration, metrics, netlink, command);
+        CountDownLatch switched = new CountDownLatch(2);
+        hopper.onChannelSwitch((previous, current) -> switched.countDown());
+        hopper.initialize();
+
+        assertTrue(switched.await(5, TimeUnit.SECONDS));
+
+        // Netlink tried once and never again.
+        assertEquals(netlink.switches.size(), 1);
+        assertTrue(netlink.closed);
+        assertEquals(command.switches.size(), 2);
+        assertEquals(metrics.timer(MetricRegistry.name(MetricNames.CHANNEL_SWITCH_TIMING, "test")).getCount(), 2);
+    }
+
+    @Test
+    public void testNetlinkIsKeptAfterChannelFailure() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        RecordingSwitcher netlink = new RecordingSwitcher(false, 1);
+        RecordingSwitcher command = new RecordingSwitcher(false);
+
+        Dot11ProbeConfiguration configuration = configuration();
+        ChannelHopper hopper = new ChannelHopper(new InLoopProbe(configuration, metrics), configuration, metrics, netlink, command);
+        CountDownLatch switched = new CountDownLatch(2);
+        hopper.onChannelSwitch((previous, current) -> switched.countDown());
+        hopper.initialize();
+
+        // Hops to 6, 1 (rejected) and 6 again.
+        assertTrue(switched.await(5, TimeUnit.SECONDS));
+
+        assertEquals(netlink.switches.size(), 3);
+        assertEquals((int) netlink.switches.get(1), 1);
+        assertTrue(command.switches.isEmpty());
+        assertFalse(netlink.closed);
+        assertEquals(metrics.timer(MetricRegistry.name(MetricNames.CHANNEL_SWITCH_TIMING, "test")).getCount(), 2);
+    }
+
+    @Test
+    public void testFailedSwitchIsNotTimed() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        RecordingSwitcher command = new RecordingSwitcher(true);
+
+        Dot11ProbeConfiguration configuration = configuration();
+        ChannelHopper hopper = new ChannelHopper(new InLoopProbe(configuration, metrics), configuration, metrics, null, command);
+        hopper.initialize();
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (command.switches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertFalse(command.switches.isEmpty());
+        assertEquals((int) hopper.getCurrentChannel(), 0);
+        assertEquals(metrics.timer(MetricRegistry.name(MetricNames.CHANNEL_SWITCH_TIMING, "test")).getCount(), 0);
+    }
+
+    private static Dot11ProbeConfiguration configuration() {
+        // Hop interval is in seconds. The first hop happens immediately, the second one after 1 second.
+        return Dot11ProbeConfiguration.create(
+                "test",
+                ImmutableList.of(),
+                "test",
+                "wlan0",
+                ImmutableList.of(1, 6),
+                1,
+                "echo {interface} {channel}",
+                true,
+                60,
+                false,
+                true,
+                ImmutableList.of(),
+                ImmutableList.of()
+        );
+    }
+
+    private static class RecordingSwitcher implements ChannelSwitcher {
+
+        private final boolean fail;
+        private final int rejectedChannel;
+        private final List<Integer> switches = new CopyOnWriteArrayList<>();
+        private volatile boolean closed = false;
+
+        private RecordingSwitcher(boolean fail) {
+            this(fail, 0);
+        }
+
+        private RecordingSwitcher(boolean fail, int rejectedChannel) {
+            this.fail = fail;
+            this.rejectedChannel = rejectedChannel;
+        }
+
+        @Override
+        public void switchChannel(String networkInterface, int channel) throws ChannelSwitchException {
+            switches.add(channel);
+
+            if (fail) {
+                throw new ChannelSwitchException("Operation not permitted.", true);
+            }
+
+            if (channel == rejectedChannel) {
+                throw new ChannelSwitchException("Invalid argument.");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+    }
+
+    private static class InLoopProbe extends Dot11Probe {
+
+        private InLoopProbe(Dot11ProbeConfiguration configuration, MetricRegistry metrics) {
+            super(configuration, metrics);
+        }
+
+        @Override
+        public void initialize() {
+        }
+
+        @Override
+        public Runnable loop() {
+            return () -> { };
+        }
+
+        @Override
+        public boolean isInLoop() {
+            return true;
+        }
+
+        @Override
+        public Integer getCurrentChannel() {
+            return 0;
+        }
+
+        @Override
+        public Long getTotalFrames() {
+            return 0L;
+        }
+
+        @Override
+        public DateTime getMostRecentFrameTimestamp() {
+            return null;
+        }
+
+    }
+
+}
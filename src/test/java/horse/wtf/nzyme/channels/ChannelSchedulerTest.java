@@ -0,0 +1,168 @@
+package horse.wtf.nzyme.channels;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class ChannelSchedulerTest {
+
+    private static final List<Integer> CHANNELS = ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+    private static final long BASE_DWELL = 1000;
+
+    @Test
+    public void testStaticWithoutTraffic() {
+        ChannelScheduler scheduler = new ChannelScheduler(CHANNELS, BASE_DWELL, ImmutableSet.of(), ImmutableSet.of());
+
+        for (int round = 0; round < 3; round++) {
+            for (Integer channel : CHANNELS) {
+                Hop hop = scheduler.next();
+                assertEquals(hop.channel(), (int) channel);
+                assertEquals(hop.dwellMillis(), BASE_DWELL);
+            }
+        }
+    }
+
+    @Test
+    public void testDwellFollowsTraffic() {
+        ChannelScheduler scheduler = new ChannelScheduler(CHANNELS, BASE_DWELL, ImmutableSet.of(), ImmutableSet.of());
+
+        // Frames per second and number of BSSIDs on each channel. Everything else is empty.
+        Map<Integer, Integer> rates = ImmutableMap.of(1, 200, 6, 800, 11, 100);
+        Map<Integer, Integer> bssids = ImmutableMap.of(1, 5, 6, 20, 11, 3);
+
+        SimulatedSwitchHandler handler = simulate(scheduler, 300, rates, bssids, ImmutableMap.of());
+
+        long busy = handler.dwell.get(6);
+        long empty = handler.dwell.get(2);
+        assertTrue(busy > empty * 3, "busy: " + busy + ", empty: " + empty);
+        assertTrue(handler.dwell.get(6) > handler.dwell.get(1));
+        assertTrue(handler.dwell.get(1) > handler.dwell.get(11));
+
+        // Dwell limits.
+        assertTrue(scheduler.dwellMillis(6) <= BASE_DWELL * ChannelScheduler.MAX_DWELL_FACTOR);
+        assertTrue(scheduler.dwellMillis(2) >= BASE_DWELL * ChannelScheduler.MIN_DWELL_FACTOR);
+
+        // Every channel is still visited in every round.
+        long maxRevisit = (long) ((CHANNELS.size() - 1) * BASE_DWELL * ChannelScheduler.MAX_DWELL_FACTOR);
+        for (Integer channel : CHANNELS) {
+            assertTrue(handler.maxRevisitMillis.get(channel) <= maxRevisit,
+                    "channel " + channel + ": " + handler.maxRevisitMillis.get(channel));
+            assertTrue(handler.visits.get(channel) >= 300 / CHANNELS.size());
+        }
+    }
+
+    @Test
+    public void testAdaptsWhenTrafficMoves() {
+        ChannelScheduler scheduler = new ChannelScheduler(CHANNELS, BASE_DWELL, ImmutableSet.of(), ImmutableSet.of());
+
+        simulate(scheduler, 110, ImmutableMap.of(1, 500), ImmutableMap.of(1, 10), ImmutableMap.of());
+        assertTrue(scheduler.dwellMillis(1) > scheduler.dwellMillis(11));
+
+        simulate(scheduler, 220, ImmutableMap.of(11, 500), ImmutableMap.of(11, 10), ImmutableMap.of());
+        assertTrue(scheduler.dwellMillis(11) > scheduler.dwellMillis(1));
+    }
+
+    @Test
+    public void testMonitoredNetworks() {
+        ChannelScheduler scheduler = new ChannelScheduler(CHANNELS, BASE_DWELL, ImmutableSet.of("00:c0:ca:95:68:3b"), ImmutableSet.of(9));
+
+        // Configured channel of a monitored network.
+        assertTrue(scheduler.dwellMillis(9) > scheduler.dwellMillis(2));
+
+        // Monitored BSSID observed on a quiet channel. Same traffic as channel 4.
+        simulate(scheduler, 110,
+                ImmutableMap.of(3, 5, 4, 5),
+                ImmutableMap.of(3, 1, 4, 1),
+                ImmutableMap.of(3, "00:c0:ca:95:68:3b"));
+
+        assertTrue(scheduler.dwellMillis(3) > scheduler.dwellMillis(4));
+
+        // Monitored BSSID is gone. Channel is treated like any other again after a few visits.
+        simulate(scheduler, 110,
+                ImmutableMap.of(3, 5, 4, 5),
+                ImmutableMap.of(3, 1, 4, 1),
+                ImmutableMap.of());
+
+        assertEquals(scheduler.dwellMillis(3), scheduler.dwellMillis(4), scheduler.dwellMillis(4) * 0.1);
+    }
+
+    @Test
+    public void testFramesOfUnknownChannelsAreIgnored() {
+        ChannelScheduler scheduler = new ChannelScheduler(ImmutableList.of(1, 6), BASE_DWELL, ImmutableSet.of(), ImmutableSet.of());
+
+        scheduler.next();
+        scheduler.recordFrame(36, "00:c0:ca:95:68:3b");
+        scheduler.next();
+        scheduler.next();
+
+        assertEquals(scheduler.dwellMillis(1), BASE_DWELL);
+        assertEquals(scheduler.dwellMillis(6), BASE_DWELL);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNoChannels() {
+        new ChannelScheduler(ImmutableList.of(), BASE_DWELL, ImmutableSet.of(), ImmutableSet.of());
+    }
+
+    /**
+     * Hops through the scheduler on a simulated clock and generates synthetic frames on every channel it switches to.
+     */
+    private SimulatedSwitchHandler simulate(ChannelScheduler scheduler, int hops, Map<Integer, Integer> frameRates,
+                                            Map<Integer, Integer> bssidCounts, Map<Integer, String> monitoredBSSIDs) {
+        SimulatedSwitchHandler handler = new SimulatedSwitchHandler();
+
+        int previousChannel = 0;
+        for (int i = 0; i < hops; i++) {
+            Hop hop = scheduler.next();
+            handler.handle(previousChannel, hop.channel(), hop.dwellMillis());
+
+            int frames = (int) (frameRates.getOrDefault(hop.channel(), 0) * hop.dwellMillis() / 1000);
+            int bssids = bssidCounts.getOrDefault(hop.channel(), 0);
+            for (int f = 0; f < frames; f++) {
+                String bssid = bssids == 0 ? null : "02:00:00:00:" + String.format("%02x:%02x", hop.channel(), f % bssids);
+                if (f == 0 && monitoredBSSIDs.containsKey(hop.channel())) {
+                    bssid = monitoredBSSIDs.get(hop.channel());
+                }
+                scheduler.recordFrame(hop.channel(), bssid);
+            }
+
+            previousChannel = hop.channel();
+        }
+
+        return handler;
+    }
+
+    private static class SimulatedSwitchHandler {
+
+        private final Map<Integer, Long> dwell = Maps.newHashMap();
+        private final Map<Integer, Integer> visits = Maps.newHashMap();
+        private final Map<Integer, Long> lastVisit = Maps.newHashMap();
+        private final Map<Integer, Long> maxRevisitMillis = Maps.newHashMap();
+
+        private long clock = 0;
+
+        private void handle(int previousChannel, int newChannel, long dwellMillis) {
+            Long last = lastVisit.get(newChannel);
+            if (last != null) {
+                maxRevisitMillis.merge(newChannel, clock - last, Math::max);
+            } else {
+                maxRevisitMillis.put(newChannel, 0L);
+            }
+
+            dwell.merge(newChannel, dwellMillis, Long::sum);
+            visits.merge(newChannel, 1, Integer::sum);
+
+            clock += dwellMillis;
+            lastVisit.put(newChannel, clock);
+        }
+
+    }
+
+}
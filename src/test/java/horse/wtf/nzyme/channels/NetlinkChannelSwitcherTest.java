@@ -0,0 +1,31 @@
+package horse.wtf.nzyme.channels;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.testng.Assert.*;
+
+public class NetlinkChannelSwitcherTest {
+
+    @Test
+    public void testTimeval64() {
+        ByteBuffer buf = ByteBuffer.wrap(NetlinkChannelSwitcher.timeval(2500, 8, ByteOrder.LITTLE_ENDIAN))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(buf.remaining(), 16);
+        assertEquals(buf.getLong(), 2);
+        assertEquals(buf.getLong(), 500000);
+    }
+
+    @Test
+    public void testTimeval32() {
+        ByteBuffer buf = ByteBuffer.wrap(NetlinkChannelSwitcher.timeval(1000, 4, ByteOrder.BIG_ENDIAN));
+
+        assertEquals(buf.remaining(), 8);
+        assertEquals(buf.getInt(), 1);
+        assertEquals(buf.getInt(), 0);
+    }
+
+}
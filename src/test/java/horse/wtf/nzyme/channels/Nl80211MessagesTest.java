@@ -0,0 +1,166 @@
+package horse.wtf.nzyme.channels;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.testng.Assert.*;
+
+public class Nl80211MessagesTest {
+
+    @Test
+    public void testGetFamilyRequest() {
+        byte[] msg = Nl80211Messages.getFamilyRequest(7, "nl80211");
+        ByteBuffer buf = ByteBuffer.wrap(msg).order(ByteOrder.nativeOrder());
+
+        // 16 header + 4 genl header + 4 attribute header + "nl80211\0"
+        assertEquals(msg.length, 32);
+        assertEquals(buf.getInt(), 32);
+        assertEquals(buf.getShort(), Nl80211Messages.GENL_ID_CTRL);
+        assertEquals(buf.getShort(), Nl80211Messages.NLM_F_REQUEST);
+        assertEquals(buf.getInt(), 7);
+        assertEquals(buf.getInt(), 0);
+
+        assertEquals(buf.get(), Nl80211Messages.CTRL_CMD_GETFAMILY);
+        assertEquals(buf.get(), 1);
+        assertEquals(buf.getShort(), 0);
+
+        assertEquals(buf.getShort(), 12);
+        assertEquals(buf.getShort(), Nl80211Messages.CTRL_ATTR_FAMILY_NAME);
+        byte[] name = new byte[8];
+        buf.get(name);
+        assertEquals(name, new byte[]{'n', 'l', '8', '0', '2', '1', '1', 0});
+    }
+
+    @Test
+    public void testFamilyNameIsPadded() {
+        // "abc\0" is aligned already. "abcd\0" needs 3 bytes of padding.
+        assertEquals(Nl80211Messages.getFamilyRequest(1, "abc").length, 28);
+        assertEquals(Nl80211Messages.getFamilyRequest(1, "abcd").length, 32);
+    }
+
+    @Test
+    public void testSetFrequencyRequest() {
+        byte[] msg = Nl80211Messages.setFrequencyRequest((short) 28, 42, 5, 2437);
+        ByteBuffer buf = ByteBuffer.wrap(msg).order(ByteOrder.nativeOrder());
+
+        assertEquals(msg.length, 44);
+        assertEquals(buf.getInt(), 44);
+        assertEquals(buf.getShort(), 28);
+        assertEquals(buf.getShort(), Nl80211Messages.NLM_F_REQUEST | Nl80211Messages.NLM_F_ACK);
+        assertEquals(buf.getInt(), 42);
+        assertEquals(buf.getInt(), 0);
+
+        assertEquals(buf.get(), Nl80211Messages.NL80211_CMD_SET_WIPHY);
+        assertEquals(buf.get(), 0);
+        assertEquals(buf.getShort(), 0);
+
+        assertU32Attribute(buf, Nl80211Messages.NL80211_ATTR_IFINDEX, 5);
+        assertU32Attribute(buf, Nl80211Messages.NL80211_ATTR_WIPHY_FREQ, 2437);
+        assertU32Attribute(buf, Nl80211Messages.NL80211_ATTR_WIPHY_CHANNEL_TYPE, Nl80211Messages.NL80211_CHAN_NO_HT);
+        assertFalse(buf.hasRemaining());
+    }
+
+    @Test
+    public void testParseFamilyId() throws ChannelSwitchException {
+        ByteBuffer buf = ByteBuffer.allocate(256).order(ByteOrder.nativeOrder());
+        int start = header(buf, Nl80211Messages.GENL_ID_CTRL, 3);
+        buf.put((byte) 1).put((byte) 2).putShort((short) 0);
+
+        // Family name first, then the ID. Name is 8 bytes and needs no padding.
+        buf.putShort((short) 12).putShort(Nl80211Messages.CTRL_ATTR_FAMILY_NAME);
+        buf.put(new byte[]{'n', 'l', '8', '0', '2', '1', '1', 0});
+        buf.putShort((short) 6).putShort(Nl80211Messages.CTRL_ATTR_FAMILY_ID).putShort((short) 28).putShort((short) 0);
+        int length = finish(buf, start);
+
+        assertEquals(Nl80211Messages.parseFamilyId(buf.array(), length, 3), 28);
+    }
+
+    @Test(expectedExceptions = ChannelSwitchException.class)
+    public void testParseFamilyIdError() throws ChannelSwitchException {
+        ByteBuffer buf = ByteBuffer.allocate(256).order(ByteOrder.nativeOrder());
+        int start = header(buf, Nl80211Messages.NLMSG_ERROR, 3);
+        buf.putInt(-2); // ENOENT
+        int length = finish(buf, start);
+
+        Nl80211Messages.parseFamilyId(buf.array(), length, 3);
+    }
+
+    @Test
+    public void testParseAck() throws ChannelSwitchException {
+        ByteBuffer buf = ByteBuffer.allocate(256).order(ByteOrder.nativeOrder());
+
+        // ACK of an older request first.
+        int start = header(buf, Nl80211Messages.NLMSG_ERROR, 1);
+        buf.putInt(-16);
+        finish(buf, start);
+
+        start = header(buf, Nl80211Messages.NLMSG_ERROR, 2);
+        buf.putInt(0);
+        int length = finish(buf, start);
+
+        assertEquals(Nl80211Messages.parseAck(buf.array(), length, 2), 0);
+        assertEquals(Nl80211Messages.parseAck(buf.array(), length, 1), -16);
+    }
+
+    @Test(expectedExceptions = ChannelSwitchException.class)
+    public void testParseAckMissing() throws ChannelSwitchException {
+        ByteBuffer buf = ByteBuffer.allocate(256).order(ByteOrder.nativeOrder());
+        int start = header(buf, Nl80211Messages.NLMSG_ERROR, 1);
+        buf.putInt(0);
+        int length = finish(buf, start);
+
+        Nl80211Messages.parseAck(buf.array(), length, 2);
+    }
+
+    @Test(expectedExceptions = ChannelSwitchException.class)
+    public void testParseTruncated() throws ChannelSwitchException {
+        ByteBuffer buf = ByteBuffer.allocate(256).order(ByteOrder.nativeOrder());
+        int start = header(buf, Nl80211Messages.NLMSG_ERROR, 1);
+        buf.putInt(0);
+        int length = finish(buf, start);
+
+        Nl80211Messages.parseAck(buf.array(), length - 4, 1);
+    }
+
+    @Test(expectedExceptions = ChannelSwitchException.class)
+    public void testParseGarbage() throws ChannelSwitchException {
+        byte[] garbage = new byte[64];
+        for (int i = 0; i < garbage.length; i++) {
+            garbage[i] = (byte) (i * 31);
+        }
+
+        Nl80211Messages.parseFamilyId(garbage, garbage.length, 1);
+    }
+
+    @Test
+    public void testAlign() {
+        assertEquals(Nl80211Messages.align(0), 0);
+        assertEquals(Nl80211Messages.align(1), 4);
+        assertEquals(Nl80211Messages.align(4), 4);
+        assertEquals(Nl80211Messages.align(5), 8);
+    }
+
+    private static void assertU32Attribute(ByteBuffer buf, short type, int value) {
+        assertEquals(buf.getShort(), 8);
+        assertEquals(buf.getShort(), type);
+        assertEquals(buf.getInt(), value);
+    }
+
+    private static int header(ByteBuffer buf, short type, int sequence) {
+        int start = buf.position();
+        buf.putInt(0);
+        buf.putShort(type);
+        buf.putShort((short) 0);
+        buf.putInt(sequence);
+        buf.putInt(1234);
+        return start;
+    }
+
+    private static int finish(ByteBuffer buf, int start) {
+        buf.putInt(start, buf.position() - start);
+        return buf.position();
+    }
+
+}
@@ -23,6 +23,7 @@ import horse.wtf.nzyme.Role;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.configuration.leader.LeaderConfiguration;
 import horse.wtf.nzyme.configuration.leader.LeaderConfigurationLoader;
+import horse.wtf.nzyme.database.QueryMetrics;
 import org.simplejavamail.api.email.Recipient;
 import org.simplejavamail.api.mailer.config.TransportStrategy;
 import org.testng.annotations.Test;
@@ -61,8 +62,8 @@ public class NzymeLeaderConfigurationLoaderTest extends ResourcesAccessingTest {
         assertTrue(c.versionchecksEnabled());
         assertEquals(c.restListenUri(), URI.create("http://127.0.0.1:22900/"));
         assertEquals(c.dot11Monitors(), new ArrayList<Dot11MonitorDefinition>() {{
-            add(Dot11MonitorDefinition.create("wlx00c0ca8fd89a", ImmutableList.of(1,2,3,4,5,6), "sudo /sbin/iwconfig {interface} channel {channel}", 1, false, 60));
-            add(Dot11MonitorDefinition.create("wlx00c0ca971216", ImmutableList.of(7,8,9,10,11), "sudo /sbin/iwconfig {interface} channel {channel}", 3, false, 60));
+            add(Dot11MonitorDefinition.create("wlx00c0ca8fd89a", ImmutableList.of(1,2,3,4,5,6), "sudo /sbin/iwconfig {interface} channel {channel}", 1, false, 60, false, true));
+            add(Dot11MonitorDefinition.create("wlx00c0ca971216", ImmutableList.of(7,8,9,10,11), "sudo /sbin/iwconfig {interface} channel {channel}", 3, false, 60, true, false));
         }});
         assertEquals(c.dot11Networks(), new ArrayList<Dot11NetworkDefinition>() {{
             add(Dot11NetworkDefinition.create("United_Wi-Fi", new ArrayList<Dot11BSSIDDefinition>() {{
@@ -113,6 +114,10 @@ public class NzymeLeaderConfigurationLoaderTest extends ResourcesAccessingTest {
         assertEquals(c.uplinks().get(3).configuration().getInt(ConfigurationKeys.PORT), 9001);
 
         assertEquals(c.remoteInputAddress(), new InetSocketAddress("0.0.0.0", 9002));
+        assertEquals(c.remoteInputReceiveBufferSize(), 8388608);
+        assertEquals(c.remoteInputWorkers(), 4);
+        assertEquals(c.remoteInputTrustedSources(), ImmutableList.of("sensor-1"));
+        assertEquals(c.slowQueryThresholdMs(), QueryMetrics.DEFAULT_SLOW_QUERY_THRESHOLD_MS);
 
         assertEquals(c.reporting().email().transportStrategy(), TransportStrategy.SMTP_TLS);
         assertEquals(c.reporting().email().host(), "smtp.example.org");
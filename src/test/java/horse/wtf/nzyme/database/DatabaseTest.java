@@ -0,0 +1,42 @@
+package horse.wtf.nzyme.database;
+
+import horse.wtf.nzyme.MockNzyme;
+import horse.wtf.nzyme.NzymeLeader;
+import org.postgresql.PGConnection;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+
+import static org.testng.Assert.*;
+
+public class DatabaseTest {
+
+    @Test
+    public void testConnectionsArePooledAndPrepareStatements() throws SQLException {
+        Database database = new MockNzyme().getDatabase();
+
+        PGConnection first = database.withHandle(handle -> handle.getConnection().unwrap(PGConnection.class));
+        PGConnection second = database.withHandle(handle -> handle.getConnection().unwrap(PGConnection.class));
+
+        assertSame(first, second);
+        assertEquals(first.getPrepareThreshold(), Database.PREPARE_THRESHOLD);
+    }
+
+    @Test
+    public void testCountsStatements() {
+        NzymeLeader nzyme = new MockNzyme();
+        Database database = nzyme.getDatabase();
+
+        long total = database.getStatementCount();
+        long thread = database.getStatementCountOfCurrentThread();
+
+        database.useTransaction(handle -> {
+            handle.execute("SELECT 1");
+            handle.createQuery("SELECT 2").mapTo(Integer.class).first();
+        });
+
+        assertEquals(database.getStatementCountOfCurrentThread() - thread, 2);
+        assertTrue(database.getStatementCount() - total >= 2);
+    }
+
+}
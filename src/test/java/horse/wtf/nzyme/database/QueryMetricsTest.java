@@ -0,0 +1,103 @@
+package horse.wtf.nzyme.database;
+
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.MockNzyme;
+import horse.wtf.nzyme.util.MetricNames;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.UnableToExecuteStatementException;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class QueryMetricsTest {
+
+    private Jdbi jdbi(QueryMetrics queryMetrics) {
+        return Jdbi.create("jdbc:" + new MockNzyme().getConfiguration().databasePath()).setSqlLogger(queryMetrics);
+    }
+
+    @Test
+    public void testStatementName() {
+        String a = QueryMetrics.statementName(QueryMetrics.normalize("SELECT * FROM alerts\n   WHERE frame_count > 5 AND ssid = 'foo'"));
+        String b = QueryMetrics.statementName(QueryMetrics.normalize("select * from alerts where frame_count > 10 and ssid = 'it''s'"));
+        String c = QueryMetrics.statementName(QueryMetrics.normalize("SELECT * FROM alerts WHERE frame_count > :frame_count"));
+
+        assertTrue(a.startsWith("select.alerts."));
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+
+        assertTrue(QueryMetrics.statementName("insert into contact_records(contact_uuid) values(:contact_uuid)").startsWith("insert.contact_records."));
+        assertTrue(QueryMetrics.statementName("update contacts set frame_count = frame_count+1").startsWith("update.contacts."));
+        assertTrue(QueryMetrics.statementName("delete from measurements where created_at < :created_at").startsWith("delete.measurements."));
+        assertTrue(QueryMetrics.statementName("select 1").startsWith("select."));
+    }
+
+    @Test
+    public void testPartitionsShareStatementName() {
+        String a = QueryMetrics.statementName("drop table beacon_rate_history_p2021010112");
+        String b = QueryMetrics.statementName("drop table beacon_rate_history_p2021010113");
+
+        assertTrue(a.startsWith("drop.beacon_rate_history_p."));
+        assertEquals(a, b);
+        assertNotEquals(a, QueryMetrics.statementName("drop table beacon_rate_history_default"));
+    }
+
+    @Test
+    public void testStatementsAreTimedPerName() {
+        MetricRegistry metrics = new MetricRegistry();
+        QueryMetrics queryMetrics = new QueryMetrics(metrics, 0);
+
+        jdbi(queryMetrics).useHandle(handle -> {
+            handle.createQuery("SELECT * FROM alerts LIMIT 1").mapToMap().list();
+            handle.createQuery("SELECT * FROM alerts LIMIT 2").mapToMap().list();
+            handle.execute("SELECT pg_sleep(0.05)");
+        });
+
+        assertEquals(queryMetrics.getCount(), 3);
+
+        List<QueryStatistics> top = queryMetrics.getTopStatements(10);
+        assertEquals(top.size(), 2);
+        assertTrue(top.get(0).sql().contains("pg_sleep"));
+        assertEquals(top.get(0).count(), 1);
+        assertTrue(top.get(0).totalTimeNanos() >= 50_000_000L);
+        assertTrue(top.get(1).name().startsWith("select.alerts."));
+        assertEquals(top.get(1).count(), 2);
+
+        assertEquals(queryMetrics.getTopStatements(1).size(), 1);
+        assertTrue(metrics.getTimers().containsKey(MetricRegistry.name(MetricNames.DATABASE_QUERY_TIMING, top.get(1).name())));
+
+        // Slow query log is disabled.
+        assertEquals(metrics.counter(MetricNames.DATABASE_SLOW_QUERIES).getCount(), 0);
+    }
+
+    @Test
+    public void testSlowQueries() {
+        MetricRegistry metrics = new MetricRegistry();
+        QueryMetrics queryMetrics = new QueryMetrics(metrics, 20);
+
+        jdbi(queryMetrics).useHandle(handle -> {
+            handle.execute("SELECT 1");
+            handle.execute("SELECT pg_sleep(0.05)");
+        });
+
+        assertEquals(metrics.counter(MetricNames.DATABASE_SLOW_QUERIES).getCount(), 1);
+    }
+
+    @Test
+    public void testFailedQueries() {
+        MetricRegistry metrics = new MetricRegistry();
+        QueryMetrics queryMetrics = new QueryMetrics(metrics, 0);
+
+        try {
+            jdbi(queryMetrics).useHandle(handle -> handle.execute("SELECT * FROM does_not_exist"));
+            fail();
+        } catch (UnableToExecuteStatementException ignored) {
+        }
+
+        assertEquals(metrics.counter(MetricNames.DATABASE_FAILED_QUERIES).getCount(), 1);
+        assertEquals(queryMetrics.getCount(), 1);
+        assertTrue(queryMetrics.getTopStatements(1).get(0).name().startsWith("select.does_not_exist."));
+    }
+
+}
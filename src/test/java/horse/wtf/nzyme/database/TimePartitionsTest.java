@@ -0,0 +1,134 @@
+package horse.wtf.nzyme.database;
+
+import horse.wtf.nzyme.MockNzyme;
+import horse.wtf.nzyme.NzymeLeader;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class TimePartitionsTest {
+
+    private static final String TABLE = "measurements";
+
+    @BeforeMethod
+    @AfterMethod
+    public void restorePartitions() {
+        NzymeLeader nzyme = new MockNzyme();
+        TimePartitions partitions = new TimePartitions(nzyme.getDatabase(), TABLE, 24);
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+
+        // Tests that simulate a later point in time leave partitions further ahead than usual.
+        for (int i = TimePartitions.HOURS_AHEAD + 1; i <= 48; i++) {
+            String partition = partitions.partitionName(now.plusHours(i));
+            nzyme.getDatabase().useHandle(handle -> handle.execute("DROP TABLE IF EXISTS " + partition));
+        }
+
+        nzyme.getDatabase().useHandle(handle -> handle.execute("DELETE FROM measurements WHERE measurement_type = 'TEST'"));
+        partitions.maintain(now);
+    }
+
+    @Test
+    public void testTableIsPartitioned() {
+        NzymeLeader nzyme = new MockNzyme();
+
+        for (String table : new String[]{"measurements", "beacon_rate_history", "sigidx_histogram_history"}) {
+            long count = nzyme.getDatabase().withHandle(handle ->
+                    handle.createQuery("SELECT COUNT(*) FROM pg_partitioned_table " +
+                                    "JOIN pg_class ON pg_class.oid = pg_partitioned_table.partrelid WHERE relname = :table")
+                            .bind("table", table)
+                            .mapTo(Long.class)
+                            .first()
+            );
+            assertEquals(count, 1, table);
+        }
+    }
+
+    @Test
+    public void testCreatesPartitionsAhead() {
+        NzymeLeader nzyme = new MockNzyme();
+        TimePartitions partitions = new TimePartitions(nzyme.getDatabase(), TABLE, 24);
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+
+        partitions.maintain(now);
+
+        List<String> existing = partitions.findPartitions();
+        assertTrue(existing.contains(partitions.defaultPartitionName()));
+        assertTrue(existing.contains(partitions.partitionName(now)));
+        assertTrue(existing.contains(partitions.partitionName(now.minusHours(23))));
+        assertTrue(existing.contains(partitions.partitionName(now.plusHours(TimePartitions.HOURS_AHEAD))));
+    }
+
+    @Test
+    public void testDropsExpiredPartitions() {
+        NzymeLeader nzyme = new MockNzyme();
+        TimePartitions partitions = new TimePartitions(nzyme.getDatabase(), TABLE, 24);
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+
+        partitions.maintain(now);
+        insert(nzyme, now.minusHours(2));
+        insert(nzyme, now);
+        assertEquals(count(nzyme, TABLE), 2);
+
+        // One day later, the first row is out of retention and its partition is dropped.
+        partitions.maintain(now.plusHours(23));
+
+        assertFalse(partitions.findPartitions().contains(partitions.partitionName(now.minusHours(2))));
+        assertTrue(partitions.findPartitions().contains(partitions.partitionName(now)));
+        assertEquals(count(nzyme, TABLE), 1);
+    }
+
+    @Test
+    public void testMovesRowsOutOfDefaultPartition() {
+        NzymeLeader nzyme = new MockNzyme();
+        TimePartitions partitions = new TimePartitions(nzyme.getDatabase(), TABLE, 24);
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+
+        partitions.maintain(now);
+
+        // Not covered by any partition yet.
+        DateTime future = now.plusHours(TimePartitions.HOURS_AHEAD + 3);
+        insert(nzyme, future);
+        assertEquals(count(nzyme, partitions.defaultPartitionName()), 1);
+
+        partitions.maintain(now.plusHours(4));
+
+        assertEquals(count(nzyme, partitions.defaultPartitionName()), 0);
+        assertEquals(count(nzyme, partitions.partitionName(future)), 1);
+    }
+
+    @Test
+    public void testCleansDefaultPartition() {
+        NzymeLeader nzyme = new MockNzyme();
+        TimePartitions partitions = new TimePartitions(nzyme.getDatabase(), TABLE, 24);
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+
+        partitions.maintain(now);
+        insert(nzyme, now.minusDays(3));
+        assertEquals(count(nzyme, partitions.defaultPartitionName()), 1);
+
+        partitions.maintain(now);
+
+        assertEquals(count(nzyme, partitions.defaultPartitionName()), 0);
+    }
+
+    private void insert(NzymeLeader nzyme, DateTime createdAt) {
+        nzyme.getDatabase().useHandle(handle -> handle.execute("INSERT INTO measurements(measurement_type, " +
+                "measurement_value, created_at) VALUES('TEST', 1, CAST(? AS timestamp))",
+                Database.BUCKET_DATE_TIME_FORMATTER.print(createdAt)));
+    }
+
+    private long count(NzymeLeader nzyme, String table) {
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT COUNT(*) FROM " + table + " WHERE measurement_type = 'TEST'")
+                        .mapTo(Long.class)
+                        .first()
+        );
+    }
+
+}
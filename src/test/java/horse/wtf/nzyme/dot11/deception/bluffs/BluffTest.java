@@ -46,7 +46,14 @@ public class BluffTest {
                 ImmutableList.of(),
                 null,
                 null,
-                DeauthenticationMonitorConfiguration.create(10)
+                DeauthenticationMonitorConfiguration.create(10),
+                2,
+                false,
+                0,
+                4194304,
+                2,
+                ImmutableList.of(),
+                500
         );
     }
 
@@ -0,0 +1,197 @@
+package horse.wtf.nzyme.dot11.frames;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.protobuf.ByteString;
+import horse.wtf.nzyme.dot11.Dot11FrameSubtype;
+import horse.wtf.nzyme.dot11.MalformedFrameException;
+import horse.wtf.nzyme.dot11.anonymization.Anonymizer;
+import horse.wtf.nzyme.dot11.parsers.Frames;
+import horse.wtf.nzyme.remote.protobuf.NzymeMessage;
+import org.pcap4j.packet.IllegalRawDataException;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.testng.Assert.*;
+
+public class Dot11FrameFactoryTest {
+
+    private static final String BEACON_1_FINGERPRINT = "dfac3abce0c722f9609343f7dfa208afa51a1c7decbd2eb6f96c78051f0a594b";
+
+    @Test
+    public void testMixedOldAndNewSensors() throws MalformedFrameException, IllegalRawDataException {
+        Dot11FrameFactory factory = new Dot11FrameFactory(new MetricRegistry(), new Anonymizer(false, ""));
+
+        // Old sensor: class name string only.
+        NzymeMessage.Dot11Frame oldBeacon = frame(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER)
+                .setFrameType("horse.wtf.nzyme.dot11.frames.AutoValue_Dot11BeaconFrame")
+                .build();
+        NzymeMessage.Dot11Frame oldAssocReq = frame(Frames.ASSOC_REQ_1_PAYLOAD, Frames.ASSOC_REQ_1_HEADER)
+                .setFrameType("horse.wtf.nzyme.dot11.frames.AutoValue_Dot11AssociationRequestFrame")
+                .build();
+
+        // New sensor: numeric subtype and no class name.
+        NzymeMessage.Dot11Frame newBeacon = frame(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER)
+                .setSubtype(NzymeMessage.Dot11Subtype.BEACON)
+                .build();
+        NzymeMessage.Dot11Frame newAssocReq = frame(Frames.ASSOC_REQ_1_PAYLOAD, Frames.ASSOC_REQ_1_HEADER)
+                .setSubtype(NzymeMessage.Dot11Subtype.ASSOCIATION_REQUEST)
+                .build();
+
+        for (NzymeMessage.Dot11Frame beacon : new NzymeMessage.Dot11Frame[]{oldBeacon, newBeacon, oldBeacon}) {
+            Dot11BeaconFrame parsed = (Dot11BeaconFrame) factory.fromRemote(beacon);
+            assertEquals(parsed.ssid(), "WTF");
+            assertEquals(parsed.transmitter(), "00:c0:ca:95:68:3b");
+            assertEquals(parsed.transmitterFingerprint(), BEACON_1_FINGERPRINT);
+            assertEquals(parsed.meta().getAntennaSignal(), -50);
+        }
+
+        for (NzymeMessage.Dot11Frame assocReq : new NzymeMessage.Dot11Frame[]{newAssocReq, oldAssocReq}) {
+            Dot11AssociationRequestFrame parsed = (Dot11AssociationRequestFrame) factory.fromRemote(assocReq);
+            assertEquals(parsed.ssid(), "ATT4Q5FBC3");
+            assertEquals(parsed.frameType(), Dot11FrameSubtype.ASSOCIATION_REQUEST);
+        }
+    }
+
+    @Test
+    public void testSubtypeWinsOverClassName() throws MalformedFrameException, IllegalRawDataException {
+        Dot11FrameFactory factory = new Dot11FrameFactory(new MetricRegistry(), new Anonymizer(false, ""));
+
+        NzymeMessage.Dot11Frame frame = frame(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER)
+                .setFrameType("horse.wtf.nzyme.dot11.frames.AutoValue_Dot11BeaconFrame")
+                .setSubtype(NzymeMessage.Dot11Subtype.BEACON)
+                .build();
+
+        assertTrue(factory.fromRemote(frame) instanceof Dot11BeaconFrame);
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testUnknownLegacyFrameType() throws MalformedFrameException, IllegalRawDataException {
+        new Dot11FrameFactory(new MetricRegistry(), new Anonymizer(false, ""))
+                .fromRemote(frame(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER).setFrameType("foo").build());
+    }
+
+    @Test
+    public void testParsedFieldsOnlyUsedForTrustedSources() throws MalformedFrameException, IllegalRawDataException {
+        Dot11FrameFactory factory = new Dot11FrameFactory(new MetricRegistry(), new Anonymizer(false, ""));
+
+        NzymeMessage.Dot11Frame frame = frame(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER)
+                .setSubtype(NzymeMessage.Dot11Subtype.BEACON)
+                .setParsed(NzymeMessage.Dot11Parsed.newBuilder()
+                        .setSsid("WTF")
+                        .setTransmitter("00:c0:ca:95:68:3b")
+                        .setFingerprint("shipped")
+                        .build())
+                .build();
+
+        Dot11BeaconFrame trusted = (Dot11BeaconFrame) factory.fromRemote(frame, true);
+        assertEquals(trusted.ssid(), "WTF");
+        assertEquals(trusted.transmitter(), "00:c0:ca:95:68:3b");
+        assertEquals(trusted.transmitterFingerprint(), "shipped");
+        assertEquals(trusted.taggedParameters().getFullSecurityString(), "WPA1-EAM-PSK-CCMP, WPA2-EAM-PSK-CCMP");
+
+        Dot11BeaconFrame untrusted = (Dot11BeaconFrame) factory.fromRemote(frame, false);
+        assertEquals(untrusted.transmitterFingerprint(), BEACON_1_FINGERPRINT);
+
+        // Trusted, but an old sensor that did not send parsed fields.
+        Dot11BeaconFrame old = (Dot11BeaconFrame) factory.fromRemote(frame.toBuilder().clearParsed().build(), true);
+        assertEquals(old.transmitterFingerprint(), BEACON_1_FINGERPRINT);
+    }
+
+    @Test
+    public void testTrustedAndUntrustedAnonymizeAlike() throws MalformedFrameException, IllegalRawDataException, IOException {
+        Anonymizer anonymizer = new Anonymizer(true, Files.createTempDirectory("nzyme-anon").toString());
+        Dot11FrameFactory factory = new Dot11FrameFactory(new MetricRegistry(), anonymizer);
+
+        // Sensors only ship the original, not anonymized values.
+        NzymeMessage.Dot11Frame frame = frame(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER)
+                .setSubtype(NzymeMessage.Dot11Subtype.BEACON)
+                .setParsed(NzymeMessage.Dot11Parsed.newBuilder()
+                        .setSsid("WTF")
+                        .setTransmitter("00:c0:ca:95:68:3b")
+                        .setFingerprint(BEACON_1_FINGERPRINT)
+                        .build())
+                .build();
+
+        Dot11BeaconFrame trusted = (Dot11BeaconFrame) factory.fromRemote(frame, true);
+        Dot11BeaconFrame untrusted = (Dot11BeaconFrame) factory.fromRemote(frame, false);
+
+        assertNotEquals(trusted.ssid(), "WTF");
+        assertNotEquals(trusted.transmitter(), "00:c0:ca:95:68:3b");
+        assertEquals(trusted.ssid(), untrusted.ssid());
+        assertEquals(trusted.transmitter(), untrusted.transmitter());
+
+        // Anonymizing sensor: no parsed fields, the leader decodes and anonymizes the raw bytes.
+        Dot11BeaconFrame fromAnonymizingSensor = (Dot11BeaconFrame) factory.fromRemote(
+                frame.toBuilder().clearParsed().build(), true);
+        assertEquals(fromAnonymizingSensor.ssid(), untrusted.ssid());
+        assertEquals(fromAnonymizingSensor.transmitter(), untrusted.transmitter());
+    }
+
+    @Test
+    public void testParsedBroadcastSSID() throws MalformedFrameException, IllegalRawDataException {
+        Dot11FrameFactory factory = new Dot11FrameFactory(new MetricRegistry(), new Anonymizer(false, ""));
+
+        NzymeMessage.Dot11Frame frame = frame(Frames.BEACON_4_PAYLOAD, Frames.BEACON_4_HEADER)
+                .setSubtype(NzymeMessage.Dot11Subtype.BEACON)
+                .setParsed(NzymeMessage.Dot11Parsed.newBuilder()
+                        .setIsBroadcast(true)
+                        .setTransmitter("24:a4:3c:7d:01:cc")
+                        .setFingerprint("shipped")
+                        .build())
+                .build();
+
+        assertNull(((Dot11BeaconFrame) factory.fromRemote(frame, true)).ssid());
+    }
+
+    @Test
+    public void testParsedProbeResponse() throws MalformedFrameException, IllegalRawDataException {
+        Dot11FrameFactory factory = new Dot11FrameFactory(new MetricRegistry(), new Anonymizer(false, ""));
+
+        NzymeMessage.Dot11Frame frame = frame(Frames.PROBE_RESP_1_PAYLOAD, Frames.PROBE_RESP_1_HEADER)
+                .setSubtype(NzymeMessage.Dot11Subtype.PROBE_RESPONSE)
+                .setParsed(NzymeMessage.Dot11Parsed.newBuilder()
+                        .setSsid("Home 5F48")
+                        .setDestination("3c:8d:20:52:e4:87")
+                        .setTransmitter("b0:93:5b:1d:c8:f1")
+                        .setFingerprint("shipped")
+                        .build())
+                .build();
+
+        Dot11ProbeResponseFrame parsed = (Dot11ProbeResponseFrame) factory.fromRemote(frame, true);
+        assertEquals(parsed.ssid(), "Home 5F48");
+        assertEquals(parsed.destination(), "3c:8d:20:52:e4:87");
+        assertEquals(parsed.transmitterFingerprint(), "shipped");
+        assertEquals(parsed.taggedParameters().getFullSecurityString(), "WPA2-PSK-CCMP");
+    }
+
+    @Test
+    public void testRemoteSubtypeMapping() {
+        byte[] subtypes = new byte[]{
+                Dot11FrameSubtype.ASSOCIATION_REQUEST, Dot11FrameSubtype.ASSOCIATION_RESPONSE,
+                Dot11FrameSubtype.PROBE_REQUEST, Dot11FrameSubtype.PROBE_RESPONSE, Dot11FrameSubtype.BEACON,
+                Dot11FrameSubtype.DISASSOCIATION, Dot11FrameSubtype.AUTHENTICATION, Dot11FrameSubtype.DEAUTHENTICATION
+        };
+
+        for (byte subtype : subtypes) {
+            assertNotEquals(Dot11FrameFactory.toRemoteSubtype(subtype), NzymeMessage.Dot11Subtype.UNKNOWN_SUBTYPE);
+        }
+
+        assertEquals(Dot11FrameFactory.toRemoteSubtype((byte) 14), NzymeMessage.Dot11Subtype.UNKNOWN_SUBTYPE);
+    }
+
+    private NzymeMessage.Dot11Frame.Builder frame(byte[] payload, byte[] header) {
+        return NzymeMessage.Dot11Frame.newBuilder()
+                .setRecordedAt(System.currentTimeMillis())
+                .setSource("sensor-1")
+                .setFrameHeader(ByteString.copyFrom(header))
+                .setFramePayload(ByteString.copyFrom(payload))
+                .setFrameMeta(NzymeMessage.FrameMeta.newBuilder()
+                        .setAntennaSignal(-50)
+                        .setFrequency(2412)
+                        .setChannel(1)
+                        .build());
+    }
+
+}
@@ -6,23 +6,33 @@ import horse.wtf.nzyme.NzymeLeader;
 import horse.wtf.nzyme.alerts.Alert;
 import horse.wtf.nzyme.alerts.UnexpectedBSSIDBeaconAlert;
 import horse.wtf.nzyme.alerts.UnexpectedBSSIDProbeRespAlert;
+import horse.wtf.nzyme.alerts.service.AlertsService;
 import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
 import horse.wtf.nzyme.dot11.Dot11FrameSubtype;
 import horse.wtf.nzyme.dot11.MalformedFrameException;
 import horse.wtf.nzyme.dot11.anonymization.Anonymizer;
+import horse.wtf.nzyme.dot11.frames.Dot11BeaconFrame;
 import horse.wtf.nzyme.dot11.parsers.Dot11BeaconFrameParser;
 import horse.wtf.nzyme.dot11.parsers.Dot11ProbeResponseFrameParser;
 import horse.wtf.nzyme.dot11.parsers.Frames;
 import horse.wtf.nzyme.notifications.uplinks.misc.LoopbackUplink;
+import horse.wtf.nzyme.util.MetricNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joda.time.DateTime;
 import org.pcap4j.packet.IllegalRawDataException;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.testng.Assert.*;
 
 public class UnexpectedBSSIDInterceptorSetTest extends InterceptorSetTest {
 
+    private static final Logger LOG = LogManager.getLogger(UnexpectedBSSIDInterceptorSetTest.class);
+
     @Test
     public void testGetInterceptors() throws MalformedFrameException, IllegalRawDataException {
         NzymeLeader nzyme = new MockNzyme();
@@ -85,4 +95,82 @@ public class UnexpectedBSSIDInterceptorSetTest extends InterceptorSetTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFloodIsRateLimited() throws MalformedFrameException, IllegalRawDataException {
+        NzymeLeader nzyme = new MockNzyme();
+        LoopbackUplink loopback = new LoopbackUplink();
+        nzyme.registerUplink(loopback);
+        reset(loopback, nzyme);
+
+        CountingAlertsService alerts = new CountingAlertsService(nzyme);
+        Dot11FrameInterceptor<Dot11BeaconFrame> interceptor = beaconInterceptor(alerts, nzyme);
+
+        Dot11BeaconFrame spoofed = new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, "")).parse(
+                Frames.BEACON_WTF_SPOOFED_MAC_PAYLOAD, Frames.BEACON_WTF_SPOOFED_MAC_HEADER, META_NO_WEP
+        );
+
+        // Unlimited, like before: Every frame is handled.
+        int unlimitedFrames = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < unlimitedFrames; i++) {
+            alerts.handle(UnexpectedBSSIDBeaconAlert.create(DateTime.now(), spoofed.ssid(), spoofed.transmitter(), 1, 2412, -50, 1));
+        }
+        long unlimitedNanos = System.nanoTime() - start;
+        reset(loopback, nzyme);
+        alerts.handled.set(0);
+
+        // Rate limited flood.
+        int floodFrames = 50_000;
+        start = System.nanoTime();
+        for (int i = 0; i < floodFrames; i++) {
+            interceptor.intercept(spoofed);
+        }
+        long limitedNanos = System.nanoTime() - start;
+        alerts.shutdown();
+
+        LOG.info("Spoofed beacon flood: <{}> frames/sec unlimited, <{}> frames/sec rate limited. " +
+                        "<{}> of <{}> frames handled as alerts.",
+                unlimitedFrames * TimeUnit.SECONDS.toNanos(1) / unlimitedNanos,
+                floodFrames * TimeUnit.SECONDS.toNanos(1) / limitedNanos,
+                alerts.handled.get(), floodFrames);
+
+        // Burst, at most one alert per second and the final flush.
+        assertTrue(alerts.handled.get() < 2 + TimeUnit.NANOSECONDS.toSeconds(limitedNanos) + 2);
+        assertTrue(nzyme.getMetrics().meter(MetricNames.ALERTS_SUPPRESSED).getCount() > floodFrames - alerts.handled.get() - 1);
+
+        // Still exactly one alert and the frame count is exact.
+        assertEquals(alerts.findActiveAlerts().size(), 1);
+        Alert alert = alerts.findActiveAlerts().values().iterator().next();
+        assertEquals(alert.getFrameCount(), Long.valueOf(floodFrames));
+
+        reset(loopback, nzyme);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Dot11FrameInterceptor<Dot11BeaconFrame> beaconInterceptor(AlertsService alerts, NzymeLeader nzyme) {
+        for (Dot11FrameInterceptor interceptor : new UnexpectedBSSIDInterceptorSet(alerts, nzyme.getConfiguration().dot11Networks()).getInterceptors()) {
+            if (interceptor.forSubtype() == Dot11FrameSubtype.BEACON) {
+                return interceptor;
+            }
+        }
+
+        throw new IllegalStateException();
+    }
+
+    private static class CountingAlertsService extends AlertsService {
+
+        private final AtomicInteger handled = new AtomicInteger(0);
+
+        public CountingAlertsService(NzymeLeader nzyme) {
+            super(nzyme);
+        }
+
+        @Override
+        public synchronized void handle(Alert alert) {
+            handled.incrementAndGet();
+            super.handle(alert);
+        }
+
+    }
+
+}
@@ -146,8 +146,10 @@ public class NetworksTest {
     public void testLastSeenUpdates() throws MalformedFrameException, IllegalRawDataException {
         Networks n = new Networks(new MockNzyme());
 
+        // Last seen is the capture time of the frame. Every registration uses newly captured meta information.
+
         n.registerBeaconFrame(new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, "")).parse(
-                Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, META_NO_WEP
+                Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, new Dot11MetaInformation(false, 100, 2400, 1, 0L, false)
         ));
 
         BSSID n1 = n.getBSSIDs().get("00:c0:ca:95:68:3b");
@@ -167,7 +169,7 @@ public class NetworksTest {
         assertFalse(n1.getLastSeen().isAfter(new DateTime().minusSeconds(2)));
 
         n.registerBeaconFrame(new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, "")).parse(
-                Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, META_NO_WEP
+                Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, new Dot11MetaInformation(false, 100, 2400, 1, 0L, false)
         ));
 
         try {
@@ -239,6 +241,33 @@ public class NetworksTest {
         ));
     }
 
+    @Test
+    public void testGenerationOnlyChangesOnStructuralChanges() throws MalformedFrameException, IllegalRawDataException {
+        Networks n = new Networks(new MockNzyme());
+        Dot11BeaconFrameParser parser = new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, ""));
+
+        n.registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, META_NO_WEP));
+        long generation = n.getGeneration();
+        assertTrue(generation > 0);
+
+        // Same network, only per-frame values change.
+        for (int i = 0; i < 10; i++) {
+            n.registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER,
+                    new Dot11MetaInformation(false, -50 - i, 2400, 1, 0L, false)));
+        }
+        assertEquals(n.getGeneration(), generation);
+
+        // New channel.
+        n.registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER,
+                new Dot11MetaInformation(false, -50, 2400, 6, 0L, false)));
+        assertTrue(n.getGeneration() > generation);
+        generation = n.getGeneration();
+
+        // New BSSID.
+        n.registerBeaconFrame(parser.parse(Frames.BEACON_3_PAYLOAD, Frames.BEACON_3_HEADER, META_NO_WEP));
+        assertTrue(n.getGeneration() > generation);
+    }
+
     @Test
     public void testRetentionCleaning() throws MalformedFrameException, IllegalRawDataException {
         Networks n = new Networks(new MockNzyme());
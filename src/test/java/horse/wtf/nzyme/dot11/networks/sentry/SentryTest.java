@@ -6,6 +6,9 @@ import org.joda.time.DateTime;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.testng.Assert.*;
 
 public class SentryTest {
@@ -13,7 +16,10 @@ public class SentryTest {
     @BeforeMethod
     public void cleanSentry() {
         NzymeLeader nzyme = new MockNzyme();
-        nzyme.getDatabase().useHandle(handle -> handle.execute("DELETE FROM sentry_ssids;"));
+        nzyme.getDatabase().useHandle(handle -> {
+            handle.execute("ALTER TABLE sentry_ssids DROP CONSTRAINT IF EXISTS test_reject_wtf");
+            handle.execute("DELETE FROM sentry_ssids;");
+        });
     }
 
     @Test
@@ -53,4 +59,31 @@ public class SentryTest {
         sentry2.stop();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFailedSSIDDoesNotAbortSync() {
+        NzymeLeader nzyme = new MockNzyme();
+        Sentry sentry = new Sentry(nzyme, Integer.MAX_VALUE);
+
+        nzyme.getDatabase().useHandle(handle ->
+                handle.execute("ALTER TABLE sentry_ssids ADD CONSTRAINT test_reject_wtf CHECK (ssid <> 'WTF')"));
+
+        try {
+            sentry.tickSSID("foo1", DateTime.now());
+            sentry.tickSSID("WTF", DateTime.now());
+            sentry.tickSSID("foo2", DateTime.now());
+            sentry.syncDatabase();
+
+            List<String> stored = nzyme.getDatabase().withHandle(handle ->
+                    handle.createQuery("SELECT ssid FROM sentry_ssids ORDER BY ssid")
+                            .mapTo(String.class)
+                            .list()
+            );
+            assertEquals(stored, Arrays.asList("foo1", "foo2"));
+        } finally {
+            sentry.stop();
+            nzyme.getDatabase().useHandle(handle ->
+                    handle.execute("ALTER TABLE sentry_ssids DROP CONSTRAINT IF EXISTS test_reject_wtf"));
+        }
+    }
+
+}
@@ -17,11 +17,13 @@
 
 package horse.wtf.nzyme.notifications.uplinks;
 
+import com.codahale.metrics.MetricRegistry;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigValueFactory;
 import horse.wtf.nzyme.configuration.UplinkDefinition;
 import horse.wtf.nzyme.notifications.Uplink;
+import horse.wtf.nzyme.notifications.uplinks.syslog.SyslogTCPRFC5424Uplink;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.*;
@@ -30,7 +32,7 @@ public class UplinkFactoryTest {
 
     @Test
     public void testGraylogUplink() {
-        UplinkFactory f = new UplinkFactory("foo");
+        UplinkFactory f = new UplinkFactory("foo", new MetricRegistry());
 
         Config config = ConfigFactory.empty()
                 .withValue("host", ConfigValueFactory.fromAnyRef("example.com"))
@@ -40,7 +42,7 @@ public class UplinkFactoryTest {
 
     @Test
     public void testGyslogUDPRFC5424Uplink() {
-        UplinkFactory f = new UplinkFactory("foo");
+        UplinkFactory f = new UplinkFactory("foo", new MetricRegistry());
 
         Config config = ConfigFactory.empty()
                 .withValue("host", ConfigValueFactory.fromAnyRef("localhost"))
@@ -48,4 +50,15 @@ public class UplinkFactoryTest {
         Uplink u = f.fromConfigurationDefinition(UplinkDefinition.create("syslog_udp_rfc5424", config));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSyslogTCPRFC5424Uplink() {
+        UplinkFactory f = new UplinkFactory("foo", new MetricRegistry());
+
+        Config config = ConfigFactory.empty()
+                .withValue("host", ConfigValueFactory.fromAnyRef("localhost"))
+                .withValue("port", ConfigValueFactory.fromAnyRef(1234));
+        Uplink u = f.fromConfigurationDefinition(UplinkDefinition.create("syslog_tcp_rfc5424", config));
+        assertTrue(u instanceof SyslogTCPRFC5424Uplink);
+    }
+
+}
@@ -0,0 +1,84 @@
+package horse.wtf.nzyme.notifications.uplinks.graylog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.testng.Assert.*;
+
+public class GelfEncoderTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    public void testEncode() throws IOException {
+        GelfEncoder encoder = new GelfEncoder();
+        encoder.begin("nzyme", "hello", 1600000000123L)
+                .field("channel", 11)
+                .field("bssid", "00:c0:ca:95:68:3b")
+                .field("signal", -57L)
+                .field("quality", 0.75D)
+                .field("nothing", null)
+                .end();
+
+        byte[] bytes = bytes(encoder);
+        assertEquals(bytes[bytes.length - 1], 0);
+
+        JsonNode json = om.readTree(Arrays.copyOf(bytes, bytes.length - 1));
+        assertEquals(json.get("version").asText(), "1.1");
+        assertEquals(json.get("host").asText(), "nzyme");
+        assertEquals(json.get("short_message").asText(), "hello");
+        assertEquals(json.get("timestamp").decimalValue().toPlainString(), "1600000000.123");
+        assertEquals(json.get("_channel").asInt(), 11);
+        assertTrue(json.get("_channel").isNumber());
+        assertEquals(json.get("_bssid").asText(), "00:c0:ca:95:68:3b");
+        assertEquals(json.get("_signal").asLong(), -57L);
+        assertEquals(json.get("_quality").asDouble(), 0.75D);
+        assertFalse(json.has("_nothing"));
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        String nasty = "\"quoted\" \\ back\nslash\t\u0001 ünïcödé € 🐴";
+
+        GelfEncoder encoder = new GelfEncoder();
+        encoder.begin("nzyme", nasty, 0).field("ssid", nasty).end();
+
+        byte[] bytes = bytes(encoder);
+        JsonNode json = om.readTree(Arrays.copyOf(bytes, bytes.length - 1));
+        assertEquals(json.get("short_message").asText(), nasty);
+        assertEquals(json.get("_ssid").asText(), nasty);
+        assertEquals(json.get("timestamp").asDouble(), 0.0D);
+    }
+
+    @Test
+    public void testMultipleMessagesAndReset() throws IOException {
+        GelfEncoder encoder = new GelfEncoder();
+        for (int i = 0; i < 10000; i++) {
+            encoder.begin("nzyme", "message " + i, i).field("i", i).end();
+        }
+
+        byte[] bytes = bytes(encoder);
+        int terminators = 0;
+        for (byte b : bytes) {
+            if (b == 0) {
+                terminators++;
+            }
+        }
+        assertEquals(terminators, 10000);
+
+        encoder.reset();
+        assertEquals(encoder.length(), 0);
+    }
+
+    private byte[] bytes(GelfEncoder encoder) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(out);
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,171 @@
+package horse.wtf.nzyme.notifications.uplinks.graylog;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.notifications.Notification;
+import horse.wtf.nzyme.util.MetricNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.*;
+
+public class GraylogUplinkTest {
+
+    private static final Logger LOG = LogManager.getLogger(GraylogUplinkTest.class);
+
+    private TcpSink sink;
+
+    @BeforeMethod
+    public void startSink() throws IOException {
+        sink = new TcpSink();
+    }
+
+    @AfterMethod
+    public void stopSink() throws IOException {
+        sink.close();
+    }
+
+    @Test
+    public void testNotification() throws Exception {
+        sink.keepMessages = true;
+        GraylogUplink uplink = new GraylogUplink(sink.address(), "sensor-1", new MetricRegistry());
+
+        uplink.notify(
+                new Notification("foo", 6).addField("transmitter", "00:c0:ca:95:68:3b"),
+                new Dot11MetaInformation(false, -50, 2437, 6, 12345L, false, 1600000000123L)
+        );
+
+        sink.await(1);
+        JsonNode json = new ObjectMapper().readTree(sink.messages.get(0));
+        assertEquals(json.get("short_message").asText(), "foo (2437MHz @ -50dBm)");
+        assertEquals(json.get("timestamp").decimalValue().toPlainString(), "1600000000.123");
+        assertEquals(json.get("_channel").asInt(), 6);
+        assertEquals(json.get("_transmitter").asText(), "00:c0:ca:95:68:3b");
+        assertEquals(json.get("_nzyme_sensor_id").asText(), "sensor-1");
+        assertEquals(json.get("_nzyme_message_type").asText(), "frame_record");
+        assertEquals(json.get("_antenna_signal").asInt(), -50);
+        assertEquals(json.get("_mac_timestamp").asLong(), 12345L);
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        GraylogUplink uplink = new GraylogUplink(sink.address(), "sensor-1", metrics);
+        Dot11MetaInformation meta = new Dot11MetaInformation(false, -50, 2437, 6, 12345L, false);
+
+        int count = 200_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            uplink.notify(new Notification("Received beacon from 00:c0:ca:95:68:3b for SSID foo", 6)
+                    .addField("transmitter", "00:c0:ca:95:68:3b")
+                    .addField("ssid", "foo"), meta);
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (uplink.getSentCount() + uplink.getDroppedCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        sink.await(uplink.getSentCount());
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(uplink.getSentCount() + uplink.getDroppedCount(), count);
+        assertEquals(sink.received.get(), uplink.getSentCount());
+        assertEquals(metrics.getGauges().get(MetricRegistry.name(MetricNames.GRAYLOG_UPLINK_QUEUE_SIZE,
+                sink.address().getHostString() + ":" + sink.address().getPort())).getValue(), 0);
+
+        LOG.info("Sent <{}> GELF messages ({} dropped) at <{}> messages/sec.",
+                uplink.getSentCount(), uplink.getDroppedCount(),
+                sink.received.get() * TimeUnit.SECONDS.toNanos(1) / elapsed);
+    }
+
+    @Test
+    public void testDropsWithoutConnection() throws Exception {
+        InetSocketAddress address = sink.address();
+        sink.close();
+
+        GraylogUplink uplink = new GraylogUplink(address, "sensor-1", new MetricRegistry());
+        for (int i = 0; i < 10; i++) {
+            uplink.notify(new Notification("foo", 6), null);
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (uplink.getDroppedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // The failed batch is counted instead of silently lost.
+        assertTrue(uplink.getDroppedCount() > 0);
+        assertEquals(uplink.getSentCount(), 0);
+        assertTrue(uplink.getDroppedCount() + uplink.getQueueSize() <= 10);
+    }
+
+    private static class TcpSink {
+
+        private final ServerSocket server;
+        private final AtomicLong received = new AtomicLong(0);
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private volatile boolean keepMessages = false;
+
+        private TcpSink() throws IOException {
+            this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+            Thread acceptor = new Thread(() -> {
+                try (Socket socket = server.accept(); InputStream in = socket.getInputStream()) {
+                    ByteArrayOutputStream message = new ByteArrayOutputStream();
+                    byte[] buf = new byte[65536];
+                    int read;
+                    while ((read = in.read(buf)) != -1) {
+                        for (int i = 0; i < read; i++) {
+                            if (buf[i] == 0) {
+                                if (keepMessages) {
+                                    messages.add(message.toString("UTF-8"));
+                                }
+                                message.reset();
+                                received.incrementAndGet();
+                            } else if (keepMessages) {
+                                message.write(buf[i]);
+                            }
+                        }
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private InetSocketAddress address() {
+            return new InetSocketAddress(server.getInetAddress(), server.getLocalPort());
+        }
+
+        private void await(long count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (received.get() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        private void close() throws IOException {
+            server.close();
+        }
+
+    }
+
+}
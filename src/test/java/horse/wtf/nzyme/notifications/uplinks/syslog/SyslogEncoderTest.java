@@ -0,0 +1,51 @@
+package horse.wtf.nzyme.notifications.uplinks.syslog;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class SyslogEncoderTest {
+
+    @Test
+    public void testRFC5424() {
+        SyslogEncoder encoder = new SyslogEncoder(SyslogEncoder.Format.RFC_5424, "sensor.example.org", "nzyme");
+        encoder.begin(1600000000123L, "frame_record")
+                .beginStructuredData()
+                .param("ssid", "a\"b]c\\d")
+                .param("channel", 6)
+                .param("nothing", null)
+                .param("mac_timestamp", 12345L)
+                .endStructuredData()
+                .text(" Received beacon for SSID ünïcödé");
+
+        assertEquals(encoder.toString(), "<14>1 2020-09-13T12:26:40.123Z sensor.example.org nzyme - frame_record " +
+                "[nzyme ssid=\"a\\\"b\\]c\\\\d\" channel=\"6\" mac_timestamp=\"12345\"] Received beacon for SSID ünïcödé");
+    }
+
+    @Test
+    public void testRFC3164() {
+        SyslogEncoder encoder = new SyslogEncoder(SyslogEncoder.Format.RFC_3164, "sensor", "nzyme");
+        encoder.begin(1600000000123L, "frame_record")
+                .text("hello")
+                .param("ssid", "a\"b]c")
+                .param("channel", 6);
+
+        assertTrue(encoder.toString().matches("^<14>[A-Z][a-z]{2} [ 0-9]\\d \\d\\d:\\d\\d:\\d\\d sensor nzyme: " +
+                "hello ssid=\"a\\\\\"b]c\" channel=\"6\"$"), encoder.toString());
+    }
+
+    @Test
+    public void testResetAndTimestampCache() {
+        SyslogEncoder encoder = new SyslogEncoder(SyslogEncoder.Format.RFC_5424, "sensor", "nzyme");
+
+        encoder.begin(1600000000999L, "a").text("x");
+        assertEquals(encoder.toString(), "<14>1 2020-09-13T12:26:40.999Z sensor nzyme - a x");
+
+        encoder.reset().begin(1600000001000L, "a").text("x");
+        assertEquals(encoder.toString(), "<14>1 2020-09-13T12:26:41.000Z sensor nzyme - a x");
+
+        encoder.reset().begin(1600000001005L, "a").text("x");
+        assertEquals(encoder.toString(), "<14>1 2020-09-13T12:26:41.005Z sensor nzyme - a x");
+    }
+
+}
@@ -17,6 +17,7 @@
 
 package horse.wtf.nzyme.notifications.uplinks.syslog;
 
+import com.codahale.metrics.MetricRegistry;
 import horse.wtf.nzyme.dot11.Dot11MetaInformation;
 import horse.wtf.nzyme.notifications.Notification;
 import org.testng.annotations.Test;
@@ -30,17 +31,21 @@ public class SyslogUDPRFC3164UDPUplinkTest {
     protected static final Dot11MetaInformation META_NO_WEP = new Dot11MetaInformation(false, 100, 2400, 1, 0L, false);
 
     @Test
-    public void testBuildMessage() {
-        SyslogUDPRFC3164UDPUplink up = new SyslogUDPRFC3164UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo");
-        String msg = up.buildMessage(new Notification("Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm)", 11), META_NO_WEP);
-        assertEquals(msg, "Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm) (2400MHz @ 100dBm) channel=\"11\" nzyme_sensor_id=\"foo\" nzyme_message_type=\"frame_record\" antenna_signal=\"100\" frequency=\"2400\" signal_quality=\"100\" mac_timestamp=\"0\"");
+    public void testEncode() {
+        SyslogUDPRFC3164UDPUplink up = new SyslogUDPRFC3164UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo", new MetricRegistry());
+        up.encodeNotification(new Notification("Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm)", 11), META_NO_WEP);
+
+        String msg = up.encoder.toString();
+        assertEquals(msg.substring(msg.indexOf(" nzyme: ") + 8), "Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm) (2400MHz @ 100dBm) channel=\"11\" nzyme_sensor_id=\"foo\" nzyme_message_type=\"frame_record\" antenna_signal=\"100\" frequency=\"2400\" signal_quality=\"100\" mac_timestamp=\"0\"");
     }
 
     @Test
-    public void testBuildMessageNoMeta() {
-        SyslogUDPRFC3164UDPUplink up = new SyslogUDPRFC3164UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo");
-        String msg = up.buildMessage(new Notification("Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm)", 11), null);
-        assertEquals(msg, "Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm) channel=\"11\" nzyme_sensor_id=\"foo\" nzyme_message_type=\"frame_record\"");
+    public void testEncodeNoMeta() {
+        SyslogUDPRFC3164UDPUplink up = new SyslogUDPRFC3164UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo", new MetricRegistry());
+        up.encodeNotification(new Notification("Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm)", 11).addField("ssid", "a\"b]c"), null);
+
+        String msg = up.encoder.toString();
+        assertEquals(msg.substring(msg.indexOf(" nzyme: ") + 8), "Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm) channel=\"11\" ssid=\"a\\\"b]c\" nzyme_sensor_id=\"foo\" nzyme_message_type=\"frame_record\"");
     }
 
-}
\ No newline at end of file
+}
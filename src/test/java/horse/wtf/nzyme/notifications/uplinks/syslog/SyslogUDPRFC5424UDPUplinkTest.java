@@ -17,8 +17,11 @@
 
 package horse.wtf.nzyme.notifications.uplinks.syslog;
 
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.alerts.UnexpectedSSIDBeaconAlert;
 import horse.wtf.nzyme.dot11.Dot11MetaInformation;
 import horse.wtf.nzyme.notifications.Notification;
+import org.joda.time.DateTime;
 import org.testng.annotations.Test;
 
 import java.net.InetSocketAddress;
@@ -29,18 +32,58 @@ public class SyslogUDPRFC5424UDPUplinkTest {
 
     protected static final Dot11MetaInformation META_NO_WEP = new Dot11MetaInformation(false, 100, 2400, 1, 0L, false);
 
+    private static final String MESSAGE = "Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm)";
+
+    @Test
+    public void testEncode() {
+        SyslogUDPRFC5424UDPUplink up = new SyslogUDPRFC5424UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo", new MetricRegistry());
+        up.encodeNotification(new Notification(MESSAGE, 11), META_NO_WEP);
+
+        String msg = up.encoder.toString();
+        assertTrue(msg.startsWith("<14>1 "), msg);
+        assertTrue(msg.endsWith(" nzyme - frame_record [nzyme channel=\"11\" nzyme_sensor_id=\"foo\" " +
+                "nzyme_message_type=\"frame_record\" antenna_signal=\"100\" frequency=\"2400\" signal_quality=\"100\" " +
+                "mac_timestamp=\"0\"] " + MESSAGE + " (2400MHz @ 100dBm)"), msg);
+    }
+
     @Test
-    public void testBuildMessage() {
-        SyslogUDPRFC5424UDPUplink up = new SyslogUDPRFC5424UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo");
-        String msg = up.buildMessage(new Notification("Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm)", 11), META_NO_WEP);
-        assertEquals(msg, "Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm) (2400MHz @ 100dBm) channel=\"11\" nzyme_sensor_id=\"foo\" nzyme_message_type=\"frame_record\" antenna_signal=\"100\" frequency=\"2400\" signal_quality=\"100\" mac_timestamp=\"0\"");
+    public void testEncodeNoMeta() {
+        SyslogUDPRFC5424UDPUplink up = new SyslogUDPRFC5424UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo", new MetricRegistry());
+        up.encodeNotification(new Notification(MESSAGE, 11), null);
+
+        String msg = up.encoder.toString();
+        assertTrue(msg.endsWith(" nzyme - frame_record [nzyme channel=\"11\" nzyme_sensor_id=\"foo\" " +
+                "nzyme_message_type=\"frame_record\"] " + MESSAGE), msg);
     }
 
     @Test
-    public void testBuildMessageNoMeta() {
-        SyslogUDPRFC5424UDPUplink up = new SyslogUDPRFC5424UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo");
-        String msg = up.buildMessage(new Notification("Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm)", 11), null);
-        assertEquals(msg, "Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises (2417MHz @ -1dBm) channel=\"11\" nzyme_sensor_id=\"foo\" nzyme_message_type=\"frame_record\"");
+    public void testEncodeEscapesParamValues() {
+        SyslogUDPRFC5424UDPUplink up = new SyslogUDPRFC5424UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo", new MetricRegistry());
+        up.encodeNotification(new Notification("x]\"\\", 11).addField("ssid", "a]b\"c\\d"), null);
+
+        // PARAM-VALUE escapes ']', '"' and '\'. The free-form message after the structured data does not.
+        String msg = up.encoder.toString();
+        assertTrue(msg.contains("[nzyme channel=\"11\" ssid=\"a\\]b\\\"c\\\\d\" nzyme_sensor_id=\"foo\" " +
+                "nzyme_message_type=\"frame_record\"] x]\"\\"), msg);
+    }
+
+    @Test
+    public void testEncodeAlert() {
+        SyslogUDPRFC5424UDPUplink up = new SyslogUDPRFC5424UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "foo", new MetricRegistry());
+        up.encodeAlert(UnexpectedSSIDBeaconAlert.create(DateTime.now(), "wtf", "00:c0:ca:95:68:3b", 1, 1000, -50, 1));
+
+        String msg = up.encoder.toString();
+        assertTrue(msg.contains(" nzyme - alert [nzyme "), msg);
+        assertTrue(msg.contains(" ssid=\"wtf\""), msg);
+        assertTrue(msg.contains(" nzyme_sensor_id=\"foo\" nzyme_message_type=\"alert\" alert_type=\"unexpected_ssid_beacon\"] ALERT: "), msg);
+    }
+
+    @Test
+    public void testConfiguredStructuredDataId() {
+        SyslogUDPRFC5424UDPUplink up = new SyslogUDPRFC5424UDPUplink(InetSocketAddress.createUnresolved("127.0.0.1", 9001), "nzyme@12345", "foo", new MetricRegistry());
+        up.encodeNotification(new Notification(MESSAGE, 11), null);
+
+        assertTrue(up.encoder.toString().contains(" frame_record [nzyme@12345 channel=\"11\" "), up.encoder.toString());
     }
 
-}
\ No newline at end of file
+}
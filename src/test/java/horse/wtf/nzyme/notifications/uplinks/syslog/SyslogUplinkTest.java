@@ -0,0 +1,237 @@
+package horse.wtf.nzyme.notifications.uplinks.syslog;
+
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.notifications.Notification;
+import horse.wtf.nzyme.notifications.uplinks.QueuedUplink;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.annotations.Test;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.*;
+
+public class SyslogUplinkTest {
+
+    private static final Logger LOG = LogManager.getLogger(SyslogUplinkTest.class);
+
+    private static final Dot11MetaInformation META = new Dot11MetaInformation(false, -50, 2437, 6, 12345L, false, 1600000000123L);
+
+    @Test
+    public void testRFC3164OverUDP() throws Exception {
+        try (UdpReceiver receiver = new UdpReceiver(true)) {
+            SyslogUDPRFC3164UDPUplink uplink = new SyslogUDPRFC3164UDPUplink(receiver.address(), "foo", new MetricRegistry());
+            Notification notification = new Notification("Received beacon from 82:2a:a8:0c:01:a2", 11).addField("ssid", "a\"b");
+
+            uplink.notify(notification, META);
+            receiver.await(1);
+
+            String message = receiver.messages.get(0);
+            assertTrue(message.startsWith("<14>"));
+            assertEquals(message.substring(message.indexOf("nzyme: ") + 7), "Received beacon from 82:2a:a8:0c:01:a2 " +
+                    "(2437MHz @ -50dBm) channel=\"11\" ssid=\"a\\\"b\" nzyme_sensor_id=\"foo\" " +
+                    "nzyme_message_type=\"frame_record\" antenna_signal=\"-50\" frequency=\"2437\" " +
+                    "signal_quality=\"100\" mac_timestamp=\"12345\"");
+        }
+    }
+
+    @Test
+    public void testRFC5424OverTCP() throws Exception {
+        try (TcpReceiver receiver = new TcpReceiver(true)) {
+            SyslogTCPRFC5424Uplink uplink = new SyslogTCPRFC5424Uplink(receiver.address(), "foo", new MetricRegistry());
+
+            for (int i = 0; i < 3; i++) {
+                uplink.notify(new Notification("Received beacon " + i, 11).addField("ssid", "ünïcödé]"), META);
+            }
+            receiver.await(3);
+
+            assertEquals(receiver.messages.size(), 3);
+            for (int i = 0; i < 3; i++) {
+                String message = receiver.messages.get(i);
+                assertTrue(message.startsWith("<14>1 2020-09-13T12:26:40.123Z "), message);
+                assertTrue(message.contains(" nzyme - frame_record [nzyme channel=\"11\" ssid=\"ünïcödé\\]\" " +
+                        "nzyme_sensor_id=\"foo\" nzyme_message_type=\"frame_record\" antenna_signal=\"-50\" " +
+                        "frequency=\"2437\" signal_quality=\"100\" mac_timestamp=\"12345\"] Received beacon " + i
+                        + " (2437MHz @ -50dBm)"), message);
+            }
+        }
+    }
+
+    @Test
+    public void testThroughputUDPAndTCP() throws Exception {
+        int count = 100_000;
+
+        try (UdpReceiver receiver = new UdpReceiver(false)) {
+            SyslogUDPRFC5424UDPUplink uplink = new SyslogUDPRFC5424UDPUplink(receiver.address(), "foo", new MetricRegistry());
+            measure("UDP", uplink, count, receiver.received, receiver.bytes);
+        }
+
+        try (TcpReceiver receiver = new TcpReceiver(false)) {
+            SyslogTCPRFC5424Uplink uplink = new SyslogTCPRFC5424Uplink(receiver.address(), "foo", new MetricRegistry());
+            measure("TCP", uplink, count, receiver.received, receiver.bytes);
+
+            // Stream transport. Everything that was sent arrived.
+            assertEquals(receiver.received.get(), uplink.getSentCount());
+        }
+    }
+
+    private void measure(String transport, QueuedUplink uplink, int count, AtomicLong received, AtomicLong bytes) throws InterruptedException {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            uplink.notify(new Notification("Received beacon from 82:2a:a8:0c:01:a2 for SSID Flancrest-Enterprises", 11)
+                    .addField("transmitter", "82:2a:a8:0c:01:a2")
+                    .addField("ssid", "Flancrest-Enterprises"), META);
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (uplink.getSentCount() + uplink.getDroppedCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Give the receiver a moment to catch up with the last batch.
+        long before;
+        do {
+            before = received.get();
+            Thread.sleep(50);
+        } while (received.get() != before);
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(uplink.getSentCount() + uplink.getDroppedCount(), count);
+        assertTrue(received.get() <= uplink.getSentCount());
+
+        LOG.info("{}: Sent <{}> syslog messages ({} dropped), received <{}> at <{}> messages/sec. <{}> bytes on the " +
+                        "wire, <{}> bytes per message.",
+                transport, uplink.getSentCount(), uplink.getDroppedCount(), received.get(),
+                received.get() * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                bytes.get(), received.get() == 0 ? 0 : bytes.get() / received.get());
+    }
+
+    private static class UdpReceiver implements Closeable {
+
+        private final DatagramSocket socket;
+        private final AtomicLong received = new AtomicLong(0);
+        private final AtomicLong bytes = new AtomicLong(0);
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        private UdpReceiver(boolean keepMessages) throws IOException {
+            this.socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+            this.socket.setReceiveBufferSize(4 * 1024 * 1024);
+
+            Thread t = new Thread(() -> {
+                byte[] buf = new byte[65536];
+                DatagramPacket packet = new DatagramPacket(buf, buf.length);
+                try {
+                    while (true) {
+                        socket.receive(packet);
+                        if (keepMessages) {
+                            messages.add(new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8));
+                        }
+                        bytes.addAndGet(packet.getLength());
+                        received.incrementAndGet();
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+            t.setDaemon(true);
+            t.start();
+        }
+
+        private InetSocketAddress address() {
+            return new InetSocketAddress(socket.getLocalAddress(), socket.getLocalPort());
+        }
+
+        private void await(long count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (received.get() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        @Override
+        public void close() {
+            socket.close();
+        }
+
+    }
+
+    private static class TcpReceiver implements Closeable {
+
+        private final ServerSocket server;
+        private final AtomicLong received = new AtomicLong(0);
+        private final AtomicLong bytes = new AtomicLong(0);
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        private TcpReceiver(boolean keepMessages) throws IOException {
+            this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+            Thread t = new Thread(() -> {
+                try (Socket socket = server.accept(); InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                    while (true) {
+                        // Octet counting: MSG-LEN SP SYSLOG-MSG
+                        int length = 0;
+                        int b;
+                        int prefix = 1;
+                        while ((b = in.read()) != ' ') {
+                            if (b == -1) {
+                                return;
+                            }
+                            length = length * 10 + (b - '0');
+                            prefix++;
+                        }
+
+                        byte[] message = new byte[length];
+                        int read = 0;
+                        while (read < length) {
+                            int r = in.read(message, read, length - read);
+                            if (r == -1) {
+                                return;
+                            }
+                            read += r;
+                        }
+
+                        if (keepMessages) {
+                            messages.add(new String(message, StandardCharsets.UTF_8));
+                        }
+                        bytes.addAndGet(prefix + length);
+                        received.incrementAndGet();
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+            t.setDaemon(true);
+            t.start();
+        }
+
+        private InetSocketAddress address() {
+            return new InetSocketAddress(server.getInetAddress(), server.getLocalPort());
+        }
+
+        private void await(long count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (received.get() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+
+    }
+
+}
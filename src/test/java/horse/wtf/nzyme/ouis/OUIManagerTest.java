@@ -0,0 +1,90 @@
+package horse.wtf.nzyme.ouis;
+
+import com.google.common.collect.ImmutableMap;
+import horse.wtf.nzyme.MockNzyme;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class OUIManagerTest {
+
+    // Independent of whether the build bundled a snapshot.
+    private static final String NO_SNAPSHOT = "/ouis/does-not-exist.cache";
+
+    @Test
+    public void testInitializeFromCache() throws IOException {
+        File dir = Files.createTempDirectory("nzyme-ouis").toFile();
+        File cache = new File(dir, OUIManager.CACHE_FILE_NAME);
+        OUIManager.writeCache(OUITable.of(ImmutableMap.of(0x00C0CA, "ALFA, INC.")), cache);
+
+        OUIManager manager = new OUIManager(new MockNzyme(), cache);
+        assertEquals(manager.getTableSize(), 0);
+
+        manager.initialize();
+        assertEquals(manager.getTableSize(), 1);
+        assertEquals(manager.lookupBSSID("00:c0:ca:95:68:3b"), "ALFA, INC.");
+        assertNull(manager.lookupBSSID("12:34:56:1d:c8:f1"));
+
+        // Fresh cache. Refresh is not due yet.
+        assertTrue(manager.millisUntilRefresh() > TimeUnit.HOURS.toMillis(OUIManager.REFRESH_INTERVAL_HOURS - 1));
+
+        assertTrue(cache.setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(13)));
+        assertEquals(manager.millisUntilRefresh(), 0);
+    }
+
+    @Test
+    public void testInitializeWithoutCache() throws IOException {
+        File dir = Files.createTempDirectory("nzyme-ouis").toFile();
+        OUIManager manager = new OUIManager(new MockNzyme(), new File(dir, OUIManager.CACHE_FILE_NAME), NO_SNAPSHOT);
+
+        manager.initialize();
+        assertEquals(manager.getTableSize(), 0);
+        assertNull(manager.lookupBSSID("00:c0:ca:95:68:3b"));
+        assertEquals(manager.millisUntilRefresh(), 0);
+    }
+
+    @Test
+    public void testCorruptCacheIsIgnored() throws IOException {
+        File dir = Files.createTempDirectory("nzyme-ouis").toFile();
+        File cache = new File(dir, OUIManager.CACHE_FILE_NAME);
+        Files.write(cache.toPath(), "foo".getBytes());
+
+        OUIManager manager = new OUIManager(new MockNzyme(), cache, NO_SNAPSHOT);
+        manager.initialize();
+        assertEquals(manager.getTableSize(), 0);
+    }
+
+    @Test
+    public void testInitializeFromSnapshot() throws IOException {
+        File dir = Files.createTempDirectory("nzyme-ouis").toFile();
+        OUIManager manager = new OUIManager(new MockNzyme(), new File(dir, OUIManager.CACHE_FILE_NAME), "/ouis/snapshot.cache");
+
+        manager.initialize();
+        assertEquals(manager.getTableSize(), 3);
+        assertEquals(manager.lookupBSSID("00:c0:ca:95:68:3b"), "ALFA, INC.");
+
+        // A snapshot is not a cache. The first refresh is still due immediately.
+        assertEquals(manager.millisUntilRefresh(), 0);
+    }
+
+    @Test
+    public void testBundledSnapshotLoads() throws IOException {
+        if (OUIManager.class.getResource(OUIManager.BUNDLED_SNAPSHOT) == null) {
+            throw new SkipException("Built without OUI snapshot. (-Poui-snapshot)");
+        }
+
+        File dir = Files.createTempDirectory("nzyme-ouis").toFile();
+        OUIManager manager = new OUIManager(new MockNzyme(), new File(dir, OUIManager.CACHE_FILE_NAME));
+
+        manager.initialize();
+        assertTrue(manager.getTableSize() > 0);
+        assertNotNull(manager.lookupBSSID("00:c0:ca:95:68:3b"));
+    }
+
+}
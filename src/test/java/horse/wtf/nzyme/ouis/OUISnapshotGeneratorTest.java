@@ -0,0 +1,65 @@
+package horse.wtf.nzyme.ouis;
+
+import horse.wtf.nzyme.ResourcesAccessingTest;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.testng.Assert.*;
+
+public class OUISnapshotGeneratorTest extends ResourcesAccessingTest {
+
+    private static final String FIXTURE_SHA256 = "8786077ac37138e96d084ebbba8543f6b98e31785ae1a5902fe2d762922cc497";
+
+    @Test
+    public void testGenerate() throws IOException {
+        File target = new File(Files.createTempDirectory("nzyme-ouis").toFile(), "ouis/ouis.cache");
+
+        OUITable table = OUISnapshotGenerator.generate(loadFromResourceFile("ouis/oui.txt").getPath(), FIXTURE_SHA256, target);
+        assertEquals(table.size(), 3);
+
+        // The snapshot fixture used by OUIManagerTest is the output of the generator.
+        assertEquals(Files.readAllBytes(target.toPath()),
+                Files.readAllBytes(loadFromResourceFile("ouis/snapshot.cache").toPath()));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testGenerateRejectsEmptyRegistry() throws IOException {
+        File dir = Files.createTempDirectory("nzyme-ouis").toFile();
+        File source = new File(dir, "oui.txt");
+        Files.write(source.toPath(), "foo".getBytes());
+
+        OUISnapshotGenerator.generate(source.getPath(),
+                "2c26b46b68ffc68ff99b453c1d30413413422d706483bfa0f98a5e886266e7ae", new File(dir, "ouis.cache"));
+    }
+
+    @Test
+    public void testGenerateRejectsChecksumMismatch() throws IOException {
+        File target = new File(Files.createTempDirectory("nzyme-ouis").toFile(), "ouis.cache");
+
+        try {
+            OUISnapshotGenerator.generate(loadFromResourceFile("ouis/oui.txt").getPath(),
+                    "2c26b46b68ffc68ff99b453c1d30413413422d706483bfa0f98a5e886266e7ae", target);
+            fail("Expected checksum mismatch.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Checksum mismatch"));
+        }
+
+        assertFalse(target.exists());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testGenerateRequiresChecksum() throws IOException {
+        File target = new File(Files.createTempDirectory("nzyme-ouis").toFile(), "ouis.cache");
+        OUISnapshotGenerator.generate(loadFromResourceFile("ouis/oui.txt").getPath(), "", target);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testGenerateRefusesPlainHttp() throws IOException {
+        File target = new File(Files.createTempDirectory("nzyme-ouis").toFile(), "ouis.cache");
+        OUISnapshotGenerator.generate("http://standards-oui.ieee.org/oui/oui.txt", FIXTURE_SHA256, target);
+    }
+
+}
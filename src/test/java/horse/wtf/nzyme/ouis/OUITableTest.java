@@ -0,0 +1,95 @@
+package horse.wtf.nzyme.ouis;
+
+import com.google.common.collect.ImmutableMap;
+import horse.wtf.nzyme.ResourcesAccessingTest;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import static org.testng.Assert.*;
+
+public class OUITableTest extends ResourcesAccessingTest {
+
+    @Test
+    public void testParseIEEE() throws IOException {
+        OUITable table = parseFixture();
+
+        assertEquals(table.size(), 3);
+        assertEquals(table.lookup(0x00000C), "Cisco Systems, Inc");
+        assertEquals(table.lookup(0x00C0CA), "ALFA, INC.");
+        assertEquals(table.lookup(0xB0935B), "ARRIS Group, Inc.");
+        assertNull(table.lookup(0x123456));
+    }
+
+    @Test
+    public void testLookupByMac() throws IOException {
+        OUITable table = parseFixture();
+
+        assertEquals(table.lookup("00:c0:ca:95:68:3b"), "ALFA, INC.");
+        assertEquals(table.lookup("00:C0:CA:95:68:3B"), "ALFA, INC.");
+        assertEquals(table.lookup("00-C0-CA-95-68-3B"), "ALFA, INC.");
+        assertEquals(table.lookup("b0:93:5b:1d:c8:f1"), "ARRIS Group, Inc.");
+        assertNull(table.lookup("12:34:56:1d:c8:f1"));
+        assertNull(table.lookup("foo"));
+        assertNull(table.lookup(""));
+        assertNull(table.lookup(null));
+    }
+
+    @Test
+    public void testPrefixOf() {
+        assertEquals(OUITable.prefixOf("00:c0:ca:95:68:3b"), 0x00C0CA);
+        assertEquals(OUITable.prefixOf("ff:ff:ff:ff:ff:ff"), 0xFFFFFF);
+        assertEquals(OUITable.prefixOf("00C0CA"), 0x00C0CA);
+        assertEquals(OUITable.prefixOf("00:c0"), -1);
+        assertEquals(OUITable.prefixOf("00:c0:zz:95:68:3b"), -1);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(OUITable.empty().isEmpty());
+        assertNull(OUITable.empty().lookup("00:c0:ca:95:68:3b"));
+    }
+
+    @Test
+    public void testCacheRoundTrip() throws IOException {
+        OUITable table = parseFixture();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out);
+        OUITable read = OUITable.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(read.size(), 3);
+        assertEquals(read.lookup("00:00:0c:11:22:33"), "Cisco Systems, Inc");
+        assertEquals(read.lookup("00:c0:ca:95:68:3b"), "ALFA, INC.");
+        assertEquals(read.lookup("b0:93:5b:1d:c8:f1"), "ARRIS Group, Inc.");
+        assertNull(read.lookup("12:34:56:1d:c8:f1"));
+    }
+
+    @Test
+    public void testCacheSharesVendorNames() throws IOException {
+        OUITable table = OUITable.of(ImmutableMap.of(0x000001, "Foo, Inc.", 0x000002, "Foo, Inc.", 0x000003, "Bar"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out);
+        OUITable read = OUITable.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertSame(read.lookup(0x000001), read.lookup(0x000002));
+        assertEquals(read.lookup(0x000003), "Bar");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadFromRejectsGarbage() throws IOException {
+        OUITable.readFrom(new ByteArrayInputStream("(base 16) foo".getBytes()));
+    }
+
+    private OUITable parseFixture() throws IOException {
+        try (Reader reader = new FileReader(loadFromResourceFile("ouis/oui.txt"))) {
+            return OUITable.parseIEEE(reader);
+        }
+    }
+
+}
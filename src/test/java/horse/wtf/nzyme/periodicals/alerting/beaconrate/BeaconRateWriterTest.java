@@ -0,0 +1,131 @@
+package horse.wtf.nzyme.periodicals.alerting.beaconrate;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Maps;
+import horse.wtf.nzyme.MockNzyme;
+import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.dot11.MalformedFrameException;
+import horse.wtf.nzyme.dot11.anonymization.Anonymizer;
+import horse.wtf.nzyme.dot11.networks.BSSID;
+import horse.wtf.nzyme.dot11.networks.SSID;
+import horse.wtf.nzyme.dot11.parsers.Dot11BeaconFrameParser;
+import horse.wtf.nzyme.dot11.parsers.Frames;
+import horse.wtf.nzyme.util.MetricNames;
+import org.pcap4j.packet.IllegalRawDataException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class BeaconRateWriterTest {
+
+    @BeforeMethod
+    public void cleanHistory() {
+        NzymeLeader nzyme = new MockNzyme();
+        nzyme.getDatabase().useHandle(handle -> {
+            handle.execute("ALTER TABLE beacon_rate_history DROP CONSTRAINT IF EXISTS test_reject_wtf");
+            handle.execute("DELETE FROM beacon_rate_history");
+        });
+    }
+
+    @Test
+    public void testWritesOneRowPerSSID() throws MalformedFrameException, IllegalRawDataException {
+        NzymeLeader nzyme = new MockNzyme();
+        Dot11BeaconFrameParser parser = new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, ""));
+
+        for (int i = 0; i < 3; i++) {
+            nzyme.getNetworks().registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER,
+                    new Dot11MetaInformation(false, -50, 2400, 1, 0L, false)));
+        }
+        nzyme.getNetworks().registerBeaconFrame(parser.parse(Frames.BEACON_3_PAYLOAD, Frames.BEACON_3_HEADER,
+                new Dot11MetaInformation(false, -50, 2400, 1, 0L, false)));
+
+        // What the writer has to persist.
+        Map<String, Integer> expected = Maps.newHashMap();
+        for (BSSID bssid : nzyme.getNetworks().getBSSIDs().values()) {
+            for (SSID ssid : bssid.ssids().values()) {
+                expected.put(ssid.name(), ssid.beaconCount.get());
+            }
+        }
+
+        new BeaconRateWriter(nzyme).execute();
+
+        List<Map<String, Object>> rows = nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT bssid, ssid, beacon_rate FROM beacon_rate_history ORDER BY ssid")
+                        .mapToMap()
+                        .list()
+        );
+
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(0).get("bssid"), "06:0d:2d:c9:36:23");
+        assertEquals(rows.get(0).get("ssid"), "United_Wi-Fi");
+        assertEquals(rows.get(1).get("bssid"), "00:c0:ca:95:68:3b");
+        assertEquals(rows.get(1).get("ssid"), "WTF");
+        for (Map<String, Object> row : rows) {
+            assertEquals(((Number) row.get("beacon_rate")).intValue(), (int) expected.get((String) row.get("ssid")));
+        }
+
+        // Counters are reset after every write.
+        for (BSSID bssid : nzyme.getNetworks().getBSSIDs().values()) {
+            for (SSID ssid : bssid.ssids().values()) {
+                assertEquals(ssid.beaconCount.get(), 0);
+            }
+        }
+
+        assertEquals(nzyme.getMetrics().meter(MetricNames.BEACON_RATE_WRITER_ROWS).getCount(), 2);
+        assertEquals(nzyme.getMetrics().timer(MetricNames.BEACON_RATE_WRITER_TIMING).getCount(), 1);
+    }
+
+    @Test
+    public void testFailedWriteKeepsItsOwnRow() throws MalformedFrameException, IllegalRawDataException {
+        NzymeLeader nzyme = new MockNzyme();
+        Dot11BeaconFrameParser parser = new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, ""));
+        BeaconRateWriter writer = new BeaconRateWriter(nzyme);
+
+        for (int i = 0; i < 3; i++) {
+            nzyme.getNetworks().registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER,
+                    new Dot11MetaInformation(false, -50, 2400, 1, 0L, false)));
+        }
+        SSID ssid = nzyme.getNetworks().getBSSIDs().get("00:c0:ca:95:68:3b").ssids().get("WTF");
+        int counted = ssid.beaconCount.get();
+
+        // Make the insert fail.
+        nzyme.getDatabase().useHandle(handle ->
+                handle.execute("ALTER TABLE beacon_rate_history ADD CONSTRAINT test_reject_wtf CHECK (ssid <> 'WTF')"));
+        try {
+            writer.execute();
+        } finally {
+            nzyme.getDatabase().useHandle(handle ->
+                    handle.execute("ALTER TABLE beacon_rate_history DROP CONSTRAINT test_reject_wtf"));
+        }
+
+        // The counter starts over for the next period.
+        assertEquals(ssid.beaconCount.get(), 0);
+        assertEquals(nzyme.getMetrics().meter(MetricNames.BEACON_RATE_WRITER_ROWS).getCount(), 0);
+
+        nzyme.getNetworks().registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER,
+                new Dot11MetaInformation(false, -50, 2400, 1, 0L, false)));
+        writer.execute();
+
+        // The next run writes the failed period and its own period as separate rows.
+        List<Map<String, Object>> rows = nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT beacon_rate, created_at FROM beacon_rate_history WHERE ssid = 'WTF' " +
+                                "ORDER BY created_at, id")
+                        .mapToMap()
+                        .list()
+        );
+        assertEquals(rows.size(), 2);
+        assertEquals(((Number) rows.get(0).get("beacon_rate")).intValue(), counted);
+        assertEquals(((Number) rows.get(1).get("beacon_rate")).intValue(), 1);
+        assertEquals(nzyme.getMetrics().meter(MetricNames.BEACON_RATE_WRITER_ROWS).getCount(), 2);
+
+        // Nothing left to retry.
+        writer.execute();
+        assertEquals(nzyme.getMetrics().meter(MetricNames.BEACON_RATE_WRITER_ROWS).getCount(), 3);
+    }
+
+}
@@ -0,0 +1,68 @@
+package horse.wtf.nzyme.periodicals.sigidx;
+
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.MockNzyme;
+import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.dot11.MalformedFrameException;
+import horse.wtf.nzyme.dot11.anonymization.Anonymizer;
+import horse.wtf.nzyme.dot11.parsers.Dot11BeaconFrameParser;
+import horse.wtf.nzyme.dot11.parsers.Frames;
+import horse.wtf.nzyme.util.MetricNames;
+import org.pcap4j.packet.IllegalRawDataException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class SignalIndexHistogramWriterTest {
+
+    @BeforeMethod
+    public void cleanHistory() {
+        NzymeLeader nzyme = new MockNzyme();
+        nzyme.getDatabase().useHandle(handle -> handle.execute("DELETE FROM sigidx_histogram_history"));
+    }
+
+    @Test
+    public void testWritesOneRowPerChannel() throws MalformedFrameException, IllegalRawDataException {
+        NzymeLeader nzyme = new MockNzyme();
+        Dot11BeaconFrameParser parser = new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, ""));
+
+        nzyme.getNetworks().registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER,
+                new Dot11MetaInformation(false, -50, 2400, 1, 0L, false)));
+        nzyme.getNetworks().registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER,
+                new Dot11MetaInformation(false, -60, 2400, 6, 0L, false)));
+        nzyme.getNetworks().registerBeaconFrame(parser.parse(Frames.BEACON_3_PAYLOAD, Frames.BEACON_3_HEADER,
+                new Dot11MetaInformation(false, -70, 2400, 1, 0L, false)));
+
+        new SignalIndexHistogramWriter(nzyme).execute();
+
+        List<Map<String, Object>> rows = nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT bssid, ssid, channel, histogram, created_at FROM sigidx_histogram_history " +
+                                "ORDER BY ssid, channel")
+                        .mapToMap()
+                        .list()
+        );
+
+        assertEquals(rows.size(), 3);
+        assertEquals(rows.get(0).get("ssid"), "United_Wi-Fi");
+        assertEquals(rows.get(0).get("channel"), 1);
+        assertEquals(rows.get(1).get("ssid"), "WTF");
+        assertEquals(rows.get(1).get("channel"), 1);
+        assertEquals(rows.get(2).get("ssid"), "WTF");
+        assertEquals(rows.get(2).get("channel"), 6);
+
+        // One transaction. All rows of a run share the same timestamp.
+        assertEquals(rows.get(0).get("created_at"), rows.get(2).get("created_at"));
+        for (Map<String, Object> row : rows) {
+            assertTrue(((String) row.get("histogram")).startsWith("{"));
+        }
+
+        assertEquals(nzyme.getMetrics().meter(MetricNames.SIGIDX_HISTOGRAM_WRITER_ROWS).getCount(), 3);
+        assertEquals(nzyme.getMetrics().timer(MetricNames.SIGIDX_HISTOGRAM_WRITER_TIMING).getCount(), 1);
+    }
+
+}
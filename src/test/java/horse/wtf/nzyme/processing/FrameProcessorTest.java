@@ -0,0 +1,114 @@
+package horse.wtf.nzyme.processing;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
+import horse.wtf.nzyme.dot11.Dot11FrameSubtype;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.dot11.frames.Dot11DeauthenticationFrame;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class FrameProcessorTest {
+
+    private static final Dot11MetaInformation META = new Dot11MetaInformation(false, -50, 2400, 1, 0L, false);
+
+    @Test
+    public void testUnshardedProcessesOnCallingThread() {
+        FrameProcessor processor = new FrameProcessor();
+        RecordingInterceptor interceptor = new RecordingInterceptor(1);
+        processor.registerDot11Interceptor(interceptor);
+
+        processor.processDot11Frame(frame("00:00:00:00:00:01", 0));
+
+        assertEquals(processor.getShardCount(), 0);
+        assertEquals(interceptor.threads.get("00:00:00:00:00:01"), ImmutableList.of(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void testShardedRoutesTransmitterToOneThreadInOrder() throws InterruptedException {
+        FrameProcessor processor = new FrameProcessor(4);
+        int transmitters = 64;
+        int framesPerTransmitter = 100;
+        RecordingInterceptor interceptor = new RecordingInterceptor(transmitters * framesPerTransmitter);
+        processor.registerDot11Interceptor(interceptor);
+
+        // Several capture threads, like multiple probes.
+        List<Thread> producers = new CopyOnWriteArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            int offset = p;
+            Thread producer = new Thread(() -> {
+                for (int t = offset; t < transmitters; t += 4) {
+                    for (int i = 0; i < framesPerTransmitter; i++) {
+                        processor.processDot11Frame(frame(mac(t), i));
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(interceptor.done.await(10, TimeUnit.SECONDS));
+        assertEquals(interceptor.threads.size(), transmitters);
+
+        for (int t = 0; t < transmitters; t++) {
+            List<String> threads = interceptor.threads.get(mac(t));
+            assertEquals(threads.stream().distinct().count(), 1, mac(t));
+
+            List<Short> sequence = interceptor.sequences.get(mac(t));
+            for (int i = 0; i < framesPerTransmitter; i++) {
+                assertEquals((int) sequence.get(i), i);
+            }
+        }
+    }
+
+    private static String mac(int i) {
+        return String.format("00:00:00:00:%02x:%02x", i / 256, i % 256);
+    }
+
+    private static Dot11DeauthenticationFrame frame(String transmitter, int sequence) {
+        // Reason code is used to carry a sequence number.
+        return Dot11DeauthenticationFrame.create("ff:ff:ff:ff:ff:ff", transmitter, transmitter, (short) sequence, "test", META, new byte[0], new byte[0]);
+    }
+
+    private static class RecordingInterceptor implements Dot11FrameInterceptor<Dot11DeauthenticationFrame> {
+
+        private final ConcurrentMap<String, List<String>> threads = Maps.newConcurrentMap();
+        private final ConcurrentMap<String, List<Short>> sequences = Maps.newConcurrentMap();
+        private final CountDownLatch done;
+
+        private RecordingInterceptor(int expectedFrames) {
+            this.done = new CountDownLatch(expectedFrames);
+        }
+
+        @Override
+        public void intercept(Dot11DeauthenticationFrame frame) {
+            threads.computeIfAbsent(frame.transmitter(), k -> new CopyOnWriteArrayList<>()).add(Thread.currentThread().getName());
+            sequences.computeIfAbsent(frame.transmitter(), k -> new CopyOnWriteArrayList<>()).add(frame.reasonCode());
+            done.countDown();
+        }
+
+        @Override
+        public byte forSubtype() {
+            return Dot11FrameSubtype.DEAUTHENTICATION;
+        }
+
+        @Override
+        public List<Class<? extends Alert>> raisesAlerts() {
+            return ImmutableList.of();
+        }
+
+    }
+
+}
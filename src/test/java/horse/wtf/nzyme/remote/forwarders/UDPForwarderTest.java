@@ -0,0 +1,50 @@
+package horse.wtf.nzyme.remote.forwarders;
+
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.dot11.MalformedFrameException;
+import horse.wtf.nzyme.dot11.anonymization.Anonymizer;
+import horse.wtf.nzyme.dot11.frames.Dot11BeaconFrame;
+import horse.wtf.nzyme.dot11.parsers.Dot11BeaconFrameParser;
+import horse.wtf.nzyme.dot11.parsers.Frames;
+import horse.wtf.nzyme.remote.protobuf.NzymeMessage;
+import org.pcap4j.packet.IllegalRawDataException;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+
+import static org.testng.Assert.*;
+
+public class UDPForwarderTest {
+
+    private static final Dot11MetaInformation META = new Dot11MetaInformation(false, 100, 2400, 1, 0L, false);
+
+    @Test
+    public void testShipsParsedFields() throws MalformedFrameException, IllegalRawDataException {
+        Dot11BeaconFrame beacon = new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, ""))
+                .parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, META);
+
+        NzymeMessage.Dot11Parsed parsed = forwarder(false).buildParsedBuf(beacon);
+
+        assertNotNull(parsed);
+        assertEquals(parsed.getSsid(), "WTF");
+        assertEquals(parsed.getTransmitter(), "00:c0:ca:95:68:3b");
+        assertEquals(parsed.getFingerprint(), beacon.transmitterFingerprint());
+    }
+
+    @Test
+    public void testNoParsedFieldsWhenAnonymized() throws MalformedFrameException, IllegalRawDataException, IOException {
+        Anonymizer anonymizer = new Anonymizer(true, Files.createTempDirectory("nzyme-anon").toString());
+        Dot11BeaconFrame beacon = new Dot11BeaconFrameParser(new MetricRegistry(), anonymizer)
+                .parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, META);
+
+        assertNull(forwarder(true).buildParsedBuf(beacon));
+    }
+
+    private UDPForwarder forwarder(boolean anonymized) {
+        return new UDPForwarder(new InetSocketAddress("127.0.0.1", 9999), "sensor-1", anonymized);
+    }
+
+}
@@ -0,0 +1,167 @@
+package horse.wtf.nzyme.remote.inputs;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.ByteString;
+import horse.wtf.nzyme.MockNzyme;
+import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.dot11.Dot11FrameInterceptor;
+import horse.wtf.nzyme.dot11.Dot11FrameSubtype;
+import horse.wtf.nzyme.dot11.frames.Dot11BeaconFrame;
+import horse.wtf.nzyme.dot11.parsers.Frames;
+import horse.wtf.nzyme.remote.protobuf.NzymeMessage;
+import horse.wtf.nzyme.util.MetricNames;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.annotations.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.*;
+
+public class RemoteFrameInputTest {
+
+    private static final Logger LOG = LogManager.getLogger(RemoteFrameInputTest.class);
+
+    @Test
+    public void testSustainedThroughput() throws Exception {
+        NzymeLeader nzyme = new MockNzyme();
+        AtomicLong beacons = countBeacons(nzyme);
+
+        InetSocketAddress address = freeAddress();
+        RemoteFrameInput input = new RemoteFrameInput(nzyme, address, RemoteFrameInput.DEFAULT_RECEIVE_BUFFER_SIZE, 2, ImmutableSet.of());
+        startInput(input);
+
+        byte[] sensorA = beaconMessage("sensor-a");
+        byte[] sensorB = beaconMessage("sensor-b");
+
+        int count = 50_000;
+        long start = System.nanoTime();
+        try (DatagramSocket blaster = new DatagramSocket()) {
+            DatagramPacket a = new DatagramPacket(sensorA, sensorA.length, address);
+            DatagramPacket b = new DatagramPacket(sensorB, sensorB.length, address);
+            for (int i = 0; i < count; i++) {
+                blaster.send(i % 2 == 0 ? a : b);
+            }
+        }
+
+        // Wait until the input settled.
+        long before;
+        do {
+            before = beacons.get();
+            Thread.sleep(250);
+        } while (beacons.get() != before);
+        long elapsed = System.nanoTime() - start;
+
+        long received = nzyme.getMetrics().meter(MetricNames.REMOTE_FRAMES_RECEIVED).getCount();
+        long dropped = nzyme.getMetrics().meter(MetricNames.REMOTE_FRAMES_DROPPED).getCount();
+
+        assertTrue(beacons.get() > 0);
+        assertEquals(beacons.get(), received);
+        assertTrue(received + dropped <= count);
+
+        Map<String, Double> rates = input.getSourceRates();
+        assertEquals(rates.keySet().size(), 2);
+        assertTrue(rates.containsKey("sensor-a"));
+        assertTrue(rates.containsKey("sensor-b"));
+
+        LOG.info("Processed <{}> of <{}> blasted remote frames (<{}> dropped in input, <{}> lost in kernel) at " +
+                        "<{}> frames/sec. Mean decode time <{}us>.",
+                received, count, dropped, count - received - dropped,
+                received * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                Math.round(nzyme.getMetrics().timer(MetricNames.REMOTE_FRAMES_DECODE_TIMING).getSnapshot().getMean() / 1000));
+    }
+
+    @Test
+    public void testInvalidDatagramsAreSkipped() throws Exception {
+        NzymeLeader nzyme = new MockNzyme();
+        AtomicLong beacons = countBeacons(nzyme);
+
+        InetSocketAddress address = freeAddress();
+        startInput(new RemoteFrameInput(nzyme, address, RemoteFrameInput.DEFAULT_RECEIVE_BUFFER_SIZE, 1, ImmutableSet.of()));
+
+        byte[] valid = beaconMessage("sensor-a");
+        byte[] garbage = new byte[]{0x0a, 0x7f, 0x01, 0x02};
+        try (DatagramSocket blaster = new DatagramSocket()) {
+            blaster.send(new DatagramPacket(garbage, garbage.length, address));
+            blaster.send(new DatagramPacket(valid, valid.length, address));
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (beacons.get() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(beacons.get(), 1);
+    }
+
+    private AtomicLong countBeacons(NzymeLeader nzyme) {
+        AtomicLong beacons = new AtomicLong(0);
+        nzyme.getFrameProcessor().registerDot11Interceptor(new Dot11FrameInterceptor<Dot11BeaconFrame>() {
+            @Override
+            public void intercept(Dot11BeaconFrame frame) {
+                beacons.incrementAndGet();
+            }
+
+            @Override
+            public byte forSubtype() {
+                return Dot11FrameSubtype.BEACON;
+            }
+
+            @Override
+            public List<Class<? extends Alert>> raisesAlerts() {
+                return ImmutableList.of();
+            }
+        });
+
+        return beacons;
+    }
+
+    private void startInput(RemoteFrameInput input) throws InterruptedException {
+        Thread thread = new Thread(input.run());
+        thread.setDaemon(true);
+        thread.start();
+
+        // Give the input a moment to bind its socket.
+        Thread.sleep(250);
+    }
+
+    private InetSocketAddress freeAddress() throws Exception {
+        try (DatagramSocket probe = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), probe.getLocalPort());
+        }
+    }
+
+    private byte[] beaconMessage(String source) {
+        return NzymeMessage.Message.newBuilder()
+                .setMessageType("frame")
+                .setFrame(NzymeMessage.Frame.newBuilder()
+                        .setFrameType("802.11")
+                        .setDot11Frame(NzymeMessage.Dot11Frame.newBuilder()
+                                .setRecordedAt(System.currentTimeMillis())
+                                .setSource(source)
+                                .setFrameType("horse.wtf.nzyme.dot11.frames.AutoValue_Dot11BeaconFrame")
+                                .setFrameHeader(ByteString.copyFrom(Frames.BEACON_1_HEADER))
+                                .setFramePayload(ByteString.copyFrom(Frames.BEACON_1_PAYLOAD))
+                                .setFrameMeta(NzymeMessage.FrameMeta.newBuilder()
+                                        .setAntennaSignal(-50)
+                                        .setSignalQuality(100)
+                                        .setFrequency(2412)
+                                        .setChannel(1)
+                                        .setMacTimestamp(0)
+                                        .build())
+                                .build())
+                        .build())
+                .build()
+                .toByteArray();
+    }
+
+}
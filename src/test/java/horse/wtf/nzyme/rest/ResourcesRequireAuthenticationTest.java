@@ -24,6 +24,7 @@ import horse.wtf.nzyme.rest.authentication.Secured;
 import horse.wtf.nzyme.rest.resources.PingResource;
 import horse.wtf.nzyme.rest.resources.assets.WebInterfaceAssetsResource;
 import horse.wtf.nzyme.rest.resources.authentication.AuthenticationResource;
+import horse.wtf.nzyme.rest.resources.system.PrometheusMetricsResource;
 import org.reflections.Reflections;
 import org.reflections.scanners.SubTypesScanner;
 import org.reflections.scanners.TypeAnnotationsScanner;
@@ -44,7 +45,8 @@ public class ResourcesRequireAuthenticationTest {
             PingResource.class,
             AuthenticationResource.class,
             TrackerWebHIDAssetsResource.class,
-            TrackerWebHIDResource.class
+            TrackerWebHIDResource.class,
+            PrometheusMetricsResource.class // Opt-in. Scrapers don't authenticate.
     );
 
     @Test
@@ -0,0 +1,234 @@
+package horse.wtf.nzyme.rest.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import horse.wtf.nzyme.NzymeLeader;
+import horse.wtf.nzyme.alerts.Alert;
+import horse.wtf.nzyme.alerts.service.AlertsService;
+import horse.wtf.nzyme.dot11.Dot11MetaInformation;
+import horse.wtf.nzyme.dot11.MalformedFrameException;
+import horse.wtf.nzyme.dot11.anonymization.Anonymizer;
+import horse.wtf.nzyme.dot11.networks.Networks;
+import horse.wtf.nzyme.dot11.parsers.Dot11BeaconFrameParser;
+import horse.wtf.nzyme.dot11.parsers.Frames;
+import horse.wtf.nzyme.ouis.OUIManager;
+import horse.wtf.nzyme.rest.EntityTags;
+import horse.wtf.nzyme.rest.ObjectMapperProvider;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.test.JerseyTestNg;
+import org.pcap4j.packet.IllegalRawDataException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class ConditionalGetTest extends JerseyTestNg.ContainerPerClassTest {
+
+    private static final Dot11MetaInformation META = new Dot11MetaInformation(false, -50, 2400, 1, 0L, false);
+
+    // Fixed time so that no request pair in a test can straddle two time buckets.
+    private static final long NOW = 1600000000000L;
+
+    private MetricRegistry metrics;
+    private Networks networks;
+    private OUIManager ouiManager;
+    private CountingAlertsService alerts;
+
+    @Override
+    protected Application configure() {
+        metrics = new MetricRegistry();
+
+        // Only the parts of the leader that are required by the tested resources. No database.
+        NzymeLeader nzyme = (NzymeLeader) Proxy.newProxyInstance(
+                NzymeLeader.class.getClassLoader(),
+                new Class[]{NzymeLeader.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetrics":
+                            return metrics;
+                        case "getNetworks":
+                            return networks;
+                        case "getAlertsService":
+                            return alerts;
+                        case "getOUIManager":
+                            return ouiManager;
+                        case "getIgnoredFingerprints":
+                            return Collections.emptyList();
+                        default:
+                            return null;
+                    }
+                }
+        );
+
+        networks = new Networks(nzyme);
+        ouiManager = new OUIManager(nzyme);
+        alerts = new CountingAlertsService(nzyme);
+
+        ResourceConfig config = new ResourceConfig();
+        config.register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(nzyme).to(NzymeLeader.class);
+            }
+        });
+        config.register(new ObjectMapperProvider());
+        config.register(new JacksonJaxbJsonProvider());
+        config.register(NetworksResource.class);
+        config.register(AlertsResource.class);
+
+        return config;
+    }
+
+    @BeforeMethod
+    public void fixClock() {
+        EntityTags.setClock(() -> NOW);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void resetClock() {
+        EntityTags.resetClock();
+    }
+
+    @Test
+    public void testBSSIDsNotModified() {
+        Response first = target("/api/networks/bssids").request().get();
+        assertEquals(first.getStatus(), 200);
+        EntityTag etag = first.getEntityTag();
+        assertNotNull(etag);
+
+        Response second = target("/api/networks/bssids").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get();
+        assertEquals(second.getStatus(), 304);
+        assertFalse(second.hasEntity());
+    }
+
+    @Test
+    public void testBSSIDsModifiedAfterChange() {
+        Response first = target("/api/networks/bssids").request().get();
+        EntityTag etag = first.getEntityTag();
+
+        networks.reset();
+
+        Response second = target("/api/networks/bssids").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get();
+        assertEquals(second.getStatus(), 200);
+        assertNotEquals(second.getEntityTag(), etag);
+    }
+
+    @Test
+    public void testBSSIDsNotModifiedWhileFramesArrive() throws MalformedFrameException, IllegalRawDataException {
+        Dot11BeaconFrameParser parser = new Dot11BeaconFrameParser(new MetricRegistry(), new Anonymizer(false, ""));
+        networks.registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, META));
+
+        Response first = target("/api/networks/bssids").request().get();
+        EntityTag etag = first.getEntityTag();
+
+        // More frames of a known network only change per-frame values like signal strength and frame counts.
+        for (int i = 0; i < 10; i++) {
+            networks.registerBeaconFrame(parser.parse(Frames.BEACON_1_PAYLOAD, Frames.BEACON_1_HEADER, META));
+        }
+
+        Response second = target("/api/networks/bssids").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get();
+
+        assertEquals(second.getStatus(), 304);
+        assertFalse(second.hasEntity());
+        assertEquals(target("/api/networks/bssids").request().get().getEntityTag(), etag);
+
+        // A new network is a structural change.
+        EntityTag current = target("/api/networks/bssids").request().get().getEntityTag();
+        networks.registerBeaconFrame(parser.parse(Frames.BEACON_3_PAYLOAD, Frames.BEACON_3_HEADER, META));
+
+        Response third = target("/api/networks/bssids").request()
+                .header(HttpHeaders.IF_NONE_MATCH, current)
+                .get();
+        assertEquals(third.getStatus(), 200);
+    }
+
+    @Test
+    public void testAlertsNotModifiedSkipsQueries() {
+        Response first = target("/api/alerts").queryParam("page", 0).request().get();
+        assertEquals(first.getStatus(), 200);
+        EntityTag etag = first.getEntityTag();
+        assertNotNull(etag);
+
+        int queries = alerts.queries.get();
+
+        Response second = target("/api/alerts").queryParam("page", 0).request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get();
+
+        assertEquals(second.getStatus(), 304);
+        assertEquals(alerts.queries.get(), queries);
+    }
+
+    @Test
+    public void testTagChangesWithTimeBucket() {
+        Response first = target("/api/networks/bssids").request().get();
+        EntityTag etag = first.getEntityTag();
+
+        EntityTags.setClock(() -> NOW + TimeUnit.SECONDS.toMillis(NetworksResource.FRAME_VALUES_BUCKET_SECONDS));
+
+        Response second = target("/api/networks/bssids").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get();
+        assertEquals(second.getStatus(), 200);
+        assertNotEquals(second.getEntityTag(), etag);
+    }
+
+    @Test
+    public void testAlertsTagDependsOnPage() {
+        Response first = target("/api/alerts").queryParam("page", 0).request().get();
+        EntityTag etag = first.getEntityTag();
+
+        Response second = target("/api/alerts").queryParam("page", 1).request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get();
+        assertEquals(second.getStatus(), 200);
+    }
+
+    private static class CountingAlertsService extends AlertsService {
+
+        private final AtomicInteger queries = new AtomicInteger(0);
+
+        public CountingAlertsService(NzymeLeader nzyme) {
+            super(nzyme);
+        }
+
+        @Override
+        public Map<UUID, Alert> findAllAlerts(int limit, int offset) {
+            queries.incrementAndGet();
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<UUID, Alert> findActiveAlerts() {
+            queries.incrementAndGet();
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public long countAllAlerts() {
+            queries.incrementAndGet();
+            return 0;
+        }
+
+    }
+
+}
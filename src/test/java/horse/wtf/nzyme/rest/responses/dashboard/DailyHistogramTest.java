@@ -0,0 +1,81 @@
+package horse.wtf.nzyme.rest.responses.dashboard;
+
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.testng.Assert.*;
+
+public class DailyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        Map<String, Long> histogram = new DailyHistogram().toMap();
+
+        assertEquals(histogram.size(), 24*60-1);
+        for (Long value : histogram.values()) {
+            assertEquals((long) value, 0L);
+        }
+    }
+
+    @Test
+    public void testMatchesTreeMapHistogram() {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            DateTime now = DateTime.now();
+            List<DateTime> timestamps = Lists.newArrayList(
+                    now,                                  // current minute, outside of skeleton
+                    now.minusSeconds(30),
+                    now.minusMinutes(5),
+                    now.minusMinutes(5).plusSeconds(1),   // same minute, overwrites
+                    now.minusMinutes(90).withZone(DateTimeZone.forOffsetHours(2)),
+                    now.minusMinutes(24*60),              // edge of the day
+                    now.minusDays(2),                     // outlier
+                    now.plusMinutes(3)                    // outlier
+            );
+
+            Map<String, Long> expected = buildTreeMapHistogram(timestamps);
+            Map<String, Long> actual = buildDailyHistogram(timestamps);
+
+            // Retry if the minute rolled over in between.
+            if (DateTime.now().getMinuteOfDay() != now.getMinuteOfDay()) {
+                continue;
+            }
+
+            assertEquals(actual, expected);
+            assertEquals(Lists.newArrayList(actual.keySet()), Lists.newArrayList(expected.keySet()));
+            return;
+        }
+
+        fail("Minute rolled over in every attempt.");
+    }
+
+    private static Map<String, Long> buildDailyHistogram(List<DateTime> timestamps) {
+        DailyHistogram histogram = new DailyHistogram();
+        long value = 1;
+        for (DateTime timestamp : timestamps) {
+            histogram.put(timestamp, value++);
+        }
+        return histogram.toMap();
+    }
+
+    // Previous implementation in DashboardResource.
+    private static Map<String, Long> buildTreeMapHistogram(List<DateTime> timestamps) {
+        Map<String, Long> histo = new TreeMap<>();
+        for (int i = 1; i < 24*60; i++) {
+            histo.put(DateTime.now(DateTimeZone.UTC).minusMinutes(i).withSecondOfMinute(0).withMillisOfSecond(0).toString(), 0L);
+        }
+
+        long value = 1;
+        for (DateTime timestamp : timestamps) {
+            histo.put(timestamp.withZone(DateTimeZone.UTC).withSecondOfMinute(0).withMillisOfSecond(0).toString(), value++);
+        }
+
+        return histo;
+    }
+
+}
@@ -0,0 +1,169 @@
+package horse.wtf.nzyme.rest.streaming;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import horse.wtf.nzyme.util.MetricNames;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class LiveUpdatesTest {
+
+    @Test
+    public void testStateIsLoadedOncePerTickForAllSubscribers() throws Exception {
+        CountingSource source = new CountingSource();
+        LiveUpdates liveUpdates = new LiveUpdates(new MetricRegistry(), ImmutableList.of(source), 1);
+
+        List<RecordingSink> sinks = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            RecordingSink sink = new RecordingSink();
+            sinks.add(sink);
+            liveUpdates.subscribe(sink);
+        }
+
+        // Catch-up of the first subscriber only.
+        assertEquals(source.loads.get(), 1);
+
+        source.value = "changed";
+        liveUpdates.tick();
+        assertEquals(source.loads.get(), 2);
+
+        // Nothing changed. Not loaded again.
+        liveUpdates.tick();
+        assertEquals(source.loads.get(), 2);
+
+        for (RecordingSink sink : sinks) {
+            sink.await(2);
+            assertEquals(sink.events.size(), 2);
+            assertTrue(((String) sink.events.get(0).getData()).contains("initial"));
+            assertTrue(((String) sink.events.get(1).getData()).contains("changed"));
+        }
+
+        // Serialized once and shared.
+        assertSame(sinks.get(0).events.get(1), sinks.get(99).events.get(1));
+    }
+
+    @Test
+    public void testNothingIsLoadedWithoutSubscribers() {
+        CountingSource source = new CountingSource();
+        LiveUpdates liveUpdates = new LiveUpdates(new MetricRegistry(), ImmutableList.of(source), 1);
+
+        source.value = "changed";
+        liveUpdates.tick();
+
+        assertEquals(source.loads.get(), 0);
+    }
+
+    @Test
+    public void testSlowSubscriberIsDropped() throws Exception {
+        CountingSource source = new CountingSource();
+        MetricRegistry metrics = new MetricRegistry();
+        LiveUpdates liveUpdates = new LiveUpdates(metrics, ImmutableList.of(source), 1);
+
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingSink slow = new BlockingSink(release);
+        RecordingSink fast = new RecordingSink();
+        liveUpdates.subscribe(slow);
+        liveUpdates.subscribe(fast);
+
+        int ticks = LiveUpdatesSubscriber.MAX_QUEUED_EVENTS + 5;
+        for (int i = 0; i < ticks; i++) {
+            source.value = "v" + i;
+            liveUpdates.tick();
+            fast.await(i + 2);
+        }
+
+        assertEquals(liveUpdates.getSubscriberCount(), 1);
+        assertEquals(metrics.counter(MetricNames.LIVE_UPDATES_DROPPED_SUBSCRIBERS).getCount(), 1);
+        assertTrue(slow.isClosed());
+        assertEquals(fast.events.size(), ticks + 1);
+
+        release.countDown();
+    }
+
+    private static class CountingSource extends LiveUpdateSource<String, String> {
+
+        private final AtomicInteger loads = new AtomicInteger(0);
+        private volatile String value = "initial";
+
+        @Override
+        public String eventName() {
+            return "test";
+        }
+
+        @Override
+        protected Object version() {
+            return value;
+        }
+
+        @Override
+        protected Map<String, String> load() {
+            loads.incrementAndGet();
+            return ImmutableMap.of("key", value);
+        }
+
+    }
+
+    private static class RecordingSink implements SseEventSink {
+
+        private final List<OutboundSseEvent> events = new CopyOnWriteArrayList<>();
+        private volatile boolean closed = false;
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            events.add(event);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+    }
+
+    private static class BlockingSink extends RecordingSink {
+
+        private final CountDownLatch release;
+
+        private BlockingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.send(event);
+        }
+
+    }
+
+}
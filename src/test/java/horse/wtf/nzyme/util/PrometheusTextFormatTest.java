@@ -0,0 +1,90 @@
+package horse.wtf.nzyme.util;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import horse.wtf.nzyme.dot11.Dot11TaggedParameters;
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class PrometheusTextFormatTest {
+
+    private String render(MetricRegistry registry) throws Exception {
+        StringWriter out = new StringWriter();
+        PrometheusTextFormat.write(registry, out);
+        return out.toString();
+    }
+
+    @Test
+    public void testGaugesAndCounters() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        registry.register("mem.heap.used", (Gauge<Long>) () -> 1024L);
+        registry.register("mem.heap.usage", (Gauge<Double>) () -> 0.25);
+        registry.register("some.flag", (Gauge<Boolean>) () -> true);
+        registry.register("some.string", (Gauge<String>) () -> "foo");
+        registry.counter("dropped").inc(3);
+
+        String result = render(registry);
+
+        assertTrue(result.contains("# TYPE nzyme_mem_heap_used gauge\nnzyme_mem_heap_used 1024\n"));
+        assertTrue(result.contains("nzyme_mem_heap_usage 0.25\n"));
+        assertTrue(result.contains("nzyme_some_flag 1\n"));
+        assertTrue(result.contains("# TYPE nzyme_dropped gauge\nnzyme_dropped 3\n"));
+        assertFalse(result.contains("some_string"));
+    }
+
+    @Test
+    public void testMeter() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        registry.meter(MetricNames.FRAME_COUNT).mark(5);
+
+        String result = render(registry);
+
+        assertTrue(result.contains("# HELP nzyme_horse_wtf_nzyme_dot11_probes_Dot11MonitorProbe_frames_total horse.wtf.nzyme.dot11.probes.Dot11MonitorProbe.frames\n"));
+        assertTrue(result.contains("# TYPE nzyme_horse_wtf_nzyme_dot11_probes_Dot11MonitorProbe_frames_total counter\n"));
+        assertTrue(result.contains("nzyme_horse_wtf_nzyme_dot11_probes_Dot11MonitorProbe_frames_total 5\n"));
+    }
+
+    @Test
+    public void testTimerInSeconds() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        registry.timer(MetricNames.TAGGED_PARAMS_PARSE_TIMING).update(500, TimeUnit.MILLISECONDS);
+
+        String result = render(registry);
+        String name = "nzyme_" + MetricRegistry.name(Dot11TaggedParameters.class, "parse-timing").replaceAll("[^a-zA-Z0-9_:]", "_");
+
+        assertTrue(result.contains("# TYPE " + name + " summary\n"));
+        assertTrue(result.contains(name + "{quantile=\"0.5\"} 0.5\n"));
+        assertTrue(result.contains(name + "{quantile=\"0.999\"} 0.5\n"));
+        assertTrue(result.contains(name + "_count 1\n"));
+    }
+
+    @Test
+    public void testHistogram() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        registry.histogram("sizes").update(10);
+        registry.histogram("sizes").update(10);
+
+        String result = render(registry);
+
+        assertTrue(result.contains("# TYPE nzyme_sizes summary\n"));
+        assertTrue(result.contains("nzyme_sizes{quantile=\"0.99\"} 10\n"));
+        assertTrue(result.contains("nzyme_sizes_count 2\n"));
+    }
+
+    @Test
+    public void testBrokenGaugeIsSkipped() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        registry.register("broken", (Gauge<Long>) () -> { throw new IllegalStateException(); });
+        registry.register("fine", (Gauge<Long>) () -> 1L);
+
+        String result = render(registry);
+
+        assertFalse(result.contains("broken"));
+        assertTrue(result.contains("nzyme_fine 1\n"));
+    }
+
+}